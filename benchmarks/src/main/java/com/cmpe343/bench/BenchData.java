@@ -0,0 +1,104 @@
+package com.cmpe343.bench;
+
+import com.cmpe343.dao.OrderDao;
+import com.cmpe343.dao.ProductDao;
+import com.cmpe343.db.Db;
+import com.cmpe343.model.Order;
+import com.cmpe343.model.Product;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Ids and rows the benchmarks pick from, read once per fork from the seeded database.
+ */
+@State(Scope.Benchmark)
+public class BenchData {
+
+    private static final int INVOICE_ORDERS = 100;
+
+    /** Customers with a seeded cart, for the cart read; nothing writes to their carts. */
+    int[] cartOwners;
+    /** Customers without a seeded cart, for adds and orders. */
+    int[] shoppers;
+    List<Product> products;
+    String[] couponCodes;
+    List<Order> deliveredOrders;
+
+    @Setup(Level.Trial)
+    public void load() throws SQLException {
+        try (Connection c = Db.getConnection()) {
+            cartOwners = ints(c, "SELECT DISTINCT user_id FROM cart_items ORDER BY user_id");
+            shoppers = ints(c, """
+                    SELECT u.id FROM users u
+                    WHERE u.role = 'customer' AND NOT EXISTS (SELECT 1 FROM cart_items ci WHERE ci.user_id = u.id)
+                    """);
+            couponCodes = strings(c, "SELECT code FROM coupons WHERE code LIKE '" + DataGenerator.COUPON_PREFIX + "%'");
+        }
+        if (cartOwners.length == 0 || shoppers.length == 0 || couponCodes.length == 0) {
+            throw new IllegalStateException("The benchmark database is not seeded; run without -Dbench.reuse=true once");
+        }
+        products = new ProductDao().findAll();
+
+        OrderDao orderDao = new OrderDao();
+        deliveredOrders = new ArrayList<>();
+        for (int i = 0; i < shoppers.length && deliveredOrders.size() < INVOICE_ORDERS; i++) {
+            for (Order o : orderDao.getOrdersForCustomer(shoppers[i])) {
+                if (o.getStatus() == Order.OrderStatus.DELIVERED && o.getItems() != null && !o.getItems().isEmpty()) {
+                    deliveredOrders.add(o);
+                }
+            }
+        }
+    }
+
+    int cartOwner() {
+        return cartOwners[ThreadLocalRandom.current().nextInt(cartOwners.length)];
+    }
+
+    int shopper() {
+        return shoppers[ThreadLocalRandom.current().nextInt(shoppers.length)];
+    }
+
+    Product product() {
+        return products.get(ThreadLocalRandom.current().nextInt(products.size()));
+    }
+
+    String couponCode() {
+        return couponCodes[ThreadLocalRandom.current().nextInt(couponCodes.length)];
+    }
+
+    Order deliveredOrder() {
+        return deliveredOrders.get(ThreadLocalRandom.current().nextInt(deliveredOrders.size()));
+    }
+
+    private static int[] ints(Connection c, String sql) throws SQLException {
+        List<Integer> values = new ArrayList<>();
+        try (PreparedStatement ps = c.prepareStatement(sql);
+                ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                values.add(rs.getInt(1));
+            }
+        }
+        return values.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private static String[] strings(Connection c, String sql) throws SQLException {
+        List<String> values = new ArrayList<>();
+        try (PreparedStatement ps = c.prepareStatement(sql);
+                ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                values.add(rs.getString(1));
+            }
+        }
+        return values.toArray(new String[0]);
+    }
+}
@@ -0,0 +1,171 @@
+package com.cmpe343.bench;
+
+import com.cmpe343.db.Db;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.utility.DockerImageName;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The MySQL database the benchmarks run against.
+ * <p>
+ * With {@code -Dbench.db.url} (plus {@code bench.db.user} / {@code bench.db.password}) an existing
+ * server is used; otherwise a throwaway {@code mysql:8.0} container is started with
+ * Testcontainers (override the image with {@code -Dbench.mysql.image}). Resetting drops every
+ * table in the target database, so it refuses to touch {@code greengrocer_db} unless
+ * {@code -Dbench.db.allowReset=true}.
+ */
+final class BenchDatabase implements AutoCloseable {
+
+    private final String url;
+    private final String user;
+    private final String password;
+    private final MySQLContainer<?> container;
+
+    private BenchDatabase(String url, String user, String password, MySQLContainer<?> container) {
+        this.url = url;
+        this.user = user;
+        this.password = password;
+        this.container = container;
+    }
+
+    static BenchDatabase start() {
+        String url = System.getProperty("bench.db.url");
+        if (url != null && !url.isBlank()) {
+            return new BenchDatabase(url, System.getProperty("bench.db.user", "root"),
+                    System.getProperty("bench.db.password", ""), null);
+        }
+        MySQLContainer<?> container = new MySQLContainer<>(
+                DockerImageName.parse(System.getProperty("bench.mysql.image", "mysql:8.0")).asCompatibleSubstituteFor("mysql"))
+                .withDatabaseName("greengrocer_bench")
+                .withUrlParam("rewriteBatchedStatements", "true")
+                .withUrlParam("serverTimezone", "UTC")
+                // Lets DataGenerator use LOAD DATA LOCAL INFILE
+                .withCommand("--local-infile=1");
+        System.out.println("[bench] starting " + container.getDockerImageName());
+        container.start();
+        return new BenchDatabase(container.getJdbcUrl(), container.getUsername(), container.getPassword(), container);
+    }
+
+    /**
+     * @return JVM options that point {@link Db} at this database, for the forked benchmark JVMs
+     */
+    List<String> jvmArgs() {
+        return List.of("-Ddb.url=" + url, "-Ddb.user=" + user, "-Ddb.password=" + password);
+    }
+
+    /**
+     * Points {@link Db} in this JVM at this database, for code that calls the DAOs directly.
+     */
+    void useInThisJvm() {
+        for (String arg : jvmArgs()) {
+            String[] kv = arg.substring(2).split("=", 2);
+            System.setProperty(kv[0], kv[1]);
+        }
+    }
+
+    /**
+     * Recreates the schema from greengrocer_db.sql, applies the migrations and generates
+     * data on top of the sample data.
+     */
+    void reset(DataGenerator.Config config) throws Exception {
+        long start = System.nanoTime();
+        try (Connection c = DriverManager.getConnection(url, user, password);
+                Statement s = c.createStatement()) {
+            String catalog = c.getCatalog();
+            if ("greengrocer_db".equalsIgnoreCase(catalog) && !Boolean.getBoolean("bench.db.allowReset")) {
+                throw new IllegalStateException("Refusing to reset greengrocer_db; point -Dbench.db.url at a scratch database");
+            }
+            s.execute("SET FOREIGN_KEY_CHECKS = 0");
+            List<String> tables = new ArrayList<>();
+            try (ResultSet rs = s.executeQuery("SHOW TABLES")) {
+                while (rs.next()) {
+                    tables.add(rs.getString(1));
+                }
+            }
+            for (String table : tables) {
+                s.execute("DROP TABLE IF EXISTS `" + table + "`");
+            }
+            s.execute("SET FOREIGN_KEY_CHECKS = 1");
+
+            for (String sql : splitScript(readSchema())) {
+                String head = sql.toUpperCase();
+                // The script creates and switches to greengrocer_db; stay in the bench database
+                if (head.startsWith("DROP DATABASE") || head.startsWith("CREATE DATABASE") || head.startsWith("USE ")) {
+                    continue;
+                }
+                s.execute(sql);
+            }
+        }
+
+        useInThisJvm();
+        // The first connection runs the schema migrations
+        Db.getConnection().close();
+        new DataGenerator(url, user, password, config).generate();
+        System.out.printf("[bench] database ready in %d ms%n", (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private static String readSchema() throws IOException {
+        try (InputStream in = BenchDatabase.class.getResourceAsStream("/greengrocer_db.sql")) {
+            if (in == null) {
+                throw new IOException("greengrocer_db.sql is not on the classpath");
+            }
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * Splits a SQL script on semicolons outside string literals and drops {@code --} comments.
+     */
+    static List<String> splitScript(String script) {
+        List<String> statements = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean inString = false;
+        for (int i = 0; i < script.length(); i++) {
+            char ch = script.charAt(i);
+            if (inString) {
+                current.append(ch);
+                if (ch == '\\' && i + 1 < script.length()) {
+                    current.append(script.charAt(++i));
+                } else if (ch == '\'') {
+                    inString = false;
+                }
+            } else if (ch == '-' && script.startsWith("--", i)) {
+                int eol = script.indexOf('\n', i);
+                i = eol < 0 ? script.length() : eol;
+                current.append('\n');
+            } else if (ch == ';') {
+                String sql = current.toString().strip();
+                if (!sql.isEmpty()) {
+                    statements.add(sql);
+                }
+                current.setLength(0);
+            } else {
+                if (ch == '\'') {
+                    inString = true;
+                }
+                current.append(ch);
+            }
+        }
+        String rest = current.toString().strip();
+        if (!rest.isEmpty()) {
+            statements.add(rest);
+        }
+        return statements;
+    }
+
+    @Override
+    public void close() {
+        if (container != null) {
+            container.stop();
+        }
+    }
+}
@@ -0,0 +1,244 @@
+package com.cmpe343.bench;
+
+import com.mysql.cj.jdbc.JdbcStatement;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Streams generated rows into one table on its own connection.
+ * <p>
+ * Rows are collected in chunks and written by a background thread while the generator keeps
+ * producing, with at most two chunks in flight. A chunk goes in as one
+ * {@code LOAD DATA LOCAL INFILE} fed from memory when the server allows it
+ * ({@code local_infile=ON}), otherwise as multi-row {@code INSERT}s of
+ * {@value #ROWS_PER_INSERT} rows in one transaction. Foreign key and unique checks are off
+ * on the loader's connection, since the generator produces consistent data.
+ */
+final class BulkLoader implements AutoCloseable {
+
+    enum Mode { LOAD_DATA, INSERT }
+
+    private static final int CHUNK_ROWS = 50_000;
+    private static final int ROWS_PER_INSERT = 1_000;
+    private static final DateTimeFormatter DATETIME = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    // Client refused the local file (2068), server has local_infile off (3948, 1148 before 8.0)
+    private static final List<Integer> LOCAL_INFILE_DISABLED = List.of(2068, 3948, 1148);
+
+    private final String table;
+    private final String columns;
+    private final Connection connection;
+    private final ExecutorService writer;
+    private final Semaphore inFlight = new Semaphore(2);
+    private volatile Mode mode;
+    private volatile Exception failure;
+    private List<Object[]> chunk = new ArrayList<>(CHUNK_ROWS);
+    private long rows;
+
+    BulkLoader(String url, String user, String password, Mode mode, String table, String... columns) throws SQLException {
+        this.table = table;
+        this.columns = String.join(", ", columns);
+        this.mode = mode;
+        Properties props = new Properties();
+        props.setProperty("user", user);
+        props.setProperty("password", password);
+        props.setProperty("allowLoadLocalInfile", "true");
+        this.connection = DriverManager.getConnection(url, props);
+        try (Statement s = connection.createStatement()) {
+            s.execute("SET foreign_key_checks = 0, unique_checks = 0");
+        }
+        this.writer = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "bulk-" + table);
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * @return LOAD_DATA if the server accepts {@code LOAD DATA LOCAL INFILE}, otherwise INSERT
+     */
+    static Mode detect(Connection c) throws SQLException {
+        try (Statement s = c.createStatement();
+                var rs = s.executeQuery("SELECT @@GLOBAL.local_infile")) {
+            return rs.next() && rs.getInt(1) == 1 ? Mode.LOAD_DATA : Mode.INSERT;
+        }
+    }
+
+    /**
+     * Adds a row; values are null, numbers, strings or {@link LocalDateTime}s in column order.
+     */
+    void row(Object... values) throws Exception {
+        chunk.add(values);
+        rows++;
+        if (chunk.size() == CHUNK_ROWS) {
+            submit();
+        }
+    }
+
+    long rows() {
+        return rows;
+    }
+
+    private void submit() throws Exception {
+        throwIfFailed();
+        List<Object[]> full = chunk;
+        chunk = new ArrayList<>(CHUNK_ROWS);
+        inFlight.acquire();
+        writer.execute(() -> {
+            try {
+                if (failure == null) {
+                    write(full);
+                }
+            } catch (Exception e) {
+                failure = e;
+            } finally {
+                inFlight.release();
+            }
+        });
+    }
+
+    private void write(List<Object[]> rows) throws SQLException {
+        if (mode == Mode.LOAD_DATA) {
+            try {
+                loadData(rows);
+                return;
+            } catch (SQLException e) {
+                if (!LOCAL_INFILE_DISABLED.contains(e.getErrorCode())) {
+                    throw e;
+                }
+                System.err.println("[bench] LOAD DATA LOCAL INFILE refused for " + table + " (" + e.getMessage()
+                        + "), falling back to multi-row INSERTs");
+                mode = Mode.INSERT;
+            }
+        }
+        insert(rows);
+    }
+
+    private void loadData(List<Object[]> rows) throws SQLException {
+        ByteArrayOutputStream tsv = new ByteArrayOutputStream(rows.size() * 64);
+        StringBuilder line = new StringBuilder(256);
+        for (Object[] row : rows) {
+            line.setLength(0);
+            for (int i = 0; i < row.length; i++) {
+                if (i > 0) {
+                    line.append('\t');
+                }
+                appendTsv(line, row[i]);
+            }
+            line.append('\n');
+            tsv.writeBytes(line.toString().getBytes(StandardCharsets.UTF_8));
+        }
+        try (Statement s = connection.createStatement()) {
+            // The file name is ignored; the driver sends the stream instead
+            s.unwrap(JdbcStatement.class).setLocalInfileInputStream(new ByteArrayInputStream(tsv.toByteArray()));
+            s.execute("LOAD DATA LOCAL INFILE '" + table + ".tsv' INTO TABLE " + table
+                    + " CHARACTER SET utf8mb4 (" + columns + ")");
+        }
+    }
+
+    private void insert(List<Object[]> rows) throws SQLException {
+        connection.setAutoCommit(false);
+        try (Statement s = connection.createStatement()) {
+            StringBuilder sql = new StringBuilder(ROWS_PER_INSERT * 96);
+            for (int from = 0; from < rows.size(); from += ROWS_PER_INSERT) {
+                sql.setLength(0);
+                sql.append("INSERT INTO ").append(table).append(" (").append(columns).append(") VALUES ");
+                for (int r = from; r < Math.min(from + ROWS_PER_INSERT, rows.size()); r++) {
+                    Object[] row = rows.get(r);
+                    sql.append(r == from ? "(" : ",(");
+                    for (int i = 0; i < row.length; i++) {
+                        if (i > 0) {
+                            sql.append(',');
+                        }
+                        appendLiteral(sql, row[i]);
+                    }
+                    sql.append(')');
+                }
+                s.executeUpdate(sql.toString());
+            }
+            connection.commit();
+        } catch (SQLException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(true);
+        }
+    }
+
+    private static void appendTsv(StringBuilder out, Object value) {
+        if (value == null) {
+            out.append("\\N");
+            return;
+        }
+        String text = value instanceof LocalDateTime t ? DATETIME.format(t) : value.toString();
+        for (int i = 0; i < text.length(); i++) {
+            char ch = text.charAt(i);
+            switch (ch) {
+                case '\\' -> out.append("\\\\");
+                case '\t' -> out.append("\\t");
+                case '\n' -> out.append("\\n");
+                case '\r' -> out.append("\\r");
+                default -> out.append(ch);
+            }
+        }
+    }
+
+    private static void appendLiteral(StringBuilder out, Object value) {
+        if (value == null) {
+            out.append("NULL");
+            return;
+        }
+        if (value instanceof Number) {
+            out.append(value);
+            return;
+        }
+        String text = value instanceof LocalDateTime t ? DATETIME.format(t) : value.toString();
+        out.append('\'');
+        for (int i = 0; i < text.length(); i++) {
+            char ch = text.charAt(i);
+            if (ch == '\'' || ch == '\\') {
+                out.append('\\');
+            }
+            out.append(ch);
+        }
+        out.append('\'');
+    }
+
+    private void throwIfFailed() throws Exception {
+        if (failure != null) {
+            throw new SQLException("Loading " + table + " failed: " + failure.getMessage(), failure);
+        }
+    }
+
+    /**
+     * Writes the last chunk and waits for the writer; throws the first write failure.
+     */
+    @Override
+    public void close() throws Exception {
+        try {
+            if (!chunk.isEmpty()) {
+                submit();
+            }
+            writer.shutdown();
+            writer.awaitTermination(1, TimeUnit.HOURS);
+            throwIfFailed();
+        } finally {
+            writer.shutdownNow();
+            connection.close();
+        }
+    }
+}
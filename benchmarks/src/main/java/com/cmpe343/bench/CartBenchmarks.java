@@ -0,0 +1,37 @@
+package com.cmpe343.bench;
+
+import com.cmpe343.dao.CartDao;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CartBenchmarks {
+
+    private final CartDao cartDao = new CartDao();
+
+    /** Upsert into a random shopper's cart; lines only grow in quantity after the first add. */
+    @Benchmark
+    public double addToCart(BenchData data) {
+        return cartDao.addToCart(data.shopper(), data.product().getId(), 0.25);
+    }
+
+    /** Opening a 10-line cart whose stock is always sufficient, so nothing is fixed up. */
+    @Benchmark
+    public CartDao.CartLoadResult getCartItemsWithStockCheck(BenchData data) {
+        return cartDao.getCartItemsWithStockCheck(data.cartOwner());
+    }
+}
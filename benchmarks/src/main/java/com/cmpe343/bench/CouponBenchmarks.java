@@ -0,0 +1,31 @@
+package com.cmpe343.bench;
+
+import com.cmpe343.dao.CouponDao;
+import com.cmpe343.model.Coupon;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CouponBenchmarks {
+
+    private final CouponDao couponDao = new CouponDao();
+
+    @Benchmark
+    public Coupon getCouponByCode(BenchData data) {
+        return couponDao.getCouponByCode(data.couponCode());
+    }
+}
@@ -0,0 +1,383 @@
+package com.cmpe343.bench;
+
+import com.cmpe343.dao.ReportDao;
+import com.cmpe343.model.Money;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Generates a large, realistic data set on top of the sample data in greengrocer_db.sql:
+ * customers and carriers, coupons, orders with their items, ratings, messages and carts.
+ * <p>
+ * Product popularity follows a Zipf distribution over a seeded shuffle of the catalog, as
+ * does coupon usage, so a few products and codes dominate like they do in a real shop.
+ * Order totals, coupon discounts and VAT are computed the way {@code OrderDao.createOrder}
+ * computes them. Each table draws from its own split of one {@link SplittableRandom}, and
+ * all timestamps count back from the fixed {@link Config#epoch} rather than the clock, so the
+ * same {@link Config} always produces the same rows. Rows are written through one
+ * {@link BulkLoader} per table (orders, items and ratings load side by side); the sales
+ * rollups are rebuilt and the tables analyzed at the end.
+ * <p>
+ * Generated customers log in with their user name as password ({@code bench_c0} / {@code bench_c0}).
+ */
+final class DataGenerator {
+
+    static final String CUSTOMER_PREFIX = "bench_c";
+    static final String CARRIER_PREFIX = "bench_k";
+    static final String COUPON_PREFIX = "BENCH";
+
+    /** Customers that get a seeded cart, the read side of the cart benchmarks. */
+    static final int CART_OWNERS = 200;
+    private static final int CART_LINES = 10;
+    // Products never run out, so createOrder keeps succeeding for the whole run
+    private static final long BENCH_STOCK_KG = 99_999_999;
+    private static final int HISTORY_DAYS = 365;
+    private static final LocalDateTime DEFAULT_EPOCH = LocalDateTime.of(2026, 1, 1, 0, 0);
+
+    private static final String[] RATING_COMMENTS = {
+            null, null, "Fast delivery", "Fresh products, thank you", "Arrived a bit late",
+            "Friendly carrier", "Some items were bruised", "Perfect as always" };
+    private static final String[] MESSAGES = {
+            "Do you have organic tomatoes this week?", "My last order was missing a bag of apples.",
+            "Can I change the delivery time of my order?", "When will cherries be back in stock?",
+            "The bananas were too ripe, can I get a refund?", "Do you deliver on Sundays?" };
+    private static final String[] REPLIES = {
+            "Thank you for letting us know, we will check it.", "Yes, they will be back on Monday.",
+            "We refunded the item to your account.", "Deliveries run every day between 08:00 and 22:00." };
+
+    static final class Config {
+        final int customers;
+        final long orders;
+        final int carriers;
+        final int coupons;
+        final double zipfExponent;
+        final long seed;
+        /** The generated history ends here; {@code -Dbench.epoch=2026-01-01T00:00} overrides it. */
+        final LocalDateTime epoch;
+
+        Config(int customers, long orders, int carriers, int coupons, double zipfExponent, long seed, LocalDateTime epoch) {
+            if (customers < 1) {
+                throw new IllegalArgumentException("At least one customer is needed.");
+            }
+            this.customers = customers;
+            this.orders = orders;
+            this.carriers = Math.max(1, carriers);
+            this.coupons = Math.max(1, coupons);
+            this.zipfExponent = zipfExponent;
+            this.seed = seed;
+            this.epoch = epoch;
+        }
+
+        /**
+         * One unit of scale is 1,000 customers with 20 orders each on average.
+         */
+        static Config forScale(int scale) {
+            int customers = 1_000 * scale;
+            return of(customers, 20L * customers);
+        }
+
+        /**
+         * Sizes carriers (one per 2,000 customers) and coupons (one per 100) to the customer count.
+         */
+        static Config of(int customers, long orders) {
+            return new Config(customers, orders, Math.max(6, customers / 2_000), Math.max(200, customers / 100), 1.1, 42,
+                    defaultEpoch());
+        }
+
+        static LocalDateTime defaultEpoch() {
+            String value = System.getProperty("bench.epoch");
+            return value == null || value.isBlank() ? DEFAULT_EPOCH : LocalDateTime.parse(value);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("customers=%d orders=%d carriers=%d coupons=%d zipf=%.2f seed=%d epoch=%s",
+                    customers, orders, carriers, coupons, zipfExponent, seed, epoch);
+        }
+    }
+
+    private record Product(int id, long priceKurus) {
+    }
+
+    private record Coupon(int id, boolean percent, long value, long minCartKurus) {
+    }
+
+    private final String url;
+    private final String user;
+    private final String password;
+    private final Config config;
+    private final MessageDigest sha256;
+
+    private BulkLoader.Mode mode;
+    private List<Product> products;
+    private int ownerId;
+    private int firstUser;
+    private int firstCoupon;
+    private long firstOrder;
+    private final List<Coupon> coupons = new ArrayList<>();
+
+    DataGenerator(String url, String user, String password, Config config) {
+        this.url = url;
+        this.user = user;
+        this.password = password;
+        this.config = config;
+        try {
+            this.sha256 = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    void generate() throws Exception {
+        long start = System.nanoTime();
+        SplittableRandom root = new SplittableRandom(config.seed);
+        SplittableRandom userRandom = root.split();
+        SplittableRandom couponRandom = root.split();
+        SplittableRandom orderRandom = root.split();
+        SplittableRandom messageRandom = root.split();
+        SplittableRandom cartRandom = root.split();
+
+        try (Connection c = DriverManager.getConnection(url, user, password)) {
+            prepare(c, root.split());
+        }
+        System.out.printf("[bench] generating %s via %s%n", config, mode);
+
+        generateUsers(userRandom);
+        generateCoupons(couponRandom);
+        long orders = generateOrders(orderRandom);
+        generateMessages(messageRandom);
+        generateCarts(cartRandom);
+        long loadedMs = (System.nanoTime() - start) / 1_000_000;
+
+        int days = new ReportDao().rebuildRollups();
+        try (Connection c = DriverManager.getConnection(url, user, password);
+                Statement s = c.createStatement()) {
+            s.execute("ANALYZE TABLE users, coupons, orders, order_items, ratings, messages, cart_items");
+        }
+        System.out.printf("[bench] generated %d customers and %d orders in %d ms (%d ms total with %d rollup days)%n",
+                config.customers, orders, loadedMs, (System.nanoTime() - start) / 1_000_000, days);
+    }
+
+    private void prepare(Connection c, SplittableRandom random) throws SQLException {
+        mode = switch (System.getProperty("bench.load", "auto")) {
+            case "infile" -> BulkLoader.Mode.LOAD_DATA;
+            case "insert" -> BulkLoader.Mode.INSERT;
+            default -> BulkLoader.detect(c);
+        };
+        try (Statement s = c.createStatement()) {
+            s.executeUpdate("UPDATE products SET stock_kg = " + BENCH_STOCK_KG);
+        }
+        List<Product> catalog = new ArrayList<>();
+        try (Statement s = c.createStatement();
+                ResultSet rs = s.executeQuery("SELECT id, price FROM products WHERE is_active = 1 ORDER BY id")) {
+            while (rs.next()) {
+                catalog.add(new Product(rs.getInt(1), rs.getBigDecimal(2).movePointRight(2).longValueExact()));
+            }
+        }
+        if (catalog.isEmpty()) {
+            throw new SQLException("No active products to generate orders for");
+        }
+        // Popularity rank -> product, so the best seller is not simply the lowest id
+        for (int i = catalog.size() - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            catalog.set(i, catalog.set(j, catalog.get(i)));
+        }
+        products = catalog;
+        ownerId = singleInt(c, "SELECT id FROM users WHERE role = 'owner' ORDER BY id LIMIT 1");
+        firstUser = singleInt(c, "SELECT COALESCE(MAX(id), 0) + 1 FROM users");
+        firstCoupon = singleInt(c, "SELECT COALESCE(MAX(id), 0) + 1 FROM coupons");
+        firstOrder = singleInt(c, "SELECT COALESCE(MAX(id), 0) + 1 FROM orders");
+    }
+
+    private int carrierId(int index) {
+        return firstUser + index;
+    }
+
+    private int customerId(int index) {
+        return firstUser + config.carriers + index;
+    }
+
+    private void generateUsers(SplittableRandom random) throws Exception {
+        try (BulkLoader users = loader("users", "id", "username", "password_hash", "role", "is_active", "address", "phone", "created_at")) {
+            for (int i = 0; i < config.carriers; i++) {
+                String name = CARRIER_PREFIX + i;
+                users.row(carrierId(i), name, hash(name), "carrier", 1, "Bench Depot " + i,
+                        phone(random), config.epoch.minusDays(random.nextInt(2 * HISTORY_DAYS)));
+            }
+            for (int i = 0; i < config.customers; i++) {
+                String name = CUSTOMER_PREFIX + i;
+                users.row(customerId(i), name, hash(name), "customer", random.nextInt(50) == 0 ? 0 : 1,
+                        "Bench Street " + (1 + random.nextInt(400)) + " No:" + (1 + random.nextInt(120)),
+                        phone(random), config.epoch.minusDays(random.nextInt(2 * HISTORY_DAYS)));
+            }
+        }
+    }
+
+    private void generateCoupons(SplittableRandom random) throws Exception {
+        try (BulkLoader loader = loader("coupons", "id", "code", "kind", "value", "min_cart", "is_active", "expires_at")) {
+            for (int i = 0; i < config.coupons; i++) {
+                boolean percent = random.nextBoolean();
+                long value = percent ? 5 + random.nextInt(26) : 10 + 5L * random.nextInt(19);
+                long minCart = 50L * random.nextInt(1, 9);
+                Coupon coupon = new Coupon(firstCoupon + i, percent, value, minCart * 100);
+                coupons.add(coupon);
+                loader.row(coupon.id, COUPON_PREFIX + i, percent ? "PERCENT" : "AMOUNT", value, minCart, 1,
+                        LocalDateTime.of(2099, 12, 31, 23, 59, 59));
+            }
+        }
+    }
+
+    private long generateOrders(SplittableRandom random) throws Exception {
+        ZipfSampler productRank = new ZipfSampler(products.size(), config.zipfExponent);
+        ZipfSampler couponRank = new ZipfSampler(coupons.size(), config.zipfExponent);
+        // Orders per customer are uniform in [0, 2 * average]
+        int maxPerCustomer = (int) Math.max(0, Math.round(2.0 * config.orders / config.customers));
+        int minutes = HISTORY_DAYS * 24 * 60;
+        int lineProducts = Math.min(6, products.size());
+        long orderId = firstOrder;
+
+        try (BulkLoader orders = loader("orders", "id", "customer_id", "carrier_id", "status", "order_time",
+                "requested_delivery_time", "delivered_time", "total_before_tax", "vat", "total_after_tax",
+                "coupon_id", "coupon_discount", "loyalty_discount");
+                BulkLoader items = loader("order_items", "order_id", "product_id", "kg", "unit_price_applied", "line_total");
+                BulkLoader ratings = loader("ratings", "order_id", "carrier_id", "customer_id", "rating", "comment", "created_at")) {
+            int[] lineProduct = new int[lineProducts];
+            for (int cust = 0; cust < config.customers; cust++) {
+                int count = random.nextInt(maxPerCustomer + 1);
+                for (int n = 0; n < count; n++, orderId++) {
+                    LocalDateTime placed = config.epoch.minusMinutes(random.nextInt(minutes));
+                    int roll = random.nextInt(100);
+                    String status = roll < 88 ? "DELIVERED" : roll < 92 ? "CANCELLED" : roll < 96 ? "ASSIGNED" : "CREATED";
+
+                    // 1-6 distinct products, popular ones more often
+                    int lines = 1 + random.nextInt(lineProducts);
+                    long subtotal = 0;
+                    for (int l = 0; l < lines; l++) {
+                        int rank;
+                        do {
+                            rank = productRank.next(random);
+                        } while (contains(lineProduct, l, rank));
+                        lineProduct[l] = rank;
+                        Product p = products.get(rank);
+                        long grams = 250L * random.nextInt(1, 13);
+                        long lineKurus = Money.lineTotalKurus(p.priceKurus, grams);
+                        subtotal += lineKurus;
+                        items.row(orderId, p.id, BigDecimal.valueOf(grams, 3), money(p.priceKurus), money(lineKurus));
+                    }
+
+                    Integer couponId = null;
+                    long discount = 0;
+                    if (random.nextInt(100) < 8) {
+                        Coupon coupon = coupons.get(couponRank.next(random));
+                        if (subtotal >= coupon.minCartKurus) {
+                            couponId = coupon.id;
+                            discount = coupon.percent ? Money.percentOf(subtotal, coupon.value * 100, RoundingMode.HALF_UP)
+                                    : Math.min(coupon.value * 100, subtotal);
+                        }
+                    }
+                    long net = subtotal - discount;
+                    long vat = Money.vatKurus(net, Money.VAT_PERCENT);
+
+                    Integer carrier = "CREATED".equals(status) ? null : carrierId(random.nextInt(config.carriers));
+                    LocalDateTime requested = placed.plusHours(2 + random.nextInt(46));
+                    LocalDateTime delivered = "DELIVERED".equals(status) ? requested.minusMinutes(random.nextInt(90)) : null;
+                    orders.row(orderId, customerId(cust), carrier, status, placed, requested, delivered,
+                            money(net), money(vat), money(net + vat), couponId, money(discount), 0);
+
+                    if (delivered != null && random.nextInt(100) < 35) {
+                        int stars = random.nextInt(100);
+                        int rating = stars < 5 ? 1 : stars < 10 ? 2 : stars < 25 ? 3 : stars < 60 ? 4 : 5;
+                        ratings.row(orderId, carrier, customerId(cust), rating,
+                                RATING_COMMENTS[random.nextInt(RATING_COMMENTS.length)], delivered.plusHours(random.nextInt(1, 72)));
+                    }
+                }
+            }
+            return orders.rows();
+        }
+    }
+
+    private void generateMessages(SplittableRandom random) throws Exception {
+        try (BulkLoader messages = loader("messages", "customer_id", "owner_id", "text_clob", "created_at", "reply_text", "replied_at")) {
+            for (int cust = 0; cust < config.customers; cust++) {
+                // Most customers never write; a few write several times
+                int count = random.nextInt(10) < 7 ? 0 : random.nextInt(1, 4);
+                for (int m = 0; m < count; m++) {
+                    LocalDateTime sent = config.epoch.minusMinutes(random.nextInt(HISTORY_DAYS * 24 * 60));
+                    boolean replied = random.nextInt(10) < 7;
+                    messages.row(customerId(cust), ownerId, MESSAGES[random.nextInt(MESSAGES.length)], sent,
+                            replied ? REPLIES[random.nextInt(REPLIES.length)] : null,
+                            replied ? sent.plusMinutes(random.nextInt(5, 2_880)) : null);
+                }
+            }
+        }
+    }
+
+    private void generateCarts(SplittableRandom random) throws Exception {
+        ZipfSampler productRank = new ZipfSampler(products.size(), config.zipfExponent);
+        int lines = Math.min(CART_LINES, products.size());
+        int[] lineProduct = new int[lines];
+        try (BulkLoader carts = loader("cart_items", "user_id", "product_id", "quantity_kg", "unit_price_applied")) {
+            for (int cust = 0; cust < Math.min(CART_OWNERS, config.customers); cust++) {
+                for (int l = 0; l < lines; l++) {
+                    int rank;
+                    do {
+                        rank = productRank.next(random);
+                    } while (contains(lineProduct, l, rank));
+                    lineProduct[l] = rank;
+                    Product p = products.get(rank);
+                    carts.row(customerId(cust), p.id, 0.5 * random.nextInt(1, 7), money(p.priceKurus));
+                }
+            }
+        }
+    }
+
+    private BulkLoader loader(String table, String... columns) throws SQLException {
+        return new BulkLoader(url, user, password, mode, table, columns);
+    }
+
+    private String hash(String text) {
+        return HexFormat.of().formatHex(sha256.digest(text.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static String phone(SplittableRandom random) {
+        return String.format("+90 5%02d %03d %02d %02d", 30 + random.nextInt(30), random.nextInt(1000),
+                random.nextInt(100), random.nextInt(100));
+    }
+
+    private static BigDecimal money(long kurus) {
+        return Money.toBigDecimal(kurus);
+    }
+
+    private static boolean contains(int[] values, int length, int value) {
+        for (int i = 0; i < length; i++) {
+            if (values[i] == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int singleInt(Connection c, String sql) throws SQLException {
+        try (Statement s = c.createStatement();
+                ResultSet rs = s.executeQuery(sql)) {
+            if (!rs.next()) {
+                throw new SQLException("No result for " + sql);
+            }
+            return rs.getInt(1);
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.cmpe343.bench;
+
+import java.time.LocalDateTime;
+
+/**
+ * Rebuilds a benchmark database at any size, e.g. one million customers and ten million
+ * orders, for later runs with {@code -Dbench.reuse=true}:
+ * <pre>
+ * java -Dbench.db.url=jdbc:mysql://localhost:3306/greengrocer_bench -Dbench.db.user=myuser -Dbench.db.password=1234 \
+ *      -cp benchmarks/target/benchmarks.jar com.cmpe343.bench.GenerateData --customers 1000000 --orders 10000000
+ * </pre>
+ * Options: {@code --customers}, {@code --orders} (total, spread over the customers),
+ * {@code --carriers}, {@code --coupons}, {@code --zipf} (popularity skew, default 1.1) and
+ * {@code --seed}, and {@code --epoch} (when the generated history ends, default
+ * {@code 2026-01-01T00:00}). {@code -Dbench.load=infile|insert} forces the load method; by default
+ * {@code LOAD DATA LOCAL INFILE} is used when the server has {@code local_infile=ON}.
+ * The target database is wiped first.
+ */
+public class GenerateData {
+
+    public static void main(String[] args) throws Exception {
+        if (System.getProperty("bench.db.url") == null) {
+            System.err.println("Set -Dbench.db.url (and bench.db.user / bench.db.password) to the database to fill.");
+            System.exit(2);
+        }
+        int customers = 1_000;
+        Long orders = null;
+        Integer carriers = null;
+        Integer coupons = null;
+        double zipf = 1.1;
+        long seed = 42;
+        LocalDateTime epoch = DataGenerator.Config.defaultEpoch();
+        for (int i = 0; i < args.length; i++) {
+            String value = i + 1 < args.length ? args[i + 1] : null;
+            switch (args[i]) {
+                case "--customers" -> customers = Integer.parseInt(value);
+                case "--orders" -> orders = Long.parseLong(value);
+                case "--carriers" -> carriers = Integer.parseInt(value);
+                case "--coupons" -> coupons = Integer.parseInt(value);
+                case "--zipf" -> zipf = Double.parseDouble(value);
+                case "--seed" -> seed = Long.parseLong(value);
+                case "--epoch" -> epoch = LocalDateTime.parse(value);
+                default -> {
+                    System.err.println("Unknown option " + args[i]);
+                    System.exit(2);
+                }
+            }
+            i++;
+        }
+
+        DataGenerator.Config defaults = DataGenerator.Config.of(customers, orders != null ? orders : 20L * customers);
+        DataGenerator.Config config = new DataGenerator.Config(defaults.customers, defaults.orders,
+                carriers != null ? carriers : defaults.carriers, coupons != null ? coupons : defaults.coupons, zipf, seed, epoch);
+        try (BenchDatabase db = BenchDatabase.start()) {
+            db.reset(config);
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.cmpe343.bench;
+
+import com.cmpe343.service.PdfService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class InvoiceBenchmarks {
+
+    private final PdfService pdfService = new PdfService();
+
+    /** Renders a delivered order's invoice (including its coupon lookup) to a temp file. */
+    @Benchmark
+    public long generateInvoice(BenchData data) throws IOException {
+        File pdf = pdfService.generateInvoice(data.deliveredOrder());
+        long size = pdf.length();
+        pdf.delete();
+        return size;
+    }
+}
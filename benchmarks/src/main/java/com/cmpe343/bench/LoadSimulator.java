@@ -0,0 +1,345 @@
+package com.cmpe343.bench;
+
+import com.cmpe343.dao.CartDao;
+import com.cmpe343.dao.CouponDao;
+import com.cmpe343.dao.OrderDao;
+import com.cmpe343.dao.ProductDao;
+import com.cmpe343.dao.ReportDao;
+import com.cmpe343.db.Db;
+import com.cmpe343.db.SqlMetrics;
+import com.cmpe343.db.TransactionRetry;
+import com.cmpe343.model.CartItem;
+import com.cmpe343.model.Coupon;
+import com.cmpe343.model.Order;
+import com.cmpe343.model.Product;
+import com.cmpe343.service.StockReservationService;
+import com.cmpe343.util.LatencyHistogram;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Drives the DAO layer with simulated customer, carrier and owner sessions, without JavaFX,
+ * and reports throughput and p50/p95/p99 latency per operation.
+ * <p>
+ * Every simulated user is a virtual thread running its workflow in a loop with exponentially
+ * distributed think times between steps:
+ * <ul>
+ * <li>customers browse the catalog, add one to four products (popular ones more often) to
+ * their cart, open it and check out 60% of the time, looking up coupons first in a third of
+ * the checkouts; checkout reserves stock and writes the order like the cart screen does</li>
+ * <li>carriers poll the available orders, claim one or two of them and deliver one of their
+ * assigned orders</li>
+ * <li>owners run the summary, product sales and 30-day revenue reports</li>
+ * </ul>
+ * Options: {@code --customers} (default 50), {@code --carriers} (5), {@code --owners} (1),
+ * {@code --think-ms} (mean think time, 1000), {@code --warmup} (seconds not measured, 10),
+ * {@code --duration} (measured seconds, 60) and {@code --seed}. The database is prepared as
+ * for {@link RunBenchmarks} ({@code bench.scale}, {@code bench.reuse}, {@code bench.db.url});
+ * pass {@code -Ddb.pool.maxSize} to size the connection pool for the user count. Run with
+ * {@code java -cp benchmarks/target/benchmarks.jar com.cmpe343.bench.LoadSimulator --customers 200}.
+ */
+public class LoadSimulator {
+
+    private static final double CHECKOUT_PERCENT = 60;
+    private static final double COUPON_PERCENT = 33;
+    private static final double MAX_THINK_FACTOR = 10;
+
+    private static class Operation {
+        final LatencyHistogram latency = new LatencyHistogram();
+        final LongAdder errors = new LongAdder();
+    }
+
+    private final int thinkMs;
+    private final Map<String, Operation> operations = new ConcurrentHashMap<>();
+    private final LongAdder lostClaims = new LongAdder();
+    private final LongAdder rejectedCheckouts = new LongAdder();
+    private volatile boolean measuring;
+    private volatile boolean running = true;
+
+    private final ProductDao productDao = new ProductDao();
+    private final CartDao cartDao = new CartDao();
+    private final CouponDao couponDao = new CouponDao();
+    private final OrderDao orderDao = new OrderDao();
+    private final ReportDao reportDao = new ReportDao();
+    private final StockReservationService stockReservations = StockReservationService.getInstance();
+
+    private LoadSimulator(int thinkMs) {
+        this.thinkMs = thinkMs;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int customers = 50;
+        int carriers = 5;
+        int owners = 1;
+        int thinkMs = 1_000;
+        int warmupSeconds = 10;
+        int durationSeconds = 60;
+        long seed = 42;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            String value = args[i + 1];
+            switch (args[i]) {
+                case "--customers" -> customers = Integer.parseInt(value);
+                case "--carriers" -> carriers = Integer.parseInt(value);
+                case "--owners" -> owners = Integer.parseInt(value);
+                case "--think-ms" -> thinkMs = Integer.parseInt(value);
+                case "--warmup" -> warmupSeconds = Integer.parseInt(value);
+                case "--duration" -> durationSeconds = Integer.parseInt(value);
+                case "--seed" -> seed = Long.parseLong(value);
+                default -> {
+                    System.err.println("Unknown option " + args[i]);
+                    System.exit(2);
+                }
+            }
+        }
+
+        try (BenchDatabase db = BenchDatabase.start()) {
+            if (Boolean.getBoolean("bench.reuse")) {
+                db.useInThisJvm();
+            } else {
+                db.reset(DataGenerator.Config.forScale(Integer.getInteger("bench.scale", 1)));
+            }
+            new LoadSimulator(thinkMs).run(customers, carriers, owners, warmupSeconds, durationSeconds, seed);
+        }
+    }
+
+    private void run(int customers, int carriers, int owners, int warmupSeconds, int durationSeconds, long seed)
+            throws SQLException, InterruptedException {
+        int[] customerIds = ids("""
+                SELECT u.id FROM users u
+                WHERE u.role = 'customer' AND u.is_active = 1
+                  AND NOT EXISTS (SELECT 1 FROM cart_items ci WHERE ci.user_id = u.id)
+                ORDER BY u.id LIMIT ?
+                """, customers);
+        int[] carrierIds = ids("SELECT id FROM users WHERE role = 'carrier' AND is_active = 1 ORDER BY id LIMIT ?", carriers);
+        if (customerIds.length == 0 || (carriers > 0 && carrierIds.length == 0)) {
+            throw new IllegalStateException("Not enough customers or carriers in the database");
+        }
+        System.out.printf("[load] %d customers, %d carriers, %d owners, think %d ms, warmup %d s, measuring %d s%n",
+                customers, carriers, owners, thinkMs, warmupSeconds, durationSeconds);
+
+        SplittableRandom root = new SplittableRandom(seed);
+        ExecutorService users = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("load-user-", 0).factory());
+        for (int i = 0; i < customers; i++) {
+            int id = customerIds[i % customerIds.length];
+            SplittableRandom random = root.split();
+            users.execute(() -> loop(random, r -> customerSession(id, r)));
+        }
+        for (int i = 0; i < carriers; i++) {
+            int id = carrierIds[i % carrierIds.length];
+            SplittableRandom random = root.split();
+            users.execute(() -> loop(random, r -> carrierSession(id, r)));
+        }
+        for (int i = 0; i < owners; i++) {
+            SplittableRandom random = root.split();
+            users.execute(() -> loop(random, this::ownerSession));
+        }
+
+        TimeUnit.SECONDS.sleep(warmupSeconds);
+        measuring = true;
+        long start = System.nanoTime();
+        for (int s = 1; s <= durationSeconds; s++) {
+            TimeUnit.SECONDS.sleep(1);
+            if (s % 10 == 0 && s < durationSeconds) {
+                long ops = operations.values().stream().mapToLong(o -> o.latency.count()).sum();
+                System.out.printf("[load] %3d s  %8.1f ops/s%n", s, ops / (double) s);
+            }
+        }
+        measuring = false;
+        double seconds = (System.nanoTime() - start) / 1e9;
+        running = false;
+        users.shutdown();
+        if (!users.awaitTermination(2, TimeUnit.MINUTES)) {
+            System.err.println("[load] some sessions did not finish within 2 minutes");
+        }
+        report(seconds);
+    }
+
+    private interface Session {
+        void run(SplittableRandom random) throws Exception;
+    }
+
+    private void loop(SplittableRandom random, Session session) {
+        // Spread the first requests so the users do not start in lockstep
+        think(random, 1);
+        while (running) {
+            try {
+                session.run(random);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                // Already counted against the operation that failed; keep the user going
+                think(random, 1);
+            }
+        }
+    }
+
+    private void customerSession(int customerId, SplittableRandom random) throws Exception {
+        List<Product> catalog = time("browse", productDao::findAll);
+        if (catalog.isEmpty()) {
+            think(random, 1);
+            return;
+        }
+        ZipfSampler popularity = new ZipfSampler(catalog.size(), 1.1);
+        think(random, 1);
+
+        int adds = random.nextInt(1, 5);
+        for (int i = 0; i < adds && running; i++) {
+            Product p = catalog.get(popularity.next(random));
+            double kg = 0.5 * random.nextInt(1, 5);
+            time("addToCart", () -> cartDao.addToCart(customerId, p.getId(), kg));
+            think(random, 0.5);
+        }
+
+        CartDao.CartLoadResult cart = time("viewCart", () -> cartDao.getCartItemsWithStockCheck(customerId));
+        think(random, 1);
+        if (cart.items.isEmpty() || random.nextDouble(100) >= CHECKOUT_PERCENT) {
+            think(random, 3);
+            return;
+        }
+
+        Integer couponId = null;
+        if (random.nextDouble(100) < COUPON_PERCENT) {
+            double subtotal = cart.items.stream().mapToDouble(CartItem::getLineTotal).sum();
+            List<Coupon> coupons = time("coupons", () -> couponDao.getActiveCouponsForCustomer(customerId));
+            for (Coupon c : coupons) {
+                if (c.getMinCart() <= subtotal) {
+                    couponId = c.getId();
+                    break;
+                }
+            }
+        }
+        Integer coupon = couponId;
+        time("checkout", () -> checkout(customerId, cart.items, coupon));
+        think(random, 3);
+    }
+
+    /** The cart screen's place-order task: hold stock, write the order, confirm, empty the cart. */
+    private Integer checkout(int customerId, List<CartItem> items, Integer couponId) throws Exception {
+        StockReservationService.Reservation reservation;
+        try {
+            reservation = stockReservations.reserve(items);
+        } catch (IllegalStateException e) {
+            rejectedCheckouts.increment();
+            return null;
+        }
+        int orderId;
+        try {
+            orderId = time("createOrder", () -> orderDao.createOrder(customerId, items, LocalDateTime.now().plusDays(1), couponId));
+        } catch (Exception e) {
+            stockReservations.release(reservation);
+            throw e;
+        }
+        stockReservations.confirm(reservation);
+        cartDao.clear(customerId);
+        return orderId;
+    }
+
+    private void carrierSession(int carrierId, SplittableRandom random) throws Exception {
+        List<Order> available = time("availableOrders", orderDao::getAvailableOrders);
+        int claims = Math.min(available.size(), random.nextInt(1, 3));
+        for (int i = 0; i < claims; i++) {
+            Order o = available.get(random.nextInt(available.size()));
+            if (!time("claimOrder", () -> orderDao.assignOrderToCarrier(o.getId(), carrierId))) {
+                lostClaims.increment();
+            }
+        }
+        think(random, 2);
+
+        List<Order> mine = time("carrierOrders", () -> orderDao.getOrdersByCarrier(carrierId, Order.OrderStatus.ASSIGNED));
+        if (!mine.isEmpty()) {
+            Order o = mine.get(random.nextInt(mine.size()));
+            time("markDelivered", () -> orderDao.markOrderDelivered(o.getId(), LocalDateTime.now()));
+        }
+        think(random, 2);
+    }
+
+    private void ownerSession(SplittableRandom random) throws Exception {
+        time("report.summary", reportDao::getSummary);
+        think(random, 1);
+        time("report.productSales", reportDao::getProductSales);
+        think(random, 1);
+        // The last month of generated history, which ends at the generator's epoch
+        LocalDate end = DataGenerator.Config.defaultEpoch().toLocalDate();
+        time("report.dailyRevenue", () -> reportDao.getDailyRevenue(end.minusDays(30), end));
+        think(random, 5);
+    }
+
+    private <T> T time(String name, Callable<T> work) throws Exception {
+        Operation op = operations.computeIfAbsent(name, k -> new Operation());
+        long start = System.nanoTime();
+        try {
+            T result = work.call();
+            if (measuring) {
+                op.latency.record(System.nanoTime() - start);
+            }
+            return result;
+        } catch (Exception e) {
+            if (measuring) {
+                op.errors.increment();
+            }
+            throw e;
+        }
+    }
+
+    /** Sleeps an exponentially distributed time with mean {@code factor * thinkMs}. */
+    private void think(SplittableRandom random, double factor) {
+        double ms = Math.min(MAX_THINK_FACTOR, random.nextExponential()) * factor * thinkMs;
+        try {
+            Thread.sleep((long) ms);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void report(double seconds) {
+        System.out.printf("%n%-22s %9s %7s %9s %9s %9s %9s %9s %9s%n",
+                "operation", "count", "errors", "ops/s", "mean ms", "p50 ms", "p95 ms", "p99 ms", "max ms");
+        long total = 0;
+        for (Map.Entry<String, Operation> e : new TreeMap<>(operations).entrySet()) {
+            LatencyHistogram h = e.getValue().latency;
+            total += h.count();
+            System.out.printf("%-22s %9d %7d %9.1f %9.2f %9.2f %9.2f %9.2f %9.2f%n", e.getKey(), h.count(),
+                    e.getValue().errors.sum(), h.count() / seconds, h.meanNanos() / 1e6, h.percentileNanos(50) / 1e6,
+                    h.percentileNanos(95) / 1e6, h.percentileNanos(99) / 1e6, h.maxNanos() / 1e6);
+        }
+        System.out.printf("%-22s %9d %7s %9.1f%n", "total", total, "", total / seconds);
+        System.out.println();
+        System.out.println("checkouts rejected for stock: " + rejectedCheckouts.sum() + ", order claims lost: " + lostClaims.sum());
+        System.out.println("transaction retries: " + TransactionRetry.getInstance().stats());
+        System.out.println("connection pool: " + Db.poolStats());
+        System.out.println();
+        System.out.println("SQL statements by DAO method (ms):");
+        System.out.print(SqlMetrics.getInstance().report());
+    }
+
+    private static int[] ids(String sql, int limit) throws SQLException {
+        List<Integer> ids = new ArrayList<>();
+        try (Connection c = Db.getConnection();
+                PreparedStatement ps = c.prepareStatement(sql)) {
+            ps.setInt(1, limit);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    ids.add(rs.getInt(1));
+                }
+            }
+        }
+        return ids.stream().mapToInt(Integer::intValue).toArray();
+    }
+}
@@ -0,0 +1,45 @@
+package com.cmpe343.bench;
+
+import com.cmpe343.dao.OrderDao;
+import com.cmpe343.model.CartItem;
+import com.cmpe343.model.Order;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OrderBenchmarks {
+
+    private final OrderDao orderDao = new OrderDao();
+
+    /** A three-line order: order insert, item batch and stock decrement batch in one transaction. */
+    @Benchmark
+    public int createOrder(BenchData data) {
+        List<CartItem> items = List.of(
+                new CartItem(data.product(), 0.5),
+                new CartItem(data.product(), 1.0),
+                new CartItem(data.product(), 1.5));
+        return orderDao.createOrder(data.shopper(), items, LocalDateTime.now().plusDays(1));
+    }
+
+    /** A customer's full history (20 orders on average) with its items. */
+    @Benchmark
+    public List<Order> getOrdersForCustomer(BenchData data) {
+        return orderDao.getOrdersForCustomer(data.shopper());
+    }
+}
@@ -0,0 +1,51 @@
+package com.cmpe343.bench;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Prepares the benchmark database and runs the JMH benchmarks against it.
+ * <p>
+ * Accepts the usual JMH command line (e.g. a benchmark regex, {@code -f}, {@code -wi}). Unless
+ * {@code -rf}/{@code -rff} are given, results are written as JSON to
+ * {@code target/jmh-<bench.label>.json} (label defaults to "result") so runs of two versions
+ * can be diffed. System properties:
+ * <ul>
+ * <li>{@code bench.scale} - units of generated data, see {@link DataGenerator.Config#forScale} (default 1)</li>
+ * <li>{@code bench.reuse} - skip the reset and keep the data of a previous run</li>
+ * <li>{@code bench.db.url}, {@code bench.db.user}, {@code bench.db.password} - use an existing
+ * server instead of a container, see {@link BenchDatabase}</li>
+ * </ul>
+ */
+public class RunBenchmarks {
+
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions cmd = new CommandLineOptions(args);
+        int scale = Integer.getInteger("bench.scale", 1);
+
+        try (BenchDatabase db = BenchDatabase.start()) {
+            if (!Boolean.getBoolean("bench.reuse")) {
+                db.reset(DataGenerator.Config.forScale(scale));
+            }
+
+            List<String> jvmArgs = new ArrayList<>(cmd.getJvmArgsAppend().orElse(List.of()));
+            jvmArgs.addAll(db.jvmArgs());
+            ChainedOptionsBuilder options = new OptionsBuilder().parent(cmd).jvmArgsAppend(jvmArgs.toArray(new String[0]));
+            if (!cmd.getResultFormat().hasValue()) {
+                options.resultFormat(ResultFormatType.JSON);
+            }
+            if (!cmd.getResult().hasValue()) {
+                new File("target").mkdirs();
+                options.result("target/jmh-" + System.getProperty("bench.label", "result") + ".json");
+            }
+            new Runner(options.build()).run();
+        }
+    }
+}
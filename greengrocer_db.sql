@@ -60,6 +60,14 @@ CREATE TABLE orders (
   coupon_id               INT NULL,
   loyalty_discount        DECIMAL(10,2) NOT NULL DEFAULT 0,
 
+  -- Keyset pagination of order history, newest first (OrderDao.getOrdersPage / getOrdersForCustomerPage)
+  INDEX idx_orders_time (order_time, id),
+  INDEX idx_orders_customer_time (customer_id, order_time, id),
+  -- Unassigned orders for carriers (OrderDao.getAvailableOrders) and the owner's reports by status
+  INDEX idx_orders_status_carrier (status, carrier_id, order_time),
+  -- A carrier's orders in one status (OrderDao.getOrdersByCarrier); also serves fk_orders_carrier
+  INDEX idx_orders_carrier_status (carrier_id, status, order_time),
+
   CONSTRAINT fk_orders_customer FOREIGN KEY (customer_id) REFERENCES users(id),
   CONSTRAINT fk_orders_carrier  FOREIGN KEY (carrier_id)  REFERENCES users(id),
   CONSTRAINT fk_orders_coupon   FOREIGN KEY (coupon_id)   REFERENCES coupons(id)
@@ -73,6 +81,9 @@ CREATE TABLE order_items (
   unit_price_applied DECIMAL(10,2) NOT NULL,
   line_total         DECIMAL(10,2) NOT NULL,
 
+  -- Items of one or many orders in insertion order (OrderDao.attachOrderItems); also serves fk_items_order
+  INDEX idx_items_order (order_id, id),
+
   CONSTRAINT fk_items_order   FOREIGN KEY (order_id) REFERENCES orders(id) ON DELETE CASCADE,
   CONSTRAINT fk_items_product FOREIGN KEY (product_id) REFERENCES products(id)
 ) ENGINE=InnoDB;
@@ -85,6 +96,9 @@ CREATE TABLE messages (
   created_at  TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
   reply_text  LONGTEXT NULL COMMENT 'Reply text stored as Character Large Object (CLOB)',
   replied_at  TIMESTAMP NULL,
+  -- Inbox and outbox newest first (MessageDao.getMessagesForOwner / getMessagesForCustomer)
+  INDEX idx_messages_owner_time (owner_id, created_at),
+  INDEX idx_messages_customer_time (customer_id, created_at),
   CONSTRAINT fk_msg_customer FOREIGN KEY (customer_id) REFERENCES users(id),
   CONSTRAINT fk_msg_owner    FOREIGN KEY (owner_id)    REFERENCES users(id)
 ) ENGINE=InnoDB;
@@ -97,6 +111,8 @@ CREATE TABLE ratings (
   rating      TINYINT NOT NULL,
   comment     VARCHAR(255),
   created_at  TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+  -- Ratings per carrier, and whether a customer rated a carrier (RatingDao.getRatedOrderIds)
+  INDEX idx_ratings_carrier_customer (carrier_id, customer_id),
   CONSTRAINT fk_rat_order    FOREIGN KEY (order_id) REFERENCES orders(id) ON DELETE CASCADE,
   CONSTRAINT fk_rat_carrier  FOREIGN KEY (carrier_id) REFERENCES users(id),
   CONSTRAINT fk_rat_customer FOREIGN KEY (customer_id) REFERENCES users(id),
@@ -112,6 +128,21 @@ CREATE TABLE invoices (
   CONSTRAINT fk_inv_order FOREIGN KEY (order_id) REFERENCES orders(id) ON DELETE CASCADE
 ) ENGINE=InnoDB;
 
+CREATE TABLE sales_daily (
+  sales_date       DATE PRIMARY KEY COMMENT 'Order date (DATE(order_time)) of delivered orders',
+  delivered_orders INT NOT NULL DEFAULT 0,
+  revenue          DECIMAL(14,2) NOT NULL DEFAULT 0
+) ENGINE=InnoDB;
+
+CREATE TABLE product_sales_daily (
+  sales_date DATE NOT NULL,
+  product_id INT NOT NULL,
+  revenue    DECIMAL(14,2) NOT NULL DEFAULT 0,
+  kg         DECIMAL(14,2) NOT NULL DEFAULT 0,
+  PRIMARY KEY (sales_date, product_id),
+  CONSTRAINT fk_psd_product FOREIGN KEY (product_id) REFERENCES products(id)
+) ENGINE=InnoDB;
+
 -- ------------------------
 -- SEED (Realistic)
 -- ------------------------
@@ -361,6 +392,18 @@ INSERT INTO invoices (order_id, pdf_blob, created_at) VALUES
 (24,CAST('%PDF-1.4\n% Dummy invoice for order 24\n%%EOF' AS BINARY),'2025-12-16 15:05:05'),
 (25,CAST('%PDF-1.4\n% Dummy invoice for order 25\n%%EOF' AS BINARY),'2025-12-16 16:40:05');
 
+-- Sales rollups for the seeded delivered orders (kept up to date by OrderDao.markOrderDelivered)
+INSERT INTO sales_daily (sales_date, delivered_orders, revenue)
+SELECT DATE(order_time), COUNT(*), SUM(total_after_tax)
+FROM orders WHERE status = 'DELIVERED'
+GROUP BY DATE(order_time);
+
+INSERT INTO product_sales_daily (sales_date, product_id, revenue, kg)
+SELECT DATE(o.order_time), oi.product_id, SUM(oi.line_total), SUM(oi.kg)
+FROM orders o JOIN order_items oi ON oi.order_id = o.id
+WHERE o.status = 'DELIVERED'
+GROUP BY DATE(o.order_time), oi.product_id;
+
 SELECT 'users' tbl, COUNT(*) cnt FROM users
 UNION ALL SELECT 'products', COUNT(*) FROM products
 UNION ALL SELECT 'coupons', COUNT(*) FROM coupons
@@ -368,4 +411,6 @@ UNION ALL SELECT 'orders', COUNT(*) FROM orders
 UNION ALL SELECT 'order_items', COUNT(*) FROM order_items
 UNION ALL SELECT 'messages', COUNT(*) FROM messages
 UNION ALL SELECT 'ratings', COUNT(*) FROM ratings
-UNION ALL SELECT 'invoices', COUNT(*) FROM invoices;
+UNION ALL SELECT 'invoices', COUNT(*) FROM invoices
+UNION ALL SELECT 'sales_daily', COUNT(*) FROM sales_daily
+UNION ALL SELECT 'product_sales_daily', COUNT(*) FROM product_sales_daily;
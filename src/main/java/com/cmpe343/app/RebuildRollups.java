@@ -0,0 +1,33 @@
+package com.cmpe343.app;
+
+import com.cmpe343.dao.ReportDao;
+
+/**
+ * Rebuilds the sales_daily / product_sales_daily rollups from the order history
+ * and prints the rollup totals next to a direct aggregate as a sanity check.
+ * <p>
+ * Run with {@code mvn compile exec:java -Dexec.mainClass=com.cmpe343.app.RebuildRollups}.
+ */
+public class RebuildRollups {
+
+    public static void main(String[] args) {
+        ReportDao reportDao = new ReportDao();
+
+        long start = System.nanoTime();
+        int days = reportDao.rebuildRollups();
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+        System.out.println("Rebuilt sales rollups: " + days + " day(s) in " + elapsedMs + " ms");
+
+        ReportDao.Summary rollup = reportDao.getSummary();
+        ReportDao.Summary direct = reportDao.aggregateSummary();
+        System.out.printf("%-12s %16s %16s%n", "", "rollup", "orders");
+        System.out.printf("%-12s %16d %16d%n", "delivered", rollup.deliveredOrders, direct.deliveredOrders);
+        System.out.printf("%-12s %16.2f %16.2f%n", "revenue", rollup.totalRevenue, direct.totalRevenue);
+
+        if (rollup.deliveredOrders != direct.deliveredOrders
+                || Math.abs(rollup.totalRevenue - direct.totalRevenue) > 0.005) {
+            System.err.println("Rollup totals do not match the order history - check for concurrent deliveries and rerun.");
+            System.exit(1);
+        }
+    }
+}
@@ -2,106 +2,61 @@ package com.cmpe343.dao;
 
 import com.cmpe343.db.Db;
 import com.cmpe343.model.CartItem;
+import com.cmpe343.model.Money;
 import com.cmpe343.model.Product;
 
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 public class CartDao {
 
-    public CartDao() {
-        ensureTableExists();
-    }
-
-    private void ensureTableExists() {
-        String sql = """
-                    CREATE TABLE IF NOT EXISTS cart_items (
-                        id INT AUTO_INCREMENT PRIMARY KEY,
-                        user_id INT NOT NULL,
-                        product_id INT NOT NULL,
-                        quantity_kg DOUBLE DEFAULT 1.0,
-                        unit_price_applied DECIMAL(10,2) NOT NULL COMMENT 'Price at time of adding to cart',
-                        created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
-                        UNIQUE KEY unique_cart_item (user_id, product_id),
-                        FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE,
-                        FOREIGN KEY (product_id) REFERENCES products(id) ON DELETE CASCADE
-                    )
+    /**
+     * Adds kg of a product to the user's cart in one upsert. A new line takes the
+     * product's current price; an existing line keeps its original price and only
+     * grows in quantity. The UNIQUE (user_id, product_id) key makes concurrent adds
+     * for the same line accumulate instead of racing between a check and a write.
+     *
+     * @return the line's quantity in kg after this add
+     */
+    public double addToCart(int userId, int productId, double kg) {
+        String upsertSql = """
+                    INSERT INTO cart_items (user_id, product_id, quantity_kg, unit_price_applied)
+                    SELECT ?, p.id, ?, p.price FROM products p WHERE p.id = ?
+                    ON DUPLICATE KEY UPDATE quantity_kg = cart_items.quantity_kg + ?
                 """;
-        try (Connection c = Db.getConnection();
-                Statement s = c.createStatement()) {
-            s.execute(sql);
-            // Add unit_price_applied column if it doesn't exist (for existing tables)
-            try {
-                s.execute("ALTER TABLE cart_items ADD COLUMN unit_price_applied DECIMAL(10,2) NOT NULL DEFAULT 0.00 COMMENT 'Price at time of adding to cart'");
-            } catch (Exception e) {
-                // Column already exists, ignore
-            }
-        } catch (Exception e) {
-            e.printStackTrace();
-            System.err.println("Cart table creation failed: " + e.getMessage());
-        }
-    }
-
-    public void addToCart(int userId, int productId, double kg) {
-        // Get current product price to store it
-        double currentPrice = getProductPrice(productId);
-        
-        // Upsert logic: If exists, add to current quantity (keep original price)
-        String checkSql = "SELECT quantity_kg FROM cart_items WHERE user_id=? AND product_id=?";
-        String insertSql = "INSERT INTO cart_items (user_id, product_id, quantity_kg, unit_price_applied) VALUES (?, ?, ?, ?)";
-        String updateSql = "UPDATE cart_items SET quantity_kg = quantity_kg + ? WHERE user_id=? AND product_id=?";
+        String quantitySql = "SELECT quantity_kg FROM cart_items WHERE user_id=? AND product_id=?";
 
         try (Connection c = Db.getConnection()) {
-            // Check existence
-            boolean exists = false;
-            try (PreparedStatement ps = c.prepareStatement(checkSql)) {
+            // Read back inside the upsert's transaction so a concurrent add cannot slip in between
+            c.setAutoCommit(false);
+            try (PreparedStatement ps = c.prepareStatement(upsertSql)) {
                 ps.setInt(1, userId);
-                ps.setInt(2, productId);
-                try (ResultSet rs = ps.executeQuery()) {
-                    if (rs.next())
-                        exists = true;
+                ps.setDouble(2, kg);
+                ps.setInt(3, productId);
+                ps.setDouble(4, kg);
+                if (ps.executeUpdate() == 0) {
+                    c.rollback();
+                    throw new RuntimeException("Product not found: " + productId);
                 }
             }
 
-            if (exists) {
-                // Update quantity only, keep original price
-                try (PreparedStatement ps = c.prepareStatement(updateSql)) {
-                    ps.setDouble(1, kg);
-                    ps.setInt(2, userId);
-                    ps.setInt(3, productId);
-                    ps.executeUpdate();
-                }
-            } else {
-                // Insert with current price
-                try (PreparedStatement ps = c.prepareStatement(insertSql)) {
-                    ps.setInt(1, userId);
-                    ps.setInt(2, productId);
-                    ps.setDouble(3, kg);
-                    ps.setDouble(4, currentPrice);
-                    ps.executeUpdate();
+            double quantity;
+            try (PreparedStatement ps = c.prepareStatement(quantitySql)) {
+                ps.setInt(1, userId);
+                ps.setInt(2, productId);
+                try (ResultSet rs = ps.executeQuery()) {
+                    quantity = rs.next() ? rs.getDouble("quantity_kg") : kg;
                 }
             }
+            c.commit();
+            return quantity;
         } catch (Exception e) {
             throw new RuntimeException("Error adding to cart: " + e.getMessage(), e);
         }
     }
-    
-    private double getProductPrice(int productId) {
-        String sql = "SELECT price FROM products WHERE id = ?";
-        try (Connection c = Db.getConnection();
-                PreparedStatement ps = c.prepareStatement(sql)) {
-            ps.setInt(1, productId);
-            try (ResultSet rs = ps.executeQuery()) {
-                if (rs.next()) {
-                    return rs.getDouble("price");
-                }
-            }
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
-        return 0.0;
-    }
 
     public void remove(int userId, int productId) {
         String sql = "DELETE FROM cart_items WHERE user_id=? AND product_id=?";
@@ -132,83 +87,112 @@ public class CartDao {
     }
 
     /**
-     * Loads cart items and validates stock.
+     * Loads cart items and reconciles them with current stock: lines whose product is out of
+     * stock are removed and lines asking for more than is left are cut down to the stock.
+     * <p>
+     * The fix-up is set-based, so opening a cart costs at most four statements however many
+     * lines it has: one read of the lines to fix (for the per-product warnings), one DELETE,
+     * one UPDATE and the final read, all in one transaction. The UPDATE and DELETE are
+     * skipped when that first read finds nothing to fix.
+     * <p>
+     * The first read is a plain consistent read, so stock may drop further before the
+     * UPDATE locks the rows. The UPDATE therefore runs before the DELETE, and the DELETE
+     * also removes lines the UPDATE capped to 0 kg, whatever the first read saw.
      */
     public CartLoadResult getCartItemsWithStockCheck(int userId) {
         CartLoadResult result = new CartLoadResult();
+        String shortSql = """
+                    SELECT p.name, p.stock_kg
+                    FROM cart_items ci
+                    JOIN products p ON ci.product_id = p.id
+                    WHERE ci.user_id = ? AND ci.quantity_kg > p.stock_kg
+                """;
+        String deleteOutOfStockSql = """
+                    DELETE ci FROM cart_items ci
+                    JOIN products p ON ci.product_id = p.id
+                    WHERE ci.user_id = ? AND (p.stock_kg <= 0 OR ci.quantity_kg <= 0)
+                """;
+        String capToStockSql = """
+                    UPDATE cart_items ci
+                    JOIN products p ON ci.product_id = p.id
+                    SET ci.quantity_kg = LEAST(ci.quantity_kg, p.stock_kg)
+                    WHERE ci.user_id = ? AND ci.quantity_kg > p.stock_kg
+                """;
         String sql = """
-                    SELECT ci.product_id, ci.quantity_kg, ci.unit_price_applied, 
-                           p.name, p.type, p.price, p.stock_kg, p.threshold_kg, p.image_blob
+                    SELECT %s
                     FROM cart_items ci
                     JOIN products p ON ci.product_id = p.id
                     WHERE ci.user_id = ?
-                """;
-
-        String updateQtySql = "UPDATE cart_items SET quantity_kg = ? WHERE user_id = ? AND product_id = ?";
-        String deleteItemSql = "DELETE FROM cart_items WHERE user_id = ? AND product_id = ?";
-
-        try (Connection c = Db.getConnection();
-                PreparedStatement ps = c.prepareStatement(sql)) {
-            ps.setInt(1, userId);
+                """.formatted(Projections.CART_ITEM_PRICING);
 
-            try (ResultSet rs = ps.executeQuery()) {
-                while (rs.next()) {
-                    int pId = rs.getInt("product_id");
-                    double cartKg = rs.getDouble("quantity_kg");
-                    double stockKg = rs.getDouble("stock_kg");
-                    double thresholdKg = rs.getDouble("threshold_kg");
+        try (Connection c = Db.getConnection()) {
+            c.setAutoCommit(false);
 
-                    String pName = rs.getString("name");
-                    String pType = rs.getString("type");
-                    // Use stored price from cart_items (price at time of addition), not current product price
-                    double pPrice = rs.getDouble("unit_price_applied");
-                    // Fallback to current price if unit_price_applied is 0 (for legacy data)
-                    if (pPrice <= 0) {
-                        pPrice = rs.getDouble("price");
+            // STOCK CHECK - only needed when some line asks for more than is in stock
+            boolean needsFix = false;
+            try (PreparedStatement ps = c.prepareStatement(shortSql)) {
+                ps.setInt(1, userId);
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        String pName = rs.getString("name");
+                        needsFix = true;
+                        if (rs.getDouble("stock_kg") <= 0) {
+                            result.warnings.add("Product removed from cart due to out of stock: " + pName);
+                        } else {
+                            result.warnings.add("Quantity updated due to insufficient stock: " + pName);
+                        }
                     }
+                }
+            }
+            if (needsFix) {
+                try (PreparedStatement upd = c.prepareStatement(capToStockSql)) {
+                    upd.setInt(1, userId);
+                    upd.executeUpdate();
+                }
+                try (PreparedStatement del = c.prepareStatement(deleteOutOfStockSql)) {
+                    del.setInt(1, userId);
+                    del.executeUpdate();
+                }
+            }
 
-                    // STOCK CHECK
-                    if (stockKg <= 0) {
-                        // Out of stock -> remove
-                        try (PreparedStatement del = c.prepareStatement(deleteItemSql)) {
-                            del.setInt(1, userId);
-                            del.setInt(2, pId);
-                            del.executeUpdate();
+            try (PreparedStatement ps = c.prepareStatement(sql)) {
+                ps.setInt(1, userId);
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        int pId = rs.getInt("product_id");
+                        double cartKg = rs.getDouble("quantity_kg");
+                        double stockKg = rs.getDouble("stock_kg");
+                        double thresholdKg = rs.getDouble("threshold_kg");
+
+                        String pName = rs.getString("name");
+                        String pType = rs.getString("type");
+                        // Use stored price from cart_items (price at time of addition), not current product price
+                        double pPrice = rs.getDouble("unit_price_applied");
+                        // Fallback to current price if unit_price_applied is 0 (for legacy data)
+                        if (pPrice <= 0) {
+                            pPrice = rs.getDouble("price");
                         }
-                        result.warnings.add("Product removed from cart due to out of stock: " + pName);
-                        continue;
-                    }
 
-                    if (cartKg > stockKg) {
-                        // Adjustment needed
-                        try (PreparedStatement upd = c.prepareStatement(updateQtySql)) {
-                            upd.setDouble(1, stockKg);
-                            upd.setInt(2, userId);
-                            upd.setInt(3, pId);
-                            upd.executeUpdate();
+                        // THRESHOLD CHECK - warn if stock is at or below threshold
+                        if (stockKg <= thresholdKg) {
+                            result.warnings.add("Low stock warning: " + pName + " has only " + stockKg + " kg remaining (threshold: " + thresholdKg + " kg)");
                         }
-                        cartKg = stockKg;
-                        result.warnings.add("Quantity updated due to insufficient stock: " + pName);
-                    }
 
-                    // THRESHOLD CHECK - warn if stock is at or below threshold
-                    if (stockKg <= thresholdKg) {
-                        result.warnings.add("Low stock warning: " + pName + " has only " + stockKg + " kg remaining (threshold: " + thresholdKg + " kg)");
+                        // Build Product & CartItem
+                        // Use current product price for Product object (data integrity)
+                        double currentProductPrice = rs.getDouble("price");
+                        Product p = new Product(pId, pName, pType, currentProductPrice, stockKg, thresholdKg);
+                        // Use stored price from cart_items (price at time of addition) for CartItem pricing
+                        // This ensures pricing consistency even if product price changes
+                        long storedPrice = Money.toKurus(pPrice); // This is unit_price_applied from the query
+                        // Round line total once, to the kuruş, to match order_items precision
+                        long lineTotal = Money.lineTotalKurus(storedPrice, cartKg);
+                        CartItem item = new CartItem(p, cartKg, Money.ofKurus(storedPrice), Money.ofKurus(lineTotal));
+                        result.items.add(item);
                     }
-
-                    // Build Product & CartItem
-                    // Use current product price for Product object (data integrity)
-                    double currentProductPrice = rs.getDouble("price");
-                    Product p = new Product(pId, pName, pType, currentProductPrice, stockKg, thresholdKg);
-                    // Use stored price from cart_items (price at time of addition) for CartItem pricing
-                    // This ensures pricing consistency even if product price changes
-                    double storedPrice = pPrice; // This is unit_price_applied from the query
-                    // Round line total to match order_items precision (2 decimal places)
-                    double lineTotal = Math.round((storedPrice * cartKg) * 100.0) / 100.0;
-                    CartItem item = new CartItem(p, cartKg, storedPrice, lineTotal);
-                    result.items.add(item);
                 }
             }
+            c.commit();
         } catch (Exception e) {
             throw new RuntimeException("Error loading cart: " + e.getMessage(), e);
         }
@@ -253,4 +237,27 @@ public class CartDao {
         }
         return 0.0;
     }
+
+    /**
+     * Gets the quantities of every product in the user's cart in one query.
+     *
+     * @param userId The user ID
+     * @return product ID to quantity in kg; products not in the cart are absent
+     */
+    public Map<Integer, Double> getCartQuantities(int userId) {
+        Map<Integer, Double> quantities = new HashMap<>();
+        String sql = "SELECT product_id, quantity_kg FROM cart_items WHERE user_id = ?";
+        try (Connection c = Db.getConnection();
+                PreparedStatement ps = c.prepareStatement(sql)) {
+            ps.setInt(1, userId);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    quantities.put(rs.getInt("product_id"), rs.getDouble("quantity_kg"));
+                }
+            }
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to load cart quantities: " + e.getMessage(), e);
+        }
+        return quantities;
+    }
 }
@@ -0,0 +1,63 @@
+package com.cmpe343.dao;
+
+import com.cmpe343.util.AppExecutors;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Async counterpart of {@link CartDao}; see {@link OrderDaoAsync}.
+ */
+public class CartDaoAsync {
+
+    private final CartDao dao;
+
+    public CartDaoAsync() {
+        this(new CartDao());
+    }
+
+    public CartDaoAsync(CartDao dao) {
+        this.dao = dao;
+    }
+
+    /**
+     * @return the blocking DAO behind this facade
+     */
+    public CartDao blocking() {
+        return dao;
+    }
+
+    public CompletableFuture<Double> addToCart(int userId, int productId, double kg) {
+        return AppExecutors.supply(() -> dao.addToCart(userId, productId, kg));
+    }
+
+    public CompletableFuture<Void> remove(int userId, int productId) {
+        return AppExecutors.supply(() -> {
+            dao.remove(userId, productId);
+            return null;
+        });
+    }
+
+    public CompletableFuture<Void> clear(int userId) {
+        return AppExecutors.supply(() -> {
+            dao.clear(userId);
+            return null;
+        });
+    }
+
+    public CompletableFuture<CartDao.CartLoadResult> getCartItemsWithStockCheck(int userId) {
+        return AppExecutors.supply(() -> dao.getCartItemsWithStockCheck(userId));
+    }
+
+    public CompletableFuture<Integer> getCartItemCount(int userId) {
+        return AppExecutors.supply(() -> dao.getCartItemCount(userId));
+    }
+
+    public CompletableFuture<Double> getCartQuantity(int userId, int productId) {
+        return AppExecutors.supply(() -> dao.getCartQuantity(userId, productId));
+    }
+
+    public CompletableFuture<Map<Integer, Double>> getCartQuantities(int userId) {
+        return AppExecutors.supply(() -> dao.getCartQuantities(userId));
+    }
+}
@@ -0,0 +1,51 @@
+package com.cmpe343.dao;
+
+import com.cmpe343.model.Coupon;
+import com.cmpe343.util.AppExecutors;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Async counterpart of {@link CouponDao}; see {@link OrderDaoAsync}.
+ */
+public class CouponDaoAsync {
+
+    private final CouponDao dao;
+
+    public CouponDaoAsync() {
+        this(new CouponDao());
+    }
+
+    public CouponDaoAsync(CouponDao dao) {
+        this.dao = dao;
+    }
+
+    /**
+     * @return the blocking DAO behind this facade
+     */
+    public CouponDao blocking() {
+        return dao;
+    }
+
+    public CompletableFuture<List<Coupon>> getAllCoupons() {
+        return AppExecutors.supply(() -> dao.getAllCoupons());
+    }
+
+    public CompletableFuture<List<Coupon>> getActiveCouponsForCustomer(int customerId) {
+        return AppExecutors.supply(() -> dao.getActiveCouponsForCustomer(customerId));
+    }
+
+    public CompletableFuture<Coupon> getCouponByCode(String code) {
+        return AppExecutors.supply(() -> dao.getCouponByCode(code));
+    }
+
+    public CompletableFuture<Coupon> getCouponById(int id) {
+        return AppExecutors.supply(() -> dao.getCouponById(id));
+    }
+
+    public CompletableFuture<Integer> createCoupon(String code, Coupon.CouponKind kind, double value, double minCart, LocalDateTime expiresAt, boolean isActive) {
+        return AppExecutors.supply(() -> dao.createCoupon(code, kind, value, minCart, expiresAt, isActive));
+    }
+}
@@ -0,0 +1,66 @@
+package com.cmpe343.dao;
+
+import com.cmpe343.model.Message;
+import com.cmpe343.util.AppExecutors;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Async counterpart of {@link MessageDao}; see {@link OrderDaoAsync}. The timestamp
+ * formatting helpers do no I/O and stay on {@link MessageDao}.
+ */
+public class MessageDaoAsync {
+
+    private final MessageDao dao;
+
+    public MessageDaoAsync() {
+        this(new MessageDao());
+    }
+
+    public MessageDaoAsync(MessageDao dao) {
+        this.dao = dao;
+    }
+
+    /**
+     * @return the blocking DAO behind this facade
+     */
+    public MessageDao blocking() {
+        return dao;
+    }
+
+    public CompletableFuture<List<Message>> getAllMessages() {
+        return AppExecutors.supply(() -> dao.getAllMessages());
+    }
+
+    public CompletableFuture<List<Message>> getMessagesForCustomer(int customerId) {
+        return AppExecutors.supply(() -> dao.getMessagesForCustomer(customerId));
+    }
+
+    public CompletableFuture<Void> markAsRead(int messageId) {
+        return AppExecutors.supply(() -> {
+            dao.markAsRead(messageId);
+            return null;
+        });
+    }
+
+    public CompletableFuture<Integer> createMessage(int customerId, int ownerId, String text) {
+        return AppExecutors.supply(() -> dao.createMessage(customerId, ownerId, text));
+    }
+
+    public CompletableFuture<Boolean> replyToMessage(int messageId, String replyText) {
+        return AppExecutors.supply(() -> dao.replyToMessage(messageId, replyText));
+    }
+
+    public CompletableFuture<String> getReplyText(int messageId) {
+        return AppExecutors.supply(() -> dao.getReplyText(messageId));
+    }
+
+    public CompletableFuture<List<Message>> getMessagesForOwner(int ownerId) {
+        return AppExecutors.supply(() -> dao.getMessagesForOwner(ownerId));
+    }
+
+    public CompletableFuture<Message> getMessageById(int messageId) {
+        return AppExecutors.supply(() -> dao.getMessageById(messageId));
+    }
+}
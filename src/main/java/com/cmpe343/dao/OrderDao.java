@@ -1,15 +1,48 @@
 package com.cmpe343.dao;
 
 import com.cmpe343.db.Db;
+import com.cmpe343.db.TransactionRetry;
+import com.cmpe343.jfr.CheckoutPhaseEvent;
 import com.cmpe343.model.CartItem;
+import com.cmpe343.model.Coupon;
+import com.cmpe343.model.Money;
 
+import java.math.RoundingMode;
 import java.sql.*;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class OrderDao {
 
-    private static final double VAT_RATE = 0.20; // %20
+    // Max order ids per IN-list when batch-loading order items
+    private static final int ITEM_BATCH_SIZE = 500;
+    // Largest page getOrdersPage/getOrdersForCustomerPage will return
+    public static final int MAX_PAGE_SIZE = 500;
+
+    /**
+     * Position in an order list sorted newest first: the (order_time, id) of the last
+     * order already shown. The next page starts right after it.
+     */
+    public static class Cursor {
+        public final LocalDateTime orderTime;
+        public final int id;
+
+        public Cursor(LocalDateTime orderTime, int id) {
+            this.orderTime = orderTime;
+            this.id = id;
+        }
+    }
+
+    public static class Page {
+        public List<com.cmpe343.model.Order> orders = new java.util.ArrayList<>();
+        /** Where the next page starts, or null if this was the last page. */
+        public Cursor next;
+
+        public boolean hasMore() {
+            return next != null;
+        }
+    }
 
     public int createOrder(int customerId, List<CartItem> items, LocalDateTime requestedDelivery) {
         return createOrder(customerId, items, requestedDelivery, null);
@@ -26,40 +59,43 @@ public class OrderDao {
         Timestamp nowTs = Timestamp.valueOf(LocalDateTime.now());
         Timestamp requestedTs = Timestamp.valueOf(requestedDelivery);
 
-        // Calculate original subtotal (before coupon)
-        // Round each line total before summing to match order_items precision
-        double originalSubtotal = items.stream()
-            .mapToDouble(item -> round2(item.getLineTotal()))
-            .sum();
+        // Calculate original subtotal (before coupon), in kuruş
+        // Line totals are already rounded to the kuruş, matching order_items precision
+        long originalSubtotal = CartItem.subtotalKurus(items);
         
         // Apply coupon discount if provided
         // Validate coupon at order placement time to prevent race conditions
-        double couponDiscount = 0.0;
+        long couponDiscount = 0;
         if (couponId != null) {
-            Double discount = getCouponDiscount(couponId, originalSubtotal);
+            CheckoutPhaseEvent couponPhase = CheckoutPhaseEvent.start(CheckoutPhaseEvent.COUPON_VALIDATION, customerId, 0, items.size());
+            Money discount = getCouponDiscount(couponId, originalSubtotal);
             if (discount == null) {
+                couponPhase.fail(0);
                 // Coupon is invalid (expired/deactivated/not found/min cart not met) - throw exception to inform user
                 throw new IllegalArgumentException("The selected coupon is no longer valid. Please remove it and try again.");
             }
-            couponDiscount = discount; // discount can be 0.0 for valid coupons with zero discount
+            couponDiscount = discount.kurus(); // discount can be 0 for valid coupons with zero discount
+            couponPhase.finish(0);
         }
         
         // Calculate post-coupon subtotal (this is what VAT is calculated on)
-        double totalAfterCoupon = Math.max(0, originalSubtotal - couponDiscount);
-        double vat = round2(totalAfterCoupon * VAT_RATE);
-        double totalAfterTax = round2(totalAfterCoupon + vat);
+        long totalAfterCoupon = Math.max(0, originalSubtotal - couponDiscount);
+        long vat = Money.vatKurus(totalAfterCoupon, Money.VAT_PERCENT);
+        long totalAfterTax = totalAfterCoupon + vat;
         
         // Store the post-coupon subtotal in totalBeforeTax (since VAT is calculated on this)
-        // This ensures consistency: totalBeforeTax + VAT = totalAfterTax
-        double totalBeforeTax = totalAfterCoupon;
+        // This ensures consistency: totalBeforeTax + VAT = totalAfterTax, exactly
+        long totalBeforeTax = totalAfterCoupon;
+        // The discount actually subtracted, which the invoice shows
+        long appliedDiscount = originalSubtotal - totalAfterCoupon;
 
         String insertOrder = """
                     INSERT INTO orders
                       (customer_id, carrier_id, status, order_time, requested_delivery_time, delivered_time,
-                       total_before_tax, vat, total_after_tax, coupon_id, loyalty_discount)
+                       total_before_tax, vat, total_after_tax, coupon_id, coupon_discount, loyalty_discount)
                     VALUES
                       (?, NULL, 'CREATED', ?, ?, NULL,
-                       ?, ?, ?, ?, 0)
+                       ?, ?, ?, ?, ?, 0)
                 """;
 
         // ✅ SENİN TABLOYA GÖRE:
@@ -75,65 +111,100 @@ public class OrderDao {
                     WHERE id = ? AND stock_kg >= ?
                 """;
 
-        try (Connection c = Db.getConnection()) {
-            c.setAutoCommit(false);
+        // A deadlock or lock wait timeout rolls the whole transaction back; run it again
+        AtomicInteger attempts = new AtomicInteger();
+        try {
+            int newOrderId = TransactionRetry.getInstance().run("createOrder", () -> {
+                int attempt = attempts.incrementAndGet();
+                int orderId = 0;
+                // The phase being timed for Flight Recorder; marked failed if the attempt throws
+                CheckoutPhaseEvent phase = null;
+                try (Connection c = Db.getConnection()) {
+                    c.setAutoCommit(false);
 
-            int orderId;
-
-            // 1) Order insert
-            try (PreparedStatement ps = c.prepareStatement(insertOrder, Statement.RETURN_GENERATED_KEYS)) {
-                ps.setInt(1, customerId);
-                ps.setTimestamp(2, nowTs);
-                ps.setTimestamp(3, requestedTs);
-                ps.setDouble(4, round2(totalBeforeTax));
-                ps.setDouble(5, vat);
-                ps.setDouble(6, totalAfterTax);
-                // Set coupon_id (position 7)
-                if (couponId != null) {
-                    ps.setInt(7, couponId);
-                } else {
-                    ps.setNull(7, Types.INTEGER);
-                }
+                    // 1) Order insert
+                    phase = CheckoutPhaseEvent.start(CheckoutPhaseEvent.ORDER_INSERT, customerId, attempt, items.size());
+                    try (PreparedStatement ps = c.prepareStatement(insertOrder, Statement.RETURN_GENERATED_KEYS)) {
+                        ps.setInt(1, customerId);
+                        ps.setTimestamp(2, nowTs);
+                        ps.setTimestamp(3, requestedTs);
+                        ps.setBigDecimal(4, Money.toBigDecimal(totalBeforeTax));
+                        ps.setBigDecimal(5, Money.toBigDecimal(vat));
+                        ps.setBigDecimal(6, Money.toBigDecimal(totalAfterTax));
+                        // Set coupon_id (position 7)
+                        if (couponId != null) {
+                            ps.setInt(7, couponId);
+                        } else {
+                            ps.setNull(7, Types.INTEGER);
+                        }
+                        ps.setBigDecimal(8, Money.toBigDecimal(appliedDiscount));
 
-                ps.executeUpdate();
+                        ps.executeUpdate();
 
-                try (ResultSet keys = ps.getGeneratedKeys()) {
-                    if (!keys.next()) {
-                        c.rollback();
-                        throw new RuntimeException("Could not retrieve order id.");
+                        try (ResultSet keys = ps.getGeneratedKeys()) {
+                            if (!keys.next()) {
+                                c.rollback();
+                                throw new RuntimeException("Could not retrieve order id.");
+                            }
+                            orderId = keys.getInt(1);
+                        }
                     }
-                    orderId = keys.getInt(1);
-                }
-            }
+                    phase.finish(orderId);
 
-            // 2) Items + stock update
-            for (CartItem it : items) {
-                // stok düş
-                try (PreparedStatement ps = c.prepareStatement(updateStock)) {
-                    ps.setDouble(1, it.getQuantityKg());
-                    ps.setInt(2, it.getProduct().getId());
-                    ps.setDouble(3, it.getQuantityKg());
-                    int updated = ps.executeUpdate();
-                    if (updated == 0) {
-                        c.rollback();
-                        throw new RuntimeException("Insufficient stock: " + it.getProduct().getName());
+                    // 2) ✅ order_item inserts (kg + unit_price_applied) as one batch
+                    phase = CheckoutPhaseEvent.start(CheckoutPhaseEvent.ITEM_INSERT, customerId, attempt, items.size());
+                    try (PreparedStatement ps = c.prepareStatement(insertItem)) {
+                        for (CartItem it : items) {
+                            ps.setInt(1, orderId);
+                            ps.setInt(2, it.getProduct().getId());
+                            ps.setDouble(3, round2(it.getQuantityKg()));
+                            ps.setBigDecimal(4, Money.toBigDecimal(it.getUnitPriceKurus()));
+                            ps.setBigDecimal(5, Money.toBigDecimal(it.getLineTotalKurus()));
+                            ps.addBatch();
+                        }
+                        ps.executeBatch();
                     }
-                }
+                    phase.finish(orderId);
 
-                // ✅ order_item insert (kg + unit_price_applied)
-                try (PreparedStatement ps = c.prepareStatement(insertItem)) {
-                    ps.setInt(1, orderId);
-                    ps.setInt(2, it.getProduct().getId());
-                    ps.setDouble(3, round2(it.getQuantityKg()));
-                    ps.setDouble(4, round2(it.getUnitPrice()));
-                    ps.setDouble(5, round2(it.getLineTotal()));
-                    ps.executeUpdate();
-                }
-            }
-
-            c.commit();
-            return orderId;
+                    // 3) Stock decrements as one batch, last so the product rows stay locked only until
+                    // the commit. Rows are locked in product id order so two checkouts touching the
+                    // same products cannot deadlock each other.
+                    phase = CheckoutPhaseEvent.start(CheckoutPhaseEvent.STOCK_DECREMENT, customerId, attempt, items.size());
+                    List<CartItem> byProduct = new java.util.ArrayList<>(items);
+                    byProduct.sort(java.util.Comparator.comparingInt(it -> it.getProduct().getId()));
+                    try (PreparedStatement ps = c.prepareStatement(updateStock)) {
+                        for (CartItem it : byProduct) {
+                            // stok düş
+                            ps.setDouble(1, it.getQuantityKg());
+                            ps.setInt(2, it.getProduct().getId());
+                            ps.setDouble(3, it.getQuantityKg());
+                            ps.addBatch();
+                        }
+                        int[] updated = ps.executeBatch();
+                        for (int i = 0; i < updated.length; i++) {
+                            // SUCCESS_NO_INFO counts as success; only an explicit 0 means the stock guard failed
+                            if (updated[i] == 0) {
+                                c.rollback();
+                                throw new RuntimeException("Insufficient stock: " + byProduct.get(i).getProduct().getName());
+                            }
+                        }
+                    }
+                    phase.finish(orderId);
 
+                    phase = CheckoutPhaseEvent.start(CheckoutPhaseEvent.COMMIT, customerId, attempt, items.size());
+                    c.commit();
+                    phase.finish(orderId);
+                    return orderId;
+                } catch (Exception e) {
+                    if (phase != null) {
+                        phase.fail(orderId);
+                    }
+                    throw e;
+                }
+            });
+            // Stock levels changed
+            ProductCatalogCache.getInstance().invalidate();
+            return newOrderId;
         } catch (Exception e) {
             throw new RuntimeException("Could not create order: " + e.getMessage(), e);
         }
@@ -141,7 +212,7 @@ public class OrderDao {
 
     public List<com.cmpe343.model.Order> getAllOrders() {
         List<com.cmpe343.model.Order> list = new java.util.ArrayList<>();
-        String sql = "SELECT * FROM orders ORDER BY order_time DESC";
+        String sql = "SELECT " + Projections.ORDER_LIST + " FROM orders o ORDER BY o.order_time DESC, o.id DESC";
 
         try (Connection c = Db.getConnection();
                 Statement st = c.createStatement();
@@ -159,7 +230,7 @@ public class OrderDao {
     
     public List<com.cmpe343.model.Order> getOrdersForCustomer(int customerId) {
         List<com.cmpe343.model.Order> list = new java.util.ArrayList<>();
-        String sql = "SELECT * FROM orders WHERE customer_id = ? ORDER BY order_time DESC";
+        String sql = "SELECT " + Projections.ORDER_LIST + " FROM orders o WHERE o.customer_id = ? ORDER BY o.order_time DESC, o.id DESC";
 
         try (Connection c = Db.getConnection();
                 PreparedStatement ps = c.prepareStatement(sql)) {
@@ -167,27 +238,103 @@ public class OrderDao {
             
             try (ResultSet rs = ps.executeQuery()) {
                 while (rs.next()) {
-                    com.cmpe343.model.Order order = mapOrder(rs);
-                    // Load order items
-                    order.setItems(getOrderItems(order.getId()));
-                    list.add(order);
+                    list.add(mapOrder(rs));
                 }
             }
+            // Load order items for the whole list in one go
+            attachOrderItems(c, list);
         } catch (Exception e) {
             System.err.println("Error fetching customer orders: " + e.getMessage());
         }
         return list;
     }
     
+    /**
+     * Gets one page of all orders, newest first.
+     * <p>
+     * Uses keyset pagination: the page is read from idx_orders_time starting after
+     * {@code after}, so every page costs the same no matter how deep into the history it
+     * is or how large the table grows (unlike OFFSET, which scans the skipped rows).
+     *
+     * @param after    the previous page's {@link Page#next}, or null for the first page
+     * @param pageSize orders per page, 1 to {@link #MAX_PAGE_SIZE}
+     */
+    public Page getOrdersPage(Cursor after, int pageSize) {
+        return fetchPage(null, after, pageSize, false);
+    }
+
+    /**
+     * Gets one page of a customer's orders, newest first, with their items loaded.
+     * Same paging rules as {@link #getOrdersPage(Cursor, int)}, using idx_orders_customer_time.
+     */
+    public Page getOrdersForCustomerPage(int customerId, Cursor after, int pageSize) {
+        return fetchPage(customerId, after, pageSize, true);
+    }
+
+    private Page fetchPage(Integer customerId, Cursor after, int pageSize, boolean withItems) {
+        if (pageSize < 1 || pageSize > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Page size must be between 1 and " + MAX_PAGE_SIZE + ": " + pageSize);
+        }
+        List<String> where = new java.util.ArrayList<>();
+        if (customerId != null) {
+            where.add("o.customer_id = ?");
+        }
+        if (after != null) {
+            // Expanded form of (order_time, id) < (?, ?) so MySQL turns it into an index range
+            where.add("(o.order_time < ? OR (o.order_time = ? AND o.id < ?))");
+        }
+        // One extra row tells whether another page follows
+        String sql = """
+                SELECT %s
+                FROM orders o
+                %s
+                ORDER BY o.order_time DESC, o.id DESC
+                LIMIT ?
+                """.formatted(Projections.ORDER_LIST, where.isEmpty() ? "" : "WHERE " + String.join(" AND ", where));
+
+        Page page = new Page();
+        try (Connection c = Db.getConnection();
+                PreparedStatement ps = c.prepareStatement(sql)) {
+            int i = 1;
+            if (customerId != null) {
+                ps.setInt(i++, customerId);
+            }
+            if (after != null) {
+                Timestamp time = Timestamp.valueOf(after.orderTime);
+                ps.setTimestamp(i++, time);
+                ps.setTimestamp(i++, time);
+                ps.setInt(i++, after.id);
+            }
+            ps.setInt(i, pageSize + 1);
+
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    page.orders.add(mapOrder(rs));
+                }
+            }
+            if (page.orders.size() > pageSize) {
+                page.orders.remove(pageSize);
+                com.cmpe343.model.Order last = page.orders.get(pageSize - 1);
+                page.next = new Cursor(last.getOrderTime(), last.getId());
+            }
+            if (withItems) {
+                attachOrderItems(c, page.orders);
+            }
+        } catch (Exception e) {
+            throw new RuntimeException("Error fetching orders page: " + e.getMessage(), e);
+        }
+        return page;
+    }
+
     public List<com.cmpe343.model.CartItem> getOrderItems(int orderId) {
         List<com.cmpe343.model.CartItem> items = new java.util.ArrayList<>();
         String sql = """
-            SELECT oi.product_id, oi.kg, oi.unit_price_applied, oi.line_total,
-                   p.name, p.type, p.price, p.stock_kg, p.threshold_kg, p.image_blob
+            SELECT %s
             FROM order_items oi
             JOIN products p ON oi.product_id = p.id
             WHERE oi.order_id = ?
-        """;
+            ORDER BY oi.id
+        """.formatted(Projections.ORDER_ITEM_LIST);
         
         try (Connection c = Db.getConnection();
                 PreparedStatement ps = c.prepareStatement(sql)) {
@@ -195,29 +342,7 @@ public class OrderDao {
             
             try (ResultSet rs = ps.executeQuery()) {
                 while (rs.next()) {
-                    // Use current product price (not historical) to maintain data integrity
-                    // Historical pricing is stored separately in CartItem
-                    // Images are stored in BLOB, accessed via ProductDao.getProductImageBlob(productId)
-                    com.cmpe343.model.Product product = new com.cmpe343.model.Product(
-                        rs.getInt("product_id"),
-                        rs.getString("name"),
-                        rs.getString("type"),
-                        rs.getDouble("price"), // Current product price from products table
-                        rs.getDouble("stock_kg"),
-                        rs.getDouble("threshold_kg")
-                    );
-                    // Store historical pricing separately to preserve order integrity
-                    // This ensures CartItem.getUnitPrice() and getLineTotal() return the values
-                    // that were applied at order creation time, not the current product price
-                    double historicalUnitPrice = rs.getDouble("unit_price_applied");
-                    double historicalLineTotal = rs.getDouble("line_total");
-                    com.cmpe343.model.CartItem item = new com.cmpe343.model.CartItem(
-                        product, 
-                        rs.getDouble("kg"),
-                        historicalUnitPrice,
-                        historicalLineTotal
-                    );
-                    items.add(item);
+                    items.add(mapOrderItem(rs));
                 }
             }
         } catch (Exception e) {
@@ -226,6 +351,87 @@ public class OrderDao {
         return items;
     }
 
+    /**
+     * Loads the items of all given orders with one query per {@value #ITEM_BATCH_SIZE} orders
+     * and sets them on each order. Orders without items get an empty list.
+     *
+     * @param orders The orders whose items should be loaded
+     */
+    public void loadOrderItems(List<com.cmpe343.model.Order> orders) {
+        if (orders == null || orders.isEmpty()) {
+            return;
+        }
+        try (Connection c = Db.getConnection()) {
+            attachOrderItems(c, orders);
+        } catch (Exception e) {
+            System.err.println("Error fetching order items: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Fetches items for a page of orders using an IN-list on the given connection and
+     * stitches them onto the orders in memory, instead of one query per order.
+     */
+    private void attachOrderItems(Connection c, List<com.cmpe343.model.Order> orders) throws SQLException {
+        java.util.Map<Integer, List<com.cmpe343.model.CartItem>> itemsByOrder = new java.util.HashMap<>();
+        for (com.cmpe343.model.Order order : orders) {
+            itemsByOrder.put(order.getId(), new java.util.ArrayList<>());
+        }
+
+        List<Integer> ids = new java.util.ArrayList<>(itemsByOrder.keySet());
+        for (int from = 0; from < ids.size(); from += ITEM_BATCH_SIZE) {
+            List<Integer> chunk = ids.subList(from, Math.min(from + ITEM_BATCH_SIZE, ids.size()));
+            String placeholders = String.join(",", java.util.Collections.nCopies(chunk.size(), "?"));
+            String sql = """
+                SELECT %s
+                FROM order_items oi
+                JOIN products p ON oi.product_id = p.id
+                WHERE oi.order_id IN (%s)
+                ORDER BY oi.order_id, oi.id
+            """.formatted(Projections.ORDER_ITEM_LIST, placeholders);
+
+            try (PreparedStatement ps = c.prepareStatement(sql)) {
+                for (int i = 0; i < chunk.size(); i++) {
+                    ps.setInt(i + 1, chunk.get(i));
+                }
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        itemsByOrder.get(rs.getInt("order_id")).add(mapOrderItem(rs));
+                    }
+                }
+            }
+        }
+
+        for (com.cmpe343.model.Order order : orders) {
+            order.setItems(itemsByOrder.get(order.getId()));
+        }
+    }
+
+    private com.cmpe343.model.CartItem mapOrderItem(ResultSet rs) throws SQLException {
+        // Use current product price (not historical) to maintain data integrity
+        // Historical pricing is stored separately in CartItem
+        // Images are not selected here; they load through ProductImageService
+        com.cmpe343.model.Product product = new com.cmpe343.model.Product(
+            rs.getInt("product_id"),
+            rs.getString("name"),
+            rs.getString("type"),
+            rs.getDouble("price"), // Current product price from products table
+            rs.getDouble("stock_kg"),
+            rs.getDouble("threshold_kg")
+        );
+        // Store historical pricing separately to preserve order integrity
+        // This ensures CartItem.getUnitPrice() and getLineTotal() return the values
+        // that were applied at order creation time, not the current product price
+        double historicalUnitPrice = rs.getDouble("unit_price_applied");
+        double historicalLineTotal = rs.getDouble("line_total");
+        return new com.cmpe343.model.CartItem(
+            product, 
+            rs.getDouble("kg"),
+            historicalUnitPrice,
+            historicalLineTotal
+        );
+    }
+
     private com.cmpe343.model.Order mapOrder(ResultSet rs) throws SQLException {
         int id = rs.getInt("id");
         int customerId = rs.getInt("customer_id");
@@ -270,9 +476,10 @@ public class OrderDao {
      * Returns the discount amount (which may be 0.0) if the coupon is valid.
      * 
      * @param couponId The coupon ID
+     * @param cartTotal The cart total in kuruş
      * @return The discount amount if coupon is valid, null if invalid
      */
-    private Double getCouponDiscount(int couponId, double cartTotal) {
+    private Money getCouponDiscount(int couponId, long cartTotal) {
         String sql = "SELECT kind, value, min_cart FROM coupons WHERE id = ? AND is_active = 1 AND (expires_at IS NULL OR expires_at >= NOW())";
         try (Connection c = Db.getConnection();
                 PreparedStatement ps = c.prepareStatement(sql)) {
@@ -280,9 +487,9 @@ public class OrderDao {
             try (ResultSet rs = ps.executeQuery()) {
                 if (rs.next()) {
                     // Coupon found and valid
-                    String kind = rs.getString("kind");
-                    double value = rs.getDouble("value");
-                    double minCart = rs.getDouble("min_cart");
+                    Coupon.CouponKind kind = couponKind(rs.getString("kind"));
+                    long value = Money.toKurus(rs.getDouble("value"));
+                    long minCart = Money.toKurus(rs.getDouble("min_cart"));
                     
                     // Check minimum cart requirement
                     if (cartTotal < minCart) {
@@ -290,10 +497,8 @@ public class OrderDao {
                     }
                     
                     // Calculate discount based on type
-                    if ("AMOUNT".equals(kind)) {
-                        return Math.min(value, cartTotal); // Don't discount more than cart total
-                    } else if ("PERCENT".equals(kind)) {
-                        return cartTotal * (value / 100.0);
+                    if (kind != null) {
+                        return Money.ofKurus(Coupon.discountKurus(kind, value, cartTotal));
                     }
                 }
             }
@@ -304,10 +509,25 @@ public class OrderDao {
         return null;
     }
     
-    public double getCouponDiscountForOrder(int orderId) {
-        // Get the order's total_before_tax to calculate percentage discount correctly
+    private static Coupon.CouponKind couponKind(String kind) {
+        if ("AMOUNT".equals(kind)) {
+            return Coupon.CouponKind.AMOUNT;
+        } else if ("PERCENT".equals(kind)) {
+            return Coupon.CouponKind.PERCENT;
+        }
+        return null;
+    }
+
+    /**
+     * The coupon discount applied to an order, as stored when it was placed. Orders written
+     * before coupon_discount existed have 0 there; for those it is worked back from the
+     * post-coupon total_before_tax.
+     *
+     * @return the discount, zero if the order has no coupon
+     */
+    public Money getCouponDiscountForOrder(int orderId) {
         String sql = """
-            SELECT c.kind, c.value, o.total_before_tax
+            SELECT o.coupon_discount, c.kind, c.value, o.total_before_tax
             FROM orders o
             JOIN coupons c ON o.coupon_id = c.id
             WHERE o.id = ?
@@ -317,36 +537,51 @@ public class OrderDao {
             ps.setInt(1, orderId);
             try (ResultSet rs = ps.executeQuery()) {
                 if (rs.next()) {
-                    String kind = rs.getString("kind");
-                    double value = rs.getDouble("value");
-                    double totalBeforeTax = rs.getDouble("total_before_tax");
-                    
-                    if ("AMOUNT".equals(kind)) {
-                        return Math.min(value, totalBeforeTax);
-                    } else if ("PERCENT".equals(kind)) {
-                        return totalBeforeTax * (value / 100.0);
+                    Money stored = Money.of(rs.getBigDecimal("coupon_discount"));
+                    if (stored.signum() > 0) {
+                        return stored;
+                    }
+                    Coupon.CouponKind kind = couponKind(rs.getString("kind"));
+                    long value = Money.toKurus(rs.getDouble("value"));
+                    long totalBeforeTax = Money.toKurus(rs.getDouble("total_before_tax"));
+                    if (kind != null) {
+                        return Money.ofKurus(legacyCouponDiscount(kind, value, totalBeforeTax));
                     }
                 }
             }
         } catch (Exception e) {
             // Order might not have a coupon, return 0
         }
-        return 0.0;
+        return Money.ZERO;
+    }
+
+    /**
+     * Works a discount back from the total left after it: an AMOUNT coupon took its whole
+     * value unless nothing was left, and a p% coupon left (100 - p)% of the subtotal.
+     */
+    private static long legacyCouponDiscount(Coupon.CouponKind kind, long valueHundredths, long netKurus) {
+        if (netKurus <= 0) {
+            return 0; // the original subtotal is unknown
+        }
+        if (kind == Coupon.CouponKind.AMOUNT) {
+            return valueHundredths;
+        }
+        long keptBasisPoints = 10_000 - valueHundredths;
+        return keptBasisPoints <= 0 ? 0 : Money.divide(netKurus * valueHundredths, keptBasisPoints, RoundingMode.HALF_UP);
     }
 
     public List<com.cmpe343.model.Order> getAvailableOrders() {
         List<com.cmpe343.model.Order> list = new java.util.ArrayList<>();
-        String sql = "SELECT * FROM orders WHERE status = 'CREATED' AND carrier_id IS NULL ORDER BY order_time DESC";
+        String sql = "SELECT " + Projections.ORDER_LIST + " FROM orders o WHERE o.status = 'CREATED' AND o.carrier_id IS NULL ORDER BY o.order_time DESC";
         
-        try (Connection c = Db.getConnection();
-                Statement st = c.createStatement();
-                ResultSet rs = st.executeQuery(sql)) {
-            
-            while (rs.next()) {
-                com.cmpe343.model.Order order = mapOrder(rs);
-                order.setItems(getOrderItems(order.getId()));
-                list.add(order);
+        try (Connection c = Db.getConnection()) {
+            try (Statement st = c.createStatement();
+                    ResultSet rs = st.executeQuery(sql)) {
+                while (rs.next()) {
+                    list.add(mapOrder(rs));
+                }
             }
+            attachOrderItems(c, list);
         } catch (Exception e) {
             System.err.println("Error fetching available orders: " + e.getMessage());
         }
@@ -355,7 +590,7 @@ public class OrderDao {
     
     public List<com.cmpe343.model.Order> getOrdersByCarrier(int carrierId, com.cmpe343.model.Order.OrderStatus status) {
         List<com.cmpe343.model.Order> list = new java.util.ArrayList<>();
-        String sql = "SELECT * FROM orders WHERE carrier_id = ? AND status = ? ORDER BY order_time DESC";
+        String sql = "SELECT " + Projections.ORDER_LIST + " FROM orders o WHERE o.carrier_id = ? AND o.status = ? ORDER BY o.order_time DESC";
         
         try (Connection c = Db.getConnection();
                 PreparedStatement ps = c.prepareStatement(sql)) {
@@ -364,11 +599,10 @@ public class OrderDao {
             
             try (ResultSet rs = ps.executeQuery()) {
                 while (rs.next()) {
-                    com.cmpe343.model.Order order = mapOrder(rs);
-                    order.setItems(getOrderItems(order.getId()));
-                    list.add(order);
+                    list.add(mapOrder(rs));
                 }
             }
+            attachOrderItems(c, list);
         } catch (Exception e) {
             System.err.println("Error fetching carrier orders: " + e.getMessage());
         }
@@ -401,13 +635,27 @@ public class OrderDao {
             WHERE id = ? AND status = 'ASSIGNED'
         """;
         
-        try (Connection c = Db.getConnection();
-                PreparedStatement ps = c.prepareStatement(sql)) {
-            ps.setTimestamp(1, Timestamp.valueOf(deliveredTime));
-            ps.setInt(2, orderId);
-            int updated = ps.executeUpdate();
-            return updated > 0;
+        try (Connection c = Db.getConnection()) {
+            c.setAutoCommit(false);
+
+            int updated;
+            try (PreparedStatement ps = c.prepareStatement(sql)) {
+                ps.setTimestamp(1, Timestamp.valueOf(deliveredTime));
+                ps.setInt(2, orderId);
+                updated = ps.executeUpdate();
+            }
+            if (updated == 0) {
+                c.rollback();
+                return false;
+            }
+
+            // Keep the report rollups in step with the status change
+            ReportDao.addDeliveredOrder(c, orderId);
+
+            c.commit();
+            return true;
         } catch (Exception e) {
+            // The pool rolls back uncommitted work when the connection is returned
             System.err.println("Error marking order as delivered: " + e.getMessage());
             return false;
         }
@@ -0,0 +1,102 @@
+package com.cmpe343.dao;
+
+import com.cmpe343.model.CartItem;
+import com.cmpe343.model.Money;
+import com.cmpe343.util.AppExecutors;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Non-blocking counterpart of {@link OrderDao}.
+ * <p>
+ * Every method runs the same DAO call on a virtual thread from {@link AppExecutors#background()}
+ * and returns its future; a failure completes the future exceptionally. Independent queries
+ * of one screen can then run at the same time and be joined, e.g.
+ * <pre>
+ * orderDaoAsync.getOrdersForCustomerPage(customerId, null, 20)
+ *         .thenCombine(ratingDaoAsync.getRatedOrderIds(customerId), Map::entry)
+ * </pre>
+ * so the screen waits for the slowest query instead of their sum. Each DAO has such a
+ * counterpart ({@code CartDaoAsync}, {@code RatingDaoAsync}, ...); {@link #blocking()}
+ * returns the DAO behind it.
+ */
+public class OrderDaoAsync {
+
+    private final OrderDao dao;
+
+    public OrderDaoAsync() {
+        this(new OrderDao());
+    }
+
+    public OrderDaoAsync(OrderDao dao) {
+        this.dao = dao;
+    }
+
+    /**
+     * @return the blocking DAO behind this facade
+     */
+    public OrderDao blocking() {
+        return dao;
+    }
+
+    public CompletableFuture<Integer> createOrder(int customerId, List<CartItem> items, LocalDateTime requestedDelivery) {
+        return AppExecutors.supply(() -> dao.createOrder(customerId, items, requestedDelivery));
+    }
+
+    public CompletableFuture<Integer> createOrder(int customerId, List<CartItem> items, LocalDateTime requestedDelivery, Integer couponId) {
+        return AppExecutors.supply(() -> dao.createOrder(customerId, items, requestedDelivery, couponId));
+    }
+
+    public CompletableFuture<List<com.cmpe343.model.Order>> getAllOrders() {
+        return AppExecutors.supply(() -> dao.getAllOrders());
+    }
+
+    public CompletableFuture<List<com.cmpe343.model.Order>> getOrdersForCustomer(int customerId) {
+        return AppExecutors.supply(() -> dao.getOrdersForCustomer(customerId));
+    }
+
+    public CompletableFuture<OrderDao.Page> getOrdersPage(OrderDao.Cursor after, int pageSize) {
+        return AppExecutors.supply(() -> dao.getOrdersPage(after, pageSize));
+    }
+
+    public CompletableFuture<OrderDao.Page> getOrdersForCustomerPage(int customerId, OrderDao.Cursor after, int pageSize) {
+        return AppExecutors.supply(() -> dao.getOrdersForCustomerPage(customerId, after, pageSize));
+    }
+
+    public CompletableFuture<List<com.cmpe343.model.CartItem>> getOrderItems(int orderId) {
+        return AppExecutors.supply(() -> dao.getOrderItems(orderId));
+    }
+
+    public CompletableFuture<Void> loadOrderItems(List<com.cmpe343.model.Order> orders) {
+        return AppExecutors.supply(() -> {
+            dao.loadOrderItems(orders);
+            return null;
+        });
+    }
+
+    public CompletableFuture<Money> getCouponDiscountForOrder(int orderId) {
+        return AppExecutors.supply(() -> dao.getCouponDiscountForOrder(orderId));
+    }
+
+    public CompletableFuture<List<com.cmpe343.model.Order>> getAvailableOrders() {
+        return AppExecutors.supply(() -> dao.getAvailableOrders());
+    }
+
+    public CompletableFuture<List<com.cmpe343.model.Order>> getOrdersByCarrier(int carrierId, com.cmpe343.model.Order.OrderStatus status) {
+        return AppExecutors.supply(() -> dao.getOrdersByCarrier(carrierId, status));
+    }
+
+    public CompletableFuture<Boolean> assignOrderToCarrier(int orderId, int carrierId) {
+        return AppExecutors.supply(() -> dao.assignOrderToCarrier(orderId, carrierId));
+    }
+
+    public CompletableFuture<Boolean> markOrderDelivered(int orderId, LocalDateTime deliveredTime) {
+        return AppExecutors.supply(() -> dao.markOrderDelivered(orderId, deliveredTime));
+    }
+
+    public CompletableFuture<List<Object[]>> getCustomerLoyaltyStats() {
+        return AppExecutors.supply(() -> dao.getCustomerLoyaltyStats());
+    }
+}
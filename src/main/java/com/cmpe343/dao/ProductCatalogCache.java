@@ -0,0 +1,180 @@
+package com.cmpe343.dao;
+
+import com.cmpe343.db.Db;
+import com.cmpe343.model.Product;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * In-memory copy of the product catalog, keyed by product id.
+ * <p>
+ * Every write that changes a product (create, update, stock decrement at checkout)
+ * calls {@link #invalidate()}, which bumps a version counter. Reads compare the cached
+ * snapshot's version with the current one and reload from {@link ProductDao#findAll()}
+ * only when they differ, so repeated screen refreshes cost no database round trip.
+ * <p>
+ * Writes made by other application instances cannot bump this counter, so snapshots
+ * also expire after {@code catalog.cache.maxAgeMs} (app.properties, 0 disables expiry).
+ * Stock is still checked in SQL at checkout, so a stale snapshot only affects display.
+ */
+public class ProductCatalogCache {
+
+    private static final long DEFAULT_MAX_AGE_MS = 30_000;
+
+    private static volatile ProductCatalogCache instance;
+
+    /**
+     * Immutable catalog view. Products are listed by name, matching {@link ProductDao#findAll()}.
+     */
+    private static class Snapshot {
+        final long version;
+        final long loadedAtNanos;
+        final List<Product> products;
+        final Map<Integer, Product> byId;
+
+        Snapshot(long version, List<Product> products) {
+            this.version = version;
+            this.loadedAtNanos = System.nanoTime();
+            this.products = Collections.unmodifiableList(products);
+            Map<Integer, Product> map = new LinkedHashMap<>();
+            for (Product p : products) {
+                map.put(p.getId(), p);
+            }
+            this.byId = Collections.unmodifiableMap(map);
+        }
+    }
+
+    public static class Stats {
+        private final long hits;
+        private final long misses;
+        private final long invalidations;
+        private final long version;
+        private final int size;
+
+        Stats(long hits, long misses, long invalidations, long version, int size) {
+            this.hits = hits;
+            this.misses = misses;
+            this.invalidations = invalidations;
+            this.version = version;
+            this.size = size;
+        }
+
+        public long getHits() { return hits; }
+        public long getMisses() { return misses; }
+        public long getInvalidations() { return invalidations; }
+        public long getVersion() { return version; }
+        public int getSize() { return size; }
+
+        public double getHitRatio() {
+            long total = hits + misses;
+            return total == 0 ? 0.0 : (double) hits / total;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("catalog cache: %d products, version %d, hits %d, misses %d (%.0f%% hit), invalidations %d",
+                    size, version, hits, misses, getHitRatio() * 100, invalidations);
+        }
+    }
+
+    private final Supplier<List<Product>> loader;
+    private final long maxAgeNanos;
+    private final AtomicLong version = new AtomicLong();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+    private volatile Snapshot snapshot;
+
+    ProductCatalogCache(Supplier<List<Product>> loader, long maxAgeMs) {
+        this.loader = loader;
+        this.maxAgeNanos = maxAgeMs > 0 ? maxAgeMs * 1_000_000 : 0;
+    }
+
+    public static ProductCatalogCache getInstance() {
+        ProductCatalogCache c = instance;
+        if (c != null) return c;
+        synchronized (ProductCatalogCache.class) {
+            if (instance == null) {
+                long maxAgeMs = DEFAULT_MAX_AGE_MS;
+                try {
+                    maxAgeMs = Long.parseLong(Db.property("catalog.cache.maxAgeMs", String.valueOf(DEFAULT_MAX_AGE_MS)));
+                } catch (NumberFormatException e) {
+                    System.err.println("Invalid value for catalog.cache.maxAgeMs, using " + DEFAULT_MAX_AGE_MS);
+                }
+                ProductDao productDao = new ProductDao();
+                instance = new ProductCatalogCache(productDao::findAll, maxAgeMs);
+            }
+            return instance;
+        }
+    }
+
+    /**
+     * @return all products ordered by name; the list is read-only
+     */
+    public List<Product> snapshot() {
+        return current().products;
+    }
+
+    /**
+     * @return the product with this id, or null if it does not exist
+     */
+    public Product getById(int productId) {
+        return current().byId.get(productId);
+    }
+
+    /**
+     * Marks the cached catalog as out of date. The next read reloads it.
+     */
+    public void invalidate() {
+        version.incrementAndGet();
+        invalidations.incrementAndGet();
+    }
+
+    /**
+     * @return how long a snapshot is trusted when nothing invalidates it, 0 for no expiry
+     */
+    public long getMaxAgeMs() {
+        return maxAgeNanos / 1_000_000;
+    }
+
+    public Stats stats() {
+        Snapshot s = snapshot;
+        return new Stats(hits.get(), misses.get(), invalidations.get(), version.get(),
+                s != null ? s.products.size() : 0);
+    }
+
+    private Snapshot current() {
+        Snapshot s = snapshot;
+        if (isFresh(s)) {
+            hits.incrementAndGet();
+            return s;
+        }
+        synchronized (this) {
+            // Another thread may have reloaded while we waited
+            s = snapshot;
+            if (isFresh(s)) {
+                hits.incrementAndGet();
+                return s;
+            }
+            misses.incrementAndGet();
+            // Read the version before loading: an invalidation during the load leaves
+            // this snapshot already stale, so the next read loads again
+            long loadVersion = version.get();
+            s = new Snapshot(loadVersion, loader.get());
+            snapshot = s;
+            return s;
+        }
+    }
+
+    private boolean isFresh(Snapshot s) {
+        if (s == null || s.version != version.get()) {
+            return false;
+        }
+        return maxAgeNanos == 0 || System.nanoTime() - s.loadedAtNanos < maxAgeNanos;
+    }
+}
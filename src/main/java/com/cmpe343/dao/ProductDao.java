@@ -2,25 +2,37 @@ package com.cmpe343.dao;
 
 import com.cmpe343.db.Db;
 import com.cmpe343.model.Product;
+import com.cmpe343.service.StockReservationService;
 
-import java.sql.Blob;
+import java.io.InputStream;
 import java.sql.Connection;
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 public class ProductDao {
 
+    /**
+     * Loads the catalog from the database. Screens should read through
+     * {@link ProductCatalogCache} instead of calling this directly.
+     */
     public List<Product> findAll() {
         List<Product> list = new ArrayList<>();
 
         // Get image from BLOB only (no image_path column in database)
         String sql = """
-                    SELECT id, name, type, price, stock_kg, threshold_kg
-                    FROM products
-                    ORDER BY name
-                """;
+                    SELECT %s
+                    FROM products p
+                    ORDER BY p.name
+                """.formatted(Projections.PRODUCT_LIST);
 
         try (Connection c = Db.getConnection();
                 Statement st = c.createStatement();
@@ -44,26 +56,58 @@ public class ProductDao {
         }
     }
     
-//    public byte[] getProductImageBlob(int productId) {
-//        String sql = "SELECT image_blob FROM products WHERE id = ?";
-//
-//        try (Connection c = Db.getConnection();
-//                java.sql.PreparedStatement ps = c.prepareStatement(sql)) {
-//            ps.setInt(1, productId);
-//
-//            try (ResultSet rs = ps.executeQuery()) {
-//                if (rs.next()) {
-//                    Blob blob = rs.getBlob("image_blob");
-//                    if (blob != null && blob.length() > 0) {
-//                        return blob.getBytes(1, (int) blob.length());
-//                    }
-//                }
-//            }
-//        } catch (Exception e) {
-//            e.printStackTrace();
-//        }
-//        return null;
-//    }
+    /**
+     * Reads a product's image BLOB. Only the image service should call this; it
+     * caches decoded thumbnails so each blob is fetched once per content hash.
+     *
+     * @return the raw image bytes, or null if the product has no image
+     */
+    public byte[] getProductImageBlob(int productId) {
+        String sql = "SELECT " + Projections.PRODUCT_IMAGE_DETAIL + " FROM products p WHERE p.id = ?";
+
+        try (Connection c = Db.getConnection();
+                PreparedStatement ps = c.prepareStatement(sql)) {
+            ps.setInt(1, productId);
+
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) {
+                    try (InputStream in = rs.getBinaryStream("image_blob")) {
+                        if (in != null) {
+                            byte[] bytes = in.readAllBytes();
+                            return bytes.length > 0 ? bytes : null;
+                        }
+                    }
+                }
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+        return null;
+    }
+
+    /**
+     * MD5 of every product image, read from the stored {@code image_md5} column so neither
+     * image bytes nor hashing are involved. Products without an image are left out.
+     *
+     * @return product id to hex digest
+     */
+    public Map<Integer, String> getImageDigests() {
+        String sql = """
+            SELECT id, image_md5 AS digest FROM products
+            WHERE image_md5 IS NOT NULL AND image_md5 <> 'd41d8cd98f00b204e9800998ecf8427e'
+        """; // MD5 of an empty blob
+        Map<Integer, String> digests = new HashMap<>();
+        try (Connection c = Db.getConnection();
+                Statement st = c.createStatement();
+                ResultSet rs = st.executeQuery(sql)) {
+            while (rs.next()) {
+                digests.put(rs.getInt("id"), rs.getString("digest"));
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+        return digests;
+    }
     
     public int createProduct(String name, String type, double price, double stockKg, double thresholdKg) {
         String sql = """
@@ -80,6 +124,7 @@ public class ProductDao {
             ps.setDouble(5, thresholdKg);
             
             ps.executeUpdate();
+            ProductCatalogCache.getInstance().invalidate();
             
             try (ResultSet keys = ps.getGeneratedKeys()) {
                 if (keys.next()) {
@@ -120,9 +165,42 @@ public class ProductDao {
             ps.setInt(6, productId);
             
             int rowsAffected = ps.executeUpdate();
+            if (rowsAffected > 0) {
+                ProductCatalogCache.getInstance().invalidate();
+                StockReservationService.getInstance().invalidate(productId);
+            }
             return rowsAffected > 0;
         } catch (Exception e) {
             throw new RuntimeException("Failed to update product: " + e.getMessage(), e);
         }
     }
+
+    /**
+     * Current stock of the given products, for {@link StockReservationService}.
+     * Products that do not exist are missing from the map.
+     */
+    public Map<Integer, Double> getStockKg(Collection<Integer> productIds) {
+        Map<Integer, Double> stock = new HashMap<>();
+        Set<Integer> distinct = new LinkedHashSet<>(productIds);
+        if (distinct.isEmpty()) {
+            return stock;
+        }
+        String placeholders = String.join(",", Collections.nCopies(distinct.size(), "?"));
+        String sql = "SELECT id, stock_kg FROM products WHERE id IN (" + placeholders + ")";
+        try (Connection c = Db.getConnection();
+                PreparedStatement ps = c.prepareStatement(sql)) {
+            int i = 1;
+            for (Integer id : distinct) {
+                ps.setInt(i++, id);
+            }
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    stock.put(rs.getInt("id"), rs.getDouble("stock_kg"));
+                }
+            }
+            return stock;
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to load stock: " + e.getMessage(), e);
+        }
+    }
 }
@@ -0,0 +1,57 @@
+package com.cmpe343.dao;
+
+import com.cmpe343.model.Product;
+import com.cmpe343.util.AppExecutors;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Async counterpart of {@link ProductDao}; see {@link OrderDaoAsync}. Screens should still
+ * read the catalog through {@link ProductCatalogCache}.
+ */
+public class ProductDaoAsync {
+
+    private final ProductDao dao;
+
+    public ProductDaoAsync() {
+        this(new ProductDao());
+    }
+
+    public ProductDaoAsync(ProductDao dao) {
+        this.dao = dao;
+    }
+
+    /**
+     * @return the blocking DAO behind this facade
+     */
+    public ProductDao blocking() {
+        return dao;
+    }
+
+    public CompletableFuture<List<Product>> findAll() {
+        return AppExecutors.supply(() -> dao.findAll());
+    }
+
+    public CompletableFuture<byte[]> getProductImageBlob(int productId) {
+        return AppExecutors.supply(() -> dao.getProductImageBlob(productId));
+    }
+
+    public CompletableFuture<Map<Integer, String>> getImageDigests() {
+        return AppExecutors.supply(() -> dao.getImageDigests());
+    }
+
+    public CompletableFuture<Integer> createProduct(String name, String type, double price, double stockKg, double thresholdKg) {
+        return AppExecutors.supply(() -> dao.createProduct(name, type, price, stockKg, thresholdKg));
+    }
+
+    public CompletableFuture<Boolean> updateProduct(int productId, String name, String type, double price, double stockKg, double thresholdKg) {
+        return AppExecutors.supply(() -> dao.updateProduct(productId, name, type, price, stockKg, thresholdKg));
+    }
+
+    public CompletableFuture<Map<Integer, Double>> getStockKg(Collection<Integer> productIds) {
+        return AppExecutors.supply(() -> dao.getStockKg(productIds));
+    }
+}
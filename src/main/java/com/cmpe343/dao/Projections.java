@@ -0,0 +1,43 @@
+package com.cmpe343.dao;
+
+/**
+ * Column sets used by the DAO queries, one per use case, so list screens never pull
+ * LOB columns by accident.
+ * <ul>
+ * <li><b>list</b>: rows shown in lists and order history; never contain a LOB column</li>
+ * <li><b>pricing</b>: rows used to price or stock-check a cart; never contain a LOB column</li>
+ * <li><b>detail</b>: single-row reads that really need a LOB, e.g. one product image</li>
+ * </ul>
+ * {@code ProjectionsTest} fails if a list or pricing set, or a cart/order query, selects a LOB.
+ */
+final class Projections {
+
+    private Projections() {
+    }
+
+    /** LOB columns in the schema; see greengrocer_db.sql. */
+    static final String[] LOB_COLUMNS = {
+            "image_blob", "pdf_blob", "text_clob", "reply_text", "invoice_text", "transaction_log"
+    };
+
+    /** Product fields used by catalog lists and cards; images are loaded separately. */
+    static final String PRODUCT_LIST = "p.id, p.name, p.type, p.price, p.stock_kg, p.threshold_kg";
+
+    /** A single product's image, for {@link ProductDao#getProductImageBlob(int)} only. */
+    static final String PRODUCT_IMAGE_DETAIL = "p.image_blob";
+
+    /** Order header fields read by {@code OrderDao.mapOrder}. */
+    static final String ORDER_LIST = """
+            o.id, o.customer_id, o.carrier_id, o.status, o.order_time, o.requested_delivery_time,
+            o.delivered_time, o.total_before_tax, o.vat, o.total_after_tax""";
+
+    /** Order line with the product fields read by {@code OrderDao.mapOrderItem}. */
+    static final String ORDER_ITEM_LIST = """
+            oi.order_id, oi.product_id, oi.kg, oi.unit_price_applied, oi.line_total,
+            p.name, p.type, p.price, p.stock_kg, p.threshold_kg""";
+
+    /** Cart line with the product fields needed to price it and check stock. */
+    static final String CART_ITEM_PRICING = """
+            ci.product_id, ci.quantity_kg, ci.unit_price_applied,
+            p.name, p.type, p.price, p.stock_kg, p.threshold_kg""";
+}
@@ -7,7 +7,9 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 public class RatingDao {
     
@@ -86,4 +88,32 @@ public class RatingDao {
         }
         return false;
     }
+
+    /**
+     * Batch version of {@link #hasRatingForOrder(int, int)} for a customer's order history.
+     *
+     * @return IDs of the customer's orders whose carrier the customer has rated
+     */
+    public Set<Integer> getRatedOrderIds(int customerId) {
+        String sql = """
+            SELECT DISTINCT o.id
+            FROM orders o
+            JOIN ratings r ON r.carrier_id = o.carrier_id AND r.customer_id = o.customer_id
+            WHERE o.customer_id = ?
+        """;
+
+        Set<Integer> ids = new HashSet<>();
+        try (Connection c = Db.getConnection();
+                PreparedStatement ps = c.prepareStatement(sql)) {
+            ps.setInt(1, customerId);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    ids.add(rs.getInt(1));
+                }
+            }
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to load rated orders: " + e.getMessage(), e);
+        }
+        return ids;
+    }
 }
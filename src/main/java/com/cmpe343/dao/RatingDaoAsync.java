@@ -0,0 +1,50 @@
+package com.cmpe343.dao;
+
+import com.cmpe343.model.Rating;
+import com.cmpe343.util.AppExecutors;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Async counterpart of {@link RatingDao}; see {@link OrderDaoAsync}.
+ */
+public class RatingDaoAsync {
+
+    private final RatingDao dao;
+
+    public RatingDaoAsync() {
+        this(new RatingDao());
+    }
+
+    public RatingDaoAsync(RatingDao dao) {
+        this.dao = dao;
+    }
+
+    /**
+     * @return the blocking DAO behind this facade
+     */
+    public RatingDao blocking() {
+        return dao;
+    }
+
+    public CompletableFuture<List<Rating>> getAllRatings() {
+        return AppExecutors.supply(() -> dao.getAllRatings());
+    }
+
+    public CompletableFuture<Void> createRating(int carrierId, int customerId, int score, String comment) {
+        return AppExecutors.supply(() -> {
+            dao.createRating(carrierId, customerId, score, comment);
+            return null;
+        });
+    }
+
+    public CompletableFuture<Boolean> hasRatingForOrder(int orderId, int customerId) {
+        return AppExecutors.supply(() -> dao.hasRatingForOrder(orderId, customerId));
+    }
+
+    public CompletableFuture<Set<Integer>> getRatedOrderIds(int customerId) {
+        return AppExecutors.supply(() -> dao.getRatedOrderIds(customerId));
+    }
+}
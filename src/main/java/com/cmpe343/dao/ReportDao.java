@@ -0,0 +1,306 @@
+package com.cmpe343.dao;
+
+import com.cmpe343.db.Db;
+import com.cmpe343.model.DailyRevenue;
+import com.cmpe343.model.ProductSales;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Sales aggregates for the owner's report.
+ * <p>
+ * The report reads the {@code sales_daily} / {@code product_sales_daily} rollups, which
+ * {@link OrderDao#markOrderDelivered} keeps current in the same transaction as the delivery,
+ * so it touches O(days x products) rows. The {@code aggregate*} methods compute the same
+ * figures straight from {@code orders} and {@code order_items}; they back
+ * {@link #rebuildRollups()} and can be used to cross-check the rollups.
+ */
+public class ReportDao {
+
+    /**
+     * Order counts, delivered revenue and the delivered date range in one row.
+     */
+    public static class Summary {
+        public long totalOrders;
+        public long deliveredOrders;
+        public double totalRevenue;
+        public LocalDate firstOrderDate;
+        public LocalDate lastOrderDate;
+    }
+
+    /**
+     * Summary computed by scanning {@code orders}.
+     */
+    public Summary aggregateSummary() {
+        String sql = """
+                SELECT COUNT(*) AS total_orders,
+                       COALESCE(SUM(status = 'DELIVERED'), 0) AS delivered_orders,
+                       COALESCE(SUM(CASE WHEN status = 'DELIVERED' THEN total_after_tax END), 0) AS total_revenue,
+                       MIN(CASE WHEN status = 'DELIVERED' THEN order_time END) AS first_order_time,
+                       MAX(CASE WHEN status = 'DELIVERED' THEN order_time END) AS last_order_time
+                FROM orders
+                """;
+        try (Connection c = Db.getConnection();
+                PreparedStatement ps = c.prepareStatement(sql);
+                ResultSet rs = ps.executeQuery()) {
+            Summary summary = new Summary();
+            if (rs.next()) {
+                summary.totalOrders = rs.getLong("total_orders");
+                summary.deliveredOrders = rs.getLong("delivered_orders");
+                summary.totalRevenue = rs.getDouble("total_revenue");
+                summary.firstOrderDate = toDate(rs.getTimestamp("first_order_time"));
+                summary.lastOrderDate = toDate(rs.getTimestamp("last_order_time"));
+            }
+            return summary;
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to load sales summary: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Summary read from {@code sales_daily}. Only the all-status order count still
+     * comes from {@code orders}.
+     */
+    public Summary getSummary() {
+        String sql = """
+                SELECT (SELECT COUNT(*) FROM orders) AS total_orders,
+                       COALESCE(SUM(delivered_orders), 0) AS delivered_orders,
+                       COALESCE(SUM(revenue), 0) AS total_revenue,
+                       MIN(sales_date) AS first_date,
+                       MAX(sales_date) AS last_date
+                FROM sales_daily
+                """;
+        try (Connection c = Db.getConnection();
+                PreparedStatement ps = c.prepareStatement(sql);
+                ResultSet rs = ps.executeQuery()) {
+            Summary summary = new Summary();
+            if (rs.next()) {
+                summary.totalOrders = rs.getLong("total_orders");
+                summary.deliveredOrders = rs.getLong("delivered_orders");
+                summary.totalRevenue = rs.getDouble("total_revenue");
+                Date first = rs.getDate("first_date");
+                Date last = rs.getDate("last_date");
+                summary.firstOrderDate = first != null ? first.toLocalDate() : null;
+                summary.lastOrderDate = last != null ? last.toLocalDate() : null;
+            }
+            return summary;
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to load sales summary: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * @return revenue and kg sold per product over delivered orders, highest revenue first,
+     *         computed by joining {@code orders} and {@code order_items}
+     */
+    public List<ProductSales> aggregateProductSales() {
+        String sql = """
+                SELECT p.id, p.name,
+                       SUM(oi.line_total) AS revenue,
+                       SUM(oi.kg) AS quantity_kg
+                FROM orders o
+                JOIN order_items oi ON oi.order_id = o.id
+                JOIN products p ON p.id = oi.product_id
+                WHERE o.status = 'DELIVERED'
+                GROUP BY p.id, p.name
+                ORDER BY revenue DESC
+                """;
+        List<ProductSales> list = new ArrayList<>();
+        try (Connection c = Db.getConnection();
+                PreparedStatement ps = c.prepareStatement(sql);
+                ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                list.add(new ProductSales(
+                        rs.getInt("id"),
+                        rs.getString("name"),
+                        rs.getDouble("revenue"),
+                        rs.getDouble("quantity_kg")));
+            }
+            return list;
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to load product sales: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Delivered revenue per order day in [from, to], computed from {@code orders}.
+     * Days without sales are not returned.
+     */
+    public List<DailyRevenue> aggregateDailyRevenue(LocalDate from, LocalDate to) {
+        // Range on the raw column rather than DATE(order_time) so an index on order_time can be used
+        String sql = """
+                SELECT DATE(order_time) AS order_date,
+                       SUM(total_after_tax) AS revenue
+                FROM orders
+                WHERE status = 'DELIVERED'
+                  AND order_time >= ? AND order_time < ?
+                GROUP BY DATE(order_time)
+                ORDER BY order_date
+                """;
+        List<DailyRevenue> list = new ArrayList<>();
+        try (Connection c = Db.getConnection();
+                PreparedStatement ps = c.prepareStatement(sql)) {
+            ps.setTimestamp(1, Timestamp.valueOf(from.atStartOfDay()));
+            ps.setTimestamp(2, Timestamp.valueOf(to.plusDays(1).atStartOfDay()));
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    Date day = rs.getDate("order_date");
+                    list.add(new DailyRevenue(day.toLocalDate(), rs.getDouble("revenue")));
+                }
+            }
+            return list;
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to load daily revenue: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * @return revenue and kg sold per product from {@code product_sales_daily}, highest revenue first
+     */
+    public List<ProductSales> getProductSales() {
+        String sql = """
+                SELECT p.id, p.name,
+                       SUM(psd.revenue) AS revenue,
+                       SUM(psd.kg) AS quantity_kg
+                FROM product_sales_daily psd
+                JOIN products p ON p.id = psd.product_id
+                GROUP BY p.id, p.name
+                ORDER BY revenue DESC
+                """;
+        List<ProductSales> list = new ArrayList<>();
+        try (Connection c = Db.getConnection();
+                PreparedStatement ps = c.prepareStatement(sql);
+                ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                list.add(new ProductSales(
+                        rs.getInt("id"),
+                        rs.getString("name"),
+                        rs.getDouble("revenue"),
+                        rs.getDouble("quantity_kg")));
+            }
+            return list;
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to load product sales: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Delivered revenue per order day in [from, to] from {@code sales_daily}.
+     * Days without sales are not returned.
+     */
+    public List<DailyRevenue> getDailyRevenue(LocalDate from, LocalDate to) {
+        String sql = """
+                SELECT sales_date, revenue
+                FROM sales_daily
+                WHERE sales_date BETWEEN ? AND ?
+                ORDER BY sales_date
+                """;
+        List<DailyRevenue> list = new ArrayList<>();
+        try (Connection c = Db.getConnection();
+                PreparedStatement ps = c.prepareStatement(sql)) {
+            ps.setDate(1, Date.valueOf(from));
+            ps.setDate(2, Date.valueOf(to));
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    list.add(new DailyRevenue(rs.getDate("sales_date").toLocalDate(), rs.getDouble("revenue")));
+                }
+            }
+            return list;
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to load daily revenue: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Adds a just-delivered order to both rollups. Runs on the caller's connection so it
+     * commits or rolls back together with the status change.
+     */
+    static void addDeliveredOrder(Connection c, int orderId) throws SQLException {
+        String dailySql = """
+                INSERT INTO sales_daily (sales_date, delivered_orders, revenue)
+                SELECT d.sales_date, d.delivered_orders, d.revenue FROM (
+                    SELECT DATE(order_time) AS sales_date, 1 AS delivered_orders, total_after_tax AS revenue
+                    FROM orders
+                    WHERE id = ? AND status = 'DELIVERED'
+                ) d
+                ON DUPLICATE KEY UPDATE
+                    delivered_orders = sales_daily.delivered_orders + d.delivered_orders,
+                    revenue = sales_daily.revenue + d.revenue
+                """;
+        String productSql = """
+                INSERT INTO product_sales_daily (sales_date, product_id, revenue, kg)
+                SELECT d.sales_date, d.product_id, d.revenue, d.kg FROM (
+                    SELECT DATE(o.order_time) AS sales_date, oi.product_id,
+                           SUM(oi.line_total) AS revenue, SUM(oi.kg) AS kg
+                    FROM orders o
+                    JOIN order_items oi ON oi.order_id = o.id
+                    WHERE o.id = ? AND o.status = 'DELIVERED'
+                    GROUP BY DATE(o.order_time), oi.product_id
+                ) d
+                ON DUPLICATE KEY UPDATE
+                    revenue = product_sales_daily.revenue + d.revenue,
+                    kg = product_sales_daily.kg + d.kg
+                """;
+        try (PreparedStatement ps = c.prepareStatement(dailySql)) {
+            ps.setInt(1, orderId);
+            ps.executeUpdate();
+        }
+        try (PreparedStatement ps = c.prepareStatement(productSql)) {
+            ps.setInt(1, orderId);
+            ps.executeUpdate();
+        }
+    }
+
+    /**
+     * Recomputes both rollups from {@code orders} and {@code order_items} in one transaction.
+     * Use it to repair drift; the V3 migration only backfills days that have no rollup yet.
+     *
+     * @return number of days written to {@code sales_daily}
+     */
+    public int rebuildRollups() {
+        String insertDaily = """
+                INSERT INTO sales_daily (sales_date, delivered_orders, revenue)
+                SELECT DATE(order_time), COUNT(*), SUM(total_after_tax)
+                FROM orders
+                WHERE status = 'DELIVERED'
+                GROUP BY DATE(order_time)
+                """;
+        String insertProducts = """
+                INSERT INTO product_sales_daily (sales_date, product_id, revenue, kg)
+                SELECT DATE(o.order_time), oi.product_id, SUM(oi.line_total), SUM(oi.kg)
+                FROM orders o
+                JOIN order_items oi ON oi.order_id = o.id
+                WHERE o.status = 'DELIVERED'
+                GROUP BY DATE(o.order_time), oi.product_id
+                """;
+        try (Connection c = Db.getConnection()) {
+            c.setAutoCommit(false);
+            try (Statement st = c.createStatement()) {
+                st.executeUpdate("DELETE FROM product_sales_daily");
+                st.executeUpdate("DELETE FROM sales_daily");
+                int days = st.executeUpdate(insertDaily);
+                st.executeUpdate(insertProducts);
+                c.commit();
+                return days;
+            } catch (SQLException e) {
+                c.rollback();
+                throw e;
+            }
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to rebuild sales rollups: " + e.getMessage(), e);
+        }
+    }
+
+    private static LocalDate toDate(Timestamp ts) {
+        return ts != null ? ts.toLocalDateTime().toLocalDate() : null;
+    }
+}
@@ -0,0 +1,60 @@
+package com.cmpe343.dao;
+
+import com.cmpe343.model.DailyRevenue;
+import com.cmpe343.model.ProductSales;
+import com.cmpe343.util.AppExecutors;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Async counterpart of {@link ReportDao}; see {@link OrderDaoAsync}.
+ */
+public class ReportDaoAsync {
+
+    private final ReportDao dao;
+
+    public ReportDaoAsync() {
+        this(new ReportDao());
+    }
+
+    public ReportDaoAsync(ReportDao dao) {
+        this.dao = dao;
+    }
+
+    /**
+     * @return the blocking DAO behind this facade
+     */
+    public ReportDao blocking() {
+        return dao;
+    }
+
+    public CompletableFuture<ReportDao.Summary> aggregateSummary() {
+        return AppExecutors.supply(() -> dao.aggregateSummary());
+    }
+
+    public CompletableFuture<ReportDao.Summary> getSummary() {
+        return AppExecutors.supply(() -> dao.getSummary());
+    }
+
+    public CompletableFuture<List<ProductSales>> aggregateProductSales() {
+        return AppExecutors.supply(() -> dao.aggregateProductSales());
+    }
+
+    public CompletableFuture<List<DailyRevenue>> aggregateDailyRevenue(LocalDate from, LocalDate to) {
+        return AppExecutors.supply(() -> dao.aggregateDailyRevenue(from, to));
+    }
+
+    public CompletableFuture<List<ProductSales>> getProductSales() {
+        return AppExecutors.supply(() -> dao.getProductSales());
+    }
+
+    public CompletableFuture<List<DailyRevenue>> getDailyRevenue(LocalDate from, LocalDate to) {
+        return AppExecutors.supply(() -> dao.getDailyRevenue(from, to));
+    }
+
+    public CompletableFuture<Integer> rebuildRollups() {
+        return AppExecutors.supply(() -> dao.rebuildRollups());
+    }
+}
@@ -8,7 +8,13 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 public class UserDao {
 
@@ -74,6 +80,38 @@ public class UserDao {
         return null;
     }
 
+    /**
+     * Loads several users in one query, e.g. the customers of a page of orders.
+     *
+     * @param ids User IDs; duplicates are fine
+     * @return users keyed by ID; IDs that do not exist are missing from the map
+     */
+    public Map<Integer, User> getUsersByIds(Collection<Integer> ids) {
+        Map<Integer, User> users = new HashMap<>();
+        Set<Integer> distinct = new LinkedHashSet<>(ids);
+        if (distinct.isEmpty()) {
+            return users;
+        }
+        String placeholders = String.join(",", Collections.nCopies(distinct.size(), "?"));
+        String sql = "SELECT id, username, role, phone, address, is_active FROM users WHERE id IN (" + placeholders + ")";
+        try (Connection c = Db.getConnection();
+                PreparedStatement ps = c.prepareStatement(sql)) {
+            int i = 1;
+            for (Integer id : distinct) {
+                ps.setInt(i++, id);
+            }
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    User u = mapUserExtended(rs);
+                    users.put(u.getId(), u);
+                }
+            }
+        } catch (Exception e) {
+            System.err.println("Error fetching users: " + e.getMessage());
+        }
+        return users;
+    }
+
     private User getUserByIdBasic(int id) {
         String sql = "SELECT id, username, role FROM users WHERE id = ?";
         try (Connection c = Db.getConnection();
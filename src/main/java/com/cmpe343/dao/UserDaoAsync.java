@@ -0,0 +1,74 @@
+package com.cmpe343.dao;
+
+import com.cmpe343.model.User;
+import com.cmpe343.util.AppExecutors;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Async counterpart of {@link UserDao}; see {@link OrderDaoAsync}.
+ */
+public class UserDaoAsync {
+
+    private final UserDao dao;
+
+    public UserDaoAsync() {
+        this(new UserDao());
+    }
+
+    public UserDaoAsync(UserDao dao) {
+        this.dao = dao;
+    }
+
+    /**
+     * @return the blocking DAO behind this facade
+     */
+    public UserDao blocking() {
+        return dao;
+    }
+
+    public CompletableFuture<User> login(String username, String password) {
+        return AppExecutors.supply(() -> dao.login(username, password));
+    }
+
+    public CompletableFuture<List<User>> getAllCarriers() {
+        return AppExecutors.supply(() -> dao.getAllCarriers());
+    }
+
+    public CompletableFuture<User> getUserById(int id) {
+        return AppExecutors.supply(() -> dao.getUserById(id));
+    }
+
+    public CompletableFuture<Map<Integer, User>> getUsersByIds(Collection<Integer> ids) {
+        return AppExecutors.supply(() -> dao.getUsersByIds(ids));
+    }
+
+    public CompletableFuture<Void> activateCarrier(int userId) {
+        return AppExecutors.supply(() -> {
+            dao.activateCarrier(userId);
+            return null;
+        });
+    }
+
+    public CompletableFuture<Void> deactivateCarrier(int userId) {
+        return AppExecutors.supply(() -> {
+            dao.deactivateCarrier(userId);
+            return null;
+        });
+    }
+
+    public CompletableFuture<Integer> getOwnerId() {
+        return AppExecutors.supply(() -> dao.getOwnerId());
+    }
+
+    public CompletableFuture<Integer> createCustomer(String username, String password, String phone, String address) {
+        return AppExecutors.supply(() -> dao.createCustomer(username, password, phone, address));
+    }
+
+    public CompletableFuture<Boolean> usernameExists(String username) {
+        return AppExecutors.supply(() -> dao.usernameExists(username));
+    }
+}
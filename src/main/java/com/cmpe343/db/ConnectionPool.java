@@ -0,0 +1,421 @@
+package com.cmpe343.db;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded JDBC connection pool used behind {@link Db#getConnection()}.
+ * <p>
+ * Borrowed connections are handed out as proxies: calling {@code close()} returns the
+ * physical connection to the pool instead of closing the socket, so the existing
+ * try-with-resources blocks in the DAOs keep working unchanged.
+ * <ul>
+ * <li>at most {@code maxSize} physical connections exist at any time; borrowers wait up to
+ * {@code acquireTimeoutMs} for one to become free</li>
+ * <li>idle connections are validated with {@link Connection#isValid(int)} before being handed out</li>
+ * <li>connections older than {@code maxLifetimeMs} are retired, idle ones above
+ * {@code minIdle} are evicted after {@code idleTimeoutMs}</li>
+ * </ul>
+ */
+public final class ConnectionPool implements AutoCloseable {
+
+    /**
+     * Opens a new physical connection. Usually backed by {@code DriverManager}.
+     */
+    @FunctionalInterface
+    public interface ConnectionFactory {
+        Connection open() throws SQLException;
+    }
+
+    /**
+     * Pool sizing and timing settings.
+     */
+    public static class Config {
+        public int minIdle = 2;
+        public int maxSize = 10;
+        public long acquireTimeoutMs = 10_000;
+        public long idleTimeoutMs = 300_000;
+        public long maxLifetimeMs = 1_800_000;
+        public int validationTimeoutSec = 2;
+        public long housekeepingIntervalMs = 30_000;
+    }
+
+    /**
+     * Point-in-time view of the pool, used for monitoring.
+     */
+    public static class Stats {
+        private final int active;
+        private final int idle;
+        private final int maxSize;
+        private final int waiting;
+        private final long totalAcquired;
+        private final long totalCreated;
+        private final long totalRetired;
+        private final long totalAcquireWaitNanos;
+        private final long maxAcquireWaitNanos;
+
+        Stats(int active, int idle, int maxSize, int waiting, long totalAcquired, long totalCreated,
+                long totalRetired, long totalAcquireWaitNanos, long maxAcquireWaitNanos) {
+            this.active = active;
+            this.idle = idle;
+            this.maxSize = maxSize;
+            this.waiting = waiting;
+            this.totalAcquired = totalAcquired;
+            this.totalCreated = totalCreated;
+            this.totalRetired = totalRetired;
+            this.totalAcquireWaitNanos = totalAcquireWaitNanos;
+            this.maxAcquireWaitNanos = maxAcquireWaitNanos;
+        }
+
+        public int getActive() { return active; }
+        public int getIdle() { return idle; }
+        public int getMaxSize() { return maxSize; }
+        public int getWaiting() { return waiting; }
+        public long getTotalAcquired() { return totalAcquired; }
+        public long getTotalCreated() { return totalCreated; }
+        public long getTotalRetired() { return totalRetired; }
+
+        /**
+         * @return average time a caller waited in {@code borrow()}, in milliseconds
+         */
+        public double getAvgAcquireWaitMs() {
+            return totalAcquired == 0 ? 0.0 : totalAcquireWaitNanos / 1_000_000.0 / totalAcquired;
+        }
+
+        public double getMaxAcquireWaitMs() {
+            return maxAcquireWaitNanos / 1_000_000.0;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("active=%d idle=%d max=%d waiting=%d acquired=%d created=%d retired=%d avgWait=%.2fms maxWait=%.2fms",
+                    active, idle, maxSize, waiting, totalAcquired, totalCreated, totalRetired,
+                    getAvgAcquireWaitMs(), getMaxAcquireWaitMs());
+        }
+    }
+
+    /**
+     * A physical connection together with its bookkeeping timestamps.
+     */
+    private static class PooledEntry {
+        final Connection physical;
+        final long createdAt;
+        long lastReturnedAt;
+
+        PooledEntry(Connection physical, long now) {
+            this.physical = physical;
+            this.createdAt = now;
+            this.lastReturnedAt = now;
+        }
+    }
+
+    private final ConnectionFactory factory;
+    private final Config config;
+    private final Semaphore permits;
+    private final Deque<PooledEntry> idle = new ArrayDeque<>();
+    private final ScheduledExecutorService housekeeper;
+
+    private int active;
+    private boolean closed;
+
+    private final AtomicLong totalAcquired = new AtomicLong();
+    private final AtomicLong totalCreated = new AtomicLong();
+    private final AtomicLong totalRetired = new AtomicLong();
+    private final AtomicLong totalAcquireWaitNanos = new AtomicLong();
+    private final AtomicLong maxAcquireWaitNanos = new AtomicLong();
+
+    public ConnectionPool(ConnectionFactory factory, Config config) {
+        if (config.maxSize < 1) {
+            throw new IllegalArgumentException("Pool max size must be at least 1.");
+        }
+        if (config.minIdle < 0 || config.minIdle > config.maxSize) {
+            throw new IllegalArgumentException("Pool min idle must be between 0 and max size.");
+        }
+        this.factory = factory;
+        this.config = config;
+        this.permits = new Semaphore(config.maxSize, true);
+
+        if (config.housekeepingIntervalMs > 0) {
+            housekeeper = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "db-pool-housekeeper");
+                t.setDaemon(true);
+                return t;
+            });
+            housekeeper.scheduleWithFixedDelay(this::housekeep,
+                    config.housekeepingIntervalMs, config.housekeepingIntervalMs, TimeUnit.MILLISECONDS);
+        } else {
+            housekeeper = null;
+        }
+    }
+
+    /**
+     * Borrows a connection, waiting up to the configured acquire timeout.
+     * The returned connection must be closed to give it back to the pool.
+     *
+     * @return a validated connection proxy
+     * @throws SQLException if the pool is exhausted for longer than the timeout or a new
+     *                      connection cannot be opened
+     */
+    public Connection borrow() throws SQLException {
+        long start = System.nanoTime();
+        try {
+            if (!permits.tryAcquire(config.acquireTimeoutMs, TimeUnit.MILLISECONDS)) {
+                throw new SQLException("Timed out after " + config.acquireTimeoutMs
+                        + " ms waiting for a database connection (" + stats() + ")");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a database connection.", e);
+        }
+
+        PooledEntry entry;
+        try {
+            entry = takeValidIdle();
+            if (entry == null) {
+                entry = new PooledEntry(factory.open(), System.currentTimeMillis());
+                totalCreated.incrementAndGet();
+            }
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+
+        synchronized (this) {
+            active++;
+        }
+        long waited = System.nanoTime() - start;
+        totalAcquired.incrementAndGet();
+        totalAcquireWaitNanos.addAndGet(waited);
+        maxAcquireWaitNanos.accumulateAndGet(waited, Math::max);
+        return wrap(entry);
+    }
+
+    /**
+     * Pops idle connections until one passes the lifetime and validation checks.
+     */
+    private PooledEntry takeValidIdle() {
+        while (true) {
+            PooledEntry entry;
+            synchronized (this) {
+                if (closed) {
+                    throw new IllegalStateException("Connection pool is closed.");
+                }
+                entry = idle.pollFirst();
+            }
+            if (entry == null) {
+                return null;
+            }
+            if (isExpired(entry, System.currentTimeMillis()) || !isValid(entry)) {
+                retire(entry);
+                continue;
+            }
+            return entry;
+        }
+    }
+
+    private boolean isExpired(PooledEntry entry, long now) {
+        return config.maxLifetimeMs > 0 && now - entry.createdAt >= config.maxLifetimeMs;
+    }
+
+    private boolean isValid(PooledEntry entry) {
+        try {
+            return entry.physical.isValid(config.validationTimeoutSec);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Called by the proxy when a borrower closes its connection.
+     */
+    private void giveBack(PooledEntry entry) {
+        boolean reusable = resetForReuse(entry.physical);
+        long now = System.currentTimeMillis();
+        boolean retireIt;
+        synchronized (this) {
+            active--;
+            retireIt = closed || !reusable || isExpired(entry, now);
+            if (!retireIt) {
+                entry.lastReturnedAt = now;
+                // LIFO keeps the hottest connections busy and lets the rest age out
+                idle.addFirst(entry);
+            }
+        }
+        if (retireIt) {
+            retire(entry);
+        }
+        permits.release();
+    }
+
+    /**
+     * Undoes per-borrow state (open transactions, auto-commit changes) so the next
+     * borrower receives a clean connection.
+     */
+    private boolean resetForReuse(Connection physical) {
+        try {
+            if (physical.isClosed()) {
+                return false;
+            }
+            if (!physical.getAutoCommit()) {
+                physical.rollback();
+                physical.setAutoCommit(true);
+            }
+            return true;
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private void retire(PooledEntry entry) {
+        totalRetired.incrementAndGet();
+        try {
+            entry.physical.close();
+        } catch (SQLException e) {
+            // Already broken, nothing else to do
+        }
+    }
+
+    /**
+     * Evicts idle/expired connections and tops the pool back up to {@code minIdle}.
+     */
+    void housekeep() {
+        long now = System.currentTimeMillis();
+        Deque<PooledEntry> toRetire = new ArrayDeque<>();
+        int missing;
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            int surplus = idle.size() - config.minIdle;
+            // Oldest-returned entries sit at the tail
+            var it = idle.descendingIterator();
+            while (it.hasNext()) {
+                PooledEntry entry = it.next();
+                boolean idleTooLong = config.idleTimeoutMs > 0 && now - entry.lastReturnedAt >= config.idleTimeoutMs;
+                if (isExpired(entry, now) || (idleTooLong && surplus > 0)) {
+                    it.remove();
+                    toRetire.add(entry);
+                    surplus--;
+                }
+            }
+            missing = Math.min(config.minIdle - idle.size(), config.maxSize - active - idle.size());
+        }
+        toRetire.forEach(this::retire);
+
+        for (int i = 0; i < missing; i++) {
+            if (!permits.tryAcquire()) {
+                break;
+            }
+            try {
+                PooledEntry entry = new PooledEntry(factory.open(), System.currentTimeMillis());
+                totalCreated.incrementAndGet();
+                synchronized (this) {
+                    if (closed) {
+                        retire(entry);
+                    } else {
+                        idle.addLast(entry);
+                    }
+                }
+            } catch (SQLException e) {
+                System.err.println("Connection pool could not open a warm-up connection: " + e.getMessage());
+                break;
+            } finally {
+                permits.release();
+            }
+        }
+    }
+
+    /**
+     * @return a snapshot of active/idle counts and acquire-wait timings
+     */
+    public Stats stats() {
+        synchronized (this) {
+            return new Stats(active, idle.size(), config.maxSize, permits.getQueueLength(),
+                    totalAcquired.get(), totalCreated.get(), totalRetired.get(),
+                    totalAcquireWaitNanos.get(), maxAcquireWaitNanos.get());
+        }
+    }
+
+    @Override
+    public void close() {
+        Deque<PooledEntry> toRetire;
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            toRetire = new ArrayDeque<>(idle);
+            idle.clear();
+        }
+        if (housekeeper != null) {
+            housekeeper.shutdownNow();
+        }
+        toRetire.forEach(this::retire);
+    }
+
+    private Connection wrap(PooledEntry entry) {
+        return (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(),
+                new Class<?>[] { Connection.class },
+                new PooledConnectionHandler(entry));
+    }
+
+    /**
+     * Forwards everything to the physical connection except {@code close()}, which
+     * returns it to the pool exactly once.
+     */
+    private class PooledConnectionHandler implements InvocationHandler {
+        private final PooledEntry entry;
+        private boolean returned;
+
+        PooledConnectionHandler(PooledEntry entry) {
+            this.entry = entry;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!returned) {
+                        returned = true;
+                        giveBack(entry);
+                    }
+                    return null;
+                case "isClosed":
+                    return returned || entry.physical.isClosed();
+                case "unwrap":
+                    if (args != null && args[0] == Connection.class) {
+                        return proxy;
+                    }
+                    break;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "Pooled[" + entry.physical + "]";
+                default:
+                    break;
+            }
+            if (returned) {
+                throw new SQLException("Connection has already been returned to the pool.");
+            }
+            try {
+                return method.invoke(entry.physical, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
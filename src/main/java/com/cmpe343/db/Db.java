@@ -1,5 +1,6 @@
 package com.cmpe343.db;
 
+import java.io.File;
 import java.io.FileInputStream;
 import java.sql.Connection;
 import java.sql.DriverManager;
@@ -7,28 +8,124 @@ import java.util.Properties;
 
 public class Db {
     private static Properties props;
+    private static volatile ConnectionPool pool;
+    // Statement timing for SqlMetrics; db.instrumentation=false hands out the pooled connections as they are
+    private static volatile Boolean instrumented;
 
     private static Properties props() {
         if (props != null) return props;
+        Properties loaded = new Properties();
+        File file = new File("app.properties");
+        // Without the file every setting must come from system properties (e.g. the benchmarks)
+        if (file.exists() || System.getProperty("db.url") == null) {
+            try (FileInputStream in = new FileInputStream(file)) {
+                loaded.load(in);
+            } catch (Exception e) {
+                throw new RuntimeException("app.properties okunamadı (proje kökünde olmalı).", e);
+            }
+        }
+        props = loaded;
+        return props;
+    }
+
+    /**
+     * Reads an optional setting. A system property of the same name (e.g. {@code -Ddb.url=...})
+     * overrides app.properties.
+     *
+     * @param key          The property key
+     * @param defaultValue Value used when the key is missing or blank
+     * @return The configured value or the default
+     */
+    public static String property(String key, String defaultValue) {
+        String value = System.getProperty(key);
+        if (value == null || value.isBlank()) {
+            value = props().getProperty(key);
+        }
+        return value == null || value.isBlank() ? defaultValue : value.trim();
+    }
+
+    private static long longProperty(String key, long defaultValue) {
         try {
-            props = new Properties();
-            props.load(new FileInputStream("app.properties"));
-            return props;
-        } catch (Exception e) {
-            throw new RuntimeException("app.properties okunamadı (proje kökünde olmalı).", e);
+            return Long.parseLong(property(key, String.valueOf(defaultValue)));
+        } catch (NumberFormatException e) {
+            System.err.println("Invalid value for " + key + ", using " + defaultValue);
+            return defaultValue;
+        }
+    }
+
+    private static boolean instrumented() {
+        Boolean on = instrumented;
+        if (on == null) {
+            on = !"false".equalsIgnoreCase(property("db.instrumentation", "true"));
+            instrumented = on;
         }
+        return on;
     }
 
+    private static ConnectionPool pool() {
+        ConnectionPool p = pool;
+        if (p != null) return p;
+        synchronized (Db.class) {
+            if (pool == null) {
+                String url = property("db.url", null);
+                String user = property("db.user", null);
+                String password = System.getProperty("db.password", props().getProperty("db.password"));
+                ConnectionPool.Config config = new ConnectionPool.Config();
+                config.minIdle = (int) longProperty("db.pool.minIdle", config.minIdle);
+                config.maxSize = (int) longProperty("db.pool.maxSize", config.maxSize);
+                config.acquireTimeoutMs = longProperty("db.pool.acquireTimeoutMs", config.acquireTimeoutMs);
+                config.idleTimeoutMs = longProperty("db.pool.idleTimeoutMs", config.idleTimeoutMs);
+                config.maxLifetimeMs = longProperty("db.pool.maxLifetimeMs", config.maxLifetimeMs);
+                config.validationTimeoutSec = (int) longProperty("db.pool.validationTimeoutSec", config.validationTimeoutSec);
+
+                ConnectionPool created = new ConnectionPool(() -> DriverManager.getConnection(url, user, password), config);
+                // Migrate before anyone else sees the pool; a failure is retried on the next call
+                try (Connection c = created.borrow()) {
+                    SchemaMigrator.migrate(c);
+                } catch (Exception e) {
+                    created.close();
+                    throw new RuntimeException("Veritabanı şeması güncellenemedi: " + e.getMessage(), e);
+                }
+                pool = created;
+                Runtime.getRuntime().addShutdownHook(new Thread(pool::close, "db-pool-shutdown"));
+                if (instrumented()) {
+                    SqlMetrics.getInstance().startPeriodicDump();
+                }
+            }
+            return pool;
+        }
+    }
+
+    /**
+     * Replaces the shared pool and closes the previous one. Lets tests route DAO
+     * connections through fakes; null goes back to app.properties on the next use.
+     */
+    static void usePool(ConnectionPool replacement) {
+        synchronized (Db.class) {
+            ConnectionPool old = pool;
+            pool = replacement;
+            if (old != null && old != replacement) {
+                old.close();
+            }
+        }
+    }
+
+    /**
+     * Borrows a connection from the shared pool. Closing it returns it to the pool.
+     */
     public static Connection getConnection() {
         try {
-            Properties p = props();
-            return DriverManager.getConnection(
-                    p.getProperty("db.url"),
-                    p.getProperty("db.user"),
-                    p.getProperty("db.password")
-            );
+            Connection c = pool().borrow();
+            return instrumented() ? InstrumentedJdbc.wrap(c, SqlMetrics.getInstance()) : c;
         } catch (Exception e) {
             throw new RuntimeException("DB bağlantısı kurulamadı.", e);
         }
     }
+
+    /**
+     * @return active/idle counts and acquire-wait timings of the shared pool
+     */
+    public static ConnectionPool.Stats poolStats() {
+        return pool().stats();
+    }
 }
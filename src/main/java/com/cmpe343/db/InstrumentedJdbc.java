@@ -0,0 +1,191 @@
+package com.cmpe343.db;
+
+import com.cmpe343.jfr.DaoCallEvent;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Blob;
+import java.sql.CallableStatement;
+import java.sql.Clob;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.Optional;
+
+/**
+ * Wraps a connection so that every statement it creates reports to {@link SqlMetrics}.
+ * <p>
+ * The caller is resolved once per statement, when it is created; executions are timed,
+ * emitted as {@link DaoCallEvent}s for Flight Recorder, and their result sets count rows
+ * and LOB bytes as the DAO reads them.
+ */
+final class InstrumentedJdbc {
+
+    private static final StackWalker WALKER = StackWalker.getInstance();
+    private static final String APP_PACKAGE = "com.cmpe343.";
+    private static final String DB_PACKAGE = "com.cmpe343.db.";
+
+    private InstrumentedJdbc() {
+    }
+
+    static Connection wrap(Connection connection, SqlMetrics metrics) {
+        return proxy(Connection.class, (proxy, method, args) -> {
+            Object result = invoke(connection, method, args);
+            switch (method.getName()) {
+                case "createStatement":
+                    return statement(Statement.class, (Statement) result, null, metrics);
+                case "prepareStatement":
+                    return statement(PreparedStatement.class, (Statement) result, (String) args[0], metrics);
+                case "prepareCall":
+                    return statement(CallableStatement.class, (Statement) result, (String) args[0], metrics);
+                default:
+                    return result;
+            }
+        });
+    }
+
+    /**
+     * @return "SimpleClass.method" of the first application frame outside this package
+     */
+    static String caller() {
+        Optional<StackWalker.StackFrame> frame = WALKER.walk(frames -> frames
+                .filter(f -> f.getClassName().startsWith(APP_PACKAGE) && !f.getClassName().startsWith(DB_PACKAGE))
+                .findFirst());
+        return frame.map(InstrumentedJdbc::name).orElse("other");
+    }
+
+    private static String name(StackWalker.StackFrame frame) {
+        String cls = frame.getClassName();
+        cls = cls.substring(cls.lastIndexOf('.') + 1);
+        int nested = cls.indexOf('$');
+        if (nested > 0) {
+            cls = cls.substring(0, nested);
+        }
+        String method = frame.getMethodName();
+        // lambda$createOrder$0 -> createOrder
+        if (method.startsWith("lambda$")) {
+            int end = method.indexOf('$', 7);
+            method = method.substring(7, end > 7 ? end : method.length());
+        }
+        return cls + "." + method;
+    }
+
+    private static <T extends Statement> T statement(Class<T> type, Statement target, String preparedSql, SqlMetrics metrics) {
+        String caller = caller();
+        SqlMetrics.Method stats = metrics.method(caller);
+        return proxy(type, (proxy, method, args) -> {
+            String name = method.getName();
+            if (name.startsWith("execute")) {
+                String sql = args != null && args.length > 0 && args[0] instanceof String s ? s : preparedSql;
+                boolean batch = "executeBatch".equals(name);
+                DaoCallEvent event = new DaoCallEvent();
+                event.begin();
+                long start = System.nanoTime();
+                boolean failed = true;
+                try {
+                    Object result = invoke(target, method, args);
+                    failed = false;
+                    return result instanceof ResultSet rs ? resultSet(rs, stats) : result;
+                } finally {
+                    metrics.recordExecution(stats, caller, batch ? null : sql, System.nanoTime() - start, failed);
+                    event.end();
+                    if (event.shouldCommit()) {
+                        event.caller = caller;
+                        event.sql = sql;
+                        event.batch = batch;
+                        event.failed = failed;
+                        event.commit();
+                    }
+                }
+            }
+            if (name.equals("setBytes") && args[1] instanceof byte[] bytes) {
+                stats.lobBytes.add(bytes.length);
+            } else if (name.equals("setBlob") && args[1] instanceof Blob blob) {
+                stats.lobBytes.add(blob.length());
+            }
+            Object result = invoke(target, method, args);
+            return name.equals("getResultSet") && result instanceof ResultSet rs ? resultSet(rs, stats) : result;
+        });
+    }
+
+    private static ResultSet resultSet(ResultSet target, SqlMetrics.Method stats) {
+        InvocationHandler handler = new InvocationHandler() {
+            // Indexes of LONGTEXT/LONGBLOB-like columns, resolved on the first get
+            private boolean[] lobColumns;
+            private boolean anyLob;
+
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                Object result = InstrumentedJdbc.invoke(target, method, args);
+                switch (method.getName()) {
+                    case "next":
+                        if (Boolean.TRUE.equals(result)) {
+                            stats.rows.increment();
+                        }
+                        break;
+                    case "getBytes":
+                        if (result instanceof byte[] bytes) {
+                            stats.lobBytes.add(bytes.length);
+                        }
+                        break;
+                    case "getBlob":
+                        if (result instanceof Blob blob) {
+                            stats.lobBytes.add(blob.length());
+                        }
+                        break;
+                    case "getClob":
+                        if (result instanceof Clob clob) {
+                            stats.lobBytes.add(clob.length());
+                        }
+                        break;
+                    case "getString":
+                        if (result instanceof String text && isLob(args[0])) {
+                            stats.lobBytes.add(text.length());
+                        }
+                        break;
+                    default:
+                        break;
+                }
+                return result;
+            }
+
+            private boolean isLob(Object column) throws SQLException {
+                if (lobColumns == null) {
+                    ResultSetMetaData md = target.getMetaData();
+                    lobColumns = new boolean[md.getColumnCount() + 1];
+                    for (int i = 1; i < lobColumns.length; i++) {
+                        int type = md.getColumnType(i);
+                        lobColumns[i] = type == Types.LONGVARCHAR || type == Types.LONGNVARCHAR || type == Types.CLOB
+                                || type == Types.NCLOB;
+                        anyLob |= lobColumns[i];
+                    }
+                }
+                if (!anyLob) {
+                    return false;
+                }
+                int index = column instanceof Integer i ? i : target.findColumn((String) column);
+                return index > 0 && index < lobColumns.length && lobColumns[index];
+            }
+        };
+        return proxy(ResultSet.class, handler);
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(InstrumentedJdbc.class.getClassLoader(), new Class<?>[] { type }, handler);
+    }
+}
@@ -0,0 +1,201 @@
+package com.cmpe343.db;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Brings an existing database up to the schema the DAOs expect.
+ * <p>
+ * Migrations are the numbered scripts under {@code src/main/resources/db/migration}, listed in
+ * {@link #MIGRATIONS}. Applied versions are recorded in {@code schema_version}; each pending
+ * script runs once, in order. {@link Db} calls {@link #migrate(Connection)} once per process,
+ * before the first connection is handed out, so DAOs never create or alter tables themselves.
+ * <p>
+ * A fresh database from {@code greengrocer_db.sql} already has most of these objects, so
+ * "already exists" errors (table, column, index) are treated as done rather than failures.
+ * A MySQL named lock keeps two app instances from migrating the same database at once.
+ */
+public final class SchemaMigrator {
+
+    /**
+     * A numbered schema change and the script that applies it.
+     */
+    public static class Migration {
+        public final int version;
+        public final String description;
+        public final String resource;
+
+        Migration(int version, String description) {
+            this.version = version;
+            this.description = description;
+            this.resource = "/db/migration/V" + version + "__" + description + ".sql";
+        }
+    }
+
+    /** In version order; append new migrations at the end and never renumber. */
+    static final List<Migration> MIGRATIONS = List.of(
+            new Migration(1, "cart_items"),
+            new Migration(2, "message_replies"),
+            new Migration(3, "sales_rollups"),
+            new Migration(4, "order_paging_indexes"),
+            new Migration(5, "index_pack"),
+            new Migration(6, "product_image_digest"),
+            new Migration(7, "order_coupon_discount"));
+
+    private static final String LOCK_NAME = "greengrocer_schema_migration";
+    private static final int LOCK_TIMEOUT_SEC = 30;
+
+    // MySQL errors meaning the object a statement creates is already there
+    private static final Set<Integer> ALREADY_APPLIED_ERRORS = Set.of(
+            1050, // ER_TABLE_EXISTS_ERROR
+            1060, // ER_DUP_FIELDNAME
+            1061  // ER_DUP_KEYNAME
+    );
+
+    private SchemaMigrator() {
+    }
+
+    /**
+     * Applies every migration not yet recorded in {@code schema_version}.
+     *
+     * @return number of migrations applied
+     */
+    public static int migrate(Connection c) throws SQLException {
+        boolean autoCommit = c.getAutoCommit();
+        c.setAutoCommit(true); // DDL commits implicitly in MySQL anyway
+        try (Statement s = c.createStatement()) {
+            s.execute("""
+                    CREATE TABLE IF NOT EXISTS schema_version (
+                        version     INT PRIMARY KEY,
+                        description VARCHAR(100) NOT NULL,
+                        applied_at  TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+                    ) ENGINE=InnoDB
+                    """);
+            acquireLock(c);
+            try {
+                Set<Integer> applied = appliedVersions(c);
+                int count = 0;
+                for (Migration m : MIGRATIONS) {
+                    if (applied.contains(m.version)) {
+                        continue;
+                    }
+                    long start = System.nanoTime();
+                    apply(c, m);
+                    count++;
+                    System.out.println("[schema] V" + m.version + " " + m.description + " applied in "
+                            + (System.nanoTime() - start) / 1_000_000 + " ms");
+                }
+                return count;
+            } finally {
+                releaseLock(c);
+            }
+        } finally {
+            c.setAutoCommit(autoCommit);
+        }
+    }
+
+    private static void apply(Connection c, Migration m) throws SQLException {
+        try (Statement s = c.createStatement()) {
+            for (String sql : splitStatements(readScript(m))) {
+                try {
+                    s.execute(sql);
+                } catch (SQLException e) {
+                    if (!ALREADY_APPLIED_ERRORS.contains(e.getErrorCode())) {
+                        throw new SQLException("Migration V" + m.version + " failed at: " + sql, e.getSQLState(),
+                                e.getErrorCode(), e);
+                    }
+                }
+            }
+        }
+        try (PreparedStatement ps = c.prepareStatement(
+                "INSERT INTO schema_version (version, description) VALUES (?, ?)")) {
+            ps.setInt(1, m.version);
+            ps.setString(2, m.description);
+            ps.executeUpdate();
+        }
+    }
+
+    private static Set<Integer> appliedVersions(Connection c) throws SQLException {
+        Set<Integer> versions = new HashSet<>();
+        try (Statement s = c.createStatement();
+                ResultSet rs = s.executeQuery("SELECT version FROM schema_version")) {
+            while (rs.next()) {
+                versions.add(rs.getInt(1));
+            }
+        }
+        return versions;
+    }
+
+    private static void acquireLock(Connection c) throws SQLException {
+        try (PreparedStatement ps = c.prepareStatement("SELECT GET_LOCK(?, ?)")) {
+            ps.setString(1, LOCK_NAME);
+            ps.setInt(2, LOCK_TIMEOUT_SEC);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (!rs.next() || rs.getInt(1) != 1) {
+                    throw new SQLException("Timed out waiting for another instance to finish migrating the schema");
+                }
+            }
+        }
+    }
+
+    private static void releaseLock(Connection c) {
+        try (PreparedStatement ps = c.prepareStatement("SELECT RELEASE_LOCK(?)")) {
+            ps.setString(1, LOCK_NAME);
+            ps.executeQuery().close();
+        } catch (SQLException e) {
+            System.err.println("Could not release schema migration lock: " + e.getMessage());
+        }
+    }
+
+    static String readScript(Migration m) {
+        try (InputStream in = SchemaMigrator.class.getResourceAsStream(m.resource)) {
+            if (in == null) {
+                throw new IllegalStateException("Missing migration script " + m.resource);
+            }
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new RuntimeException("Could not read migration script " + m.resource, e);
+        }
+    }
+
+    /**
+     * Splits a script into statements on {@code ;} at line ends, dropping {@code --} comment
+     * lines and blank statements. Enough for the plain DDL and DML in the migration scripts;
+     * it does not understand semicolons inside string literals.
+     */
+    static List<String> splitStatements(String script) {
+        List<String> statements = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        for (String line : script.split("\\R")) {
+            String trimmed = line.strip();
+            if (trimmed.isEmpty() || trimmed.startsWith("--")) {
+                continue;
+            }
+            if (trimmed.endsWith(";")) {
+                current.append(trimmed, 0, trimmed.length() - 1);
+                String sql = current.toString().strip();
+                if (!sql.isEmpty()) {
+                    statements.add(sql);
+                }
+                current.setLength(0);
+            } else {
+                current.append(trimmed).append('\n');
+            }
+        }
+        String rest = current.toString().strip();
+        if (!rest.isEmpty()) {
+            statements.add(rest);
+        }
+        return statements;
+    }
+}
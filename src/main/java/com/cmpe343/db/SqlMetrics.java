@@ -0,0 +1,229 @@
+package com.cmpe343.db;
+
+import com.cmpe343.util.LatencyHistogram;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-DAO-method statistics of the SQL statements run through {@link Db#getConnection()}.
+ * <p>
+ * Statements are attributed to the first application frame on the stack outside this
+ * package, e.g. {@code OrderDao.createOrder}. For each caller this keeps a latency histogram
+ * of the statement executions, error and slow-statement counts, rows read from result sets
+ * and bytes of LOB data read or bound (text counted in characters). Executions slower than
+ * {@code db.slowQueryMs} (default 250, 0 disables) are logged to System.err with their SQL.
+ * <p>
+ * Every {@code diagnostics.dumpIntervalSec} seconds (default 300, 0 disables) the report,
+ * with the pool and retry statistics, is appended to {@code diagnostics.dumpFile} (default
+ * {@code ~/.greengrocer/sql-metrics.log}). The owner's Diagnostics tab shows the same figures.
+ */
+public final class SqlMetrics {
+
+    /** Figures of one DAO method at the time of {@link #snapshot()}. */
+    public static class Snapshot {
+        private final String caller;
+        private final long executions;
+        private final long errors;
+        private final long slow;
+        private final long rows;
+        private final long lobBytes;
+        private final double totalMs;
+        private final double meanMs;
+        private final double p50Ms;
+        private final double p95Ms;
+        private final double p99Ms;
+        private final double maxMs;
+
+        Snapshot(String caller, Method m) {
+            LatencyHistogram h = m.latency;
+            this.caller = caller;
+            this.executions = h.count();
+            this.errors = m.errors.sum();
+            this.slow = m.slow.sum();
+            this.rows = m.rows.sum();
+            this.lobBytes = m.lobBytes.sum();
+            this.meanMs = h.meanNanos() / 1e6;
+            this.totalMs = meanMs * executions;
+            this.p50Ms = h.percentileNanos(50) / 1e6;
+            this.p95Ms = h.percentileNanos(95) / 1e6;
+            this.p99Ms = h.percentileNanos(99) / 1e6;
+            this.maxMs = h.maxNanos() / 1e6;
+        }
+
+        public String getCaller() { return caller; }
+        public long getExecutions() { return executions; }
+        public long getErrors() { return errors; }
+        public long getSlow() { return slow; }
+        public long getRows() { return rows; }
+        public long getLobBytes() { return lobBytes; }
+        public double getTotalMs() { return totalMs; }
+        public double getMeanMs() { return meanMs; }
+        public double getP50Ms() { return p50Ms; }
+        public double getP95Ms() { return p95Ms; }
+        public double getP99Ms() { return p99Ms; }
+        public double getMaxMs() { return maxMs; }
+    }
+
+    /** Counters of one DAO method. */
+    static class Method {
+        final LatencyHistogram latency = new LatencyHistogram();
+        final LongAdder errors = new LongAdder();
+        final LongAdder slow = new LongAdder();
+        final LongAdder rows = new LongAdder();
+        final LongAdder lobBytes = new LongAdder();
+    }
+
+    private static final DateTimeFormatter DUMP_TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final int MAX_LOGGED_SQL = 300;
+
+    private static volatile SqlMetrics instance;
+
+    private final long slowNanos;
+    private final Map<String, Method> methods = new ConcurrentHashMap<>();
+    private volatile LocalDateTime since = LocalDateTime.now();
+    private ScheduledExecutorService dumper;
+
+    SqlMetrics(long slowQueryMs) {
+        this.slowNanos = slowQueryMs <= 0 ? Long.MAX_VALUE : TimeUnit.MILLISECONDS.toNanos(slowQueryMs);
+    }
+
+    public static SqlMetrics getInstance() {
+        SqlMetrics m = instance;
+        if (m != null) return m;
+        synchronized (SqlMetrics.class) {
+            if (instance == null) {
+                instance = new SqlMetrics(longProperty("db.slowQueryMs", 250));
+            }
+            return instance;
+        }
+    }
+
+    private static long longProperty(String key, long defaultValue) {
+        try {
+            return Long.parseLong(Db.property(key, String.valueOf(defaultValue)));
+        } catch (NumberFormatException e) {
+            System.err.println("Invalid value for " + key + ", using " + defaultValue);
+            return defaultValue;
+        }
+    }
+
+    Method method(String caller) {
+        return methods.computeIfAbsent(caller, k -> new Method());
+    }
+
+    /**
+     * Records one statement execution and logs it if it was slow.
+     */
+    void recordExecution(Method m, String caller, String sql, long nanos, boolean failed) {
+        m.latency.record(nanos);
+        if (failed) {
+            m.errors.increment();
+        }
+        if (nanos >= slowNanos) {
+            m.slow.increment();
+            String text = sql == null ? "(batch)" : sql.strip().replaceAll("\\s+", " ");
+            if (text.length() > MAX_LOGGED_SQL) {
+                text = text.substring(0, MAX_LOGGED_SQL) + "...";
+            }
+            System.err.printf("[slow-query] %.1f ms %s: %s%n", nanos / 1e6, caller, text);
+        }
+    }
+
+    /**
+     * @return one entry per DAO method, the most total time first
+     */
+    public List<Snapshot> snapshot() {
+        List<Snapshot> list = new ArrayList<>();
+        methods.forEach((caller, m) -> list.add(new Snapshot(caller, m)));
+        list.sort(Comparator.comparingDouble(Snapshot::getTotalMs).reversed());
+        return list;
+    }
+
+    /**
+     * @return when the figures started, i.e. startup or the last {@link #reset()}
+     */
+    public LocalDateTime getSince() {
+        return since;
+    }
+
+    public void reset() {
+        methods.clear();
+        since = LocalDateTime.now();
+    }
+
+    /**
+     * @return the snapshot as a fixed-width table
+     */
+    public String report() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%-40s %9s %6s %6s %10s %12s %10s %8s %8s %8s %8s %8s%n", "caller", "calls", "errors",
+                "slow", "rows", "lob bytes", "total ms", "mean", "p50", "p95", "p99", "max"));
+        for (Snapshot s : snapshot()) {
+            sb.append(String.format("%-40s %9d %6d %6d %10d %12d %10.1f %8.2f %8.2f %8.2f %8.2f %8.2f%n",
+                    s.caller, s.executions, s.errors, s.slow, s.rows, s.lobBytes, s.totalMs, s.meanMs,
+                    s.p50Ms, s.p95Ms, s.p99Ms, s.maxMs));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Starts the periodic dump to the diagnostics file, once.
+     */
+    synchronized void startPeriodicDump() {
+        long intervalSec = longProperty("diagnostics.dumpIntervalSec", 300);
+        if (dumper != null || intervalSec <= 0) {
+            return;
+        }
+        File file = dumpFile();
+        dumper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "sql-metrics-dump");
+            t.setDaemon(true);
+            return t;
+        });
+        dumper.scheduleAtFixedRate(() -> dump(file), intervalSec, intervalSec, TimeUnit.SECONDS);
+    }
+
+    /**
+     * @return the file the periodic dump appends to
+     */
+    public static File dumpFile() {
+        return new File(Db.property("diagnostics.dumpFile",
+                System.getProperty("user.home") + File.separator + ".greengrocer" + File.separator + "sql-metrics.log"));
+    }
+
+    /**
+     * Appends the report, pool and retry statistics to {@code file}; nothing if no statement ran yet.
+     */
+    public void dump(File file) {
+        if (methods.isEmpty()) {
+            return;
+        }
+        File dir = file.getAbsoluteFile().getParentFile();
+        if (dir != null) {
+            dir.mkdirs();
+        }
+        try (PrintWriter out = new PrintWriter(new FileWriter(file, true))) {
+            out.printf("=== %s (since %s)%n", DUMP_TIME.format(LocalDateTime.now()), DUMP_TIME.format(since));
+            out.print(report());
+            out.println("pool: " + Db.poolStats());
+            out.println("retries: " + TransactionRetry.getInstance().stats());
+            out.println();
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Could not write SQL metrics to " + file + ": " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package com.cmpe343.db;
+
+import java.sql.SQLException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Re-runs a transaction that MySQL aborted because of lock contention.
+ * <p>
+ * A deadlock (error 1213) or lock wait timeout (1205), or any other SQLState {@code 40001}
+ * failure, means the transaction lost a race and running it again usually succeeds. The
+ * work is retried up to {@code db.retry.maxAttempts} times in total (default 4), sleeping a
+ * random "full jitter" delay between 0 and {@code db.retry.baseDelayMs * 2^(attempt-1)}
+ * (default 20 ms, capped at {@code db.retry.maxDelayMs}, default 500 ms) so the
+ * transactions that collided do not collide again. Any other exception is thrown at once.
+ * <p>
+ * The work must run the whole transaction on its own connection, since MySQL has already
+ * rolled it back when the error arrives. {@link #stats()} counts retries by cause so
+ * contention is visible.
+ */
+public final class TransactionRetry {
+
+    /** One complete transaction, including borrowing and closing its connection. */
+    public interface Work<T> {
+        T run() throws Exception;
+    }
+
+    /** Why a transaction failed, as far as retrying is concerned. */
+    public enum Failure { DEADLOCK, LOCK_WAIT_TIMEOUT, SERIALIZATION, OTHER }
+
+    interface Sleeper {
+        void sleep(long millis) throws InterruptedException;
+    }
+
+    public static class Stats {
+        private final long transactions;
+        private final long retries;
+        private final long deadlocks;
+        private final long lockWaitTimeouts;
+        private final long exhausted;
+
+        Stats(long transactions, long retries, long deadlocks, long lockWaitTimeouts, long exhausted) {
+            this.transactions = transactions;
+            this.retries = retries;
+            this.deadlocks = deadlocks;
+            this.lockWaitTimeouts = lockWaitTimeouts;
+            this.exhausted = exhausted;
+        }
+
+        public long getTransactions() { return transactions; }
+        public long getRetries() { return retries; }
+        /**
+         * @return deadlocks, counting other SQLState 40001 aborts as well
+         */
+        public long getDeadlocks() { return deadlocks; }
+        public long getLockWaitTimeouts() { return lockWaitTimeouts; }
+
+        /**
+         * @return transactions that still failed after the last attempt
+         */
+        public long getExhausted() { return exhausted; }
+
+        @Override
+        public String toString() {
+            return String.format("transactions=%d retries=%d deadlocks=%d lockWaitTimeouts=%d exhausted=%d",
+                    transactions, retries, deadlocks, lockWaitTimeouts, exhausted);
+        }
+    }
+
+    private static final int ER_LOCK_WAIT_TIMEOUT = 1205;
+    private static final int ER_LOCK_DEADLOCK = 1213;
+
+    private static volatile TransactionRetry instance;
+
+    private final int maxAttempts;
+    private final long baseDelayMs;
+    private final long maxDelayMs;
+    private final Sleeper sleeper;
+
+    private final AtomicLong transactions = new AtomicLong();
+    private final AtomicLong retries = new AtomicLong();
+    private final AtomicLong deadlocks = new AtomicLong();
+    private final AtomicLong lockWaitTimeouts = new AtomicLong();
+    private final AtomicLong exhausted = new AtomicLong();
+
+    TransactionRetry(int maxAttempts, long baseDelayMs, long maxDelayMs, Sleeper sleeper) {
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException("maxAttempts must be at least 1.");
+        }
+        this.maxAttempts = maxAttempts;
+        this.baseDelayMs = baseDelayMs;
+        this.maxDelayMs = maxDelayMs;
+        this.sleeper = sleeper;
+    }
+
+    public static TransactionRetry getInstance() {
+        TransactionRetry r = instance;
+        if (r != null) return r;
+        synchronized (TransactionRetry.class) {
+            if (instance == null) {
+                instance = new TransactionRetry(
+                        (int) longProperty("db.retry.maxAttempts", 4),
+                        longProperty("db.retry.baseDelayMs", 20),
+                        longProperty("db.retry.maxDelayMs", 500),
+                        Thread::sleep);
+            }
+            return instance;
+        }
+    }
+
+    private static long longProperty(String key, long defaultValue) {
+        try {
+            return Long.parseLong(Db.property(key, String.valueOf(defaultValue)));
+        } catch (NumberFormatException e) {
+            System.err.println("Invalid value for " + key + ", using " + defaultValue);
+            return defaultValue;
+        }
+    }
+
+    /**
+     * Runs {@code work}, retrying it while it fails with a retryable lock error.
+     *
+     * @param operation name used in the log line, e.g. "createOrder"
+     * @return the work's result
+     * @throws Exception the work's exception when it is not retryable or the attempts ran out
+     */
+    public <T> T run(String operation, Work<T> work) throws Exception {
+        transactions.incrementAndGet();
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return work.run();
+            } catch (Exception e) {
+                Failure failure = classify(e);
+                if (failure == Failure.OTHER) {
+                    throw e;
+                }
+                if (failure == Failure.LOCK_WAIT_TIMEOUT) {
+                    lockWaitTimeouts.incrementAndGet();
+                } else {
+                    deadlocks.incrementAndGet();
+                }
+                if (attempt >= maxAttempts) {
+                    exhausted.incrementAndGet();
+                    System.err.println("[retry] " + operation + " gave up after " + attempt + " attempts: " + failure);
+                    throw e;
+                }
+                long delay = backoffMillis(attempt);
+                retries.incrementAndGet();
+                System.err.println("[retry] " + operation + " " + failure + ", attempt " + (attempt + 1) + "/"
+                        + maxAttempts + " in " + delay + " ms");
+                try {
+                    sleeper.sleep(delay);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    throw e;
+                }
+            }
+        }
+    }
+
+    /**
+     * @return a random delay in [0, min(maxDelayMs, baseDelayMs * 2^(attempt-1))]
+     */
+    long backoffMillis(int attempt) {
+        long ceiling = Math.min(maxDelayMs, baseDelayMs << Math.min(attempt - 1, 20));
+        return ceiling <= 0 ? 0 : ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+
+    /**
+     * Finds the first SQLException in the cause chain and tells whether it is a lock failure.
+     */
+    public static Failure classify(Throwable t) {
+        for (Throwable cause = t; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLException sql) {
+                if (sql.getErrorCode() == ER_LOCK_DEADLOCK) {
+                    return Failure.DEADLOCK;
+                }
+                if (sql.getErrorCode() == ER_LOCK_WAIT_TIMEOUT) {
+                    return Failure.LOCK_WAIT_TIMEOUT;
+                }
+                if ("40001".equals(sql.getSQLState())) {
+                    return Failure.SERIALIZATION;
+                }
+            }
+            if (cause.getCause() == cause) {
+                break;
+            }
+        }
+        return Failure.OTHER;
+    }
+
+    public Stats stats() {
+        return new Stats(transactions.get(), retries.get(), deadlocks.get(), lockWaitTimeouts.get(), exhausted.get());
+    }
+}
@@ -3,7 +3,9 @@ package com.cmpe343.fx.controller;
 import com.cmpe343.dao.OrderDao;
 import com.cmpe343.dao.UserDao;
 import com.cmpe343.fx.Session;
+import com.cmpe343.fx.util.OrderListView;
 import com.cmpe343.fx.util.ToastService;
+import com.cmpe343.fx.util.UiTask;
 import com.cmpe343.model.Order;
 import com.cmpe343.model.CartItem;
 import com.cmpe343.model.User;
@@ -21,7 +23,10 @@ import javafx.util.Duration;
 
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class CarrierController {
     
@@ -44,10 +49,24 @@ public class CarrierController {
     
     private OrderDao orderDao;
     private UserDao userDao;
+    private final UiTask.Scope tasks = UiTask.newScope();
+    // Customers of the listed orders, filled in the background together with each list
+    private final Map<Integer, User> customersById = new ConcurrentHashMap<>();
     private Order selectedAvailableOrder;
     private Order selectedMyOrder;
     private Order selectedCompletedOrder;
     private int currentCarrierId;
+
+    private static final DateTimeFormatter LIST_DATE_FORMAT = DateTimeFormatter.ofPattern("MMM dd, yyyy HH:mm");
+    private final OrderListView availableOrdersList = new OrderListView(() -> new OrderRow("#3b82f6"),
+            "No available orders at this time.",
+            order -> { if (order != null) showAvailableOrderDetail(order, LIST_DATE_FORMAT); else showAvailableOrderDetailPlaceholder(); });
+    private final OrderListView myOrdersList = new OrderListView(() -> new OrderRow("#f59e0b"),
+            "No assigned orders. Select orders from the 'Active Orders' tab.",
+            order -> { if (order != null) showMyOrderDetail(order, LIST_DATE_FORMAT); else showMyOrderDetailPlaceholder(); });
+    private final OrderListView completedOrdersList = new OrderListView(() -> new OrderRow("#10b981"),
+            "No completed orders yet.",
+            order -> { if (order != null) showCompletedOrderDetail(order, LIST_DATE_FORMAT); else showCompletedOrderDetailPlaceholder(); });
     
     @FXML
     public void initialize() {
@@ -68,6 +87,21 @@ public class CarrierController {
         loadCompletedOrders();
     }
     
+    /**
+     * Runs on a background thread: loads the customers of these orders in one query
+     * so list rows and detail cards do not look them up one by one.
+     */
+    private List<Order> withCustomers(List<Order> orders) {
+        List<Integer> ids = new ArrayList<>();
+        for (Order o : orders) {
+            if (!customersById.containsKey(o.getCustomerId())) {
+                ids.add(o.getCustomerId());
+            }
+        }
+        customersById.putAll(userDao.getUsersByIds(ids));
+        return orders;
+    }
+    
     @FXML
     private void handleRefresh() {
         loadOrders();
@@ -77,209 +111,111 @@ public class CarrierController {
         // Preserve the currently selected order ID before clearing
         Integer selectedOrderId = selectedAvailableOrder != null ? selectedAvailableOrder.getId() : null;
         
-        availableOrdersListContainer.getChildren().clear();
         availableOrderDetailContainer.getChildren().clear();
         selectedAvailableOrder = null;
         
-        List<Order> orders = orderDao.getAvailableOrders();
-        
-        if (orders.isEmpty()) {
-            Label noOrdersLabel = new Label("No available orders at this time.");
-            noOrdersLabel.setStyle("-fx-font-size: 14px; -fx-text-fill: #94a3b8; -fx-padding: 20;");
-            availableOrdersListContainer.getChildren().add(noOrdersLabel);
-            return;
-        }
-        
+        tasks.run("available", availableOrdersListContainer,
+                () -> withCustomers(orderDao.getAvailableOrders()),
+                orders -> renderAvailableOrders(orders, selectedOrderId));
+    }
+    
+    private void renderAvailableOrders(List<Order> orders, Integer selectedOrderId) {
         orders.sort((o1, o2) -> Integer.compare(o2.getId(), o1.getId()));
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("MMM dd, yyyy HH:mm");
-        
-        // Restore selection if the order still exists
-        Order orderToSelect = null;
-        for (Order order : orders) {
-            HBox listItem = createOrderListItem(order, formatter, "#3b82f6", availableOrdersListContainer);
-            if (listItem != null) {
-                listItem.setPrefWidth(Double.MAX_VALUE);
-                listItem.setMaxWidth(Double.MAX_VALUE);
-                availableOrdersListContainer.getChildren().add(listItem);
-                
-                // Check if this is the previously selected order
-                if (selectedOrderId != null && order.getId() == selectedOrderId) {
-                    orderToSelect = order;
-                }
-            }
-        }
-        
-        // Restore the detail view if the order still exists
-        if (orderToSelect != null) {
-            showAvailableOrderDetail(orderToSelect, formatter);
-        } else {
-            showAvailableOrderDetailPlaceholder();
-        }
+        availableOrdersList.show(availableOrdersListContainer, orders, selectedOrderId);
     }
     
     private void loadMyOrders() {
         // Preserve the currently selected order ID before clearing
         Integer selectedOrderId = selectedMyOrder != null ? selectedMyOrder.getId() : null;
         
-        myOrdersListContainer.getChildren().clear();
         myOrderDetailContainer.getChildren().clear();
         selectedMyOrder = null;
         
         if (currentCarrierId == 0) {
             Label noUserLabel = new Label("Carrier not logged in.");
             noUserLabel.setStyle("-fx-font-size: 14px; -fx-text-fill: #94a3b8; -fx-padding: 20;");
-            myOrdersListContainer.getChildren().add(noUserLabel);
-            return;
-        }
-        
-        List<Order> orders = orderDao.getOrdersByCarrier(currentCarrierId, Order.OrderStatus.ASSIGNED);
-        
-        if (orders.isEmpty()) {
-            Label noOrdersLabel = new Label("No assigned orders. Select orders from the 'Active Orders' tab.");
-            noOrdersLabel.setStyle("-fx-font-size: 14px; -fx-text-fill: #94a3b8; -fx-padding: 20;");
-            myOrdersListContainer.getChildren().add(noOrdersLabel);
+            myOrdersListContainer.getChildren().setAll(noUserLabel);
             return;
         }
         
+        tasks.run("assigned", myOrdersListContainer,
+                () -> withCustomers(orderDao.getOrdersByCarrier(currentCarrierId, Order.OrderStatus.ASSIGNED)),
+                orders -> renderMyOrders(orders, selectedOrderId));
+    }
+    
+    private void renderMyOrders(List<Order> orders, Integer selectedOrderId) {
         orders.sort((o1, o2) -> Integer.compare(o2.getId(), o1.getId()));
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("MMM dd, yyyy HH:mm");
-        
-        // Restore selection if the order still exists
-        Order orderToSelect = null;
-        for (Order order : orders) {
-            HBox listItem = createOrderListItem(order, formatter, "#f59e0b", myOrdersListContainer);
-            if (listItem != null) {
-                listItem.setPrefWidth(Double.MAX_VALUE);
-                listItem.setMaxWidth(Double.MAX_VALUE);
-                myOrdersListContainer.getChildren().add(listItem);
-                
-                // Check if this is the previously selected order
-                if (selectedOrderId != null && order.getId() == selectedOrderId) {
-                    orderToSelect = order;
-                }
-            }
-        }
-        
-        // Restore the detail view if the order still exists
-        if (orderToSelect != null) {
-            showMyOrderDetail(orderToSelect, formatter);
-        } else {
-            showMyOrderDetailPlaceholder();
-        }
+        myOrdersList.show(myOrdersListContainer, orders, selectedOrderId);
     }
     
     private void loadCompletedOrders() {
         // Preserve the currently selected order ID before clearing
         Integer selectedOrderId = selectedCompletedOrder != null ? selectedCompletedOrder.getId() : null;
         
-        completedOrdersListContainer.getChildren().clear();
         completedOrderDetailContainer.getChildren().clear();
         selectedCompletedOrder = null;
         
         if (currentCarrierId == 0) {
             Label noUserLabel = new Label("Carrier not logged in.");
             noUserLabel.setStyle("-fx-font-size: 14px; -fx-text-fill: #94a3b8; -fx-padding: 20;");
-            completedOrdersListContainer.getChildren().add(noUserLabel);
-            return;
-        }
-        
-        List<Order> orders = orderDao.getOrdersByCarrier(currentCarrierId, Order.OrderStatus.DELIVERED);
-        
-        if (orders.isEmpty()) {
-            Label noOrdersLabel = new Label("No completed orders yet.");
-            noOrdersLabel.setStyle("-fx-font-size: 14px; -fx-text-fill: #94a3b8; -fx-padding: 20;");
-            completedOrdersListContainer.getChildren().add(noOrdersLabel);
+            completedOrdersListContainer.getChildren().setAll(noUserLabel);
             return;
         }
         
+        tasks.run("completed", completedOrdersListContainer,
+                () -> withCustomers(orderDao.getOrdersByCarrier(currentCarrierId, Order.OrderStatus.DELIVERED)),
+                orders -> renderCompletedOrders(orders, selectedOrderId));
+    }
+    
+    private void renderCompletedOrders(List<Order> orders, Integer selectedOrderId) {
         orders.sort((o1, o2) -> Integer.compare(o2.getId(), o1.getId()));
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("MMM dd, yyyy HH:mm");
-        
-        // Restore selection if the order still exists
-        Order orderToSelect = null;
-        for (Order order : orders) {
-            HBox listItem = createOrderListItem(order, formatter, "#10b981", completedOrdersListContainer);
-            if (listItem != null) {
-                listItem.setPrefWidth(Double.MAX_VALUE);
-                listItem.setMaxWidth(Double.MAX_VALUE);
-                completedOrdersListContainer.getChildren().add(listItem);
-                
-                // Check if this is the previously selected order
-                if (selectedOrderId != null && order.getId() == selectedOrderId) {
-                    orderToSelect = order;
-                }
-            }
-        }
-        
-        // Restore the detail view if the order still exists
-        if (orderToSelect != null) {
-            showCompletedOrderDetail(orderToSelect, formatter);
-        } else {
-            showCompletedOrderDetailPlaceholder();
-        }
+        completedOrdersList.show(completedOrdersListContainer, orders, selectedOrderId);
     }
     
-    private HBox createOrderListItem(Order order, DateTimeFormatter formatter, String statusColor, VBox parentContainer) {
-        HBox item = new HBox(10);
-        item.setStyle("-fx-padding: 10 12; -fx-background-color: #1e293b; -fx-border-color: #334155; -fx-border-width: 0 0 1 0; " +
-                      "-fx-cursor: hand;");
-        item.setAlignment(Pos.CENTER_LEFT);
-        item.setPrefWidth(Double.MAX_VALUE);
-        item.setUserData(order);
-        
-        item.setOnMouseEntered(e -> {
-            if (!item.getStyle().contains("#2563eb")) {
-                item.setStyle(item.getStyle().replace("#1e293b", "#2563eb"));
-            }
-        });
-        item.setOnMouseExited(e -> {
-            if (!item.getStyle().contains("selected")) {
-                item.setStyle(item.getStyle().replace("#2563eb", "#1e293b"));
-            }
-        });
-        
-        Label idLabel = new Label("Order #" + order.getId());
-        idLabel.setStyle("-fx-font-weight: bold; -fx-font-size: 13px; -fx-text-fill: white;");
-        idLabel.setPrefWidth(100);
-        
-        Label statusLabel = new Label(order.getStatus().name());
-        statusLabel.setStyle("-fx-font-size: 11px; -fx-font-weight: bold; -fx-text-fill: " + statusColor + "; " +
-                            "-fx-padding: 4 8; -fx-background-color: " + statusColor + "20; -fx-background-radius: 4;");
-        
-        Label dateLabel = new Label(order.getOrderTime().format(formatter));
-        dateLabel.setStyle("-fx-font-size: 11px; -fx-text-fill: #94a3b8;");
-        dateLabel.setPrefWidth(150);
-        
-        User customer = null;
-        try {
-            customer = userDao.getUserById(order.getCustomerId());
-        } catch (Exception e) {
-            // Continue without customer info
+    /**
+     * One row of an order list; the labels are reused for whichever order the cell shows.
+     */
+    private class OrderRow implements OrderListView.Row {
+        private final HBox item = new HBox(10);
+        private final Label idLabel = new Label();
+        private final Label statusLabel = new Label();
+        private final Label dateLabel = new Label();
+        private final Label customerLabel = new Label();
+        private final Label totalLabel = new Label();
+        
+        OrderRow(String statusColor) {
+            item.getStyleClass().add("order-row");
+            item.setAlignment(Pos.CENTER_LEFT);
+            
+            idLabel.setStyle("-fx-font-weight: bold; -fx-font-size: 13px; -fx-text-fill: white;");
+            idLabel.setPrefWidth(100);
+            statusLabel.setStyle("-fx-font-size: 11px; -fx-font-weight: bold; -fx-text-fill: " + statusColor + "; " +
+                                "-fx-padding: 4 8; -fx-background-color: " + statusColor + "20; -fx-background-radius: 4;");
+            dateLabel.setStyle("-fx-font-size: 11px; -fx-text-fill: #94a3b8;");
+            dateLabel.setPrefWidth(150);
+            customerLabel.setStyle("-fx-font-size: 12px; -fx-text-fill: #cbd5e1;");
+            totalLabel.setStyle("-fx-font-size: 12px; -fx-font-weight: bold; -fx-text-fill: white;");
+            totalLabel.setPrefWidth(100);
+            
+            Region spacer = new Region();
+            HBox.setHgrow(spacer, Priority.ALWAYS);
+            item.getChildren().addAll(idLabel, statusLabel, dateLabel, customerLabel, spacer, totalLabel);
         }
-        String customerName = customer != null ? customer.getUsername() : "Customer #" + order.getCustomerId();
-        Label customerLabel = new Label(customerName);
-        customerLabel.setStyle("-fx-font-size: 12px; -fx-text-fill: #cbd5e1;");
-        
-        Label totalLabel = new Label(String.format("%.2f ₺", order.getTotalAfterTax()));
-        totalLabel.setStyle("-fx-font-size: 12px; -fx-font-weight: bold; -fx-text-fill: white;");
-        totalLabel.setPrefWidth(100);
-        
-        Region spacer = new Region();
-        HBox.setHgrow(spacer, Priority.ALWAYS);
-        
-        item.getChildren().addAll(idLabel, statusLabel, dateLabel, customerLabel, spacer, totalLabel);
         
-        item.setOnMouseClicked(e -> {
-            if (parentContainer == availableOrdersListContainer) {
-                showAvailableOrderDetail(order, formatter);
-            } else if (parentContainer == myOrdersListContainer) {
-                showMyOrderDetail(order, formatter);
-            } else if (parentContainer == completedOrdersListContainer) {
-                showCompletedOrderDetail(order, formatter);
-            }
-        });
+        @Override
+        public javafx.scene.Node getNode() {
+            return item;
+        }
         
-        return item;
+        @Override
+        public void bind(Order order) {
+            idLabel.setText("Order #" + order.getId());
+            statusLabel.setText(order.getStatus().name());
+            dateLabel.setText(order.getOrderTime().format(LIST_DATE_FORMAT));
+            User customer = customersById.get(order.getCustomerId());
+            customerLabel.setText(customer != null ? customer.getUsername() : "Customer #" + order.getCustomerId());
+            totalLabel.setText(String.format("%.2f ₺", order.getTotalAfterTax()));
+        }
     }
     
     private void showAvailableOrderDetail(Order order, DateTimeFormatter formatter) {
@@ -292,8 +228,6 @@ public class CarrierController {
             detailCard.setMaxWidth(Double.MAX_VALUE);
             availableOrderDetailContainer.getChildren().add(detailCard);
         }
-        
-        updateOrderListSelection(order, availableOrdersListContainer);
     }
     
     private void showMyOrderDetail(Order order, DateTimeFormatter formatter) {
@@ -306,8 +240,6 @@ public class CarrierController {
             detailCard.setMaxWidth(Double.MAX_VALUE);
             myOrderDetailContainer.getChildren().add(detailCard);
         }
-        
-        updateOrderListSelection(order, myOrdersListContainer);
     }
     
     private void showCompletedOrderDetail(Order order, DateTimeFormatter formatter) {
@@ -320,24 +252,6 @@ public class CarrierController {
             detailCard.setMaxWidth(Double.MAX_VALUE);
             completedOrderDetailContainer.getChildren().add(detailCard);
         }
-        
-        updateOrderListSelection(order, completedOrdersListContainer);
-    }
-    
-    private void updateOrderListSelection(Order selected, VBox listContainer) {
-        for (javafx.scene.Node node : listContainer.getChildren()) {
-            if (node instanceof HBox) {
-                HBox item = (HBox) node;
-                if (item.getUserData() instanceof Order) {
-                    Order order = (Order) item.getUserData();
-                    if (order.getId() == selected.getId()) {
-                        item.setStyle(item.getStyle().replace("#1e293b", "#2563eb").replace("#2563eb", "#2563eb") + " selected");
-                    } else {
-                        item.setStyle(item.getStyle().replace(" selected", "").replace("#2563eb", "#1e293b"));
-                    }
-                }
-            }
-        }
     }
     
     private void showAvailableOrderDetailPlaceholder() {
@@ -396,12 +310,8 @@ public class CarrierController {
         }
         detailsBox.getChildren().add(orderDateLabel);
         
-        User customer = null;
-        try {
-            customer = userDao.getUserById(order.getCustomerId());
-        } catch (Exception e) {
-            // Continue without customer info
-        }
+        // Loaded with the list; see withCustomers
+        User customer = customersById.get(order.getCustomerId());
         
         if (customer != null) {
             Label customerLabel = new Label("Customer: " + customer.getUsername());
@@ -452,8 +362,7 @@ public class CarrierController {
         selectButton.setStyle("-fx-background-color: #10b981; -fx-text-fill: white; -fx-font-weight: bold; " +
                              "-fx-font-size: 13px; -fx-padding: 8 20; -fx-background-radius: 6;");
         selectButton.setOnAction(e -> {
-            handleSelectOrder(order);
-            loadOrders();
+            handleSelectOrder(order); // reloads the lists when done
         });
         
         buttonBox.getChildren().add(selectButton);
@@ -497,12 +406,8 @@ public class CarrierController {
         }
         detailsBox.getChildren().add(orderDateLabel);
         
-        User customer = null;
-        try {
-            customer = userDao.getUserById(order.getCustomerId());
-        } catch (Exception e) {
-            // Continue without customer info
-        }
+        // Loaded with the list; see withCustomers
+        User customer = customersById.get(order.getCustomerId());
         
         if (customer != null) {
             Label customerLabel = new Label("Customer: " + customer.getUsername());
@@ -553,8 +458,7 @@ public class CarrierController {
         completeButton.setStyle("-fx-background-color: #10b981; -fx-text-fill: white; -fx-font-weight: bold; " +
                                "-fx-font-size: 13px; -fx-padding: 8 20; -fx-background-radius: 6;");
         completeButton.setOnAction(e -> {
-            handleCompleteOrder(order);
-            loadOrders();
+            handleCompleteOrder(order); // reloads the lists when done
         });
         
         buttonBox.getChildren().add(completeButton);
@@ -604,12 +508,8 @@ public class CarrierController {
             detailsBox.getChildren().add(deliveredLabel);
         }
         
-        User customer = null;
-        try {
-            customer = userDao.getUserById(order.getCustomerId());
-        } catch (Exception e) {
-            // Continue without customer info
-        }
+        // Loaded with the list; see withCustomers
+        User customer = customersById.get(order.getCustomerId());
         
         if (customer != null) {
             Label customerLabel = new Label("Customer: " + customer.getUsername());
@@ -657,16 +557,20 @@ public class CarrierController {
             return;
         }
         
-        boolean success = orderDao.assignOrderToCarrier(orderToProcess.getId(), currentCarrierId);
-        if (success) {
-            ToastService.show(logoutButton.getScene(), "Order " + orderToProcess.getId() + " has been assigned to you.", 
-                    ToastService.Type.SUCCESS, ToastService.Position.BOTTOM_CENTER, Duration.seconds(3));
-            // Clear selection after successful assignment
-            selectedAvailableOrder = null;
-        } else {
-            ToastService.show(logoutButton.getScene(), "Failed to select order. It may have been selected by another carrier.", 
-                    ToastService.Type.ERROR, ToastService.Position.BOTTOM_CENTER, Duration.seconds(3));
-        }
+        tasks.run("assign-" + orderToProcess.getId(), null,
+                () -> orderDao.assignOrderToCarrier(orderToProcess.getId(), currentCarrierId),
+                success -> {
+                    if (success) {
+                        ToastService.show(logoutButton.getScene(), "Order " + orderToProcess.getId() + " has been assigned to you.", 
+                                ToastService.Type.SUCCESS, ToastService.Position.BOTTOM_CENTER, Duration.seconds(3));
+                        // Clear selection after successful assignment
+                        selectedAvailableOrder = null;
+                    } else {
+                        ToastService.show(logoutButton.getScene(), "Failed to select order. It may have been selected by another carrier.", 
+                                ToastService.Type.ERROR, ToastService.Position.BOTTOM_CENTER, Duration.seconds(3));
+                    }
+                    loadOrders();
+                });
     }
     
     @FXML
@@ -679,20 +583,26 @@ public class CarrierController {
             return;
         }
         
-        boolean success = orderDao.markOrderDelivered(orderToProcess.getId(), LocalDateTime.now());
-        if (success) {
-            ToastService.show(logoutButton.getScene(), "Order " + orderToProcess.getId() + " has been marked as delivered.", 
-                    ToastService.Type.SUCCESS, ToastService.Position.BOTTOM_CENTER, Duration.seconds(3));
-            // Clear selection after successful completion
-            selectedMyOrder = null;
-        } else {
-            ToastService.show(logoutButton.getScene(), "Failed to mark order as delivered.", 
-                    ToastService.Type.ERROR, ToastService.Position.BOTTOM_CENTER, Duration.seconds(3));
-        }
+        LocalDateTime deliveredAt = LocalDateTime.now();
+        tasks.run("deliver-" + orderToProcess.getId(), null,
+                () -> orderDao.markOrderDelivered(orderToProcess.getId(), deliveredAt),
+                success -> {
+                    if (success) {
+                        ToastService.show(logoutButton.getScene(), "Order " + orderToProcess.getId() + " has been marked as delivered.", 
+                                ToastService.Type.SUCCESS, ToastService.Position.BOTTOM_CENTER, Duration.seconds(3));
+                        // Clear selection after successful completion
+                        selectedMyOrder = null;
+                    } else {
+                        ToastService.show(logoutButton.getScene(), "Failed to mark order as delivered.", 
+                                ToastService.Type.ERROR, ToastService.Position.BOTTOM_CENTER, Duration.seconds(3));
+                    }
+                    loadOrders();
+                });
     }
     
     @FXML
     private void handleLogout() {
+        tasks.cancelAll();
         Session.clear();
         try {
             Stage stage = (Stage) logoutButton.getScene().getWindow();
@@ -3,8 +3,12 @@ package com.cmpe343.fx.controller;
 import com.cmpe343.dao.CartDao;
 import com.cmpe343.dao.OrderDao;
 import com.cmpe343.fx.Session;
+import com.cmpe343.fx.util.ProductImageService;
 import com.cmpe343.fx.util.ToastService;
+import com.cmpe343.fx.util.UiTask;
 import com.cmpe343.model.CartItem;
+import com.cmpe343.model.Money;
+import com.cmpe343.service.StockReservationService;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.geometry.Pos;
@@ -39,12 +43,18 @@ public class CartController {
     @FXML
     private Label couponDiscountLabel;
 
+    private static final int ROW_IMAGE_SIZE = 50;
+
     private final CartDao cartDao = new CartDao();
     private final OrderDao orderDao = new OrderDao();
     private final com.cmpe343.dao.CouponDao couponDao = new com.cmpe343.dao.CouponDao();
-    private final com.cmpe343.dao.ProductDao productDao = new com.cmpe343.dao.ProductDao();
+    private final StockReservationService stockReservations = StockReservationService.getInstance();
+    private final UiTask.Scope tasks = UiTask.newScope();
     private java.util.List<CartItem> currentCartItems = new java.util.ArrayList<>();
+    private java.util.Map<String, com.cmpe343.model.Coupon> couponsByCode = new java.util.HashMap<>();
+    private com.cmpe343.model.Coupon selectedCoupon = null;
     private Integer selectedCouponId = null;
+    private boolean placingOrder = false;
 
     @FXML
     public void initialize() {
@@ -71,9 +81,15 @@ public class CartController {
         couponComboBox.getItems().clear();
         couponComboBox.getItems().add("No Coupon");
         couponComboBox.setValue("No Coupon");
-        
-        java.util.List<com.cmpe343.model.Coupon> coupons = couponDao.getActiveCouponsForCustomer(Session.getUser().getId());
+
+        int customerId = Session.getUser().getId();
+        tasks.run("coupons", null, () -> couponDao.getActiveCouponsForCustomer(customerId), this::renderCoupons);
+    }
+
+    private void renderCoupons(java.util.List<com.cmpe343.model.Coupon> coupons) {
+        couponsByCode.clear();
         for (com.cmpe343.model.Coupon coupon : coupons) {
+            couponsByCode.put(coupon.getCode(), coupon);
             String display;
             if (coupon.getKind() == com.cmpe343.model.Coupon.CouponKind.AMOUNT) {
                 display = coupon.getCode() + " (-" + coupon.getValue() + " TL)";
@@ -86,20 +102,20 @@ public class CartController {
         couponComboBox.setOnAction(e -> {
             String selected = couponComboBox.getValue();
             if (selected == null || selected.equals("No Coupon")) {
+                selectedCoupon = null;
                 selectedCouponId = null;
                 couponDiscountLabel.setText("");
             } else {
-                // Extract coupon code from display string
+                // Extract coupon code from display string; the coupon is re-validated at checkout
                 String code = selected.split(" ")[0];
-                com.cmpe343.model.Coupon coupon = couponDao.getCouponByCode(code);
+                com.cmpe343.model.Coupon coupon = couponsByCode.get(code);
                 if (coupon != null) {
+                    selectedCoupon = coupon;
                     selectedCouponId = coupon.getId();
                     // Calculate actual discount based on current cart total
-                    double cartTotal = currentCartItems.stream()
-                        .mapToDouble(item -> Math.round(item.getLineTotal() * 100.0) / 100.0)
-                        .sum();
-                    double discount = coupon.calculateDiscount(cartTotal);
-                    couponDiscountLabel.setText("Discount: -" + String.format("%.2f", discount) + " TL");
+                    Money cartTotal = Money.ofKurus(CartItem.subtotalKurus(currentCartItems));
+                    Money discount = coupon.calculateDiscount(cartTotal);
+                    couponDiscountLabel.setText("Discount: -" + discount.format());
                 }
             }
             updateTotal();
@@ -110,8 +126,11 @@ public class CartController {
         if (!Session.isLoggedIn())
             return;
 
-        CartDao.CartLoadResult res = cartDao.getCartItemsWithStockCheck(Session.getUser().getId());
+        int customerId = Session.getUser().getId();
+        tasks.run("cart", cartItemsContainer, () -> cartDao.getCartItemsWithStockCheck(customerId), this::showCart);
+    }
 
+    private void showCart(CartDao.CartLoadResult res) {
         if (!res.warnings.isEmpty()) {
             StringBuilder sb = new StringBuilder("⚠️ Stock Warning:\n");
             for (String w : res.warnings)
@@ -137,37 +156,19 @@ public class CartController {
         row.getStyleClass().add("cart-item");
         row.setAlignment(Pos.CENTER_LEFT);
 
-        // 1. Image - fetch from BLOB using product ID
-        Node imageNode;
-        // Reuse the ProductDao instance instead of creating a new one for each cart item
-        try {
-            javafx.scene.image.Image image = null;
-            //byte[] imageBytes = productDao.getProductImageBlob(item.getProduct().getId());
-//            if (imageBytes != null) {
-//                image = new javafx.scene.image.Image(new java.io.ByteArrayInputStream(imageBytes));
-//            }
-            
-            if (image != null) {
-                javafx.scene.image.ImageView iv = new javafx.scene.image.ImageView(image);
-                iv.setFitWidth(50);
-                iv.setFitHeight(50);
-                iv.setPreserveRatio(true);
-                imageNode = iv;
-            } else {
-                throw new Exception("No image available");
-            }
-        } catch (Exception e) {
-            // Fallback to placeholder
-            Label img = new Label(item.getProduct().getName().substring(0, 1).toUpperCase());
-            img.getStyleClass().add("cart-item-image");
-            imageNode = img;
-        }
-
-        // Wrap in VBox for alignment if needed, or just add directly
-        // The original was just a Label. Let's wrap in a StackPane or VBox if we want
-        // to keep style class on wrapper
-        StackPane imgContainer = new StackPane(imageNode);
-        imgContainer.getStyleClass().add("cart-item-image-container"); // New class if needed, or just let it be
+        // 1. Image - placeholder first, swapped for the cached thumbnail when it is ready
+        Label placeholder = new Label(item.getProduct().getName().substring(0, 1).toUpperCase());
+        placeholder.getStyleClass().add("cart-item-image");
+
+        StackPane imgContainer = new StackPane(placeholder);
+        imgContainer.getStyleClass().add("cart-item-image-container");
+        ProductImageService.getInstance().load(item.getProduct().getId(), ROW_IMAGE_SIZE, image -> {
+            javafx.scene.image.ImageView iv = new javafx.scene.image.ImageView(image);
+            iv.setFitWidth(ROW_IMAGE_SIZE);
+            iv.setFitHeight(ROW_IMAGE_SIZE);
+            iv.setPreserveRatio(true);
+            imgContainer.getChildren().setAll(iv);
+        });
 
         // 2. Info
         VBox info = new VBox(4);
@@ -185,7 +186,7 @@ public class CartController {
         // 3. Price & Quantity
         VBox priceBox = new VBox(4);
         priceBox.setAlignment(Pos.CENTER_RIGHT);
-        Label total = new Label(String.format("%.2f ₺", item.getLineTotal()));
+        Label total = new Label(item.getLineTotalMoney().format());
         total.setStyle("-fx-font-weight: bold; -fx-text-fill: white; -fx-font-size: 14px;");
         Label qty = new Label(item.getQuantityKg() + " kg");
         qty.getStyleClass().add("cart-item-meta");
@@ -200,11 +201,17 @@ public class CartController {
 
         removeBtn.getStyleClass().add("btn-remove");
         removeBtn.setOnAction(e -> {
-            cartDao.remove(Session.getUser().getId(), item.getProduct().getId());
-            currentCartItems.remove(item);
-            renderCartItems(); // Re-render
-            ToastService.show(cartItemsContainer.getScene(), "Item removed", ToastService.Type.INFO,
-                    ToastService.Position.BOTTOM_CENTER, Duration.seconds(1));
+            removeBtn.setDisable(true);
+            int customerId = Session.getUser().getId();
+            tasks.run("remove-" + item.getProduct().getId(), null, () -> {
+                cartDao.remove(customerId, item.getProduct().getId());
+                return null;
+            }, done -> {
+                currentCartItems.remove(item);
+                renderCartItems(); // Re-render
+                ToastService.show(cartItemsContainer.getScene(), "Item removed", ToastService.Type.INFO,
+                        ToastService.Position.BOTTOM_CENTER, Duration.seconds(1));
+            }, this::showError);
         });
 
         row.getChildren().addAll(imgContainer, info, spacer, priceBox, removeBtn);
@@ -212,34 +219,24 @@ public class CartController {
     }
 
     private void updateTotal() {
-        // Round each line total before summing to match order_items precision
-        // This ensures cart display matches order totals
-        double subtotal = currentCartItems.stream()
-            .mapToDouble(item -> Math.round(item.getLineTotal() * 100.0) / 100.0)
-            .sum();
-        double discount = 0.0;
-        if (selectedCouponId != null) {
-            com.cmpe343.model.Coupon coupon = couponDao.getCouponById(selectedCouponId);
-            if (coupon != null) {
-                discount = coupon.calculateDiscount(subtotal);
-            } else {
-                // Coupon became invalid - clear selection
-                selectedCouponId = null;
-                couponComboBox.setValue("No Coupon");
-                couponDiscountLabel.setText("");
-            }
+        // Line totals are rounded to the kuruş, matching order_items precision,
+        // and summed exactly so the cart display matches order totals
+        Money subtotal = Money.ofKurus(CartItem.subtotalKurus(currentCartItems));
+        Money discount = Money.ZERO;
+        if (selectedCoupon != null) {
+            discount = selectedCoupon.calculateDiscount(subtotal);
         }
-        double totalAfterDiscount = Math.max(0, subtotal - discount);
-        double vat = Math.round((totalAfterDiscount * 0.20) * 100.0) / 100.0;
-        double finalTotal = totalAfterDiscount + vat;
+        Money totalAfterDiscount = subtotal.minus(discount).max(Money.ZERO);
+        Money vat = totalAfterDiscount.vat();
+        Money finalTotal = totalAfterDiscount.plus(vat);
         
         // Display total with breakdown if discount is applied
-        if (discount > 0) {
-            totalLabel.setText(String.format("Subtotal: %.2f ₺ | Discount: -%.2f ₺ | VAT: %.2f ₺ | Total: %.2f ₺", 
-                subtotal, discount, vat, finalTotal));
+        if (discount.signum() > 0) {
+            totalLabel.setText("Subtotal: " + subtotal.format() + " | Discount: -" + discount.format()
+                + " | VAT: " + vat.format() + " | Total: " + finalTotal.format());
         } else {
-            totalLabel.setText(String.format("Subtotal: %.2f ₺ | VAT: %.2f ₺ | Total: %.2f ₺", 
-                subtotal, vat, finalTotal));
+            totalLabel.setText("Subtotal: " + subtotal.format() + " | VAT: " + vat.format()
+                + " | Total: " + finalTotal.format());
         }
     }
 
@@ -247,13 +244,21 @@ public class CartController {
     private void handleClear() {
         if (currentCartItems.isEmpty())
             return;
-        cartDao.clear(Session.getUser().getId());
-        currentCartItems.clear();
-        renderCartItems();
+        int customerId = Session.getUser().getId();
+        tasks.run("clear", null, () -> {
+            cartDao.clear(customerId);
+            return null;
+        }, done -> {
+            currentCartItems.clear();
+            renderCartItems();
+        }, this::showError);
     }
 
     @FXML
     private void handlePlaceOrder() {
+        if (placingOrder) {
+            return; // the previous click is still being processed
+        }
         if (currentCartItems.isEmpty()) {
             ToastService.show(cartItemsContainer.getScene(), "Cart is empty.", ToastService.Type.ERROR,
                     ToastService.Position.BOTTOM_CENTER, Duration.seconds(2));
@@ -280,39 +285,64 @@ public class CartController {
             }
 
             // Create Order
-            // Validate coupon one more time before placing order to catch race conditions
-            if (selectedCouponId != null) {
-                com.cmpe343.model.Coupon coupon = couponDao.getCouponById(selectedCouponId);
-                if (coupon == null) {
+            int customerId = Session.getUser().getId();
+            java.util.List<CartItem> items = new java.util.ArrayList<>(currentCartItems);
+            Integer couponId = selectedCouponId;
+            placingOrder = true;
+            tasks.run("place-order", null, () -> {
+                // Validate coupon one more time before placing order to catch race conditions
+                if (couponId != null && couponDao.getCouponById(couponId) == null) {
+                    return null;
+                }
+                // Hold the stock in memory first so a sold-out product fails here, not on a row lock
+                StockReservationService.Reservation reservation = stockReservations.reserve(items);
+                int orderId;
+                try {
+                    orderId = orderDao.createOrder(customerId, items, requested, couponId);
+                } catch (RuntimeException e) {
+                    stockReservations.release(reservation);
+                    throw e;
+                }
+                stockReservations.confirm(reservation);
+                // Clear cart from DB after order
+                cartDao.clear(customerId);
+                return orderId;
+            }, orderId -> {
+                placingOrder = false;
+                if (orderId == null) {
                     ToastService.show(cartItemsContainer.getScene(), "The selected coupon is no longer valid. Please remove it and try again.", ToastService.Type.ERROR,
                             ToastService.Position.BOTTOM_CENTER, Duration.seconds(3));
+                    selectedCoupon = null;
                     selectedCouponId = null;
                     couponComboBox.setValue("No Coupon");
                     couponDiscountLabel.setText("");
                     updateTotal();
                     return;
                 }
-            }
-            
-            int orderId = orderDao.createOrder(Session.getUser().getId(), currentCartItems, requested, selectedCouponId);
-
-            // Clear cart from DB after order
-            cartDao.clear(Session.getUser().getId());
-            currentCartItems.clear();
-            renderCartItems();
+                currentCartItems.clear();
+                renderCartItems();
 
-            ToastService.show(cartItemsContainer.getScene(), "Order placed! #" + orderId, ToastService.Type.SUCCESS,
-                    ToastService.Position.BOTTOM_CENTER, Duration.seconds(3));
+                ToastService.show(cartItemsContainer.getScene(), "Order placed! #" + orderId, ToastService.Type.SUCCESS,
+                        ToastService.Position.BOTTOM_CENTER, Duration.seconds(3));
+            }, e -> {
+                placingOrder = false;
+                showError(e);
+            });
 
         } catch (Exception e) {
-            e.printStackTrace();
-            ToastService.show(cartItemsContainer.getScene(), "Error: " + e.getMessage(), ToastService.Type.ERROR,
-                    ToastService.Position.BOTTOM_CENTER, Duration.seconds(3));
+            showError(e);
         }
     }
 
+    private void showError(Throwable e) {
+        e.printStackTrace();
+        ToastService.show(cartItemsContainer.getScene(), "Error: " + e.getMessage(), ToastService.Type.ERROR,
+                ToastService.Position.BOTTOM_CENTER, Duration.seconds(3));
+    }
+
     @FXML
     private void handleBack() {
+        tasks.cancelAll();
         try {
             Stage stage = (Stage) cartItemsContainer.getScene().getWindow();
             boolean wasMaximized = stage.isMaximized();
@@ -1,11 +1,15 @@
 package com.cmpe343.fx.controller;
 
 import com.cmpe343.dao.CartDao;
-import com.cmpe343.dao.ProductDao;
+import com.cmpe343.dao.CartDaoAsync;
+import com.cmpe343.dao.ProductCatalogCache;
 import com.cmpe343.dao.UserDao;
+import com.cmpe343.fx.util.ProductImageService;
 import com.cmpe343.fx.util.ToastService;
+import com.cmpe343.fx.util.UiTask;
 import com.cmpe343.fx.Session;
 import com.cmpe343.model.Product;
+import com.cmpe343.util.AppExecutors;
 import javafx.application.Platform;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
@@ -20,6 +24,10 @@ import javafx.scene.layout.*;
 import javafx.scene.layout.Priority;
 import javafx.stage.Stage;
 
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
 public class CustomerController {
 
     @FXML
@@ -41,12 +49,24 @@ public class CustomerController {
     private boolean vegetablesVisible = true;
     private boolean fruitsVisible = true;
 
-    private final ProductDao productDao = new ProductDao();
+    private static final int CARD_IMAGE_SIZE = 80;
+    private static final int ORDER_HISTORY_PAGE_SIZE = 20;
+
     private final CartDao cartDao = new CartDao();
+    private final CartDaoAsync cartDaoAsync = new CartDaoAsync(cartDao);
+    private final UiTask.Scope tasks = UiTask.newScope();
 
     private FilteredList<Product> filteredProducts;
+    private Map<Integer, Double> cartQuantities = Map.of();
     private int currentCustomerId;
 
+    /** Everything the product grids need, loaded together off the FX thread. */
+    private static class CatalogView {
+        List<Product> products;
+        Map<Integer, Double> cartQuantities;
+        int cartItemCount;
+    }
+
     @FXML
     public void initialize() {
         if (Session.isLoggedIn()) {
@@ -54,22 +74,16 @@ public class CustomerController {
             usernameLabel.setText(Session.getUser().getUsername());
         }
 
-        // Load Data
-        ObservableList<Product> allProducts = FXCollections.observableArrayList(productDao.findAll());
-        filteredProducts = new FilteredList<>(allProducts, p -> true);
+        filteredProducts = new FilteredList<>(FXCollections.observableArrayList(), p -> true);
 
         // Search Listener
         searchField.textProperty().addListener((obs, oldV, newV) -> {
-            filteredProducts.setPredicate(p -> {
-                if (newV == null || newV.isBlank())
-                    return true;
-                return p.getName().toLowerCase().contains(newV.toLowerCase());
-            });
+            filteredProducts.setPredicate(p -> matchesSearch(p));
             renderGrids();
         });
 
-        renderGrids();
-        updateBadge();
+        // Load Data
+        loadProducts(vegetablesGrid);
 
         // Ensure CSS
         Platform.runLater(() -> {
@@ -82,6 +96,41 @@ public class CustomerController {
         });
     }
 
+    /**
+     * Loads the catalog, the cart quantities and the badge count in the background.
+     *
+     * @param loadingTarget pane that shows a loading indicator meanwhile, or null to keep
+     *                      the current cards on screen until the new ones are ready
+     */
+    private void loadProducts(Pane loadingTarget) {
+        tasks.runAsync("products", loadingTarget, () -> AppExecutors
+                // Served from memory unless a product or stock level changed; the cart query runs alongside
+                .supply(() -> ProductCatalogCache.getInstance().snapshot())
+                .thenCombine(cartDaoAsync.getCartQuantities(currentCustomerId), (products, quantities) -> {
+                    CatalogView view = new CatalogView();
+                    view.products = products;
+                    view.cartQuantities = quantities;
+                    view.cartItemCount = quantities.size();
+                    return view;
+                }), this::showCatalog);
+    }
+
+    private void showCatalog(CatalogView view) {
+        cartQuantities = view.cartQuantities;
+        ObservableList<Product> allProducts = FXCollections.observableArrayList(view.products);
+        filteredProducts = new FilteredList<>(allProducts, p -> matchesSearch(p));
+        renderGrids();
+        showBadge(view.cartItemCount);
+    }
+
+    private boolean matchesSearch(Product p) {
+        String searchText = searchField.getText();
+        if (searchText == null || searchText.isBlank()) {
+            return true;
+        }
+        return p.getName().toLowerCase().contains(searchText.toLowerCase());
+    }
+
     private void renderGrids() {
         vegetablesGrid.getChildren().clear();
         fruitsGrid.getChildren().clear();
@@ -103,35 +152,22 @@ public class CustomerController {
         VBox card = new VBox(12);
         card.getStyleClass().add("product-card");
 
-        // Image - fetch from BLOB using product ID
-        Node imageNode;
-        try {
-            javafx.scene.image.Image image = null;
-//            byte[] imageBytes = productDao.getProductImageBlob(p.getId());
-//            if (imageBytes != null) {
-//                image = new javafx.scene.image.Image(new java.io.ByteArrayInputStream(imageBytes));
-//            }
-            
-            if (image != null) {
-                javafx.scene.image.ImageView iv = new javafx.scene.image.ImageView(image);
-                iv.setFitWidth(80);
-                iv.setFitHeight(80);
-                iv.setPreserveRatio(true);
-                imageNode = iv;
-            } else {
-                throw new Exception("No image available");
-            }
-        } catch (Exception e) {
-            // Fallback to placeholder
-            Label img = new Label(p.getName().substring(0, 1).toUpperCase());
-            img.getStyleClass().add("product-image-placeholder");
-            imageNode = img;
-        }
+        // Image - placeholder first, swapped for the cached thumbnail when it is ready
+        Label placeholder = new Label(p.getName().substring(0, 1).toUpperCase());
+        placeholder.getStyleClass().add("product-image-placeholder");
+        Node imageNode = placeholder;
 
         // Wrapper for image to ensure centering and styling
         VBox imgContainer = new VBox(imageNode);
         imgContainer.setAlignment(Pos.CENTER);
         imgContainer.getStyleClass().add("product-image-container");
+        ProductImageService.getInstance().load(p.getId(), CARD_IMAGE_SIZE, image -> {
+            javafx.scene.image.ImageView iv = new javafx.scene.image.ImageView(image);
+            iv.setFitWidth(CARD_IMAGE_SIZE);
+            iv.setFitHeight(CARD_IMAGE_SIZE);
+            iv.setPreserveRatio(true);
+            imgContainer.getChildren().setAll(iv);
+        });
 
         // Info
         Label nameLbl = new Label(p.getName());
@@ -141,7 +177,7 @@ public class CustomerController {
         priceLbl.getStyleClass().add("product-price");
 
         // Calculate available stock (current stock - items in cart)
-        double cartQuantity = cartDao.getCartQuantity(currentCustomerId, p.getId());
+        double cartQuantity = cartQuantities.getOrDefault(p.getId(), 0.0);
         double availableStock = p.getStockKg() - cartQuantity;
         
         Label stockLbl;
@@ -181,36 +217,37 @@ public class CustomerController {
                 return;
             }
             
-            // Calculate available stock (current stock - items already in cart)
-            double cartQuantity = cartDao.getCartQuantity(currentCustomerId, p.getId());
-            double availableStock = p.getStockKg() - cartQuantity;
-            
-            if (availableStock <= 0) {
-                toast("Out of stock!", ToastService.Type.ERROR);
-                return;
-            }
-            
-            if (kg > availableStock) {
-                toast("Insufficient stock! Available: " + String.format("%.2f", availableStock) + " kg", ToastService.Type.ERROR);
-                return;
-            }
+            tasks.run("add-to-cart-" + p.getId(), null, () -> {
+                // Calculate available stock (current stock - items already in cart)
+                double cartQuantity = cartDao.getCartQuantity(currentCustomerId, p.getId());
+                double availableStock = p.getStockKg() - cartQuantity;
 
-            cartDao.addToCart(currentCustomerId, p.getId(), kg);
-            toast("Added to cart", ToastService.Type.SUCCESS);
-            kgInput.clear();
-            updateBadge();
-            // Refresh product display to show updated stock
-            refreshProductDisplay();
+                if (availableStock <= 0) {
+                    throw new IllegalStateException("Out of stock!");
+                }
+                if (kg > availableStock) {
+                    throw new IllegalStateException("Insufficient stock! Available: " + String.format("%.2f", availableStock) + " kg");
+                }
+                return cartDao.addToCart(currentCustomerId, p.getId(), kg);
+            }, inCart -> {
+                toast("Added to cart (" + String.format("%.2f", inCart) + " kg)", ToastService.Type.SUCCESS);
+                kgInput.clear();
+                // Refresh product display to show updated stock
+                refreshProductDisplay();
+            }, e -> {
+                if (e instanceof IllegalStateException) {
+                    toast(e.getMessage(), ToastService.Type.ERROR);
+                } else {
+                    e.printStackTrace();
+                    toast("Error: " + e.getMessage(), ToastService.Type.ERROR);
+                }
+            });
         } catch (NumberFormatException e) {
             toast("Enter valid number", ToastService.Type.ERROR);
-        } catch (Exception e) {
-            e.printStackTrace();
-            toast("Error: " + e.getMessage(), ToastService.Type.ERROR);
         }
     }
 
-    private void updateBadge() {
-        int count = cartDao.getCartItemCount(currentCustomerId);
+    private void showBadge(int count) {
         if (count > 0) {
             cartCountBadge.setText(String.valueOf(count));
             cartCountBadge.setVisible(true);
@@ -220,21 +257,12 @@ public class CustomerController {
     }
     
     private void refreshProductDisplay() {
-        // Reload products from database to get updated stock
-        ObservableList<Product> allProducts = FXCollections.observableArrayList(productDao.findAll());
-        filteredProducts = new FilteredList<>(allProducts, p -> {
-            // Apply current search filter
-            String searchText = searchField.getText();
-            if (searchText == null || searchText.isBlank()) {
-                return true;
-            }
-            return p.getName().toLowerCase().contains(searchText.toLowerCase());
-        });
-        renderGrids();
+        loadProducts(null);
     }
 
     @FXML
     private void handleOpenCart() {
+        tasks.cancelAll();
         try {
             Stage stage = (Stage) searchField.getScene().getWindow();
             boolean wasMaximized = stage.isMaximized();
@@ -269,19 +297,14 @@ public class CustomerController {
             VBox ordersContainer = new VBox(12);
             ordersContainer.setStyle("-fx-padding: 12;");
             
-            com.cmpe343.dao.OrderDao orderDao = new com.cmpe343.dao.OrderDao();
-            java.util.List<com.cmpe343.model.Order> orders = orderDao.getOrdersForCustomer(currentCustomerId);
-            
-            if (orders.isEmpty()) {
-                Label empty = new Label("No orders yet");
-                empty.setStyle("-fx-text-fill: #94a3b8; -fx-padding: 20;");
-                ordersContainer.getChildren().add(empty);
-            } else {
-                for (com.cmpe343.model.Order order : orders) {
-                    VBox orderCard = createOrderCard(order);
-                    ordersContainer.getChildren().add(orderCard);
+            OrderHistory history = new OrderHistory(ordersContainer);
+            history.loadFirstPage();
+            // Fetch the next page when the user scrolls near the bottom
+            scrollPane.vvalueProperty().addListener((obs, oldV, newV) -> {
+                if (newV.doubleValue() >= 0.9) {
+                    history.loadNextPage();
                 }
-            }
+            });
             
             scrollPane.setContent(ordersContainer);
             scrollPane.setFitToWidth(true);
@@ -300,7 +323,71 @@ public class CustomerController {
         }
     }
     
-    private VBox createOrderCard(com.cmpe343.model.Order order) {
+    /**
+     * The order history window's list, loaded one page at a time, newest first.
+     */
+    private class OrderHistory {
+        private final VBox ordersContainer;
+        private final Button loadMoreBtn = new Button("Load more orders");
+        private final com.cmpe343.dao.OrderDaoAsync orderDao = new com.cmpe343.dao.OrderDaoAsync();
+        private final com.cmpe343.dao.RatingDaoAsync ratingDao = new com.cmpe343.dao.RatingDaoAsync();
+        private Set<Integer> ratedOrderIds = Set.of();
+        private com.cmpe343.dao.OrderDao.Cursor next;
+        private boolean loading;
+
+        OrderHistory(VBox ordersContainer) {
+            this.ordersContainer = ordersContainer;
+            loadMoreBtn.getStyleClass().add("btn-outline");
+            // Also reachable when the first page does not fill the window, so there is nothing to scroll
+            loadMoreBtn.setOnAction(e -> loadNextPage());
+        }
+
+        void loadFirstPage() {
+            loading = true;
+            // The first page and the rated order ids are independent, so both queries run at once
+            tasks.runAsync("orders", ordersContainer, () -> orderDao
+                    .getOrdersForCustomerPage(currentCustomerId, null, ORDER_HISTORY_PAGE_SIZE)
+                    .thenCombine(ratingDao.getRatedOrderIds(currentCustomerId), Map::entry), loaded -> {
+                        ratedOrderIds = loaded.getValue();
+                        ordersContainer.getChildren().clear();
+                        if (loaded.getKey().orders.isEmpty()) {
+                            Label empty = new Label("No orders yet");
+                            empty.setStyle("-fx-text-fill: #94a3b8; -fx-padding: 20;");
+                            ordersContainer.getChildren().add(empty);
+                        }
+                        append(loaded.getKey());
+                    });
+        }
+
+        void loadNextPage() {
+            if (loading || next == null) return;
+            loading = true;
+            loadMoreBtn.setDisable(true);
+            com.cmpe343.dao.OrderDao.Cursor after = next;
+            tasks.runAsync("orders", null, () -> orderDao.getOrdersForCustomerPage(currentCustomerId, after, ORDER_HISTORY_PAGE_SIZE),
+                    this::append, e -> {
+                        e.printStackTrace();
+                        loading = false;
+                        loadMoreBtn.setDisable(false);
+                        toast("Failed to load orders", ToastService.Type.ERROR);
+                    });
+        }
+
+        private void append(com.cmpe343.dao.OrderDao.Page page) {
+            loading = false;
+            next = page.next;
+            ordersContainer.getChildren().remove(loadMoreBtn);
+            for (com.cmpe343.model.Order order : page.orders) {
+                ordersContainer.getChildren().add(createOrderCard(order, ratedOrderIds.contains(order.getId())));
+            }
+            if (page.hasMore()) {
+                loadMoreBtn.setDisable(false);
+                ordersContainer.getChildren().add(loadMoreBtn);
+            }
+        }
+    }
+
+    private VBox createOrderCard(com.cmpe343.model.Order order, boolean rated) {
         VBox card = new VBox(12);
         card.setStyle("-fx-background-color: #1e293b; -fx-background-radius: 8; -fx-padding: 16;");
         
@@ -333,9 +420,7 @@ public class CustomerController {
             downloadBtn.setStyle("-fx-background-color: #3b82f6; -fx-text-fill: white; -fx-padding: 6 12;");
             downloadBtn.setOnAction(e -> downloadInvoice(order));
             
-            // Check if rating exists
-            com.cmpe343.dao.RatingDao ratingDao = new com.cmpe343.dao.RatingDao();
-            if (!ratingDao.hasRatingForOrder(order.getId(), currentCustomerId)) {
+            if (!rated) {
                 Button rateBtn = new Button("Rate Order");
                 rateBtn.setStyle("-fx-background-color: #10b981; -fx-text-fill: white; -fx-padding: 6 12;");
                 rateBtn.setOnAction(e -> showRatingDialog(order));
@@ -350,26 +435,30 @@ public class CustomerController {
     }
     
     private void downloadInvoice(com.cmpe343.model.Order order) {
-        try {
-            com.cmpe343.service.PdfService pdfService = new com.cmpe343.service.PdfService();
-            java.io.File pdfFile = pdfService.generateInvoice(order);
-            
+        // Building the PDF reads the coupon discount, so it runs in the background
+        com.cmpe343.service.PdfService pdfService = new com.cmpe343.service.PdfService();
+        tasks.run("invoice-" + order.getId(), null, () -> pdfService.generateInvoice(order), pdfFile -> {
             javafx.stage.FileChooser fileChooser = new javafx.stage.FileChooser();
             fileChooser.setTitle("Save Invoice");
             fileChooser.setInitialFileName("invoice_" + order.getId() + ".pdf");
             fileChooser.getExtensionFilters().add(new javafx.stage.FileChooser.ExtensionFilter("PDF Files", "*.pdf"));
-            
+
             Stage stage = (Stage) searchField.getScene().getWindow();
             java.io.File saveFile = fileChooser.showSaveDialog(stage);
-            
+
             if (saveFile != null) {
-                java.nio.file.Files.copy(pdfFile.toPath(), saveFile.toPath(), java.nio.file.StandardCopyOption.REPLACE_EXISTING);
-                toast("Invoice downloaded successfully", ToastService.Type.SUCCESS);
+                try {
+                    java.nio.file.Files.copy(pdfFile.toPath(), saveFile.toPath(), java.nio.file.StandardCopyOption.REPLACE_EXISTING);
+                    toast("Invoice downloaded successfully", ToastService.Type.SUCCESS);
+                } catch (java.io.IOException e) {
+                    e.printStackTrace();
+                    toast("Failed to download invoice: " + e.getMessage(), ToastService.Type.ERROR);
+                }
             }
-        } catch (Exception e) {
+        }, e -> {
             e.printStackTrace();
             toast("Failed to download invoice: " + e.getMessage(), ToastService.Type.ERROR);
-        }
+        });
     }
     
     private void showRatingDialog(com.cmpe343.model.Order order) {
@@ -411,16 +500,17 @@ public class CustomerController {
         
         java.util.Optional<java.util.Map<String, Object>> result = dialog.showAndWait();
         result.ifPresent(r -> {
-            try {
-                com.cmpe343.dao.RatingDao ratingDao = new com.cmpe343.dao.RatingDao();
-                if (order.getCarrierId() != null) {
-                    ratingDao.createRating(order.getCarrierId(), currentCustomerId, (Integer) r.get("rating"), (String) r.get("comment"));
-                    toast("Thank you for your rating!", ToastService.Type.SUCCESS);
-                }
-            } catch (Exception e) {
+            Integer carrierId = order.getCarrierId();
+            if (carrierId == null) {
+                return;
+            }
+            tasks.run("rate-" + order.getId(), null, () -> {
+                new com.cmpe343.dao.RatingDao().createRating(carrierId, currentCustomerId, (Integer) r.get("rating"), (String) r.get("comment"));
+                return null;
+            }, done -> toast("Thank you for your rating!", ToastService.Type.SUCCESS), e -> {
                 e.printStackTrace();
                 toast("Failed to submit rating", ToastService.Type.ERROR);
-            }
+            });
         });
     }
     
@@ -471,7 +561,7 @@ public class CustomerController {
         }
     }
     
-    private VBox createMessageCard(com.cmpe343.model.Message msg, com.cmpe343.dao.MessageDao messageDao) {
+    private VBox createMessageCard(com.cmpe343.model.Message msg, String replyText, com.cmpe343.dao.MessageDao messageDao) {
         VBox card = new VBox(8);
         card.setStyle("-fx-background-color: " + (msg.isRead() ? "#1e293b" : "#2563eb") + "; -fx-background-radius: 8; -fx-padding: 16;");
         
@@ -496,7 +586,6 @@ public class CustomerController {
         card.getChildren().addAll(header, content);
         
         // Show reply if exists
-        String replyText = messageDao.getReplyText(msg.getId());
         if (replyText != null && !replyText.trim().isEmpty()) {
             Separator replySep = new Separator();
             replySep.setStyle("-fx-opacity: 0.3; -fx-padding: 8 0;");
@@ -512,10 +601,10 @@ public class CustomerController {
         }
         
         if (!msg.isRead()) {
-            card.setOnMouseClicked(e -> {
+            card.setOnMouseClicked(e -> tasks.run("mark-read-" + msg.getId(), null, () -> {
                 messageDao.markAsRead(msg.getId());
-                card.setStyle("-fx-background-color: #1e293b; -fx-background-radius: 8; -fx-padding: 16;");
-            });
+                return null;
+            }, done -> card.setStyle("-fx-background-color: #1e293b; -fx-background-radius: 8; -fx-padding: 16;")));
         }
         
         return card;
@@ -570,41 +659,50 @@ public class CustomerController {
                 return;
             }
             
-            try {
-                com.cmpe343.dao.UserDao userDao = new com.cmpe343.dao.UserDao();
-                int ownerId = userDao.getOwnerId();
-                
+            tasks.run("send-message", null, () -> {
+                int ownerId = new com.cmpe343.dao.UserDao().getOwnerId();
                 if (ownerId == -1) {
-                    toast("Owner not found", ToastService.Type.ERROR);
-                    return;
+                    return null; // no owner to send to
                 }
-                
-                int messageId = messageDao.createMessage(currentCustomerId, ownerId, messageText);
-                if (messageId > 0) {
+                return messageDao.createMessage(currentCustomerId, ownerId, messageText);
+            }, messageId -> {
+                if (messageId == null) {
+                    toast("Owner not found", ToastService.Type.ERROR);
+                } else if (messageId > 0) {
                     toast("Message sent successfully!", ToastService.Type.SUCCESS);
                     // Refresh the messages list
                     refreshMessagesList(messagesContainer, messageDao);
                 } else {
                     toast("Failed to send message", ToastService.Type.ERROR);
                 }
-            } catch (Exception e) {
+            }, e -> {
                 e.printStackTrace();
                 toast("Error: " + e.getMessage(), ToastService.Type.ERROR);
-            }
+            });
         });
     }
     
     private void refreshMessagesList(VBox messagesContainer, com.cmpe343.dao.MessageDao messageDao) {
+        tasks.run("messages", messagesContainer, () -> {
+            // Message and reply texts, in list order
+            Map<com.cmpe343.model.Message, String> loaded = new java.util.LinkedHashMap<>();
+            for (com.cmpe343.model.Message msg : messageDao.getMessagesForCustomer(currentCustomerId)) {
+                // replied_at is set with every reply, so unread messages have no reply to fetch
+                loaded.put(msg, msg.isRead() ? messageDao.getReplyText(msg.getId()) : null);
+            }
+            return loaded;
+        }, loaded -> renderMessages(messagesContainer, loaded, messageDao));
+    }
+
+    private void renderMessages(VBox messagesContainer, Map<com.cmpe343.model.Message, String> messages, com.cmpe343.dao.MessageDao messageDao) {
         messagesContainer.getChildren().clear();
-        java.util.List<com.cmpe343.model.Message> messages = messageDao.getMessagesForCustomer(currentCustomerId);
-        
         if (messages.isEmpty()) {
             Label empty = new Label("No messages");
             empty.setStyle("-fx-text-fill: #94a3b8; -fx-padding: 20;");
             messagesContainer.getChildren().add(empty);
         } else {
-            for (com.cmpe343.model.Message msg : messages) {
-                VBox msgCard = createMessageCard(msg, messageDao);
+            for (Map.Entry<com.cmpe343.model.Message, String> entry : messages.entrySet()) {
+                VBox msgCard = createMessageCard(entry.getKey(), entry.getValue(), messageDao);
                 messagesContainer.getChildren().add(msgCard);
             }
         }
@@ -628,6 +726,7 @@ public class CustomerController {
 
     @FXML
     private void handleLogout() {
+        tasks.cancelAll();
         Session.clear();
         try {
             Stage stage = (Stage) searchField.getScene().getWindow();
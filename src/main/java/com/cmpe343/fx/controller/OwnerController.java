@@ -1,11 +1,19 @@
 package com.cmpe343.fx.controller;
 
 import com.cmpe343.dao.*;
+import com.cmpe343.db.ConnectionPool;
+import com.cmpe343.db.Db;
+import com.cmpe343.db.SqlMetrics;
+import com.cmpe343.db.TransactionRetry;
 import com.cmpe343.model.*;
 import com.cmpe343.model.Order.OrderStatus;
 import com.cmpe343.model.Product.ProductType;
 import com.cmpe343.fx.Session;
+import com.cmpe343.fx.util.LazyModule;
+import com.cmpe343.fx.util.OrderListView;
 import com.cmpe343.fx.util.ToastService;
+import com.cmpe343.fx.util.UiTask;
+import com.cmpe343.service.ReportService;
 
 import javafx.application.Platform;
 import javafx.fxml.FXML;
@@ -21,8 +29,11 @@ import javafx.stage.Stage;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import javafx.scene.control.Separator;
 import javafx.scene.chart.BarChart;
 import javafx.scene.chart.CategoryAxis;
@@ -59,6 +70,8 @@ public class OwnerController {
     @FXML
     private VBox loyaltyContainer;
     @FXML
+    private VBox diagnosticsContainer;
+    @FXML
     private Label ordersCountLabel;
     @FXML
     private Button logoutButton;
@@ -66,6 +79,20 @@ public class OwnerController {
     private javafx.scene.control.TabPane mainTabPane;
     @FXML
     private javafx.scene.layout.FlowPane dashboardContainer;
+    @FXML
+    private Tab productsTab;
+    @FXML
+    private Tab carriersTab;
+    @FXML
+    private Tab ordersTab;
+    @FXML
+    private Tab messagesTab;
+    @FXML
+    private Tab couponsTab;
+    @FXML
+    private Tab ratingsTab;
+    @FXML
+    private Tab diagnosticsTab;
 
     private Message selectedMessage;
     private Order selectedOrder;
@@ -79,6 +106,20 @@ public class OwnerController {
     private MessageDao messageDAO;
     private CouponDao couponDAO;
     private RatingDao ratingDAO;
+    private ReportService reportService;
+    private final UiTask.Scope tasks = UiTask.newScope();
+    private static final DateTimeFormatter ORDER_LIST_DATE_FORMAT = DateTimeFormatter.ofPattern("MMM dd HH:mm");
+    private final OrderListView ordersListView = new OrderListView(OrderRow::new, "No orders found.", this::onOrderSelected);
+    private static final int ORDERS_PAGE_SIZE = 100;
+    // Start of the next page of the order list, null when everything is loaded
+    private OrderDao.Cursor nextOrdersCursor;
+    private boolean loadingMoreOrders;
+
+    // Modules whose lists are loaded on first use, keyed by tab and by dashboard card name
+    private final Map<Tab, LazyModule> modulesByTab = new LinkedHashMap<>();
+    private final Map<String, LazyModule> modulesByName = new HashMap<>();
+    // What the owner usually opens first from the dashboard
+    private static final String[] DASHBOARD_PREFETCH = { "Orders", "Messages", "Products" };
 
     @FXML
     public void initialize() {
@@ -88,19 +129,67 @@ public class OwnerController {
         messageDAO = new MessageDao();
         couponDAO = new CouponDao();
         ratingDAO = new RatingDao();
+        reportService = new ReportService();
 
         if (ordersListContainer != null)
             ordersListContainer.setFillWidth(true);
-
-        loadDashboard();
-        loadProducts();
-        loadCarriers();
-        loadOrders();
-        loadCoupons();
-        loadCarrierRatings();
+        ordersListView.setOnNearEnd(this::loadMoreOrders);
+
+        // Nothing is loaded up front: each tab loads when first opened, and its
+        // likely successors are prefetched in parallel in the background
+        registerModule("Products", productsTab, this::loadProducts);
+        registerModule("Carriers", carriersTab, this::loadCarriers);
+        registerModule("Orders", ordersTab, this::loadOrders);
+        registerModule("Coupons", couponsTab, this::loadCoupons);
+        registerModule("Ratings", ratingsTab, this::loadCarrierRatings);
+        registerModule("Diagnostics", diagnosticsTab, this::loadDiagnostics);
         // loadLoyaltySettings(); // Loyalty not yet implemented in backend
         if (Session.isLoggedIn()) {
-            loadMessages();
+            registerModule("Messages", messagesTab, this::loadMessages);
+        }
+
+        loadDashboard();
+
+        if (mainTabPane != null) {
+            mainTabPane.getSelectionModel().selectedItemProperty()
+                    .addListener((obs, oldTab, newTab) -> onTabSelected(newTab));
+            onTabSelected(mainTabPane.getSelectionModel().getSelectedItem());
+        }
+    }
+
+    private void registerModule(String name, Tab tab, java.util.function.Supplier<CompletableFuture<?>> loader) {
+        LazyModule module = new LazyModule(name, loader);
+        modulesByName.put(name, module);
+        if (tab != null) {
+            modulesByTab.put(tab, module);
+        }
+    }
+
+    /**
+     * Loads the opened tab if needed and prefetches the tabs next to it. From the dashboard,
+     * the most commonly used modules are prefetched instead.
+     */
+    private void onTabSelected(Tab tab) {
+        if (tab == null) return;
+        LazyModule module = modulesByTab.get(tab);
+        if (module != null) {
+            module.ensureLoaded(false);
+        }
+
+        List<Tab> tabs = mainTabPane.getTabs();
+        int index = tabs.indexOf(tab);
+        if (index == 0) {
+            for (String name : DASHBOARD_PREFETCH) {
+                LazyModule next = modulesByName.get(name);
+                if (next != null) next.ensureLoaded(true);
+            }
+            return;
+        }
+        for (int neighbour : new int[] { index - 1, index + 1 }) {
+            if (neighbour >= 0 && neighbour < tabs.size()) {
+                LazyModule next = modulesByTab.get(tabs.get(neighbour));
+                if (next != null) next.ensureLoaded(true);
+            }
         }
     }
     
@@ -112,7 +201,7 @@ public class OwnerController {
         
         String[] modules = {
             "Products", "Carriers", "Orders", "Messages", 
-            "Coupons", "Ratings", "Loyalty", "Reports"
+            "Coupons", "Ratings", "Loyalty", "Reports", "Diagnostics"
         };
         
         for (String module : modules) {
@@ -141,7 +230,17 @@ public class OwnerController {
         Label clickLabel = new Label("Click to open →");
         clickLabel.setStyle("-fx-font-size: 10px; -fx-text-fill: #64748b;");
         
-        card.getChildren().addAll(title, desc, spacer, clickLabel);
+        card.getChildren().addAll(title, desc, spacer);
+
+        // Load status and timing, updated as the module loads
+        LazyModule module = modulesByName.get(moduleName);
+        if (module != null) {
+            Label timingLabel = new Label();
+            timingLabel.setStyle("-fx-font-size: 10px; -fx-text-fill: #64748b;");
+            module.addListener(m -> timingLabel.setText(m.getStatusText()));
+            card.getChildren().add(timingLabel);
+        }
+        card.getChildren().add(clickLabel);
         return card;
     }
     
@@ -155,6 +254,7 @@ public class OwnerController {
             case "Ratings" -> "View carrier performance ratings";
             case "Loyalty" -> "Configure customer loyalty program settings";
             case "Reports" -> "Generate sales and revenue reports";
+            case "Diagnostics" -> "Database timings per screen action and connection pool health";
             default -> "Module description";
         };
     }
@@ -171,6 +271,7 @@ public class OwnerController {
             case "Ratings" -> getTabByText("Carrier Ratings");
             case "Loyalty" -> getTabByText("Loyalty Settings");
             case "Reports" -> getTabByText("Reports");
+            case "Diagnostics" -> getTabByText("Diagnostics");
             default -> null;
         };
         
@@ -191,14 +292,20 @@ public class OwnerController {
 
     // ==================== PRODUCT MANAGEMENT ====================
 
-    private void loadProducts() {
-        productsListContainer.getChildren().clear();
+    private CompletableFuture<?> loadProducts() {
         productDetailContainer.getChildren().clear();
         
         // Preserve the currently selected product ID before clearing
         Integer selectedProductId = selectedProduct != null ? selectedProduct.getId() : null;
 
-        List<Product> products = productDAO.findAll();
+        return tasks.run("products", productsListContainer,
+                () -> ProductCatalogCache.getInstance().snapshot(),
+                catalog -> renderProducts(catalog, selectedProductId));
+    }
+
+    private void renderProducts(List<Product> catalog, Integer selectedProductId) {
+        productsListContainer.getChildren().clear();
+        List<Product> products = new java.util.ArrayList<>(catalog);
         products.sort((p1, p2) -> p1.getName().compareToIgnoreCase(p2.getName()));
 
         if (products.isEmpty()) {
@@ -307,14 +414,19 @@ public class OwnerController {
 
     // ==================== CARRIER MANAGEMENT ====================
 
-    private void loadCarriers() {
-        carriersListContainer.getChildren().clear();
+    private CompletableFuture<?> loadCarriers() {
         carrierDetailContainer.getChildren().clear();
         
         // Preserve the currently selected carrier ID before clearing
         Integer selectedCarrierId = selectedCarrier != null ? selectedCarrier.getId() : null;
 
-        List<User> carriers = userDAO.getAllCarriers();
+        return tasks.run("carriers", carriersListContainer,
+                () -> userDAO.getAllCarriers(),
+                carriers -> renderCarriers(carriers, selectedCarrierId));
+    }
+
+    private void renderCarriers(List<User> carriers, Integer selectedCarrierId) {
+        carriersListContainer.getChildren().clear();
         if (carriers.isEmpty()) {
             carriersListContainer.getChildren().add(createPlaceholder("No carriers found."));
             selectedCarrier = null;
@@ -379,11 +491,19 @@ public class OwnerController {
         toggleBtn.getStyleClass().add("btn-outline");
         toggleBtn.setOnAction(e -> {
             // carrier is guaranteed to be non-null since it's used throughout this method
-            if (carrier.isActive())
-                userDAO.deactivateCarrier(carrier.getId());
-            else
-                userDAO.activateCarrier(carrier.getId());
-            loadCarriers(); // Reload - will preserve selection
+            boolean deactivate = carrier.isActive();
+            toggleBtn.setDisable(true);
+            tasks.run("carrier-status-" + carrier.getId(), null, () -> {
+                if (deactivate)
+                    userDAO.deactivateCarrier(carrier.getId());
+                else
+                    userDAO.activateCarrier(carrier.getId());
+                return null;
+            }, done -> loadCarriers(), // Reload - will preserve selection
+                    ex -> {
+                        toggleBtn.setDisable(false);
+                        showError("Could not update carrier: " + ex.getMessage());
+                    });
         });
 
         card.getChildren().add(toggleBtn);
@@ -393,36 +513,90 @@ public class OwnerController {
 
     // ==================== ORDER MANAGEMENT ====================
 
-    private void loadOrders() {
-        ordersListContainer.getChildren().clear();
+    private CompletableFuture<?> loadOrders() {
         orderDetailContainer.getChildren().clear();
         
         // Preserve the currently selected order ID before clearing
         Integer selectedOrderId = selectedOrder != null ? selectedOrder.getId() : null;
 
-        List<Order> orders = orderDAO.getAllOrders();
-        if (orders.isEmpty()) {
-            ordersListContainer.getChildren().add(createPlaceholder("No orders found."));
-            if (ordersCountLabel != null)
-                ordersCountLabel.setText("All Orders (0)");
+        // Only the newest page is loaded; older pages follow as the list is scrolled.
+        // A page load still running is superseded, since it shares the "orders" key.
+        nextOrdersCursor = null;
+        loadingMoreOrders = false;
+        return tasks.run("orders", ordersListContainer,
+                () -> orderDAO.getOrdersPage(null, ORDERS_PAGE_SIZE),
+                page -> renderOrders(page, selectedOrderId));
+    }
+
+    private void renderOrders(OrderDao.Page page, Integer selectedOrderId) {
+        nextOrdersCursor = page.next;
+        ordersListView.show(ordersListContainer, page.orders, selectedOrderId);
+        updateOrdersCount();
+    }
+
+    private void loadMoreOrders() {
+        if (loadingMoreOrders || nextOrdersCursor == null) return;
+        loadingMoreOrders = true;
+        OrderDao.Cursor after = nextOrdersCursor;
+        tasks.run("orders", null, () -> orderDAO.getOrdersPage(after, ORDERS_PAGE_SIZE), page -> {
+            loadingMoreOrders = false;
+            nextOrdersCursor = page.next;
+            ordersListView.append(page.orders);
+            updateOrdersCount();
+        }, e -> {
+            e.printStackTrace();
+            // Stop paging until the next refresh instead of retrying on every scroll
+            loadingMoreOrders = false;
+            nextOrdersCursor = null;
+            showError("Could not load more orders: " + e.getMessage());
+        });
+    }
+
+    private void updateOrdersCount() {
+        if (ordersCountLabel == null) return;
+        int loaded = ordersListView.getItems().size();
+        ordersCountLabel.setText("All Orders (" + loaded + (nextOrdersCursor != null ? "+" : "") + ")");
+    }
+
+    private void onOrderSelected(Order order) {
+        if (order != null) {
+            showOrderDetail(order);
+        } else {
             selectedOrder = null;
-            return;
         }
+    }
 
-        if (ordersCountLabel != null)
-            ordersCountLabel.setText("All Orders (" + orders.size() + ")");
-        DateTimeFormatter fmt = DateTimeFormatter.ofPattern("MMM dd HH:mm");
+    /**
+     * One row of the order list; the labels are reused for whichever order the cell shows.
+     */
+    private class OrderRow implements OrderListView.Row {
+        private final HBox item = createListItemBase();
+        private final Label id = new Label();
+        private final Label status = new Label();
+        private final Label date = new Label();
+        private final Label total = new Label();
+
+        OrderRow() {
+            id.setPrefWidth(60);
+            status.setPrefWidth(100);
+            date.getStyleClass().add("muted");
+            total.getStyleClass().add("detail-value");
+            Region spacer = new Region();
+            HBox.setHgrow(spacer, javafx.scene.layout.Priority.ALWAYS);
+            item.getChildren().addAll(id, status, date, spacer, total);
+        }
 
-        Order orderToSelect = null;
-        for (Order o : orders) {
-            HBox item = createListItemBase();
-            item.setUserData(o.getId());
+        @Override
+        public javafx.scene.Node getNode() {
+            return item;
+        }
 
-            Label id = new Label("#" + o.getId());
-            id.getStyleClass().addAll("badge", "badge-info");
-            id.setPrefWidth(60);
+        @Override
+        public void bind(Order o) {
+            id.setText("#" + o.getId());
+            id.getStyleClass().setAll("label", "badge", "badge-info");
 
-            Label status = new Label(o.getStatus().name());
+            status.setText(o.getStatus().name());
             String badgeClass = switch (o.getStatus()) {
                 case CREATED -> "badge-info";
                 case ASSIGNED -> "badge-warning";
@@ -430,40 +604,31 @@ public class OwnerController {
                 case CANCELLED -> "badge-danger";
                 default -> "badge-secondary"; // Fallback for any new statuses
             };
-            status.getStyleClass().addAll("badge", badgeClass);
-            status.setPrefWidth(100);
-
-            Label date = new Label(o.getOrderTime().format(fmt));
-            date.getStyleClass().add("muted");
-
-            Region spacer = new Region();
-            HBox.setHgrow(spacer, javafx.scene.layout.Priority.ALWAYS);
-
-            Label total = new Label(formatPrice(o.getTotalAfterTax()));
-            total.getStyleClass().add("detail-value");
+            status.getStyleClass().setAll("label", "badge", badgeClass);
 
-            item.getChildren().addAll(id, status, date, spacer, total);
-            // Fix lambda capture: create final copy to avoid capturing loop variable by reference
-            final Order finalOrder = o;
-            item.setOnMouseClicked(e -> showOrderDetail(finalOrder));
-            ordersListContainer.getChildren().add(item);
-            
-            // Check if this is the previously selected order
-            if (selectedOrderId != null && o.getId() == selectedOrderId) {
-                orderToSelect = o;
-            }
-        }
-        
-        // Restore the detail view if the order still exists
-        if (orderToSelect != null) {
-            showOrderDetail(orderToSelect);
-        } else {
-            selectedOrder = null;
+            date.setText(o.getOrderTime().format(ORDER_LIST_DATE_FORMAT));
+            total.setText(formatPrice(o.getTotalAfterTax()));
         }
     }
 
     private void showOrderDetail(Order order) {
         selectedOrder = order;
+        // Customer, carrier and items are fetched together off the FX thread
+        tasks.run("order-detail", orderDetailContainer, () -> {
+            List<Integer> userIds = new java.util.ArrayList<>();
+            userIds.add(order.getCustomerId());
+            if (order.getCarrierId() != null) {
+                userIds.add(order.getCarrierId());
+            }
+            Map<Integer, User> users = userDAO.getUsersByIds(userIds);
+            if (order.getItems() == null) {
+                order.setItems(orderDAO.getOrderItems(order.getId()));
+            }
+            return users;
+        }, users -> renderOrderDetail(order, users));
+    }
+
+    private void renderOrderDetail(Order order, Map<Integer, User> users) {
         orderDetailContainer.getChildren().clear();
         VBox card = new VBox(10);
         card.getStyleClass().add("detail-card");
@@ -490,7 +655,7 @@ public class OwnerController {
         
         // Customer Information
         try {
-            User customer = userDAO.getUserById(order.getCustomerId());
+            User customer = users.get(order.getCustomerId());
             if (customer != null) {
                 Separator sep1 = new Separator();
                 sep1.setStyle("-fx-opacity: 0.3; -fx-padding: 10 0;");
@@ -518,7 +683,7 @@ public class OwnerController {
         // Carrier Information (if assigned)
         if (order.getCarrierId() != null) {
             try {
-                User carrier = userDAO.getUserById(order.getCarrierId());
+                User carrier = users.get(order.getCarrierId());
                 if (carrier != null) {
                     Separator sep2 = new Separator();
                     sep2.setStyle("-fx-opacity: 0.3; -fx-padding: 10 0;");
@@ -541,20 +706,7 @@ public class OwnerController {
             }
         }
 
-        // Order Items with Product Details
-        // Check if items are already loaded (not null) to avoid infinite recursion
-        if (order.getItems() == null) {
-            // Load items if not already loaded
-            try {
-                order.setItems(orderDAO.getOrderItems(order.getId()));
-                // Recursive call to refresh with items - but only if items was null
-                showOrderDetail(order);
-                return;
-            } catch (Exception e) {
-                System.err.println("Error loading order items: " + e.getMessage());
-            }
-        }
-        
+        // Order Items with Product Details (loaded in showOrderDetail)
         // Display items if they exist (even if empty list)
         if (order.getItems() != null && !order.getItems().isEmpty()) {
             Separator sep3 = new Separator();
@@ -607,14 +759,19 @@ public class OwnerController {
 
     // ==================== MESSAGE MANAGEMENT ====================
 
-    private void loadMessages() {
-        messagesListContainer.getChildren().clear();
+    private CompletableFuture<?> loadMessages() {
         messageDetailContainer.getChildren().clear();
         
         // Preserve the currently selected message ID before clearing
         Integer selectedMessageId = selectedMessage != null ? selectedMessage.getId() : null;
 
-        List<Message> msgs = messageDAO.getAllMessages();
+        return tasks.run("messages", messagesListContainer,
+                () -> messageDAO.getAllMessages(),
+                msgs -> renderMessages(msgs, selectedMessageId));
+    }
+
+    private void renderMessages(List<Message> msgs, Integer selectedMessageId) {
+        messagesListContainer.getChildren().clear();
         if (msgs.isEmpty()) {
             messagesListContainer.getChildren().add(createPlaceholder("No messages."));
             selectedMessage = null;
@@ -652,8 +809,11 @@ public class OwnerController {
                 selectedMessage = finalMessage;
                 showMessageDetail(finalMessage);
                 if (!finalMessage.isRead()) {
-                    messageDAO.markAsRead(finalMessage.getId());
-                    loadMessages(); // Refresh to update read status
+                    tasks.run("mark-read-" + finalMessage.getId(), null, () -> {
+                        messageDAO.markAsRead(finalMessage.getId());
+                        return null;
+                    }, done -> loadMessages(), // Refresh to update read status
+                            ex -> showError("Could not mark message as read: " + ex.getMessage()));
                 }
             });
             
@@ -703,9 +863,21 @@ public class OwnerController {
         contentArea.setStyle("-fx-background-color: rgba(30, 41, 59, 0.5); -fx-text-fill: white;");
         
         card.getChildren().addAll(header, meta, sep, contentLabel, contentArea);
-        
-        // Check if there's already a reply
-        String existingReply = messageDAO.getReplyText(message.getId());
+        messageDetailContainer.getChildren().add(card);
+
+        if (!message.isRead()) {
+            // replied_at is set with every reply, so there is none to fetch
+            addReplySection(card, message, null);
+            return;
+        }
+        // Check if there's already a reply; the LONGTEXT is read off the FX thread.
+        // Selecting another message supersedes this task, so the reply lands on the right card.
+        tasks.run("message-reply", null, () -> messageDAO.getReplyText(message.getId()),
+                existingReply -> addReplySection(card, message, existingReply),
+                ex -> showError("Could not load reply: " + ex.getMessage()));
+    }
+
+    private void addReplySection(VBox card, Message message, String existingReply) {
         if (existingReply != null && !existingReply.trim().isEmpty()) {
             Separator replySep = new Separator();
             replySep.setStyle("-fx-opacity: 0.3; -fx-padding: 10 0;");
@@ -746,18 +918,20 @@ public class OwnerController {
                     return;
                 }
                 
-                try {
-                    boolean success = messageDAO.replyToMessage(message.getId(), replyText);
+                sendReplyBtn.setDisable(true);
+                tasks.run("reply-" + message.getId(), null, () -> messageDAO.replyToMessage(message.getId(), replyText), success -> {
                     if (success) {
                         ToastService.show(messageDetailContainer.getScene(), "Reply sent successfully!", ToastService.Type.SUCCESS);
                         loadMessages(); // Refresh to show updated status
                     } else {
+                        sendReplyBtn.setDisable(false);
                         ToastService.show(messageDetailContainer.getScene(), "Failed to send reply", ToastService.Type.ERROR);
                     }
-                } catch (Exception ex) {
+                }, ex -> {
                     ex.printStackTrace();
+                    sendReplyBtn.setDisable(false);
                     ToastService.show(messageDetailContainer.getScene(), "Error: " + ex.getMessage(), ToastService.Type.ERROR);
-                }
+                });
             });
             
             HBox replyActions = new HBox(10);
@@ -766,8 +940,6 @@ public class OwnerController {
             
             card.getChildren().addAll(replySep, replyLabel, replyArea, replyActions);
         }
-        
-        messageDetailContainer.getChildren().add(card);
     }
 
     @FXML
@@ -777,15 +949,20 @@ public class OwnerController {
 
     // ==================== COUPON MANAGEMENT ====================
 
-    private void loadCoupons() {
-        couponsListContainer.getChildren().clear();
+    private CompletableFuture<?> loadCoupons() {
         couponDetailContainer.getChildren().clear();
         
         // Preserve the currently selected coupon ID before clearing
         Integer selectedCouponId = selectedCoupon != null ? selectedCoupon.getId() : null;
 
         // Load ALL coupons from database (not just valid ones)
-        List<Coupon> allCoupons = couponDAO.getAllCoupons();
+        return tasks.run("coupons", couponsListContainer,
+                () -> couponDAO.getAllCoupons(),
+                allCoupons -> renderCoupons(allCoupons, selectedCouponId));
+    }
+
+    private void renderCoupons(List<Coupon> allCoupons, Integer selectedCouponId) {
+        couponsListContainer.getChildren().clear();
         allCoupons.sort((c1, c2) -> c1.getCode().compareToIgnoreCase(c2.getCode()));
         
         if (allCoupons.isEmpty()) {
@@ -991,21 +1168,23 @@ public class OwnerController {
                         return null;
                     }
 
-                    // Check if code already exists
-                    if (couponDAO.getCouponByCode(code) != null) {
-                        showError("A coupon with this code already exists.");
-                        return null;
-                    }
-
                     Coupon.CouponKind kind = Coupon.CouponKind.valueOf(kindStr);
                     LocalDateTime expiresAt = expiry.atStartOfDay();
 
-                    int couponId = couponDAO.createCoupon(code, kind, value, minCart, expiresAt, active);
-                    if (couponId > 0) {
-                        showSuccess("Coupon added successfully!");
-                        loadCoupons();
-                        return new Coupon(couponId, code, kind, value, minCart, active, expiresAt);
-                    }
+                    tasks.run("add-coupon", null, () -> {
+                        // Check if code already exists
+                        if (couponDAO.getCouponByCode(code) != null) {
+                            return null;
+                        }
+                        return couponDAO.createCoupon(code, kind, value, minCart, expiresAt, active);
+                    }, couponId -> {
+                        if (couponId == null) {
+                            showError("A coupon with this code already exists.");
+                        } else if (couponId > 0) {
+                            showSuccess("Coupon added successfully!");
+                            loadCoupons();
+                        }
+                    }, ex -> showError("Failed to add coupon: " + ex.getMessage()));
                 } catch (NumberFormatException e) {
                     showError("Please enter valid numbers for value and minimum cart.");
                 } catch (Exception e) {
@@ -1025,10 +1204,15 @@ public class OwnerController {
 
     // ==================== RATINGS ====================
 
-    private void loadCarrierRatings() {
+    private CompletableFuture<?> loadCarrierRatings() {
+        return tasks.run("ratings", ratingsContainer,
+                () -> ratingDAO.getAllRatings(),
+                this::renderCarrierRatings);
+    }
+
+    private void renderCarrierRatings(List<Rating> ratings) {
         ratingsContainer.getChildren().clear();
         
-        List<Rating> ratings = ratingDAO.getAllRatings();
         if (ratings.isEmpty()) {
             ratingsContainer.getChildren().add(createPlaceholder("No ratings available."));
             return;
@@ -1074,11 +1258,15 @@ public class OwnerController {
     @FXML
     private void handleRefreshLoyalty() {
         if (loyaltyContainer == null) return;
+        tasks.run("loyalty", loyaltyContainer,
+                () -> orderDAO.getCustomerLoyaltyStats(),
+                this::renderLoyalty);
+    }
+
+    private void renderLoyalty(List<Object[]> loyaltyStats) {
         loyaltyContainer.getChildren().clear();
         
         try {
-            List<Object[]> loyaltyStats = orderDAO.getCustomerLoyaltyStats();
-            
             if (loyaltyStats.isEmpty()) {
                 Label info = new Label("No customer purchase data available.");
                 info.getStyleClass().add("muted");
@@ -1217,6 +1405,96 @@ public class OwnerController {
         return row;
     }
 
+    // ==================== DIAGNOSTICS ====================
+
+    /** Everything the diagnostics tab shows, read together off the FX thread. */
+    private record Diagnostics(List<SqlMetrics.Snapshot> statements, LocalDateTime since,
+            ConnectionPool.Stats pool, TransactionRetry.Stats retries) {
+    }
+
+    private CompletableFuture<?> loadDiagnostics() {
+        return tasks.run("diagnostics", diagnosticsContainer,
+                () -> new Diagnostics(SqlMetrics.getInstance().snapshot(), SqlMetrics.getInstance().getSince(),
+                        Db.poolStats(), TransactionRetry.getInstance().stats()),
+                this::renderDiagnostics);
+    }
+
+    private void renderDiagnostics(Diagnostics d) {
+        diagnosticsContainer.getChildren().clear();
+
+        Label since = new Label("Since " + d.since().format(DateTimeFormatter.ofPattern("MMM dd, yyyy HH:mm:ss")));
+        since.getStyleClass().add("muted");
+        diagnosticsContainer.getChildren().addAll(since,
+                createLoyaltySummaryRow("Connection pool", d.pool().toString()),
+                createLoyaltySummaryRow("Transaction retries", d.retries().toString()));
+
+        if (d.statements().isEmpty()) {
+            diagnosticsContainer.getChildren().add(createPlaceholder("No statements recorded yet."));
+            return;
+        }
+
+        javafx.scene.layout.GridPane grid = new javafx.scene.layout.GridPane();
+        grid.setHgap(14);
+        grid.setVgap(4);
+        grid.setStyle("-fx-background-color: #1e293b; -fx-background-radius: 8; -fx-padding: 15;");
+        String[] headers = { "DAO method", "Calls", "Errors", "Slow", "Rows", "LOB KB", "Total ms",
+                "Mean", "p50", "p95", "p99", "Max" };
+        for (int col = 0; col < headers.length; col++) {
+            Label h = new Label(headers[col]);
+            h.setStyle("-fx-font-weight: bold; -fx-text-fill: #94a3b8;");
+            grid.add(h, col, 0);
+        }
+        int row = 1;
+        for (SqlMetrics.Snapshot st : d.statements()) {
+            String[] cells = {
+                    st.getCaller(),
+                    String.valueOf(st.getExecutions()),
+                    String.valueOf(st.getErrors()),
+                    String.valueOf(st.getSlow()),
+                    String.valueOf(st.getRows()),
+                    String.format("%.1f", st.getLobBytes() / 1024.0),
+                    String.format("%.1f", st.getTotalMs()),
+                    String.format("%.2f", st.getMeanMs()),
+                    String.format("%.2f", st.getP50Ms()),
+                    String.format("%.2f", st.getP95Ms()),
+                    String.format("%.2f", st.getP99Ms()),
+                    String.format("%.2f", st.getMaxMs()) };
+            for (int col = 0; col < cells.length; col++) {
+                Label cell = new Label(cells[col]);
+                // Highlight methods with errors or slow statements
+                boolean alert = (col == 2 && st.getErrors() > 0) || (col == 3 && st.getSlow() > 0);
+                cell.setStyle(alert ? "-fx-text-fill: #f87171; -fx-font-weight: bold;" : "-fx-text-fill: white;");
+                grid.add(cell, col, row);
+            }
+            row++;
+        }
+        Label hint = new Label("Times are per statement execution in milliseconds. A snapshot is appended to "
+                + SqlMetrics.dumpFile() + " periodically.");
+        hint.getStyleClass().add("muted");
+        hint.setWrapText(true);
+        diagnosticsContainer.getChildren().addAll(grid, hint);
+    }
+
+    @FXML
+    private void handleRefreshDiagnostics() {
+        loadDiagnostics();
+    }
+
+    @FXML
+    private void handleResetDiagnostics() {
+        SqlMetrics.getInstance().reset();
+        loadDiagnostics();
+    }
+
+    @FXML
+    private void handleDumpDiagnostics() {
+        java.io.File file = SqlMetrics.dumpFile();
+        tasks.run("diagnostics-dump", null, () -> {
+            SqlMetrics.getInstance().dump(file);
+            return file;
+        }, f -> ToastService.show(diagnosticsContainer.getScene(), "Written to " + f, ToastService.Type.SUCCESS));
+    }
+
     // ==================== COMMON ====================
 
     @FXML
@@ -1319,33 +1597,32 @@ public class OwnerController {
                     
                     if (product == null) {
                         // Create new product - typeDbValue is already in database format (VEG/FRUIT)
-                        int productId = productDAO.createProduct(name, typeDbValue, price, stock, threshold);
-                        if (productId > 0) {
-                            showSuccess("Product added successfully!");
-                            loadProducts();
-                            return null;
-                        }
+                        tasks.run("save-product", null,
+                                () -> productDAO.createProduct(name, typeDbValue, price, stock, threshold), productId -> {
+                            if (productId > 0) {
+                                showSuccess("Product added successfully!");
+                                loadProducts();
+                            }
+                        }, ex -> showError("Error: " + ex.getMessage()));
                     } else {
                         // Update existing product
-                        boolean success = productDAO.updateProduct(product.getId(), name, typeDbValue, price, stock, threshold);
-                        if (success) {
+                        int productId = product.getId();
+                        tasks.run("save-product", null, () -> {
+                            if (!productDAO.updateProduct(productId, name, typeDbValue, price, stock, threshold)) {
+                                throw new IllegalStateException("Failed to update product.");
+                            }
+                            // The update invalidated the catalog; reload it here rather than on the FX thread
+                            return ProductCatalogCache.getInstance().getById(productId);
+                        }, updatedProduct -> {
                             showSuccess("Product updated successfully!");
                             loadProducts();
                             // Refresh the detail view
-                            List<Product> products = productDAO.findAll();
-                            Product updatedProduct = products.stream()
-                                .filter(p -> p.getId() == product.getId())
-                                .findFirst()
-                                .orElse(null);
                             if (updatedProduct != null) {
                                 showProductDetail(updatedProduct);
                             }
-                            return null;
-                        } else {
-                            showError("Failed to update product.");
-                            return null;
-                        }
+                        }, ex -> showError(ex instanceof IllegalStateException ? ex.getMessage() : "Error: " + ex.getMessage()));
                     }
+                    return null;
                 } catch (NumberFormatException e) {
                     showError("Please enter valid numbers for price, stock, and threshold.");
                 } catch (Exception e) {
@@ -1371,75 +1648,23 @@ public class OwnerController {
 
     @FXML
     private void handleGenerateReport() {
+        tasks.run("report", null,
+                () -> reportService.generateSalesReport(),
+                this::showReport,
+                e -> {
+                    showError("Failed to generate report: " + e.getMessage());
+                    e.printStackTrace();
+                });
+    }
+
+    private void showReport(SalesReport report) {
         try {
-            List<Order> allOrders = orderDAO.getAllOrders();
-            List<Order> deliveredOrders = allOrders.stream()
-                .filter(o -> o.getStatus() == OrderStatus.DELIVERED)
-                .collect(java.util.stream.Collectors.toList());
-            
-            // Calculate summary statistics
-            double totalRevenue = deliveredOrders.stream()
-                .mapToDouble(Order::getTotalAfterTax)
-                .sum();
-            
-            long totalOrdersCount = allOrders.size();
-            long deliveredOrdersCount = deliveredOrders.size();
-            
-            // Calculate total items sold (kg) and product sales by revenue and quantity
-            double totalItemsSoldKg = 0.0;
-            Map<String, Double> productRevenue = new java.util.HashMap<>();
-            Map<String, Double> productQuantityKg = new java.util.HashMap<>();
-            Map<String, Double> revenueByDate = new java.util.HashMap<>();
-            LocalDate minDate = null;
-            LocalDate maxDate = null;
-            
-            // Process all delivered orders
-            for (Order order : deliveredOrders) {
-                // Load order items if not already loaded
-                if (order.getItems() == null) {
-                    try {
-                        order.setItems(orderDAO.getOrderItems(order.getId()));
-                    } catch (Exception e) {
-                        System.err.println("Error loading items for order " + order.getId() + ": " + e.getMessage());
-                        continue;
-                    }
-                }
-                
-                // Track date range
-                if (order.getOrderTime() != null) {
-                    LocalDate orderDate = order.getOrderTime().toLocalDate();
-                    if (minDate == null || orderDate.isBefore(minDate)) {
-                        minDate = orderDate;
-                    }
-                    if (maxDate == null || orderDate.isAfter(maxDate)) {
-                        maxDate = orderDate;
-                    }
-                    
-                    // Revenue by date
-                    String dateKey = orderDate.toString();
-                    revenueByDate.put(dateKey, 
-                        revenueByDate.getOrDefault(dateKey, 0.0) + order.getTotalAfterTax());
-                }
-                
-                // Process items
-                if (order.getItems() != null && !order.getItems().isEmpty()) {
-                    for (CartItem item : order.getItems()) {
-                        String productName = item.getProduct().getName();
-                        double quantityKg = item.getQuantityKg();
-                        double lineTotal = item.getLineTotal();
-                        
-                        totalItemsSoldKg += quantityKg;
-                        productRevenue.put(productName, 
-                            productRevenue.getOrDefault(productName, 0.0) + lineTotal);
-                        productQuantityKg.put(productName, 
-                            productQuantityKg.getOrDefault(productName, 0.0) + quantityKg);
-                    }
-                }
-            }
-            
-            double averageOrderValue = deliveredOrdersCount > 0 ? totalRevenue / deliveredOrdersCount : 0.0;
-            String periodStr = (minDate != null && maxDate != null) 
-                ? minDate.toString() + " to " + maxDate.toString()
+            double totalRevenue = report.getTotalRevenue();
+            long totalOrdersCount = report.getTotalOrders();
+            double totalItemsSoldKg = report.getTotalItemsSoldKg();
+            double averageOrderValue = report.getAverageOrderValue();
+            String periodStr = (report.getFirstOrderDate() != null && report.getLastOrderDate() != null)
+                ? report.getFirstOrderDate().toString() + " to " + report.getLastOrderDate().toString()
                 : "N/A";
             
             // Create report dialog
@@ -1482,11 +1707,10 @@ public class OwnerController {
             revenueChart.setPrefSize(700, 400);
             
             XYChart.Series<String, Number> revenueSeries = new XYChart.Series<>();
-            productRevenue.entrySet().stream()
-                .sorted((e1, e2) -> Double.compare(e2.getValue(), e1.getValue()))
-                .forEach(entry -> {
-                    revenueSeries.getData().add(new XYChart.Data<>(entry.getKey(), entry.getValue()));
-                });
+            // Already sorted by revenue, highest first
+            for (ProductSales sales : report.getProductSales()) {
+                revenueSeries.getData().add(new XYChart.Data<>(sales.getProductName(), sales.getRevenue()));
+            }
             revenueChart.getData().add(revenueSeries);
             
             reportContent.getChildren().addAll(chartLabel1, revenueChart);
@@ -1499,10 +1723,6 @@ public class OwnerController {
             Label chartLabel2 = new Label("Revenue by Time (Last 30 Days)");
             chartLabel2.setStyle("-fx-font-weight: bold; -fx-font-size: 16px; -fx-text-fill: #1e293b;");
             
-            // Get last 30 days of data, sorted by date
-            LocalDate endDate = maxDate != null ? maxDate : LocalDate.now();
-            LocalDate startDate = endDate.minusDays(29);
-            
             CategoryAxis xAxisTime = new CategoryAxis();
             NumberAxis yAxisTime = new NumberAxis();
             yAxisTime.setLabel("Revenue (TL)");
@@ -1513,12 +1733,8 @@ public class OwnerController {
             timeChart.setCreateSymbols(true);
             
             XYChart.Series<String, Number> timeSeries = new XYChart.Series<>();
-            LocalDate currentDate = startDate;
-            while (!currentDate.isAfter(endDate)) {
-                String dateKey = currentDate.toString();
-                double revenue = revenueByDate.getOrDefault(dateKey, 0.0);
-                timeSeries.getData().add(new XYChart.Data<>(dateKey, revenue));
-                currentDate = currentDate.plusDays(1);
+            for (DailyRevenue day : report.getDailyRevenue()) {
+                timeSeries.getData().add(new XYChart.Data<>(day.getDate().toString(), day.getRevenue()));
             }
             timeChart.getData().add(timeSeries);
             
@@ -1533,11 +1749,11 @@ public class OwnerController {
             chartLabel3.setStyle("-fx-font-weight: bold; -fx-font-size: 16px; -fx-text-fill: #1e293b;");
             
             ObservableList<PieChart.Data> quantityPieData = FXCollections.observableArrayList();
-            productQuantityKg.entrySet().stream()
-                .sorted((e1, e2) -> Double.compare(e2.getValue(), e1.getValue()))
+            report.getProductSales().stream()
+                .sorted((e1, e2) -> Double.compare(e2.getQuantityKg(), e1.getQuantityKg()))
                 .limit(10) // Top 10 products
-                .forEach(entry -> {
-                    quantityPieData.add(new PieChart.Data(entry.getKey(), entry.getValue()));
+                .forEach(sales -> {
+                    quantityPieData.add(new PieChart.Data(sales.getProductName(), sales.getQuantityKg()));
                 });
             
             PieChart quantityChart = new PieChart(quantityPieData);
@@ -1585,6 +1801,7 @@ public class OwnerController {
 
     @FXML
     private void handleLogout() {
+        tasks.cancelAll();
         Session.clear();
         try {
             Stage stage = (Stage) logoutButton.getScene().getWindow();
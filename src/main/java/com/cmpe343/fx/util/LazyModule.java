@@ -0,0 +1,115 @@
+package com.cmpe343.fx.util;
+
+import javafx.application.Platform;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * A screen module (usually one tab) whose data is loaded the first time it is needed
+ * instead of when the screen opens.
+ * <p>
+ * The loader starts the module's background load, e.g. via {@link UiTask.Scope#run}, and
+ * returns its future. {@link #ensureLoaded(boolean)} starts it at most once; a failed load is
+ * retried on the next call. The time the load took is kept so screens can show which module
+ * is slow. All methods are meant to be called on the FX thread.
+ */
+public final class LazyModule {
+
+    public enum State { NOT_LOADED, LOADING, LOADED, FAILED }
+
+    private final String name;
+    private final Supplier<CompletableFuture<?>> loader;
+    private final List<Consumer<LazyModule>> listeners = new ArrayList<>();
+
+    private CompletableFuture<?> load;
+    private State state = State.NOT_LOADED;
+    private boolean prefetched;
+    private long loadMillis = -1;
+
+    public LazyModule(String name, Supplier<CompletableFuture<?>> loader) {
+        this.name = name;
+        this.loader = loader;
+    }
+
+    /**
+     * Starts the first load, or returns the one already running or done.
+     *
+     * @param prefetch true when the load is speculative (the user has not opened the module yet);
+     *                 only used for reporting
+     */
+    public CompletableFuture<?> ensureLoaded(boolean prefetch) {
+        if (load != null) {
+            return load;
+        }
+        long start = System.nanoTime();
+        prefetched = prefetch;
+        state = State.LOADING;
+        CompletableFuture<?> started = loader.get();
+        load = started;
+        notifyListeners();
+
+        started.whenComplete((result, error) -> {
+            long millis = (System.nanoTime() - start) / 1_000_000;
+            Platform.runLater(() -> {
+                if (load != started) {
+                    return;
+                }
+                loadMillis = millis;
+                if (error != null) {
+                    // Forget the failed load so opening the module again retries it
+                    state = State.FAILED;
+                    load = null;
+                } else {
+                    state = State.LOADED;
+                }
+                notifyListeners();
+            });
+        });
+        return started;
+    }
+
+    /**
+     * Runs {@code listener} now and after every state change.
+     */
+    public void addListener(Consumer<LazyModule> listener) {
+        listeners.add(listener);
+        listener.accept(this);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    /**
+     * @return how long the last load took, or -1 if none finished yet
+     */
+    public long getLoadMillis() {
+        return loadMillis;
+    }
+
+    /**
+     * @return a short status line such as "Loaded in 42 ms (prefetched)"
+     */
+    public String getStatusText() {
+        return switch (state) {
+            case NOT_LOADED -> "Not loaded yet";
+            case LOADING -> prefetched ? "Prefetching..." : "Loading...";
+            case LOADED -> "Loaded in " + loadMillis + " ms" + (prefetched ? " (prefetched)" : "");
+            case FAILED -> "Load failed after " + loadMillis + " ms";
+        };
+    }
+
+    private void notifyListeners() {
+        for (Consumer<LazyModule> listener : listeners) {
+            listener.accept(this);
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.cmpe343.fx.util;
+
+import com.cmpe343.model.Order;
+import javafx.scene.Node;
+import javafx.scene.control.Label;
+import javafx.scene.control.ListCell;
+import javafx.scene.control.ListView;
+import javafx.scene.layout.Pane;
+import javafx.scene.layout.Priority;
+import javafx.scene.layout.VBox;
+
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Virtualized list of orders for the owner and carrier screens.
+ * <p>
+ * Only the visible rows have nodes. Each cell builds its row layout once and refills the
+ * same labels when scrolling brings another order into view, so a list of 100k orders
+ * costs about as much to lay out as a list of 30. Selecting a row calls {@code onSelect};
+ * {@link #show(Pane, List, Integer)} restores the previous selection by order id.
+ * <p>
+ * For paged data, {@link #setOnNearEnd(Runnable)} is called when a row close to the end
+ * of the loaded orders is displayed, and {@link #append(List)} adds the next page.
+ */
+public final class OrderListView extends ListView<Order> {
+
+    /**
+     * The layout of one row. Created once per cell and rebound for every order it shows.
+     */
+    public interface Row {
+        Node getNode();
+
+        void bind(Order order);
+    }
+
+    // Rows before the end at which the next page is requested
+    private static final int NEAR_END_ROWS = 20;
+
+    private final Consumer<Order> onSelect;
+    private Runnable onNearEnd;
+    private boolean replacingItems;
+
+    /**
+     * @param rowFactory creates the row layout for a new cell
+     * @param emptyText  shown when there are no orders
+     * @param onSelect   called with the selected order, or null when nothing is selected
+     */
+    public OrderListView(Supplier<Row> rowFactory, String emptyText, Consumer<Order> onSelect) {
+        this.onSelect = onSelect;
+        getStyleClass().add("order-list");
+        VBox.setVgrow(this, Priority.ALWAYS);
+
+        Label placeholder = new Label(emptyText);
+        placeholder.setStyle("-fx-font-size: 14px; -fx-text-fill: #94a3b8; -fx-padding: 20;");
+        setPlaceholder(placeholder);
+
+        setCellFactory(list -> new ListCell<>() {
+            private final Row row = rowFactory.get();
+
+            @Override
+            protected void updateItem(Order order, boolean empty) {
+                super.updateItem(order, empty);
+                setText(null);
+                if (empty || order == null) {
+                    setGraphic(null);
+                } else {
+                    row.bind(order);
+                    setGraphic(row.getNode());
+                    if (onNearEnd != null && getIndex() >= getItems().size() - NEAR_END_ROWS) {
+                        onNearEnd.run();
+                    }
+                }
+            }
+        });
+
+        getSelectionModel().selectedItemProperty().addListener((obs, oldOrder, newOrder) -> {
+            if (!replacingItems) {
+                onSelect.accept(newOrder);
+            }
+        });
+    }
+
+    /**
+     * @param onNearEnd called when one of the last loaded rows is displayed, typically to
+     *                  load the next page; it may be called repeatedly until that page arrives
+     */
+    public void setOnNearEnd(Runnable onNearEnd) {
+        this.onNearEnd = onNearEnd;
+    }
+
+    /**
+     * Adds the next page of orders below the current ones, keeping selection and scroll position.
+     */
+    public void append(List<Order> orders) {
+        getItems().addAll(orders);
+    }
+
+    /**
+     * Puts this list into {@code container} with the given orders and reselects the order
+     * that was selected before, if it is still listed. Calls {@code onSelect} once with
+     * the restored order, or with null.
+     *
+     * @return the restored order, or null
+     */
+    public Order show(Pane container, List<Order> orders, Integer selectedOrderId) {
+        replacingItems = true;
+        try {
+            getSelectionModel().clearSelection();
+            getItems().setAll(orders);
+        } finally {
+            replacingItems = false;
+        }
+        container.getChildren().setAll(this);
+
+        if (selectedOrderId != null) {
+            for (int i = 0; i < orders.size(); i++) {
+                if (orders.get(i).getId() == selectedOrderId) {
+                    getSelectionModel().select(i); // fires onSelect
+                    scrollTo(i);
+                    return orders.get(i);
+                }
+            }
+        }
+        onSelect.accept(null);
+        return null;
+    }
+}
@@ -0,0 +1,281 @@
+package com.cmpe343.fx.util;
+
+import com.cmpe343.dao.ProductCatalogCache;
+import com.cmpe343.dao.ProductDao;
+import com.cmpe343.db.Db;
+import com.cmpe343.util.AppExecutors;
+import javafx.application.Platform;
+import javafx.scene.image.Image;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.WritableImage;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Loads product thumbnails from {@code products.image_blob} for the card grids.
+ * <p>
+ * Thumbnails are keyed by product id, the MD5 of the image bytes and the requested size:
+ * <ol>
+ * <li>a bounded in-memory LRU of decoded images, so revisiting a screen renders instantly</li>
+ * <li>an on-disk cache of raw ARGB pixels under {@code image.cache.dir}, so a restart does
+ * not refetch or re-decode anything that has not changed</li>
+ * <li>otherwise the blob is fetched once, decoded straight to the target size by
+ * {@link Image}'s scaling constructor and written to both caches</li>
+ * </ol>
+ * Disk and database work runs on a small daemon pool; callbacks run on the FX thread.
+ * The digests come from one {@link ProductDao#getImageDigests()} query over the stored
+ * {@code image_md5} column. They are refreshed in the background whenever the product
+ * catalog changes or its snapshot expires ({@code catalog.cache.maxAgeMs}), so images
+ * edited here or by another client get a new key; until the refresh lands the previous
+ * thumbnail stays on screen.
+ */
+public class ProductImageService {
+
+    private static final int DEFAULT_MEMORY_ENTRIES = 256;
+    private static final int DISK_MAGIC = 0x54484D42; // "THMB"
+
+    private static volatile ProductImageService instance;
+
+    private final ProductDao productDao = new ProductDao();
+    private final Path diskDir;
+    // Keyed by product id and size; the digest tells whether the image is still current
+    private final Map<String, Thumbnail> memory;
+    private final Map<String, CompletableFuture<Image>> inFlight = new ConcurrentHashMap<>();
+    private final ExecutorService workers = Executors.newFixedThreadPool(2, r -> {
+        Thread t = new Thread(r, "product-image-loader");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private volatile Digests digests;
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+
+    private record Thumbnail(String digest, Image image) {
+    }
+
+    private record Digests(Map<Integer, String> byProduct, long catalogVersion, long loadedAtNanos) {
+    }
+
+    private ProductImageService(Path diskDir, int memoryEntries) {
+        this.diskDir = diskDir;
+        this.memory = Collections.synchronizedMap(new LinkedHashMap<>(64, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Thumbnail> eldest) {
+                return size() > memoryEntries;
+            }
+        });
+    }
+
+    public static ProductImageService getInstance() {
+        ProductImageService s = instance;
+        if (s != null) return s;
+        synchronized (ProductImageService.class) {
+            if (instance == null) {
+                String defaultDir = Paths.get(System.getProperty("user.home"), ".greengrocer", "thumbs").toString();
+                Path dir = Paths.get(Db.property("image.cache.dir", defaultDir));
+                int entries = DEFAULT_MEMORY_ENTRIES;
+                try {
+                    entries = Integer.parseInt(Db.property("image.cache.memoryEntries", String.valueOf(DEFAULT_MEMORY_ENTRIES)));
+                } catch (NumberFormatException e) {
+                    System.err.println("Invalid value for image.cache.memoryEntries, using " + DEFAULT_MEMORY_ENTRIES);
+                }
+                instance = new ProductImageService(dir, entries);
+            }
+            return instance;
+        }
+    }
+
+    /**
+     * Delivers the product's thumbnail, decoded to fit a size x size box.
+     * <p>
+     * If it is already in memory the callback runs immediately on the calling thread,
+     * so cards can be built with the image in place. Otherwise the image is loaded in the
+     * background and the callback runs later on the FX thread. Products without an image
+     * never trigger the callback, so the caller's placeholder stays.
+     */
+    public void load(int productId, int size, Consumer<Image> onLoaded) {
+        Digests d = digests;
+        if (d == null || isStale(d)) {
+            refreshDigests();
+        }
+        String memoryKey = productId + "-" + size;
+        Thumbnail cached = memory.get(memoryKey);
+        if (d != null) {
+            String digest = d.byProduct().get(productId);
+            if (digest == null) {
+                return;
+            }
+            if (cached != null && cached.digest().equals(digest)) {
+                onLoaded.accept(cached.image());
+                return;
+            }
+        } else if (cached != null) {
+            onLoaded.accept(cached.image());
+            return;
+        }
+
+        // Several cards for the same product share one load
+        CompletableFuture<Image> future = inFlight.computeIfAbsent(memoryKey, k -> CompletableFuture
+                .supplyAsync(() -> loadThumbnail(productId, size), workers)
+                .whenComplete((img, err) -> inFlight.remove(k)));
+        future.whenComplete((img, err) -> {
+            if (err != null) {
+                System.err.println("Could not load image for product " + productId + ": " + err.getMessage());
+            } else if (img != null) {
+                Platform.runLater(() -> onLoaded.accept(img));
+            }
+        });
+    }
+
+    private boolean isStale(Digests d) {
+        ProductCatalogCache catalog = ProductCatalogCache.getInstance();
+        if (d.catalogVersion() != catalog.stats().getVersion()) {
+            return true;
+        }
+        long maxAgeMs = catalog.getMaxAgeMs();
+        return maxAgeMs > 0 && System.nanoTime() - d.loadedAtNanos() >= maxAgeMs * 1_000_000;
+    }
+
+    /**
+     * Reloads the digests on a background thread unless a reload is already running.
+     */
+    private void refreshDigests() {
+        if (!refreshing.compareAndSet(false, true)) {
+            return;
+        }
+        AppExecutors.background().execute(() -> {
+            try {
+                loadDigests();
+            } finally {
+                refreshing.set(false);
+            }
+        });
+    }
+
+    private Digests loadDigests() {
+        // Read the version first: a change during the query leaves the result stale
+        long catalogVersion = ProductCatalogCache.getInstance().stats().getVersion();
+        Digests d = new Digests(productDao.getImageDigests(), catalogVersion, System.nanoTime());
+        digests = d;
+        return d;
+    }
+
+    private Image loadThumbnail(int productId, int size) {
+        Digests d = digests;
+        if (d == null) {
+            // First load before the background refresh finished; this is a worker thread
+            d = loadDigests();
+        }
+        String digest = d.byProduct().get(productId);
+        if (digest == null) {
+            return null;
+        }
+        Image image = loadThumbnail(productId, productId + "-" + digest + "-" + size, size);
+        if (image != null) {
+            memory.put(productId + "-" + size, new Thumbnail(digest, image));
+        }
+        return image;
+    }
+
+    private Image loadThumbnail(int productId, String key, int size) {
+        Path file = diskDir.resolve(key + ".thumb");
+        Image image = readDisk(file);
+        if (image == null) {
+            byte[] bytes = productDao.getProductImageBlob(productId);
+            if (bytes == null) {
+                return null;
+            }
+            // Decode directly at card size instead of keeping the full-resolution image
+            image = new Image(new ByteArrayInputStream(bytes), size, size, true, true);
+            if (image.isError()) {
+                System.err.println("Could not decode image for product " + productId);
+                return null;
+            }
+            writeDisk(productId, file, image);
+        }
+        return image;
+    }
+
+    private Image readDisk(Path file) {
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != DISK_MAGIC) {
+                return null;
+            }
+            int w = in.readInt();
+            int h = in.readInt();
+            int[] argb = new int[w * h];
+            for (int i = 0; i < argb.length; i++) {
+                argb[i] = in.readInt();
+            }
+            WritableImage image = new WritableImage(w, h);
+            image.getPixelWriter().setPixels(0, 0, w, h, PixelFormat.getIntArgbInstance(), argb, 0, w);
+            return image;
+        } catch (IOException e) {
+            System.err.println("Ignoring unreadable thumbnail " + file + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    private void writeDisk(int productId, Path file, Image image) {
+        int w = (int) image.getWidth();
+        int h = (int) image.getHeight();
+        if (w <= 0 || h <= 0 || image.getPixelReader() == null) {
+            return;
+        }
+        int[] argb = new int[w * h];
+        image.getPixelReader().getPixels(0, 0, w, h, PixelFormat.getIntArgbInstance(), argb, 0, w);
+        try {
+            Files.createDirectories(diskDir);
+            removeStaleThumbnails(productId, file);
+            Path tmp = Files.createTempFile(diskDir, "thumb", ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+                out.writeInt(DISK_MAGIC);
+                out.writeInt(w);
+                out.writeInt(h);
+                for (int px : argb) {
+                    out.writeInt(px);
+                }
+            }
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            System.err.println("Could not cache thumbnail " + file + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Deletes thumbnails of older versions of this product's image; same-digest files
+     * in other sizes are kept.
+     */
+    private void removeStaleThumbnails(int productId, Path current) throws IOException {
+        String currentDigest = current.getFileName().toString().split("-")[1];
+        try (DirectoryStream<Path> old = Files.newDirectoryStream(diskDir, productId + "-*.thumb")) {
+            for (Path p : old) {
+                if (!p.getFileName().toString().startsWith(productId + "-" + currentDigest + "-")) {
+                    Files.deleteIfExists(p);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.cmpe343.fx.util;
+
+import com.cmpe343.util.AppExecutors;
+import javafx.application.Platform;
+import javafx.scene.control.Label;
+import javafx.scene.control.ProgressIndicator;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.Pane;
+
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Runs DAO work off the JavaFX Application Thread and applies the result back on it.
+ * <p>
+ * Each controller owns one {@link Scope}. Every task has a key (usually the list it fills):
+ * starting a task with the same key supersedes the previous one, and {@link Scope#cancelAll()}
+ * (called when the user leaves the screen) supersedes everything, so a slow query can never
+ * overwrite newer data or touch a screen that is gone.
+ * <pre>
+ * tasks.run("orders", ordersListContainer,
+ *         () -&gt; orderDao.getAllOrders(),
+ *         orders -&gt; renderOrders(orders));
+ * </pre>
+ */
+public final class UiTask {
+
+    private UiTask() {
+    }
+
+    public static Scope newScope() {
+        return new Scope();
+    }
+
+    public static final class Scope {
+        private final Map<String, AtomicLong> generations = new ConcurrentHashMap<>();
+        private volatile boolean cancelled;
+
+        private Scope() {
+        }
+
+        /**
+         * Same as {@link #run(String, Pane, Callable, Consumer, Consumer)} with an error handler
+         * that logs the failure and shows it in the loading target.
+         */
+        public <T> CompletableFuture<T> run(String key, Pane loadingTarget, Callable<T> work, Consumer<T> onSuccess) {
+            return run(key, loadingTarget, work, onSuccess, e -> showError(loadingTarget, e));
+        }
+
+        /**
+         * Runs {@code work} on a background thread.
+         *
+         * @param key           identifies what the task loads; a newer task with the same key wins
+         * @param loadingTarget if not null, its children are replaced by a loading indicator until
+         *                      the result arrives
+         * @param work          blocking work, typically DAO calls; must not touch the scene graph
+         * @param onSuccess     applies the result on the FX thread, unless the task was superseded
+         * @param onError       handles a failure on the FX thread, unless the task was superseded
+         * @return the future of the background work, e.g. for timing; it completes even if the
+         *         result is dropped
+         */
+        public <T> CompletableFuture<T> run(String key, Pane loadingTarget, Callable<T> work,
+                Consumer<T> onSuccess, Consumer<Throwable> onError) {
+            return runAsync(key, loadingTarget, () -> AppExecutors.supply(work), onSuccess, onError);
+        }
+
+        /**
+         * Same as {@link #runAsync(String, Pane, Supplier, Consumer, Consumer)} with the default
+         * error handler of {@link #run(String, Pane, Callable, Consumer)}.
+         */
+        public <T> CompletableFuture<T> runAsync(String key, Pane loadingTarget, Supplier<CompletableFuture<T>> start,
+                Consumer<T> onSuccess) {
+            return runAsync(key, loadingTarget, start, onSuccess, e -> showError(loadingTarget, e));
+        }
+
+        /**
+         * Like {@link #run(String, Pane, Callable, Consumer, Consumer)}, for work that is already
+         * asynchronous, e.g. several {@code *DaoAsync} queries combined into one future.
+         *
+         * @param start called on the calling thread to start the work; must not block
+         */
+        public <T> CompletableFuture<T> runAsync(String key, Pane loadingTarget, Supplier<CompletableFuture<T>> start,
+                Consumer<T> onSuccess, Consumer<Throwable> onError) {
+            long generation = generations.computeIfAbsent(key, k -> new AtomicLong()).incrementAndGet();
+            if (loadingTarget != null) {
+                showLoading(loadingTarget);
+            }
+
+            CompletableFuture<T> future = start.get();
+            future.whenComplete((result, error) -> Platform.runLater(() -> {
+                if (!isCurrent(key, generation)) {
+                    return; // superseded or screen left: drop the stale result
+                }
+                if (error != null) {
+                    Throwable cause = error instanceof CompletionException && error.getCause() != null
+                            ? error.getCause() : error;
+                    onError.accept(cause);
+                } else {
+                    onSuccess.accept(result);
+                }
+            }));
+            return future;
+        }
+
+        /**
+         * Drops the results of every task started so far. Call when leaving the screen.
+         */
+        public void cancelAll() {
+            cancelled = true;
+        }
+
+        private boolean isCurrent(String key, long generation) {
+            return !cancelled && generations.get(key).get() == generation;
+        }
+
+        private static void showError(Pane loadingTarget, Throwable e) {
+            e.printStackTrace();
+            if (loadingTarget != null) {
+                Label error = new Label("Could not load data: " + e.getMessage());
+                error.setStyle("-fx-font-size: 14px; -fx-text-fill: #f87171; -fx-padding: 20;");
+                error.setWrapText(true);
+                loadingTarget.getChildren().setAll(error);
+            }
+        }
+
+        private static void showLoading(Pane target) {
+            ProgressIndicator spinner = new ProgressIndicator();
+            spinner.setPrefSize(22, 22);
+            Label text = new Label("Loading...");
+            text.setStyle("-fx-font-size: 14px; -fx-text-fill: #94a3b8;");
+            HBox box = new HBox(10, spinner, text);
+            box.setStyle("-fx-padding: 20;");
+            target.getChildren().setAll(box);
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.cmpe343.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * One phase of {@code OrderDao.createOrder}. Phases inside the transaction carry the
+ * attempt number, since a deadlock retry runs them again.
+ */
+@Name("com.cmpe343.CheckoutPhase")
+@Label("Checkout Phase")
+@Category({ "Greengrocer", "Checkout" })
+@Description("Time spent in one phase of writing an order")
+@StackTrace(false)
+public class CheckoutPhaseEvent extends Event {
+
+    public static final String COUPON_VALIDATION = "coupon validation";
+    public static final String ORDER_INSERT = "order insert";
+    public static final String ITEM_INSERT = "item insert";
+    public static final String STOCK_DECREMENT = "stock decrement";
+    public static final String COMMIT = "commit";
+
+    @Label("Phase")
+    public String phase;
+
+    @Label("Customer Id")
+    public int customerId;
+
+    @Label("Order Id")
+    @Description("0 until the order row exists")
+    public int orderId;
+
+    @Label("Attempt")
+    public int attempt;
+
+    @Label("Items")
+    public int items;
+
+    @Label("Failed")
+    public boolean failed;
+
+    // Kept outside the event fields until finish() knows the event will be committed
+    private transient String pendingPhase;
+    private transient int pendingCustomerId;
+    private transient int pendingAttempt;
+    private transient int pendingItems;
+    private transient boolean done;
+
+    /**
+     * Starts timing a phase.
+     */
+    public static CheckoutPhaseEvent start(String phase, int customerId, int attempt, int items) {
+        CheckoutPhaseEvent event = new CheckoutPhaseEvent();
+        event.begin();
+        event.pendingPhase = phase;
+        event.pendingCustomerId = customerId;
+        event.pendingAttempt = attempt;
+        event.pendingItems = items;
+        return event;
+    }
+
+    /**
+     * Ends the phase and commits the event if a recording wants it.
+     */
+    public void finish(int orderId) {
+        if (done) {
+            return;
+        }
+        done = true;
+        end();
+        if (shouldCommit()) {
+            this.phase = pendingPhase;
+            this.customerId = pendingCustomerId;
+            this.attempt = pendingAttempt;
+            this.items = pendingItems;
+            this.orderId = orderId;
+            commit();
+        }
+    }
+
+    /**
+     * Ends the phase as failed; does nothing if it already finished.
+     */
+    public void fail(int orderId) {
+        if (!done) {
+            failed = true;
+            finish(orderId);
+        }
+    }
+}
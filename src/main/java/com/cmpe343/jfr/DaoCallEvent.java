@@ -0,0 +1,35 @@
+package com.cmpe343.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * One SQL statement execution, emitted by the instrumented connections of
+ * {@link com.cmpe343.db.Db#getConnection()} and attributed to the DAO method that ran it.
+ * Setting {@code db.instrumentation=false} hands out plain connections, which turns these
+ * events off along with the SqlMetrics timings.
+ */
+@Name("com.cmpe343.DaoCall")
+@Label("DAO Statement")
+@Category({ "Greengrocer", "Database" })
+@Description("SQL statement executed by a DAO method")
+@StackTrace(false)
+public class DaoCallEvent extends Event {
+
+    @Label("Caller")
+    @Description("DAO method that ran the statement, e.g. OrderDao.createOrder")
+    public String caller;
+
+    @Label("SQL")
+    public String sql;
+
+    @Label("Batch")
+    public boolean batch;
+
+    @Label("Failed")
+    public boolean failed;
+}
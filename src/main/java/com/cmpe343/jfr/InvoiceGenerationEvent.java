@@ -0,0 +1,29 @@
+package com.cmpe343.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Rendering of one invoice PDF by {@code PdfService.generateInvoice}, including its coupon lookup.
+ */
+@Name("com.cmpe343.InvoiceGeneration")
+@Label("Invoice Generation")
+@Category({ "Greengrocer", "Invoice" })
+public class InvoiceGenerationEvent extends Event {
+
+    @Label("Order Id")
+    public int orderId;
+
+    @Label("Items")
+    public int items;
+
+    @Label("Size")
+    @DataAmount
+    public long bytes;
+
+    @Label("Failed")
+    public boolean failed;
+}
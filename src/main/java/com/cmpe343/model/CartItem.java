@@ -1,28 +1,37 @@
 package com.cmpe343.model;
 
+import java.util.List;
+
 public class CartItem {
     private final Product product;
     private double quantityKg;
-    // Historical pricing for order items (null for current cart items)
-    private Double historicalUnitPrice;
-    private Double historicalLineTotal;
+    // Historical pricing for order items, in kuruş (unset for current cart items)
+    private final boolean historical;
+    private final long historicalUnitKurus;
+    private final long historicalLineKurus;
 
     public CartItem(Product product, double quantityKg) {
         this.product = product;
         this.quantityKg = quantityKg;
-        this.historicalUnitPrice = null;
-        this.historicalLineTotal = null;
+        this.historical = false;
+        this.historicalUnitKurus = 0;
+        this.historicalLineKurus = 0;
     }
 
     /**
      * Constructor for order items with historical pricing.
      * This preserves the price that was applied at order creation time.
      */
-    public CartItem(Product product, double quantityKg, double historicalUnitPrice, double historicalLineTotal) {
+    public CartItem(Product product, double quantityKg, Money historicalUnitPrice, Money historicalLineTotal) {
         this.product = product;
         this.quantityKg = quantityKg;
-        this.historicalUnitPrice = historicalUnitPrice;
-        this.historicalLineTotal = historicalLineTotal;
+        this.historical = true;
+        this.historicalUnitKurus = historicalUnitPrice.kurus();
+        this.historicalLineKurus = historicalLineTotal.kurus();
+    }
+
+    public CartItem(Product product, double quantityKg, double historicalUnitPrice, double historicalLineTotal) {
+        this(product, quantityKg, Money.of(historicalUnitPrice), Money.of(historicalLineTotal));
     }
 
     public Product getProduct() { return product; }
@@ -30,18 +39,41 @@ public class CartItem {
     public void setQuantityKg(double quantityKg) { this.quantityKg = quantityKg; }
 
     /**
-     * Returns the unit price. For historical order items, returns the price at order time.
+     * Returns the unit price in kuruş. For historical order items, returns the price at order time.
      * For current cart items, returns the current product price.
      */
-    public double getUnitPrice() {
-        return historicalUnitPrice != null ? historicalUnitPrice : product.getPrice();
+    public long getUnitPriceKurus() {
+        return historical ? historicalUnitKurus : product.getPriceKurus();
     }
 
     /**
-     * Returns the line total. For historical order items, returns the stored line total.
-     * For current cart items, calculates from current product price.
+     * Returns the line total in kuruş. For historical order items, returns the stored line total.
+     * For current cart items, calculates from current product price, rounded half-up to the kuruş
+     * the same way order_items.line_total is.
      */
+    public long getLineTotalKurus() {
+        return historical ? historicalLineKurus : Money.lineTotalKurus(product.getPriceKurus(), quantityKg);
+    }
+
+    public Money getUnitPriceMoney() { return Money.ofKurus(getUnitPriceKurus()); }
+    public Money getLineTotalMoney() { return Money.ofKurus(getLineTotalKurus()); }
+
+    public double getUnitPrice() {
+        return getUnitPriceKurus() / 100.0;
+    }
+
     public double getLineTotal() {
-        return historicalLineTotal != null ? historicalLineTotal : (product.getPrice() * quantityKg);
+        return getLineTotalKurus() / 100.0;
+    }
+
+    /**
+     * @return the sum of the line totals in kuruş, without rounding anything again
+     */
+    public static long subtotalKurus(List<CartItem> items) {
+        long total = 0;
+        for (CartItem item : items) {
+            total = Math.addExact(total, item.getLineTotalKurus());
+        }
+        return total;
     }
 }
@@ -1,5 +1,6 @@
 package com.cmpe343.model;
 
+import java.math.RoundingMode;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 
@@ -13,6 +14,9 @@ public class Coupon {
     private CouponKind kind;
     private double value;
     private double minCart;
+    // value and minCart in hundredths: kuruş for amounts, basis points for percentages
+    private long valueHundredths;
+    private long minCartKurus;
     private boolean isActive;
     private LocalDateTime expiresAt;
 
@@ -22,6 +26,8 @@ public class Coupon {
         this.kind = kind;
         this.value = value;
         this.minCart = minCart;
+        this.valueHundredths = Money.toKurus(value);
+        this.minCartKurus = Money.toKurus(minCart);
         this.isActive = isActive;
         this.expiresAt = expiresAt;
     }
@@ -57,21 +63,33 @@ public class Coupon {
     /**
      * Calculates the discount amount based on the coupon type and cart total.
      * For AMOUNT coupons: returns the fixed value
-     * For PERCENT coupons: returns the percentage of cartTotal
+     * For PERCENT coupons: returns the percentage of cartTotal, rounded half-up to the kuruş
      * 
      * @param cartTotal The cart total before discount
      * @return The discount amount to apply
      */
-    public double calculateDiscount(double cartTotal) {
-        if (cartTotal < minCart) {
-            return 0.0; // Cart doesn't meet minimum requirement
+    public Money calculateDiscount(Money cartTotal) {
+        if (cartTotal.kurus() < minCartKurus) {
+            return Money.ZERO; // Cart doesn't meet minimum requirement
         }
-        
+        return Money.ofKurus(discountKurus(kind, valueHundredths, cartTotal.kurus()));
+    }
+
+    public double calculateDiscount(double cartTotal) {
+        return calculateDiscount(Money.of(cartTotal)).toDouble();
+    }
+
+    /**
+     * The discount rule shared with OrderDao, which reads coupons straight from the database.
+     * Does not check the minimum cart amount.
+     *
+     * @param valueHundredths the coupon value in kuruş (AMOUNT) or basis points (PERCENT)
+     */
+    public static long discountKurus(CouponKind kind, long valueHundredths, long cartTotalKurus) {
         if (kind == CouponKind.AMOUNT) {
-            return Math.min(value, cartTotal); // Don't discount more than cart total
-        } else { // PERCENT
-            return cartTotal * (value / 100.0);
+            return Math.min(valueHundredths, cartTotalKurus); // Don't discount more than cart total
         }
+        return Money.percentOf(cartTotalKurus, valueHundredths, RoundingMode.HALF_UP);
     }
     
     /**
@@ -0,0 +1,24 @@
+package com.cmpe343.model;
+
+import java.time.LocalDate;
+
+/**
+ * Revenue of delivered orders placed on a single day.
+ */
+public class DailyRevenue {
+    private final LocalDate date;
+    private final double revenue;
+
+    public DailyRevenue(LocalDate date, double revenue) {
+        this.date = date;
+        this.revenue = revenue;
+    }
+
+    public LocalDate getDate() {
+        return date;
+    }
+
+    public double getRevenue() {
+        return revenue;
+    }
+}
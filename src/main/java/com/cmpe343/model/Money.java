@@ -0,0 +1,253 @@
+package com.cmpe343.model;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * An amount of Turkish lira, held exactly as a whole number of kuruş.
+ * <p>
+ * Every price column is {@code DECIMAL(10,2)}, so amounts are read as doubles or
+ * BigDecimals at the edges, converted once with {@link #toKurus(double)}, and from then on
+ * added, multiplied and compared as longs. Only multiplying by a quantity or a rate can
+ * produce fractions of a kuruş; those operations take a {@link RoundingMode} and round
+ * exactly once, on the integer result.
+ * <p>
+ * The static methods work on raw kuruş and allocate nothing, for loops over cart lines;
+ * the instance methods wrap them for code that prefers a value type. Arithmetic that
+ * overflows a long throws {@link ArithmeticException} rather than wrapping.
+ */
+public final class Money implements Comparable<Money> {
+
+    /** VAT charged on every order, in percent. */
+    public static final int VAT_PERCENT = 20;
+
+    public static final Money ZERO = new Money(0);
+
+    private final long kurus;
+
+    private Money(long kurus) {
+        this.kurus = kurus;
+    }
+
+    public static Money ofKurus(long kurus) {
+        return kurus == 0 ? ZERO : new Money(kurus);
+    }
+
+    /**
+     * @param lira an amount such as {@code 12.5}, rounded half-up to the kuruş
+     */
+    public static Money of(double lira) {
+        return ofKurus(toKurus(lira));
+    }
+
+    public static Money of(BigDecimal lira) {
+        return of(lira, RoundingMode.HALF_UP);
+    }
+
+    public static Money of(BigDecimal lira, RoundingMode mode) {
+        return ofKurus(lira.movePointRight(2).setScale(0, mode).longValueExact());
+    }
+
+    // ---- Raw kuruş arithmetic ----
+
+    /**
+     * Converts lira to kuruş, rounding half-up. Exact for any value with at most two
+     * decimals, which is every value read from a {@code DECIMAL(10,2)} column.
+     */
+    public static long toKurus(double lira) {
+        if (Double.isNaN(lira) || Double.isInfinite(lira)) {
+            throw new ArithmeticException("Not an amount: " + lira);
+        }
+        double scaled = lira * 100.0;
+        if (Math.abs(scaled) >= 0x1p62) {
+            throw new ArithmeticException("Amount out of range: " + lira);
+        }
+        // Math.round rounds -0.5 up to 0; keep half-up symmetric for negative amounts
+        return scaled < 0 ? -Math.round(-scaled) : Math.round(scaled);
+    }
+
+    /**
+     * @return the quantity in whole grams; quantities are stored with two decimals of a kg
+     */
+    public static long toGrams(double kg) {
+        return Math.round(kg * 1000.0);
+    }
+
+    /**
+     * Divides and rounds the quotient with the given mode.
+     *
+     * @throws ArithmeticException if {@code mode} is UNNECESSARY and the division is inexact
+     */
+    public static long divide(long dividend, long divisor, RoundingMode mode) {
+        if (divisor == 0) {
+            throw new ArithmeticException("Division by zero");
+        }
+        long quotient = dividend / divisor;
+        long remainder = dividend % divisor;
+        if (remainder == 0) {
+            return quotient;
+        }
+        int sign = (dividend < 0) == (divisor < 0) ? 1 : -1;
+        // Compare the remainder with half the divisor without overflowing
+        long absRemainder = Math.abs(remainder);
+        long rest = Math.abs(divisor) - absRemainder;
+        int half = Long.compare(absRemainder, rest);
+        boolean awayFromZero = switch (mode) {
+            case UP -> true;
+            case DOWN -> false;
+            case CEILING -> sign > 0;
+            case FLOOR -> sign < 0;
+            case HALF_UP -> half >= 0;
+            case HALF_DOWN -> half > 0;
+            case HALF_EVEN -> half > 0 || (half == 0 && (quotient & 1) != 0);
+            case UNNECESSARY -> throw new ArithmeticException("Rounding necessary: " + dividend + "/" + divisor);
+        };
+        return awayFromZero ? quotient + sign : quotient;
+    }
+
+    /**
+     * @return {@code unitKurus} per kg times {@code grams}, rounded half-up to the kuruş
+     */
+    public static long lineTotalKurus(long unitKurus, long grams) {
+        return divide(Math.multiplyExact(unitKurus, grams), 1000, RoundingMode.HALF_UP);
+    }
+
+    public static long lineTotalKurus(long unitKurus, double kg) {
+        return lineTotalKurus(unitKurus, toGrams(kg));
+    }
+
+    /**
+     * @param basisPoints the rate in hundredths of a percent, e.g. 1250 for 12.5%
+     */
+    public static long percentOf(long kurus, long basisPoints, RoundingMode mode) {
+        return divide(Math.multiplyExact(kurus, basisPoints), 10_000, mode);
+    }
+
+    /**
+     * @return the VAT on a net amount at {@code ratePercent}, rounded half-up
+     */
+    public static long vatKurus(long netKurus, int ratePercent) {
+        return divide(Math.multiplyExact(netKurus, ratePercent), 100, RoundingMode.HALF_UP);
+    }
+
+    public static BigDecimal toBigDecimal(long kurus) {
+        return BigDecimal.valueOf(kurus, 2);
+    }
+
+    /**
+     * @return e.g. {@code "1234.50 ₺"}, whatever the default locale
+     */
+    public static String format(long kurus) {
+        long abs = Math.abs(kurus);
+        StringBuilder sb = new StringBuilder(16);
+        if (kurus < 0) {
+            sb.append('-');
+        }
+        sb.append(abs / 100).append('.');
+        long cents = abs % 100;
+        if (cents < 10) {
+            sb.append('0');
+        }
+        return sb.append(cents).append(" ₺").toString();
+    }
+
+    // ---- Value type ----
+
+    public long kurus() {
+        return kurus;
+    }
+
+    public Money plus(Money other) {
+        return ofKurus(Math.addExact(kurus, other.kurus));
+    }
+
+    public Money minus(Money other) {
+        return ofKurus(Math.subtractExact(kurus, other.kurus));
+    }
+
+    public Money times(long factor) {
+        return ofKurus(Math.multiplyExact(kurus, factor));
+    }
+
+    /**
+     * Treats this amount as a per-kg price.
+     *
+     * @return the price of {@code kg}, rounded half-up to the kuruş
+     */
+    public Money timesKg(double kg) {
+        return ofKurus(lineTotalKurus(kurus, kg));
+    }
+
+    /**
+     * @param percent e.g. {@code 12.5}; percentages are stored with two decimals
+     */
+    public Money percent(double percent, RoundingMode mode) {
+        return ofKurus(percentOf(kurus, Math.round(percent * 100.0), mode));
+    }
+
+    /**
+     * @return the VAT on this net amount at {@link #VAT_PERCENT}
+     */
+    public Money vat() {
+        return vat(VAT_PERCENT);
+    }
+
+    public Money vat(int ratePercent) {
+        return ofKurus(vatKurus(kurus, ratePercent));
+    }
+
+    public Money min(Money other) {
+        return kurus <= other.kurus ? this : other;
+    }
+
+    public Money max(Money other) {
+        return kurus >= other.kurus ? this : other;
+    }
+
+    public boolean isZero() {
+        return kurus == 0;
+    }
+
+    public int signum() {
+        return Long.signum(kurus);
+    }
+
+    public boolean isLessThan(Money other) {
+        return kurus < other.kurus;
+    }
+
+    public BigDecimal toBigDecimal() {
+        return toBigDecimal(kurus);
+    }
+
+    /**
+     * @return the amount in lira; exact to the kuruş when printed with two decimals
+     */
+    public double toDouble() {
+        return kurus / 100.0;
+    }
+
+    public String format() {
+        return format(kurus);
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        return Long.compare(kurus, other.kurus);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof Money m && m.kurus == kurus;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(kurus);
+    }
+
+    @Override
+    public String toString() {
+        return format(kurus);
+    }
+}
@@ -16,14 +16,22 @@ public class Order {
     private LocalDateTime orderTime;
     private LocalDateTime requestedDeliveryTime;
     private LocalDateTime deliveredTime;
-    private double totalBeforeTax;
-    private double vat;
-    private double totalAfterTax;
+    // Amounts in kuruş
+    private long totalBeforeTax;
+    private long vat;
+    private long totalAfterTax;
     private List<CartItem> items;
 
     public Order(int id, int customerId, Integer carrierId, OrderStatus status,
             LocalDateTime orderTime, LocalDateTime requestedDeliveryTime, LocalDateTime deliveredTime,
             double totalBeforeTax, double vat, double totalAfterTax) {
+        this(id, customerId, carrierId, status, orderTime, requestedDeliveryTime, deliveredTime,
+                Money.of(totalBeforeTax), Money.of(vat), Money.of(totalAfterTax));
+    }
+
+    public Order(int id, int customerId, Integer carrierId, OrderStatus status,
+            LocalDateTime orderTime, LocalDateTime requestedDeliveryTime, LocalDateTime deliveredTime,
+            Money totalBeforeTax, Money vat, Money totalAfterTax) {
         this.id = id;
         this.customerId = customerId;
         this.carrierId = carrierId;
@@ -31,9 +39,9 @@ public class Order {
         this.orderTime = orderTime;
         this.requestedDeliveryTime = requestedDeliveryTime;
         this.deliveredTime = deliveredTime;
-        this.totalBeforeTax = totalBeforeTax;
-        this.vat = vat;
-        this.totalAfterTax = totalAfterTax;
+        this.totalBeforeTax = totalBeforeTax.kurus();
+        this.vat = vat.kurus();
+        this.totalAfterTax = totalAfterTax.kurus();
     }
 
     public int getId() {
@@ -65,15 +73,27 @@ public class Order {
     }
 
     public double getTotalBeforeTax() {
-        return totalBeforeTax;
+        return totalBeforeTax / 100.0;
     }
 
     public double getVat() {
-        return vat;
+        return vat / 100.0;
     }
 
     public double getTotalAfterTax() {
-        return totalAfterTax;
+        return totalAfterTax / 100.0;
+    }
+
+    public Money getTotalBeforeTaxMoney() {
+        return Money.ofKurus(totalBeforeTax);
+    }
+
+    public Money getVatMoney() {
+        return Money.ofKurus(vat);
+    }
+
+    public Money getTotalAfterTaxMoney() {
+        return Money.ofKurus(totalAfterTax);
     }
 
     public List<CartItem> getItems() {
@@ -9,7 +9,7 @@ public class Product {
     private int id;
     private String name;
     private ProductType type;
-    private double price;
+    private long priceKurus;
     private double stockKg;
     private double thresholdKg;
     private boolean active = true; // Added for OwnerController compatibility
@@ -19,7 +19,7 @@ public class Product {
         this.id = id;
         this.name = name;
         this.type = type;
-        this.price = price;
+        this.priceKurus = Money.toKurus(price);
         this.stockKg = stockKg;
         this.thresholdKg = thresholdKg;
     }
@@ -90,7 +90,14 @@ public class Product {
     }
 
     public double getPrice() {
-        return price;
+        return priceKurus / 100.0;
+    }
+
+    /**
+     * @return the price per kg in kuruş
+     */
+    public long getPriceKurus() {
+        return priceKurus;
     }
 
     public double getStockKg() {
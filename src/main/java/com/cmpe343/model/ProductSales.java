@@ -0,0 +1,34 @@
+package com.cmpe343.model;
+
+/**
+ * Aggregated sales of a single product over delivered orders.
+ */
+public class ProductSales {
+    private final int productId;
+    private final String productName;
+    private final double revenue;
+    private final double quantityKg;
+
+    public ProductSales(int productId, String productName, double revenue, double quantityKg) {
+        this.productId = productId;
+        this.productName = productName;
+        this.revenue = revenue;
+        this.quantityKg = quantityKg;
+    }
+
+    public int getProductId() {
+        return productId;
+    }
+
+    public String getProductName() {
+        return productName;
+    }
+
+    public double getRevenue() {
+        return revenue;
+    }
+
+    public double getQuantityKg() {
+        return quantityKg;
+    }
+}
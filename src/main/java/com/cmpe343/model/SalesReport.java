@@ -0,0 +1,82 @@
+package com.cmpe343.model;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Result of the owner's sales report: summary figures plus the chart series.
+ */
+public class SalesReport {
+    private final long totalOrders;
+    private final long deliveredOrders;
+    private final double totalRevenue;
+    private final double totalItemsSoldKg;
+    private final LocalDate firstOrderDate;
+    private final LocalDate lastOrderDate;
+    private final List<ProductSales> productSales;
+    private final List<DailyRevenue> dailyRevenue;
+
+    public SalesReport(long totalOrders, long deliveredOrders, double totalRevenue, double totalItemsSoldKg,
+            LocalDate firstOrderDate, LocalDate lastOrderDate,
+            List<ProductSales> productSales, List<DailyRevenue> dailyRevenue) {
+        this.totalOrders = totalOrders;
+        this.deliveredOrders = deliveredOrders;
+        this.totalRevenue = totalRevenue;
+        this.totalItemsSoldKg = totalItemsSoldKg;
+        this.firstOrderDate = firstOrderDate;
+        this.lastOrderDate = lastOrderDate;
+        this.productSales = productSales;
+        this.dailyRevenue = dailyRevenue;
+    }
+
+    /**
+     * @return number of orders in any status
+     */
+    public long getTotalOrders() {
+        return totalOrders;
+    }
+
+    public long getDeliveredOrders() {
+        return deliveredOrders;
+    }
+
+    /**
+     * @return sum of total_after_tax over delivered orders
+     */
+    public double getTotalRevenue() {
+        return totalRevenue;
+    }
+
+    public double getTotalItemsSoldKg() {
+        return totalItemsSoldKg;
+    }
+
+    public double getAverageOrderValue() {
+        return deliveredOrders > 0 ? totalRevenue / deliveredOrders : 0.0;
+    }
+
+    /**
+     * @return order date of the earliest delivered order, or null if there is none
+     */
+    public LocalDate getFirstOrderDate() {
+        return firstOrderDate;
+    }
+
+    public LocalDate getLastOrderDate() {
+        return lastOrderDate;
+    }
+
+    /**
+     * @return per-product revenue and quantity, highest revenue first
+     */
+    public List<ProductSales> getProductSales() {
+        return productSales;
+    }
+
+    /**
+     * @return one entry per day of the chart window, oldest first, zero for days without sales
+     */
+    public List<DailyRevenue> getDailyRevenue() {
+        return dailyRevenue;
+    }
+}
@@ -1,8 +1,10 @@
 package com.cmpe343.service;
 
 import com.cmpe343.dao.OrderDao;
+import com.cmpe343.jfr.InvoiceGenerationEvent;
 import com.cmpe343.model.Order;
 import com.cmpe343.model.CartItem;
+import com.cmpe343.model.Money;
 import com.itextpdf.kernel.pdf.PdfDocument;
 import com.itextpdf.kernel.pdf.PdfWriter;
 import com.itextpdf.layout.Document;
@@ -18,6 +20,25 @@ import java.time.format.DateTimeFormatter;
 public class PdfService {
     
     public File generateInvoice(Order order) throws IOException {
+        InvoiceGenerationEvent event = new InvoiceGenerationEvent();
+        event.begin();
+        File invoice = null;
+        try {
+            invoice = writeInvoice(order);
+            return invoice;
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.orderId = order.getId();
+                event.items = order.getItems() == null ? 0 : order.getItems().size();
+                event.bytes = invoice != null ? invoice.length() : 0;
+                event.failed = invoice == null;
+                event.commit();
+            }
+        }
+    }
+
+    private File writeInvoice(Order order) throws IOException {
         File tempFile = File.createTempFile("invoice_" + order.getId() + "_", ".pdf");
         
         try (PdfWriter writer = new PdfWriter(tempFile);
@@ -55,8 +76,8 @@ public class PdfService {
                 for (CartItem item : order.getItems()) {
                     table.addCell(item.getProduct().getName());
                     table.addCell(String.format("%.2f", item.getQuantityKg()));
-                    table.addCell(String.format("%.2f ₺", item.getUnitPrice()));
-                    table.addCell(String.format("%.2f ₺", item.getLineTotal()));
+                    table.addCell(item.getUnitPriceMoney().format());
+                    table.addCell(item.getLineTotalMoney().format());
                 }
                 
                 document.add(table);
@@ -66,23 +87,23 @@ public class PdfService {
             
             // Totals
             OrderDao orderDao = new OrderDao();
-            double couponDiscount = orderDao.getCouponDiscountForOrder(order.getId());
+            Money couponDiscount = orderDao.getCouponDiscountForOrder(order.getId());
             
             Paragraph totals = new Paragraph();
             
             // Calculate original subtotal if coupon was applied
-            double originalSubtotal = order.getTotalBeforeTax();
-            if (couponDiscount > 0) {
-                originalSubtotal = order.getTotalBeforeTax() + couponDiscount;
-                totals.add("Subtotal (before discount): " + String.format("%.2f ₺", originalSubtotal) + "\n");
-                totals.add("Coupon Discount: -" + String.format("%.2f ₺", couponDiscount) + "\n");
-                totals.add("Subtotal (after discount): " + String.format("%.2f ₺", order.getTotalBeforeTax()) + "\n");
+            Money subtotal = order.getTotalBeforeTaxMoney();
+            if (couponDiscount.signum() > 0) {
+                Money originalSubtotal = subtotal.plus(couponDiscount);
+                totals.add("Subtotal (before discount): " + originalSubtotal.format() + "\n");
+                totals.add("Coupon Discount: -" + couponDiscount.format() + "\n");
+                totals.add("Subtotal (after discount): " + subtotal.format() + "\n");
             } else {
-                totals.add("Subtotal: " + String.format("%.2f ₺", order.getTotalBeforeTax()) + "\n");
+                totals.add("Subtotal: " + subtotal.format() + "\n");
             }
             
-            totals.add("VAT (20%): " + String.format("%.2f ₺", order.getVat()) + "\n");
-            totals.add("Total: " + String.format("%.2f ₺", order.getTotalAfterTax()));
+            totals.add("VAT (" + Money.VAT_PERCENT + "%): " + order.getVatMoney().format() + "\n");
+            totals.add("Total: " + order.getTotalAfterTaxMoney().format());
             totals.setBold();
             document.add(totals);
             
@@ -0,0 +1,52 @@
+package com.cmpe343.service;
+
+import com.cmpe343.dao.ReportDao;
+import com.cmpe343.model.DailyRevenue;
+import com.cmpe343.model.ProductSales;
+import com.cmpe343.model.SalesReport;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Builds the owner's sales report from the aggregates in {@link ReportDao}.
+ */
+public class ReportService {
+
+    /** Length of the daily revenue chart window, ending at the last delivered order. */
+    public static final int DAILY_WINDOW_DAYS = 30;
+
+    private final ReportDao reportDao = new ReportDao();
+
+    public SalesReport generateSalesReport() {
+        ReportDao.Summary summary = reportDao.getSummary();
+        List<ProductSales> productSales = reportDao.getProductSales();
+
+        double totalItemsSoldKg = 0.0;
+        for (ProductSales ps : productSales) {
+            totalItemsSoldKg += ps.getQuantityKg();
+        }
+
+        LocalDate endDate = summary.lastOrderDate != null ? summary.lastOrderDate : LocalDate.now();
+        LocalDate startDate = endDate.minusDays(DAILY_WINDOW_DAYS - 1);
+        List<DailyRevenue> daily = fillMissingDays(reportDao.getDailyRevenue(startDate, endDate), startDate, endDate);
+
+        return new SalesReport(summary.totalOrders, summary.deliveredOrders, summary.totalRevenue, totalItemsSoldKg,
+                summary.firstOrderDate, summary.lastOrderDate, productSales, daily);
+    }
+
+    private static List<DailyRevenue> fillMissingDays(List<DailyRevenue> sparse, LocalDate start, LocalDate end) {
+        Map<LocalDate, Double> byDate = new HashMap<>();
+        for (DailyRevenue d : sparse) {
+            byDate.put(d.getDate(), d.getRevenue());
+        }
+        List<DailyRevenue> dense = new ArrayList<>();
+        for (LocalDate day = start; !day.isAfter(end); day = day.plusDays(1)) {
+            dense.add(new DailyRevenue(day, byDate.getOrDefault(day, 0.0)));
+        }
+        return dense;
+    }
+}
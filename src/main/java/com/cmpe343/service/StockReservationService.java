@@ -0,0 +1,335 @@
+package com.cmpe343.service;
+
+import com.cmpe343.dao.ProductDao;
+import com.cmpe343.db.Db;
+import com.cmpe343.model.CartItem;
+import com.cmpe343.model.Money;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.IntFunction;
+import java.util.function.LongSupplier;
+
+/**
+ * Holds soft stock reservations in memory so concurrent checkouts of the same product are
+ * decided here, under a short in-process lock, instead of queueing on the product's InnoDB
+ * row lock for the length of an order transaction.
+ * <p>
+ * A checkout first calls {@link #reserve(List)}. It fails fast with an
+ * {@link IllegalStateException} if the stock minus everyone else's holds cannot cover the cart,
+ * and otherwise holds the quantities for {@code stock.reservation.ttlSeconds} (default 120).
+ * The order is then written, with the stock decrement as its last, product-ordered batch,
+ * and the checkout calls {@link #confirm(Reservation)} after the commit or
+ * {@link #release(Reservation)} if the order failed. Holds that are never confirmed or
+ * released expire, so a crashed checkout cannot pin stock.
+ * <p>
+ * Quantities are whole grams. Products map onto a fixed set of lock stripes, and a
+ * reservation locks its stripes in ascending order, so checkouts cannot deadlock.
+ * <p>
+ * Every reservation costs one extra round trip: a primary-key SELECT of the products'
+ * stock, run outside the locks, so restocks and other writers are seen. The reload replaces
+ * the in-memory stock, and only holds whose order has not been confirmed are subtracted
+ * from it; a confirmed order's decrement is already in the database. A reload that raced
+ * with a confirm or an {@link #invalidate(int)} is discarded, and the in-memory stock,
+ * which confirms keep up to date, is used instead. An order that committed but is not yet
+ * confirmed is briefly counted twice, which can only reject a checkout, never oversell.
+ * The database's {@code stock_kg >= ?} guard stays in place as the final check for other
+ * processes.
+ */
+public class StockReservationService {
+
+    /**
+     * Where current stock comes from; the database in the application, a fake in tests.
+     */
+    public interface StockSource {
+        /**
+         * @return stock in grams per product; products that do not exist are missing
+         */
+        Map<Integer, Long> loadStockGrams(Collection<Integer> productIds);
+    }
+
+    /**
+     * Stock held for one checkout until it is confirmed, released or expires.
+     */
+    public static class Reservation {
+        private final long id;
+        private final Map<Integer, Long> gramsByProduct;
+        private final long expiresAtNanos;
+
+        private Reservation(long id, Map<Integer, Long> gramsByProduct, long expiresAtNanos) {
+            this.id = id;
+            this.gramsByProduct = Collections.unmodifiableMap(gramsByProduct);
+            this.expiresAtNanos = expiresAtNanos;
+        }
+
+        public long getId() {
+            return id;
+        }
+
+        /**
+         * @return held grams per product id, in product id order
+         */
+        public Map<Integer, Long> getGramsByProduct() {
+            return gramsByProduct;
+        }
+    }
+
+    private static final int STRIPES = 64;
+    private static final long DEFAULT_TTL_SECONDS = 120;
+
+    private static volatile StockReservationService instance;
+
+    private final StockSource source;
+    private final long ttlNanos;
+    private final LongSupplier clock;
+    private final ReentrantLock[] stripes = new ReentrantLock[STRIPES];
+    private final Map<Integer, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicLong nextId = new AtomicLong();
+
+    /** Stock state of one product. Guarded by the product's stripe lock. */
+    private static class Entry {
+        long stockGrams;
+        long reservedGrams;
+        // Bumped by every confirm and invalidate, so a reload read before it is not applied after it
+        long version;
+        final Map<Long, Hold> holds = new HashMap<>();
+    }
+
+    private static class Hold {
+        final long grams;
+        final long expiresAtNanos;
+
+        Hold(long grams, long expiresAtNanos) {
+            this.grams = grams;
+            this.expiresAtNanos = expiresAtNanos;
+        }
+    }
+
+    StockReservationService(StockSource source, long ttl, TimeUnit unit, LongSupplier clock) {
+        this.source = source;
+        this.ttlNanos = unit.toNanos(ttl);
+        this.clock = clock;
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    public static StockReservationService getInstance() {
+        StockReservationService s = instance;
+        if (s != null) return s;
+        synchronized (StockReservationService.class) {
+            if (instance == null) {
+                long ttlSeconds = DEFAULT_TTL_SECONDS;
+                try {
+                    ttlSeconds = Long.parseLong(Db.property("stock.reservation.ttlSeconds", String.valueOf(DEFAULT_TTL_SECONDS)));
+                } catch (NumberFormatException e) {
+                    System.err.println("Invalid value for stock.reservation.ttlSeconds, using " + DEFAULT_TTL_SECONDS);
+                }
+                ProductDao productDao = new ProductDao();
+                StockSource fromDb = ids -> {
+                    Map<Integer, Long> grams = new HashMap<>();
+                    productDao.getStockKg(ids).forEach((id, kg) -> grams.put(id, toGrams(kg)));
+                    return grams;
+                };
+                instance = new StockReservationService(fromDb, ttlSeconds, TimeUnit.SECONDS, System::nanoTime);
+            }
+            return instance;
+        }
+    }
+
+    public static long toGrams(double kg) {
+        return Money.toGrams(kg);
+    }
+
+    /**
+     * Reserves every line of the cart, or nothing.
+     *
+     * @throws IllegalStateException if a product does not have enough unreserved stock
+     */
+    public Reservation reserve(List<CartItem> items) {
+        Map<Integer, Long> grams = new TreeMap<>();
+        Map<Integer, String> names = new HashMap<>();
+        for (CartItem item : items) {
+            int productId = item.getProduct().getId();
+            grams.merge(productId, toGrams(item.getQuantityKg()), Long::sum);
+            names.put(productId, item.getProduct().getName());
+        }
+        return reserve(grams, names::get);
+    }
+
+    /**
+     * Reserves the given grams per product, or nothing.
+     *
+     * @param names product names for the error message
+     * @throws IllegalStateException if a product does not have enough unreserved stock
+     */
+    public Reservation reserve(Map<Integer, Long> gramsByProduct, IntFunction<String> names) {
+        Map<Integer, Long> wanted = new TreeMap<>();
+        gramsByProduct.forEach((id, g) -> {
+            if (g <= 0) {
+                throw new IllegalArgumentException("Quantity must be positive for product " + id);
+            }
+            wanted.put(id, g);
+        });
+        if (wanted.isEmpty()) {
+            throw new IllegalArgumentException("Nothing to reserve.");
+        }
+
+        // Note the versions, then reload stock without holding any lock
+        Map<Integer, Long> seenVersions = new HashMap<>();
+        List<ReentrantLock> locks = lock(wanted.keySet());
+        try {
+            for (Integer id : wanted.keySet()) {
+                seenVersions.put(id, entry(id).version);
+            }
+        } finally {
+            unlock(locks);
+        }
+        Map<Integer, Long> loaded = source.loadStockGrams(wanted.keySet());
+
+        long now = clock.getAsLong();
+        locks = lock(wanted.keySet());
+        try {
+            for (Map.Entry<Integer, Long> w : wanted.entrySet()) {
+                Entry e = entry(w.getKey());
+                purgeExpired(e, now);
+                // reservedGrams only counts unconfirmed holds, so the reload can be applied as is
+                if (e.version == seenVersions.get(w.getKey())) {
+                    e.stockGrams = loaded.getOrDefault(w.getKey(), 0L);
+                }
+                if (e.stockGrams - e.reservedGrams < w.getValue()) {
+                    String name = names.apply(w.getKey());
+                    throw new IllegalStateException("Insufficient stock: " + (name != null ? name : "product " + w.getKey()));
+                }
+            }
+            Reservation r = new Reservation(nextId.incrementAndGet(), wanted, now + ttlNanos);
+            for (Map.Entry<Integer, Long> w : wanted.entrySet()) {
+                Entry e = entry(w.getKey());
+                e.holds.put(r.id, new Hold(w.getValue(), r.expiresAtNanos));
+                e.reservedGrams += w.getValue();
+            }
+            return r;
+        } finally {
+            unlock(locks);
+        }
+    }
+
+    /**
+     * Marks the order as committed: its holds stop counting against the reloaded stock and
+     * turn into a decrement of the in-memory stock. Call as soon as the order's transaction
+     * committed. A hold that already expired is not decremented again, since the stock may
+     * have been reloaded with the order's decrement in it since; the next reload corrects it.
+     */
+    public void confirm(Reservation r) {
+        List<ReentrantLock> locks = lock(r.gramsByProduct.keySet());
+        try {
+            for (Integer id : r.gramsByProduct.keySet()) {
+                Entry e = entry(id);
+                Hold h = e.holds.remove(r.id);
+                if (h != null) {
+                    e.reservedGrams -= h.grams;
+                    e.stockGrams = Math.max(0, e.stockGrams - h.grams);
+                    e.version++;
+                }
+            }
+        } finally {
+            unlock(locks);
+        }
+    }
+
+    /**
+     * Gives the held stock back, e.g. when the order could not be written. Safe to call twice.
+     */
+    public void release(Reservation r) {
+        List<ReentrantLock> locks = lock(r.gramsByProduct.keySet());
+        try {
+            for (Integer id : r.gramsByProduct.keySet()) {
+                dropHold(entry(id), r.id);
+            }
+        } finally {
+            unlock(locks);
+        }
+    }
+
+    /**
+     * Drops any reload of the product's stock that is already in flight, e.g. after an owner
+     * changed its stock, so the next reservation starts from the database value.
+     */
+    public void invalidate(int productId) {
+        List<ReentrantLock> locks = lock(List.of(productId));
+        try {
+            entry(productId).version++;
+        } finally {
+            unlock(locks);
+        }
+    }
+
+    /**
+     * @return grams currently held for the product by unexpired reservations
+     */
+    public long heldGrams(int productId) {
+        List<ReentrantLock> locks = lock(List.of(productId));
+        try {
+            Entry e = entry(productId);
+            purgeExpired(e, clock.getAsLong());
+            return e.reservedGrams;
+        } finally {
+            unlock(locks);
+        }
+    }
+
+    private Entry entry(int productId) {
+        return entries.computeIfAbsent(productId, id -> new Entry());
+    }
+
+    private void dropHold(Entry e, long reservationId) {
+        Hold h = e.holds.remove(reservationId);
+        if (h != null) {
+            e.reservedGrams -= h.grams;
+        }
+    }
+
+    private void purgeExpired(Entry e, long now) {
+        Iterator<Hold> it = e.holds.values().iterator();
+        while (it.hasNext()) {
+            Hold h = it.next();
+            if (h.expiresAtNanos - now <= 0) {
+                e.reservedGrams -= h.grams;
+                it.remove();
+            }
+        }
+    }
+
+    /**
+     * Locks the stripes of the given products in ascending stripe order.
+     */
+    private List<ReentrantLock> lock(Collection<Integer> productIds) {
+        TreeSet<Integer> indexes = new TreeSet<>();
+        for (Integer id : productIds) {
+            indexes.add(Math.floorMod(id, STRIPES));
+        }
+        List<ReentrantLock> locked = new ArrayList<>(indexes.size());
+        for (int i : indexes) {
+            stripes[i].lock();
+            locked.add(stripes[i]);
+        }
+        return locked;
+    }
+
+    private static void unlock(List<ReentrantLock> locks) {
+        for (int i = locks.size() - 1; i >= 0; i--) {
+            locks.get(i).unlock();
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.cmpe343.util;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Shared executors for work that must not run on the JavaFX Application Thread.
+ * <p>
+ * Background work is mostly JDBC calls that block on the network, so it runs on
+ * virtual threads: one per task, no pool to size. The connection pool in
+ * {@link com.cmpe343.db.Db} still bounds how many queries run at once.
+ */
+public final class AppExecutors {
+
+    private static final ExecutorService BACKGROUND =
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("app-bg-", 0).factory());
+
+    private AppExecutors() {
+    }
+
+    /**
+     * @return executor for blocking DAO and I/O work
+     */
+    public static ExecutorService background() {
+        return BACKGROUND;
+    }
+
+    /**
+     * Runs {@code work} on the background executor. A checked exception from the work
+     * completes the future with a RuntimeException wrapping it.
+     */
+    public static <T> CompletableFuture<T> supply(Callable<T> work) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return work.call();
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new RuntimeException(e.getMessage(), e);
+            }
+        }, BACKGROUND);
+    }
+}
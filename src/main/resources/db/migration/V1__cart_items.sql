@@ -0,0 +1,16 @@
+-- Shopping cart lines. Formerly created by the CartDao constructor.
+CREATE TABLE IF NOT EXISTS cart_items (
+  id                 INT AUTO_INCREMENT PRIMARY KEY,
+  user_id            INT NOT NULL,
+  product_id         INT NOT NULL,
+  quantity_kg        DOUBLE DEFAULT 1.0,
+  unit_price_applied DECIMAL(10,2) NOT NULL COMMENT 'Price at time of adding to cart',
+  created_at         TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+  UNIQUE KEY unique_cart_item (user_id, product_id),
+  FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE,
+  FOREIGN KEY (product_id) REFERENCES products(id) ON DELETE CASCADE
+) ENGINE=InnoDB;
+
+-- Tables created before the price snapshot existed
+ALTER TABLE cart_items
+  ADD COLUMN unit_price_applied DECIMAL(10,2) NOT NULL DEFAULT 0.00 COMMENT 'Price at time of adding to cart';
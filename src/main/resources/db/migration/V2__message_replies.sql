@@ -0,0 +1,4 @@
+-- Owner replies to customer messages (was migration_add_reply_columns.sql)
+ALTER TABLE messages
+  ADD COLUMN reply_text LONGTEXT NULL COMMENT 'Reply text stored as Character Large Object (CLOB)' AFTER created_at,
+  ADD COLUMN replied_at TIMESTAMP NULL AFTER reply_text;
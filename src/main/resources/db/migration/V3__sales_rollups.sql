@@ -0,0 +1,28 @@
+-- Daily sales rollups read by the owner's report (was migration_add_sales_rollups.sql).
+-- Kept up to date by ReportDao.addDeliveredOrder; repair drift with com.cmpe343.app.RebuildRollups.
+CREATE TABLE IF NOT EXISTS sales_daily (
+  sales_date       DATE PRIMARY KEY COMMENT 'Order date (DATE(order_time)) of delivered orders',
+  delivered_orders INT NOT NULL DEFAULT 0,
+  revenue          DECIMAL(14,2) NOT NULL DEFAULT 0
+) ENGINE=InnoDB;
+
+CREATE TABLE IF NOT EXISTS product_sales_daily (
+  sales_date DATE NOT NULL,
+  product_id INT NOT NULL,
+  revenue    DECIMAL(14,2) NOT NULL DEFAULT 0,
+  kg         DECIMAL(14,2) NOT NULL DEFAULT 0,
+  PRIMARY KEY (sales_date, product_id),
+  CONSTRAINT fk_psd_product FOREIGN KEY (product_id) REFERENCES products(id)
+) ENGINE=InnoDB;
+
+-- Backfill days that have no rollup yet; existing rows are left alone
+INSERT IGNORE INTO sales_daily (sales_date, delivered_orders, revenue)
+SELECT DATE(order_time), COUNT(*), SUM(total_after_tax)
+FROM orders WHERE status = 'DELIVERED'
+GROUP BY DATE(order_time);
+
+INSERT IGNORE INTO product_sales_daily (sales_date, product_id, revenue, kg)
+SELECT DATE(o.order_time), oi.product_id, SUM(oi.line_total), SUM(oi.kg)
+FROM orders o JOIN order_items oi ON oi.order_id = o.id
+WHERE o.status = 'DELIVERED'
+GROUP BY DATE(o.order_time), oi.product_id;
@@ -0,0 +1,4 @@
+-- Keyset pagination of order history, newest first (was migration_add_order_paging_indexes.sql).
+-- idx_orders_customer_time also serves the customer_id foreign key.
+CREATE INDEX idx_orders_time ON orders (order_time, id);
+CREATE INDEX idx_orders_customer_time ON orders (customer_id, order_time, id);
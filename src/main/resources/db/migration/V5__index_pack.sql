@@ -0,0 +1,8 @@
+-- Secondary indexes on the hot query predicates (was migration_add_index_pack.sql).
+-- Each index is named after the DAO query it serves; see greengrocer_db.sql.
+CREATE INDEX idx_orders_status_carrier ON orders (status, carrier_id, order_time);
+CREATE INDEX idx_orders_carrier_status ON orders (carrier_id, status, order_time);
+CREATE INDEX idx_items_order ON order_items (order_id, id);
+CREATE INDEX idx_messages_owner_time ON messages (owner_id, created_at);
+CREATE INDEX idx_messages_customer_time ON messages (customer_id, created_at);
+CREATE INDEX idx_ratings_carrier_customer ON ratings (carrier_id, customer_id);
@@ -0,0 +1,5 @@
+-- MD5 of each product image, computed by MySQL once per write instead of on every
+-- ProductDao.getImageDigests call. The index covers (image_md5, id) for that query.
+ALTER TABLE products
+  ADD COLUMN image_md5 CHAR(32) AS (MD5(image_blob)) STORED COMMENT 'MD5 of image_blob, maintained by MySQL' AFTER image_blob;
+CREATE INDEX idx_products_image_md5 ON products (image_md5);
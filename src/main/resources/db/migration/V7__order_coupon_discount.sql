@@ -0,0 +1,4 @@
+-- The coupon discount applied when the order was placed. total_before_tax already has it
+-- subtracted, so the invoice cannot recompute it exactly from the coupon's current terms.
+ALTER TABLE orders
+  ADD COLUMN coupon_discount DECIMAL(10,2) NOT NULL DEFAULT 0 AFTER coupon_id;
@@ -0,0 +1,123 @@
+package com.cmpe343.dao;
+
+import com.cmpe343.db.Db;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Compares the old check-then-write cart add (price lookup, SELECT, then INSERT or
+ * UPDATE) with the single-statement {@link CartDao#addToCart} upsert when many
+ * threads add the same product to the same cart at once.
+ * <p>
+ * Not a unit test: it needs the MySQL database from app.properties and is run manually,
+ * e.g. {@code mvn test-compile exec:java -Dexec.mainClass=com.cmpe343.dao.CartUpsertBenchmark -Dexec.classpathScope=test -Dexec.args="1 1"}
+ * where the arguments are a customer id and a product id. The benchmark deletes that
+ * customer's cart line for the product before each run and after the last one.
+ */
+public class CartUpsertBenchmark {
+
+    private static final int[] THREADS = { 1, 4, 16 };
+    private static final int ADDS_PER_THREAD = 200;
+    private static final double KG = 0.25;
+
+    public static void main(String[] args) throws Exception {
+        int userId = args.length > 0 ? Integer.parseInt(args[0]) : 1;
+        int productId = args.length > 1 ? Integer.parseInt(args[1]) : 1;
+        CartDao cartDao = new CartDao();
+
+        System.out.printf("%-8s %-10s %12s %12s %12s %12s%n", "threads", "path", "total ms", "adds/s", "failures", "lost kg");
+        for (int threads : THREADS) {
+            run("legacy", threads, userId, productId, cartDao, () -> legacyAddToCart(userId, productId, KG));
+            run("upsert", threads, userId, productId, cartDao, () -> cartDao.addToCart(userId, productId, KG));
+        }
+        cartDao.remove(userId, productId);
+    }
+
+    private static void run(String label, int threads, int userId, int productId, CartDao cartDao, Runnable add)
+            throws Exception {
+        cartDao.remove(userId, productId);
+        AtomicInteger failures = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        List<Future<?>> futures = new ArrayList<>();
+
+        long start = System.nanoTime();
+        for (int t = 0; t < threads; t++) {
+            futures.add(pool.submit(() -> {
+                for (int i = 0; i < ADDS_PER_THREAD; i++) {
+                    try {
+                        add.run();
+                    } catch (RuntimeException e) {
+                        // The legacy flow loses the insert race with a duplicate key error
+                        failures.incrementAndGet();
+                    }
+                }
+            }));
+        }
+        for (Future<?> f : futures) {
+            f.get();
+        }
+        long elapsedNs = System.nanoTime() - start;
+        pool.shutdown();
+
+        int adds = threads * ADDS_PER_THREAD;
+        double expectedKg = adds * KG;
+        double lostKg = expectedKg - cartDao.getCartQuantity(userId, productId);
+        System.out.printf("%-8d %-10s %12.1f %12.0f %12d %12.2f%n", threads, label,
+                elapsedNs / 1_000_000.0, adds / (elapsedNs / 1_000_000_000.0), failures.get(), lostKg);
+    }
+
+    /**
+     * The addToCart flow before the upsert, kept here as the baseline.
+     */
+    private static void legacyAddToCart(int userId, int productId, double kg) {
+        double currentPrice = 0.0;
+        try (Connection c = Db.getConnection();
+                PreparedStatement ps = c.prepareStatement("SELECT price FROM products WHERE id = ?")) {
+            ps.setInt(1, productId);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) {
+                    currentPrice = rs.getDouble("price");
+                }
+            }
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+
+        try (Connection c = Db.getConnection()) {
+            boolean exists;
+            try (PreparedStatement ps = c.prepareStatement("SELECT quantity_kg FROM cart_items WHERE user_id=? AND product_id=?")) {
+                ps.setInt(1, userId);
+                ps.setInt(2, productId);
+                try (ResultSet rs = ps.executeQuery()) {
+                    exists = rs.next();
+                }
+            }
+            if (exists) {
+                try (PreparedStatement ps = c.prepareStatement("UPDATE cart_items SET quantity_kg = quantity_kg + ? WHERE user_id=? AND product_id=?")) {
+                    ps.setDouble(1, kg);
+                    ps.setInt(2, userId);
+                    ps.setInt(3, productId);
+                    ps.executeUpdate();
+                }
+            } else {
+                try (PreparedStatement ps = c.prepareStatement("INSERT INTO cart_items (user_id, product_id, quantity_kg, unit_price_applied) VALUES (?, ?, ?, ?)")) {
+                    ps.setInt(1, userId);
+                    ps.setInt(2, productId);
+                    ps.setDouble(3, kg);
+                    ps.setDouble(4, currentPrice);
+                    ps.executeUpdate();
+                }
+            }
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
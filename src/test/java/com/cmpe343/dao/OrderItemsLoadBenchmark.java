@@ -0,0 +1,72 @@
+package com.cmpe343.dao;
+
+import com.cmpe343.db.Db;
+import com.cmpe343.model.Order;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compares loading order items one order at a time (the old N+1 path) with the
+ * batched {@link OrderDao#loadOrderItems(List)} path.
+ * <p>
+ * Not a unit test: it needs the MySQL database from app.properties and is run manually,
+ * e.g. {@code mvn test-compile exec:java -Dexec.mainClass=com.cmpe343.dao.OrderItemsLoadBenchmark -Dexec.classpathScope=test}.
+ * Connections borrowed from the pool are reported as a stand-in for round trips,
+ * since the old path borrowed one connection per query.
+ */
+public class OrderItemsLoadBenchmark {
+
+    private static final int[] SIZES = { 10, 50, 200, 1000, 5000 };
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) {
+        OrderDao orderDao = new OrderDao();
+        List<Order> all = orderDao.getAllOrders();
+        if (all.isEmpty()) {
+            System.out.println("No orders in the database - seed some data first.");
+            return;
+        }
+
+        System.out.printf("%-8s %-14s %14s %14s%n", "orders", "path", "avg ms", "connections");
+        for (int size : SIZES) {
+            if (size > all.size()) {
+                break;
+            }
+            List<Order> page = all.subList(0, size);
+
+            // Warm up both paths once so the pool and server caches are primed
+            perOrder(orderDao, page);
+            orderDao.loadOrderItems(copy(page));
+
+            long[] legacy = measure(() -> perOrder(orderDao, page));
+            long[] batched = measure(() -> orderDao.loadOrderItems(copy(page)));
+
+            System.out.printf("%-8d %-14s %14.2f %14d%n", size, "per-order", legacy[0] / 1_000_000.0 / ROUNDS, legacy[1] / ROUNDS);
+            System.out.printf("%-8d %-14s %14.2f %14d%n", size, "batched", batched[0] / 1_000_000.0 / ROUNDS, batched[1] / ROUNDS);
+        }
+    }
+
+    private static void perOrder(OrderDao orderDao, List<Order> orders) {
+        for (Order order : orders) {
+            order.setItems(orderDao.getOrderItems(order.getId()));
+        }
+    }
+
+    private static List<Order> copy(List<Order> orders) {
+        return new ArrayList<>(orders);
+    }
+
+    /**
+     * @return total nanoseconds and total connections borrowed over all rounds
+     */
+    private static long[] measure(Runnable body) {
+        long acquiredBefore = Db.poolStats().getTotalAcquired();
+        long start = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) {
+            body.run();
+        }
+        long elapsed = System.nanoTime() - start;
+        return new long[] { elapsed, Db.poolStats().getTotalAcquired() - acquiredBefore };
+    }
+}
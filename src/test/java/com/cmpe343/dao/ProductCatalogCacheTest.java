@@ -0,0 +1,67 @@
+package com.cmpe343.dao;
+
+import com.cmpe343.model.Product;
+import junit.framework.TestCase;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Unit tests for {@link ProductCatalogCache} with an in-memory loader.
+ */
+public class ProductCatalogCacheTest extends TestCase {
+
+    private final AtomicInteger loads = new AtomicInteger();
+    private final List<Product> catalog = new ArrayList<>();
+
+    private List<Product> load() {
+        loads.incrementAndGet();
+        return new ArrayList<>(catalog);
+    }
+
+    @Override
+    protected void setUp() {
+        catalog.add(new Product(1, "Apple", "FRUIT", 20.0, 100.0, 10.0));
+        catalog.add(new Product(2, "Tomato", "VEG", 15.0, 50.0, 5.0));
+    }
+
+    public void testRepeatedReadsHitMemory() {
+        ProductCatalogCache cache = new ProductCatalogCache(this::load, 0);
+        assertEquals(2, cache.snapshot().size());
+        assertEquals("Tomato", cache.getById(2).getName());
+        assertNull(cache.getById(99));
+        assertEquals(1, loads.get());
+        assertEquals(1, cache.stats().getMisses());
+        assertEquals(2, cache.stats().getHits());
+    }
+
+    public void testInvalidateReloadsOnNextRead() {
+        ProductCatalogCache cache = new ProductCatalogCache(this::load, 0);
+        cache.snapshot();
+        catalog.set(0, new Product(1, "Apple", "FRUIT", 22.0, 90.0, 10.0));
+        assertEquals(20.0, cache.getById(1).getPrice());
+
+        cache.invalidate();
+        assertEquals(22.0, cache.getById(1).getPrice());
+        assertEquals(2, loads.get());
+        assertEquals(1, cache.stats().getInvalidations());
+    }
+
+    public void testSnapshotExpiresAfterMaxAge() throws InterruptedException {
+        ProductCatalogCache cache = new ProductCatalogCache(this::load, 1);
+        cache.snapshot();
+        Thread.sleep(5);
+        cache.snapshot();
+        assertEquals(2, loads.get());
+    }
+
+    public void testSnapshotIsReadOnly() {
+        ProductCatalogCache cache = new ProductCatalogCache(this::load, 0);
+        try {
+            cache.snapshot().clear();
+            fail("Snapshot must not be modifiable");
+        } catch (UnsupportedOperationException expected) {
+        }
+    }
+}
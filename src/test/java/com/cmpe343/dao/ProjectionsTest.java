@@ -0,0 +1,52 @@
+package com.cmpe343.dao;
+
+import junit.framework.TestCase;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Guards against list queries pulling LOB columns (product images, invoice PDFs,
+ * message bodies) over the wire.
+ */
+public class ProjectionsTest extends TestCase {
+
+    private static final Path DAO_SOURCES = Paths.get("src", "main", "java", "com", "cmpe343", "dao");
+
+    /** DAOs whose queries feed cart and order lists. */
+    private static final String[] LIST_DAOS = { "CartDao.java", "OrderDao.java" };
+
+    public void testListAndPricingProjectionsHaveNoLobColumns() {
+        assertNoLob("PRODUCT_LIST", Projections.PRODUCT_LIST);
+        assertNoLob("ORDER_LIST", Projections.ORDER_LIST);
+        assertNoLob("ORDER_ITEM_LIST", Projections.ORDER_ITEM_LIST);
+        assertNoLob("CART_ITEM_PRICING", Projections.CART_ITEM_PRICING);
+    }
+
+    public void testCartAndOrderQueriesUseExplicitColumns() throws IOException {
+        Pattern selectStar = Pattern.compile("SELECT\\s+(\\w+\\.)?\\*", Pattern.CASE_INSENSITIVE);
+        for (String file : LIST_DAOS) {
+            String source = read(file);
+            Matcher m = selectStar.matcher(source);
+            assertFalse(file + " uses SELECT * instead of a Projections column set", m.find());
+            assertNoLob(file, source);
+        }
+    }
+
+    private static void assertNoLob(String what, String sql) {
+        String lower = sql.toLowerCase(Locale.ROOT);
+        for (String lob : Projections.LOB_COLUMNS) {
+            assertFalse(what + " selects LOB column " + lob, lower.contains(lob));
+        }
+    }
+
+    private static String read(String file) throws IOException {
+        return new String(Files.readAllBytes(DAO_SOURCES.resolve(file)), StandardCharsets.UTF_8);
+    }
+}
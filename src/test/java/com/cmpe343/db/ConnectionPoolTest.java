@@ -0,0 +1,130 @@
+package com.cmpe343.db;
+
+import junit.framework.TestCase;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Unit tests for {@link ConnectionPool} using in-memory fake connections.
+ */
+public class ConnectionPoolTest extends TestCase {
+
+    private final AtomicInteger opened = new AtomicInteger();
+    private final AtomicInteger closed = new AtomicInteger();
+    private final AtomicBoolean valid = new AtomicBoolean(true);
+
+    private Connection fakeConnection() {
+        opened.incrementAndGet();
+        AtomicBoolean isClosed = new AtomicBoolean();
+        AtomicBoolean autoCommit = new AtomicBoolean(true);
+        return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { Connection.class },
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "close" -> {
+                        if (!isClosed.getAndSet(true)) closed.incrementAndGet();
+                        yield null;
+                    }
+                    case "isClosed" -> isClosed.get();
+                    case "isValid" -> valid.get();
+                    case "getAutoCommit" -> autoCommit.get();
+                    case "setAutoCommit" -> {
+                        autoCommit.set((Boolean) args[0]);
+                        yield null;
+                    }
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    default -> null;
+                });
+    }
+
+    private ConnectionPool newPool(int maxSize, long acquireTimeoutMs) {
+        ConnectionPool.Config config = new ConnectionPool.Config();
+        config.minIdle = 0;
+        config.maxSize = maxSize;
+        config.acquireTimeoutMs = acquireTimeoutMs;
+        config.housekeepingIntervalMs = 0;
+        return new ConnectionPool(this::fakeConnection, config);
+    }
+
+    public void testReusesReturnedConnection() throws SQLException {
+        try (ConnectionPool pool = newPool(2, 100)) {
+            pool.borrow().close();
+            pool.borrow().close();
+            assertEquals(1, opened.get());
+            assertEquals(0, pool.stats().getActive());
+            assertEquals(1, pool.stats().getIdle());
+            assertEquals(2, pool.stats().getTotalAcquired());
+        }
+    }
+
+    public void testBoundedSizeTimesOut() throws SQLException {
+        try (ConnectionPool pool = newPool(1, 50)) {
+            Connection held = pool.borrow();
+            try {
+                pool.borrow();
+                fail("Second borrow should time out while the only connection is held");
+            } catch (SQLException expected) {
+                assertTrue(expected.getMessage().contains("Timed out"));
+            }
+            held.close();
+            pool.borrow().close();
+            assertEquals(1, opened.get());
+        }
+    }
+
+    public void testInvalidIdleConnectionIsReplaced() throws SQLException {
+        try (ConnectionPool pool = newPool(2, 100)) {
+            pool.borrow().close();
+            valid.set(false);
+            pool.borrow().close();
+            assertEquals(2, opened.get());
+            assertEquals(1, closed.get());
+        }
+    }
+
+    public void testDoubleCloseReturnsOnce() throws SQLException {
+        try (ConnectionPool pool = newPool(1, 100)) {
+            Connection c = pool.borrow();
+            c.close();
+            c.close();
+            assertEquals(1, pool.stats().getIdle());
+            assertTrue(c.isClosed());
+        }
+    }
+
+    public void testAutoCommitIsResetOnReturn() throws SQLException {
+        try (ConnectionPool pool = newPool(1, 100)) {
+            Connection c = pool.borrow();
+            c.setAutoCommit(false);
+            c.close();
+            assertTrue(pool.borrow().getAutoCommit());
+        }
+    }
+
+    public void testHousekeepingKeepsMinIdleAndRetiresExpired() throws SQLException {
+        ConnectionPool.Config config = new ConnectionPool.Config();
+        config.minIdle = 2;
+        config.maxSize = 4;
+        config.maxLifetimeMs = 1;
+        config.housekeepingIntervalMs = 0;
+        try (ConnectionPool pool = new ConnectionPool(this::fakeConnection, config)) {
+            pool.housekeep();
+            assertEquals(2, pool.stats().getIdle());
+            sleepQuietly(5);
+            pool.housekeep();
+            assertEquals(2, pool.stats().getIdle());
+            assertEquals(2, closed.get());
+        }
+    }
+
+    private static void sleepQuietly(long ms) {
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
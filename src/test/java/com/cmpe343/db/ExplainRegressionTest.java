@@ -0,0 +1,343 @@
+package com.cmpe343.db;
+
+import com.cmpe343.dao.CartDao;
+import com.cmpe343.dao.CouponDao;
+import com.cmpe343.dao.MessageDao;
+import com.cmpe343.dao.OrderDao;
+import com.cmpe343.dao.ProductDao;
+import com.cmpe343.dao.RatingDao;
+import com.cmpe343.dao.ReportDao;
+import com.cmpe343.dao.UserDao;
+import com.cmpe343.model.CartItem;
+import com.cmpe343.model.Coupon;
+import com.cmpe343.model.Order;
+import com.cmpe343.model.Product;
+import junit.framework.TestCase;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Runs {@code EXPLAIN} on every SQL statement the DAOs issue and fails when one reads a
+ * whole table ({@code type = ALL}) estimated at more than {@code explain.maxScanRows} rows.
+ * <p>
+ * The DAO methods run against fake connections that record each statement with its bound
+ * parameters instead of executing it, so writes are covered too and nothing is modified.
+ * The recorded statements are then explained on a real, seeded database. Without
+ * {@code -Dexplain.db.url} the test is skipped, e.g.
+ * {@code mvn test -Dtest=ExplainRegressionTest -Dexplain.db.url=jdbc:mysql://localhost:3306/greengrocer_db -Dexplain.db.user=root -Dexplain.db.password=...}.
+ * Row estimates depend on the data, so seed the database with a realistic volume first.
+ */
+public class ExplainRegressionTest extends TestCase {
+
+    private static final String URL = System.getProperty("explain.db.url");
+    private static final long MAX_SCAN_ROWS = Long.getLong("explain.maxScanRows", 1000);
+
+    /** One recorded statement and the DAO call that issued it. */
+    private static class Recorded {
+        final String caller;
+        final boolean fullScanAllowed;
+        final String sql;
+        final Map<Integer, Object> params;
+
+        Recorded(String caller, boolean fullScanAllowed, String sql, Map<Integer, Object> params) {
+            this.caller = caller;
+            this.fullScanAllowed = fullScanAllowed;
+            this.sql = sql;
+            this.params = params;
+        }
+    }
+
+    private final Map<String, Recorded> recorded = new LinkedHashMap<>();
+    private String currentCaller;
+    private boolean currentFullScanAllowed;
+
+    public void testDaoQueriesDoNotScanLargeTables() throws Exception {
+        if (URL == null || URL.isBlank()) {
+            System.out.println("ExplainRegressionTest skipped: set -Dexplain.db.url to a seeded greengrocer_db");
+            return;
+        }
+
+        recordDaoStatements();
+        assertFalse("No statements were recorded", recorded.isEmpty());
+
+        List<String> violations = new ArrayList<>();
+        try (Connection c = DriverManager.getConnection(URL,
+                System.getProperty("explain.db.user", "root"), System.getProperty("explain.db.password", ""))) {
+            for (Recorded r : recorded.values()) {
+                if (!isExplainable(r.sql)) {
+                    continue;
+                }
+                try (PreparedStatement ps = c.prepareStatement("EXPLAIN " + r.sql)) {
+                    for (Map.Entry<Integer, Object> p : r.params.entrySet()) {
+                        ps.setObject(p.getKey(), p.getValue());
+                    }
+                    try (ResultSet rs = ps.executeQuery()) {
+                        while (rs.next()) {
+                            String table = rs.getString("table");
+                            String type = rs.getString("type");
+                            long rows = rs.getLong("rows");
+                            if ("ALL".equals(type) && rows > MAX_SCAN_ROWS && !r.fullScanAllowed) {
+                                violations.add(r.caller + ": full scan of " + table + " (~" + rows + " rows) in "
+                                        + r.sql.replaceAll("\\s+", " ").trim());
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        System.out.println("ExplainRegressionTest: explained " + recorded.size() + " statements, "
+                + violations.size() + " violation(s)");
+        assertTrue("Full table scans above " + MAX_SCAN_ROWS + " rows:\n" + String.join("\n", violations),
+                violations.isEmpty());
+    }
+
+    /**
+     * Calls every DAO method once. Calls marked as full scans read whole tables on purpose
+     * (owner-wide lists, report verification, rollup rebuild) and are only recorded.
+     */
+    private void recordDaoStatements() {
+        ConnectionPool.Config config = new ConnectionPool.Config();
+        config.minIdle = 0;
+        config.housekeepingIntervalMs = 0;
+        Db.usePool(new ConnectionPool(this::recordingConnection, config));
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            LocalDate today = LocalDate.now();
+            OrderDao.Cursor cursor = new OrderDao.Cursor(now, Integer.MAX_VALUE);
+            List<CartItem> items = List.of(new CartItem(new Product(1, "Apple", "FRUIT", 10, 100, 5), 1.5));
+            Order order = new Order(1, 1, 2, Order.OrderStatus.DELIVERED, now, now, now, 10, 2, 12);
+
+            CartDao cartDao = new CartDao();
+            call("CartDao.addToCart", false, () -> cartDao.addToCart(1, 1, 1.0));
+            call("CartDao.remove", false, () -> cartDao.remove(1, 1));
+            call("CartDao.clear", false, () -> cartDao.clear(1));
+            call("CartDao.getCartItemsWithStockCheck", false, () -> cartDao.getCartItemsWithStockCheck(1));
+            call("CartDao.getCartItemCount", false, () -> cartDao.getCartItemCount(1));
+            call("CartDao.getCartQuantity", false, () -> cartDao.getCartQuantity(1, 1));
+            call("CartDao.getCartQuantities", false, () -> cartDao.getCartQuantities(1));
+
+            CouponDao couponDao = new CouponDao();
+            call("CouponDao.getAllCoupons", true, couponDao::getAllCoupons);
+            call("CouponDao.getActiveCouponsForCustomer", true, () -> couponDao.getActiveCouponsForCustomer(1));
+            call("CouponDao.getCouponByCode", false, () -> couponDao.getCouponByCode("WELCOME10"));
+            call("CouponDao.getCouponById", false, () -> couponDao.getCouponById(1));
+            call("CouponDao.createCoupon", false,
+                    () -> couponDao.createCoupon("EXPLAIN", Coupon.CouponKind.AMOUNT, 5, 0, now.plusDays(1), true));
+
+            MessageDao messageDao = new MessageDao();
+            call("MessageDao.getAllMessages", true, messageDao::getAllMessages);
+            call("MessageDao.getMessagesForCustomer", false, () -> messageDao.getMessagesForCustomer(1));
+            call("MessageDao.getMessagesForOwner", false, () -> messageDao.getMessagesForOwner(1));
+            call("MessageDao.getMessageById", false, () -> messageDao.getMessageById(1));
+            call("MessageDao.getReplyText", false, () -> messageDao.getReplyText(1));
+            call("MessageDao.markAsRead", false, () -> messageDao.markAsRead(1));
+            call("MessageDao.createMessage", false, () -> messageDao.createMessage(1, 2, "explain"));
+            call("MessageDao.replyToMessage", false, () -> messageDao.replyToMessage(1, "explain"));
+
+            OrderDao orderDao = new OrderDao();
+            call("OrderDao.createOrder", false, () -> orderDao.createOrder(1, items, now.plusDays(1), 1));
+            call("OrderDao.getAllOrders", true, orderDao::getAllOrders);
+            call("OrderDao.getOrdersForCustomer", false, () -> orderDao.getOrdersForCustomer(1));
+            call("OrderDao.getOrdersPage", false, () -> orderDao.getOrdersPage(null, 50));
+            call("OrderDao.getOrdersPage(cursor)", false, () -> orderDao.getOrdersPage(cursor, 50));
+            call("OrderDao.getOrdersForCustomerPage", false, () -> orderDao.getOrdersForCustomerPage(1, cursor, 50));
+            call("OrderDao.getOrderItems", false, () -> orderDao.getOrderItems(1));
+            call("OrderDao.loadOrderItems", false, () -> orderDao.loadOrderItems(new ArrayList<>(List.of(order))));
+            call("OrderDao.getCouponDiscountForOrder", false, () -> orderDao.getCouponDiscountForOrder(1));
+            call("OrderDao.getAvailableOrders", false, orderDao::getAvailableOrders);
+            call("OrderDao.getOrdersByCarrier", false, () -> orderDao.getOrdersByCarrier(2, Order.OrderStatus.ASSIGNED));
+            call("OrderDao.assignOrderToCarrier", false, () -> orderDao.assignOrderToCarrier(1, 2));
+            call("OrderDao.markOrderDelivered", false, () -> orderDao.markOrderDelivered(1, now));
+            call("OrderDao.getCustomerLoyaltyStats", true, orderDao::getCustomerLoyaltyStats);
+
+            ProductDao productDao = new ProductDao();
+            call("ProductDao.findAll", true, productDao::findAll);
+            call("ProductDao.getProductImageBlob", false, () -> productDao.getProductImageBlob(1));
+            call("ProductDao.getImageDigests", true, productDao::getImageDigests);
+            call("ProductDao.createProduct", false, () -> productDao.createProduct("Explain", "FRUIT", 1, 1, 1));
+            call("ProductDao.updateProduct", false, () -> productDao.updateProduct(1, "Explain", "FRUIT", 1, 1, 1));
+            call("ProductDao.getStockKg", false, () -> productDao.getStockKg(List.of(1, 2)));
+
+            RatingDao ratingDao = new RatingDao();
+            call("RatingDao.getAllRatings", true, ratingDao::getAllRatings);
+            call("RatingDao.createRating", false, () -> ratingDao.createRating(2, 1, 5, "explain"));
+            call("RatingDao.hasRatingForOrder", false, () -> ratingDao.hasRatingForOrder(1, 1));
+            call("RatingDao.getRatedOrderIds", false, () -> ratingDao.getRatedOrderIds(1));
+
+            ReportDao reportDao = new ReportDao();
+            call("ReportDao.getSummary", false, reportDao::getSummary);
+            call("ReportDao.getProductSales", true, reportDao::getProductSales);
+            call("ReportDao.getDailyRevenue", false, () -> reportDao.getDailyRevenue(today.minusDays(30), today));
+            call("ReportDao.aggregateSummary", true, reportDao::aggregateSummary);
+            call("ReportDao.aggregateProductSales", true, reportDao::aggregateProductSales);
+            call("ReportDao.aggregateDailyRevenue", true, () -> reportDao.aggregateDailyRevenue(today.minusDays(30), today));
+            call("ReportDao.rebuildRollups", true, reportDao::rebuildRollups);
+
+            UserDao userDao = new UserDao();
+            call("UserDao.login", false, () -> userDao.login("cust", "cust"));
+            call("UserDao.getAllCarriers", true, userDao::getAllCarriers);
+            call("UserDao.getUserById", false, () -> userDao.getUserById(1));
+            call("UserDao.getUsersByIds", false, () -> userDao.getUsersByIds(List.of(1, 2)));
+            call("UserDao.activateCarrier", false, () -> userDao.activateCarrier(2));
+            call("UserDao.deactivateCarrier", false, () -> userDao.deactivateCarrier(2));
+            call("UserDao.getOwnerId", true, userDao::getOwnerId);
+            call("UserDao.createCustomer", false, () -> userDao.createCustomer("explain", "explain", "555", "Address"));
+            call("UserDao.usernameExists", false, () -> userDao.usernameExists("cust"));
+        } finally {
+            Db.usePool(null);
+        }
+    }
+
+    private interface DaoCall<T> {
+        T run() throws Exception;
+    }
+
+    private interface VoidDaoCall {
+        void run() throws Exception;
+    }
+
+    private <T> T call(String caller, boolean fullScanAllowed, DaoCall<T> body) {
+        currentCaller = caller;
+        currentFullScanAllowed = fullScanAllowed;
+        try {
+            return body.run();
+        } catch (Exception e) {
+            // Fake results can send a DAO down an error path; the statements issued so far still count
+            return null;
+        }
+    }
+
+    private void call(String caller, boolean fullScanAllowed, VoidDaoCall body) {
+        call(caller, fullScanAllowed, () -> {
+            body.run();
+            return null;
+        });
+    }
+
+    private void record(String sql, Map<Integer, Object> params) {
+        recorded.putIfAbsent(sql, new Recorded(currentCaller, currentFullScanAllowed, sql, new TreeMap<>(params)));
+    }
+
+    private static boolean isExplainable(String sql) {
+        String head = sql.stripLeading().toUpperCase();
+        return head.startsWith("SELECT") || head.startsWith("INSERT") || head.startsWith("UPDATE")
+                || head.startsWith("DELETE") || head.startsWith("REPLACE") || head.startsWith("WITH");
+    }
+
+    // ---- Recording JDBC fakes ----
+
+    private Connection recordingConnection() {
+        boolean[] closed = { false };
+        boolean[] autoCommit = { true };
+        return proxy(Connection.class, (proxy, method, args) -> switch (method.getName()) {
+            case "prepareStatement" -> recordingStatement(PreparedStatement.class, (String) args[0]);
+            case "createStatement" -> recordingStatement(Statement.class, null);
+            case "close" -> {
+                closed[0] = true;
+                yield null;
+            }
+            case "isClosed" -> closed[0];
+            case "isValid" -> true;
+            case "getAutoCommit" -> autoCommit[0];
+            case "setAutoCommit" -> {
+                autoCommit[0] = (Boolean) args[0];
+                yield null;
+            }
+            default -> defaultValue(proxy, method, args);
+        });
+    }
+
+    private <S extends Statement> S recordingStatement(Class<S> type, String preparedSql) {
+        Map<Integer, Object> params = new TreeMap<>();
+        int[] batched = { 0 };
+        return proxy(type, (proxy, method, args) -> {
+            String name = method.getName();
+            if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer index) {
+                params.put(index, name.equals("setNull") ? null : args[1]);
+                return null;
+            }
+            return switch (name) {
+                case "executeQuery" -> {
+                    record(args != null ? (String) args[0] : preparedSql, params);
+                    yield resultSet(0);
+                }
+                case "executeUpdate", "execute" -> {
+                    record(args != null ? (String) args[0] : preparedSql, params);
+                    yield name.equals("execute") ? (Object) false : (Object) 1;
+                }
+                case "addBatch" -> {
+                    record(args != null ? (String) args[0] : preparedSql, params);
+                    batched[0]++;
+                    yield null;
+                }
+                case "executeBatch" -> {
+                    int[] counts = new int[batched[0]];
+                    java.util.Arrays.fill(counts, 1);
+                    batched[0] = 0;
+                    yield counts;
+                }
+                case "getGeneratedKeys" -> resultSet(1);
+                case "getUpdateCount" -> -1;
+                default -> defaultValue(proxy, method, args);
+            };
+        });
+    }
+
+    /** A result set of {@code rows} rows where every column reads as 1. */
+    private static ResultSet resultSet(int rows) {
+        int[] position = { 0 };
+        return proxy(ResultSet.class, (proxy, method, args) -> switch (method.getName()) {
+            case "next" -> ++position[0] <= rows;
+            case "getInt" -> 1;
+            case "getLong" -> 1L;
+            case "getDouble" -> 1.0;
+            case "getBigDecimal" -> BigDecimal.ONE;
+            case "getString" -> "1";
+            case "getTimestamp" -> Timestamp.valueOf(LocalDateTime.now());
+            case "wasNull" -> false;
+            default -> defaultValue(proxy, method, args);
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, java.lang.reflect.InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(ExplainRegressionTest.class.getClassLoader(), new Class<?>[] { type }, handler);
+    }
+
+    private static Object defaultValue(Object proxy, Method method, Object[] args) {
+        switch (method.getName()) {
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            case "equals":
+                return proxy == args[0];
+            case "toString":
+                return "recording " + method.getDeclaringClass().getSimpleName();
+            default:
+                break;
+        }
+        Class<?> r = method.getReturnType();
+        if (r == boolean.class) return false;
+        if (r == int.class) return 0;
+        if (r == long.class) return 0L;
+        if (r == double.class) return 0.0;
+        if (r == float.class) return 0f;
+        if (r == short.class) return (short) 0;
+        if (r == byte.class) return (byte) 0;
+        return null;
+    }
+}
@@ -0,0 +1,237 @@
+package com.cmpe343.db;
+
+import com.cmpe343.dao.CartDao;
+import com.cmpe343.dao.OrderDao;
+import com.cmpe343.jfr.CheckoutPhaseEvent;
+import com.cmpe343.model.CartItem;
+import com.cmpe343.model.Product;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import junit.framework.TestCase;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Unit tests for {@link InstrumentedJdbc}, {@link SqlMetrics} and the Flight Recorder events
+ * against fake JDBC objects: every query returns three rows of (id INT, text_clob LONGTEXT).
+ */
+public class InstrumentedJdbcTest extends TestCase {
+
+    private static final int ROWS = 3;
+
+    public void testCountsRowsLobBytesAndErrors() throws Exception {
+        SqlMetrics metrics = new SqlMetrics(0);
+        try (Connection c = InstrumentedJdbc.wrap(fakeConnection(), metrics);
+                PreparedStatement ps = c.prepareStatement("SELECT id, text_clob FROM messages")) {
+            ps.setBytes(1, new byte[100]);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    rs.getInt("id");
+                    rs.getString("text_clob");
+                    rs.getBytes(2);
+                }
+            }
+            try (Statement st = c.createStatement()) {
+                st.executeUpdate("FAIL");
+                fail("Expected the fake failure");
+            } catch (SQLException expected) {
+            }
+        }
+
+        List<SqlMetrics.Snapshot> snapshot = metrics.snapshot();
+        assertEquals(1, snapshot.size());
+        SqlMetrics.Snapshot s = snapshot.get(0);
+        assertEquals(2, s.getExecutions());
+        assertEquals(1, s.getErrors());
+        assertEquals(ROWS, s.getRows());
+        // 100 bound + 3 x ("hello" + 10 bytes); the INT column is not a LOB
+        assertEquals(100 + ROWS * (5 + 10), s.getLobBytes());
+        assertEquals(0, s.getSlow());
+        assertTrue(metrics.report().contains(s.getCaller()));
+
+        metrics.reset();
+        assertTrue(metrics.snapshot().isEmpty());
+    }
+
+    public void testSlowStatementsAreCounted() throws Exception {
+        SqlMetrics metrics = new SqlMetrics(1);
+        try (Connection c = InstrumentedJdbc.wrap(fakeConnection(), metrics);
+                Statement st = c.createStatement()) {
+            st.execute("SLEEP");
+        }
+        assertEquals(1, metrics.snapshot().get(0).getSlow());
+    }
+
+    public void testAttributesStatementsToTheDaoMethod() {
+        ConnectionPool.Config config = new ConnectionPool.Config();
+        config.minIdle = 0;
+        config.housekeepingIntervalMs = 0;
+        Db.usePool(new ConnectionPool(InstrumentedJdbcTest::fakeConnection, config));
+        try {
+            SqlMetrics.getInstance().reset();
+            assertEquals(7, new CartDao().getCartItemCount(1));
+
+            boolean found = false;
+            for (SqlMetrics.Snapshot s : SqlMetrics.getInstance().snapshot()) {
+                if (s.getCaller().equals("CartDao.getCartItemCount")) {
+                    found = true;
+                    assertEquals(1, s.getExecutions());
+                    assertEquals("Only the rows the DAO read are counted", 1, s.getRows());
+                }
+            }
+            assertTrue("No entry for CartDao.getCartItemCount in " + SqlMetrics.getInstance().report(), found);
+        } finally {
+            Db.usePool(null);
+            SqlMetrics.getInstance().reset();
+        }
+    }
+
+    public void testEmitsDaoCallEvents() throws Exception {
+        List<RecordedEvent> events = record("com.cmpe343.DaoCall", () -> {
+            try (Connection c = InstrumentedJdbc.wrap(fakeConnection(), new SqlMetrics(0));
+                    PreparedStatement ps = c.prepareStatement("SELECT id FROM orders")) {
+                ps.executeQuery().close();
+            }
+        });
+        assertEquals(1, events.size());
+        assertEquals("SELECT id FROM orders", events.get(0).getString("sql"));
+        assertFalse(events.get(0).getBoolean("failed"));
+        assertNotNull(events.get(0).getString("caller"));
+    }
+
+    public void testCreateOrderEmitsCheckoutPhases() throws Exception {
+        ConnectionPool.Config config = new ConnectionPool.Config();
+        config.minIdle = 0;
+        config.housekeepingIntervalMs = 0;
+        Db.usePool(new ConnectionPool(InstrumentedJdbcTest::fakeConnection, config));
+        try {
+            List<CartItem> items = List.of(
+                    new CartItem(new Product(1, "Apple", "FRUIT", 10, 100, 5), 1.5),
+                    new CartItem(new Product(2, "Pear", "FRUIT", 12, 100, 5), 0.5));
+            List<RecordedEvent> events = record("com.cmpe343.CheckoutPhase",
+                    () -> assertEquals(7, new OrderDao().createOrder(5, items, LocalDateTime.now().plusDays(1))));
+
+            List<String> phases = new ArrayList<>();
+            for (RecordedEvent e : events) {
+                phases.add(e.getString("phase"));
+                assertEquals(5, e.getInt("customerId"));
+                assertEquals(7, e.getInt("orderId"));
+                assertEquals(1, e.getInt("attempt"));
+                assertFalse(e.getBoolean("failed"));
+            }
+            assertEquals(List.of(CheckoutPhaseEvent.ORDER_INSERT, CheckoutPhaseEvent.ITEM_INSERT,
+                    CheckoutPhaseEvent.STOCK_DECREMENT, CheckoutPhaseEvent.COMMIT), phases);
+        } finally {
+            Db.usePool(null);
+            SqlMetrics.getInstance().reset();
+        }
+    }
+
+    private interface Work {
+        void run() throws Exception;
+    }
+
+    /**
+     * @return the events of type {@code name} committed while {@code work} ran, oldest first
+     */
+    private static List<RecordedEvent> record(String name, Work work) throws Exception {
+        Path file = Files.createTempFile("instrumented-jdbc", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable(name).withThreshold(Duration.ZERO);
+            recording.start();
+            work.run();
+            recording.stop();
+            recording.dump(file);
+            List<RecordedEvent> events = new ArrayList<>(RecordingFile.readAllEvents(file));
+            events.removeIf(e -> !e.getEventType().getName().equals(name));
+            events.sort(Comparator.comparing(RecordedEvent::getStartTime));
+            return events;
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private static Connection fakeConnection() {
+        return proxy(Connection.class, (p, m, args) -> switch (m.getName()) {
+            case "isValid" -> true;
+            case "createStatement", "prepareStatement" -> fakeStatement(m.getReturnType());
+            default -> defaultValue(m);
+        });
+    }
+
+    private static Object fakeStatement(Class<?> type) {
+        int[] batched = { 0 };
+        return proxy(type, (p, m, args) -> switch (m.getName()) {
+            case "executeQuery", "getGeneratedKeys" -> fakeResultSet();
+            case "addBatch" -> {
+                batched[0]++;
+                yield null;
+            }
+            case "executeBatch" -> {
+                int[] counts = new int[batched[0]];
+                java.util.Arrays.fill(counts, 1);
+                batched[0] = 0;
+                yield counts;
+            }
+            case "executeUpdate", "execute" -> {
+                if (args != null && "FAIL".equals(args[0])) {
+                    throw new SQLException("fake failure");
+                }
+                if (args != null && "SLEEP".equals(args[0])) {
+                    Thread.sleep(5);
+                }
+                yield defaultValue(m);
+            }
+            default -> defaultValue(m);
+        });
+    }
+
+    private static ResultSet fakeResultSet() {
+        int[] left = { ROWS };
+        ResultSetMetaData md = proxy(ResultSetMetaData.class, (p, m, args) -> switch (m.getName()) {
+            case "getColumnCount" -> 2;
+            case "getColumnType" -> (Integer) args[0] == 1 ? Types.INTEGER : Types.LONGVARCHAR;
+            default -> defaultValue(m);
+        });
+        return proxy(ResultSet.class, (p, m, args) -> switch (m.getName()) {
+            case "next" -> left[0]-- > 0;
+            case "getInt" -> 7;
+            case "getString" -> "hello";
+            case "getBytes" -> new byte[10];
+            case "getMetaData" -> md;
+            case "findColumn" -> "id".equals(args[0]) ? 1 : 2;
+            default -> defaultValue(m);
+        });
+    }
+
+    private static Object defaultValue(Method m) {
+        Class<?> type = m.getReturnType();
+        if (type == boolean.class) return false;
+        if (type == int.class) return 0;
+        if (type == long.class) return 0L;
+        if (type == double.class) return 0.0;
+        return null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(InstrumentedJdbcTest.class.getClassLoader(), new Class<?>[] { type }, handler);
+    }
+}
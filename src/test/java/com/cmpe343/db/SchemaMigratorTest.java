@@ -0,0 +1,36 @@
+package com.cmpe343.db;
+
+import junit.framework.TestCase;
+
+import java.util.List;
+
+public class SchemaMigratorTest extends TestCase {
+
+    public void testVersionsAreSequentialAndScriptsExist() {
+        int expected = 1;
+        for (SchemaMigrator.Migration m : SchemaMigrator.MIGRATIONS) {
+            assertEquals(expected++, m.version);
+            String script = SchemaMigrator.readScript(m);
+            assertFalse(m.resource + " has no statements", SchemaMigrator.splitStatements(script).isEmpty());
+            assertFalse(m.resource + " must not switch databases", script.contains("USE "));
+        }
+    }
+
+    public void testSplitStatementsSkipsCommentsAndBlankLines() {
+        String script = """
+                -- header comment
+                CREATE INDEX a ON t (x);
+
+                -- explain the next one
+                ALTER TABLE t
+                  ADD COLUMN y INT;
+                ;
+                INSERT INTO t VALUES (1)
+                """;
+        List<String> statements = SchemaMigrator.splitStatements(script);
+        assertEquals(3, statements.size());
+        assertEquals("CREATE INDEX a ON t (x)", statements.get(0));
+        assertEquals("ALTER TABLE t\nADD COLUMN y INT", statements.get(1));
+        assertEquals("INSERT INTO t VALUES (1)", statements.get(2));
+    }
+}
@@ -0,0 +1,101 @@
+package com.cmpe343.db;
+
+import junit.framework.TestCase;
+
+import java.sql.SQLException;
+import java.sql.SQLTransactionRollbackException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Unit tests for {@link TransactionRetry} with a recording sleeper instead of real delays.
+ */
+public class TransactionRetryTest extends TestCase {
+
+    private final List<Long> sleeps = new ArrayList<>();
+
+    private TransactionRetry retry(int maxAttempts) {
+        return new TransactionRetry(maxAttempts, 20, 100, sleeps::add);
+    }
+
+    private static SQLException deadlock() {
+        return new SQLTransactionRollbackException("Deadlock found when trying to get lock", "40001", 1213);
+    }
+
+    public void testClassifiesMySqlLockErrorsThroughWrappers() {
+        assertEquals(TransactionRetry.Failure.DEADLOCK,
+                TransactionRetry.classify(new RuntimeException("wrapped", deadlock())));
+        assertEquals(TransactionRetry.Failure.LOCK_WAIT_TIMEOUT,
+                TransactionRetry.classify(new SQLException("Lock wait timeout exceeded", "HY000", 1205)));
+        assertEquals(TransactionRetry.Failure.SERIALIZATION,
+                TransactionRetry.classify(new SQLException("serialization failure", "40001", 0)));
+        assertEquals(TransactionRetry.Failure.OTHER,
+                TransactionRetry.classify(new SQLException("Duplicate entry", "23000", 1062)));
+        assertEquals(TransactionRetry.Failure.OTHER, TransactionRetry.classify(new IllegalStateException()));
+    }
+
+    public void testRetriesDeadlockUntilItSucceeds() throws Exception {
+        TransactionRetry retry = retry(4);
+        AtomicInteger calls = new AtomicInteger();
+
+        int result = retry.run("test", () -> {
+            if (calls.incrementAndGet() < 3) {
+                throw deadlock();
+            }
+            return 42;
+        });
+
+        assertEquals(42, result);
+        assertEquals(3, calls.get());
+        assertEquals(2, sleeps.size());
+        assertTrue(sleeps.get(0) >= 0 && sleeps.get(0) <= 20);
+        assertTrue(sleeps.get(1) >= 0 && sleeps.get(1) <= 40);
+        TransactionRetry.Stats stats = retry.stats();
+        assertEquals(1, stats.getTransactions());
+        assertEquals(2, stats.getRetries());
+        assertEquals(2, stats.getDeadlocks());
+        assertEquals(0, stats.getExhausted());
+    }
+
+    public void testOtherErrorsAreNotRetried() {
+        TransactionRetry retry = retry(4);
+        AtomicInteger calls = new AtomicInteger();
+        try {
+            retry.run("test", () -> {
+                calls.incrementAndGet();
+                throw new RuntimeException("Insufficient stock: Tomato");
+            });
+            fail("Expected the work's exception");
+        } catch (Exception e) {
+            assertEquals("Insufficient stock: Tomato", e.getMessage());
+        }
+        assertEquals(1, calls.get());
+        assertTrue(sleeps.isEmpty());
+    }
+
+    public void testGivesUpAfterMaxAttempts() {
+        TransactionRetry retry = retry(3);
+        AtomicInteger calls = new AtomicInteger();
+        try {
+            retry.run("test", () -> {
+                calls.incrementAndGet();
+                throw new SQLException("Lock wait timeout exceeded", "HY000", 1205);
+            });
+            fail("Expected the last lock error");
+        } catch (Exception e) {
+            assertEquals(1205, ((SQLException) e).getErrorCode());
+        }
+        assertEquals(3, calls.get());
+        assertEquals(3, retry.stats().getLockWaitTimeouts());
+        assertEquals(1, retry.stats().getExhausted());
+    }
+
+    public void testBackoffIsCapped() {
+        TransactionRetry retry = retry(10);
+        for (int attempt = 1; attempt <= 30; attempt++) {
+            long delay = retry.backoffMillis(attempt);
+            assertTrue(delay >= 0 && delay <= 100);
+        }
+    }
+}
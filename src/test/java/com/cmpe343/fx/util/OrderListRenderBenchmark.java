@@ -0,0 +1,161 @@
+package com.cmpe343.fx.util;
+
+import com.cmpe343.model.Order;
+import javafx.application.Platform;
+import javafx.scene.Node;
+import javafx.scene.Parent;
+import javafx.scene.Scene;
+import javafx.scene.control.Label;
+import javafx.scene.control.ScrollPane;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.Priority;
+import javafx.scene.layout.Region;
+import javafx.scene.layout.VBox;
+import javafx.stage.Stage;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Compares rendering an order list the old way (one HBox of Labels per order in a VBox
+ * inside a ScrollPane) with {@link OrderListView}, at 10k and 100k orders.
+ * <p>
+ * Not a unit test: it needs a display and is run manually, e.g.
+ * {@code mvn test-compile exec:java -Dexec.mainClass=com.cmpe343.fx.util.OrderListRenderBenchmark -Dexec.classpathScope=test}.
+ * Each run builds the list, then forces CSS and layout the way the first pulse would, and
+ * reports the time and the number of nodes in the scene. The legacy path is skipped above
+ * {@code -Dbench.legacyMax} orders (default 100000) since it can take minutes.
+ */
+public class OrderListRenderBenchmark {
+
+    private static final int[] SIZES = { 10_000, 100_000 };
+
+    public static void main(String[] args) throws Exception {
+        int legacyMax = Integer.getInteger("bench.legacyMax", 100_000);
+        CountDownLatch started = new CountDownLatch(1);
+        Platform.startup(started::countDown);
+        started.await();
+
+        CountDownLatch done = new CountDownLatch(1);
+        Platform.runLater(() -> {
+            try {
+                Stage stage = new Stage();
+                stage.setScene(new Scene(new VBox(), 800, 600));
+                stage.show();
+
+                System.out.printf("%-10s %-12s %12s %12s%n", "orders", "path", "ms", "nodes");
+                for (int size : SIZES) {
+                    List<Order> orders = syntheticOrders(size);
+                    if (size <= legacyMax) {
+                        report(size, "vbox", measure(stage, () -> legacyList(orders)));
+                    }
+                    report(size, "listview", measure(stage, () -> virtualList(orders)));
+                }
+                stage.close();
+            } finally {
+                done.countDown();
+            }
+        });
+        done.await();
+        Platform.exit();
+    }
+
+    private static Parent legacyList(List<Order> orders) {
+        VBox container = new VBox(3);
+        for (Order o : orders) {
+            HBox item = new HBox(10);
+            Label id = new Label("#" + o.getId());
+            Label status = new Label(o.getStatus().name());
+            Label date = new Label(o.getOrderTime().toString());
+            Region spacer = new Region();
+            HBox.setHgrow(spacer, Priority.ALWAYS);
+            Label total = new Label(String.format("%.2f TL", o.getTotalAfterTax()));
+            item.getChildren().addAll(id, status, date, spacer, total);
+            container.getChildren().add(item);
+        }
+        ScrollPane scroll = new ScrollPane(container);
+        scroll.setFitToWidth(true);
+        return scroll;
+    }
+
+    private static Parent virtualList(List<Order> orders) {
+        VBox container = new VBox();
+        OrderListView list = new OrderListView(BenchRow::new, "No orders", order -> { });
+        list.show(container, orders, orders.get(orders.size() / 2).getId());
+        return container;
+    }
+
+    /** Same labels as the legacy row, reused across orders. */
+    private static class BenchRow implements OrderListView.Row {
+        private final Label id = new Label();
+        private final Label status = new Label();
+        private final Label date = new Label();
+        private final Label total = new Label();
+        private final HBox item;
+
+        BenchRow() {
+            Region spacer = new Region();
+            HBox.setHgrow(spacer, Priority.ALWAYS);
+            item = new HBox(10, id, status, date, spacer, total);
+        }
+
+        @Override
+        public Node getNode() {
+            return item;
+        }
+
+        @Override
+        public void bind(Order o) {
+            id.setText("#" + o.getId());
+            status.setText(o.getStatus().name());
+            date.setText(o.getOrderTime().toString());
+            total.setText(String.format("%.2f TL", o.getTotalAfterTax()));
+        }
+    }
+
+    private interface Builder {
+        Parent build();
+    }
+
+    /**
+     * @return elapsed milliseconds and node count
+     */
+    private static long[] measure(Stage stage, Builder builder) {
+        System.gc();
+        long start = System.nanoTime();
+        Parent root = builder.build();
+        stage.getScene().setRoot(root);
+        root.applyCss();
+        root.layout();
+        long elapsed = (System.nanoTime() - start) / 1_000_000;
+        return new long[] { elapsed, countNodes(root) };
+    }
+
+    private static long countNodes(Node node) {
+        long count = 1;
+        if (node instanceof Parent parent) {
+            for (Node child : parent.getChildrenUnmodifiable()) {
+                count += countNodes(child);
+            }
+        }
+        return count;
+    }
+
+    private static void report(int size, String path, long[] result) {
+        System.out.printf("%-10d %-12s %12d %12d%n", size, path, result[0], result[1]);
+    }
+
+    private static List<Order> syntheticOrders(int count) {
+        Order.OrderStatus[] statuses = Order.OrderStatus.values();
+        LocalDateTime base = LocalDateTime.of(2025, 1, 1, 9, 0);
+        List<Order> orders = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            double net = 50 + (i % 400);
+            orders.add(new Order(i, 1 + i % 50, null, statuses[i % statuses.length],
+                    base.plusMinutes(i), null, null, net, net * 0.2, net * 1.2));
+        }
+        return orders;
+    }
+}
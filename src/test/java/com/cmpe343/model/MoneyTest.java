@@ -0,0 +1,78 @@
+package com.cmpe343.model;
+
+import junit.framework.TestCase;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Unit tests for {@link Money} and the pricing rules built on it.
+ */
+public class MoneyTest extends TestCase {
+
+    public void testDivideMatchesBigDecimal() {
+        SplittableRandom random = new SplittableRandom(42);
+        for (int i = 0; i < 20_000; i++) {
+            long dividend = random.nextLong(-1_000_000, 1_000_000);
+            long divisor = random.nextInt(1, 2_000) * (random.nextBoolean() ? 1 : -1);
+            for (RoundingMode mode : RoundingMode.values()) {
+                if (mode == RoundingMode.UNNECESSARY) {
+                    continue;
+                }
+                long expected = BigDecimal.valueOf(dividend).divide(BigDecimal.valueOf(divisor), 0, mode).longValueExact();
+                assertEquals(dividend + "/" + divisor + " " + mode, expected, Money.divide(dividend, divisor, mode));
+            }
+        }
+        try {
+            Money.divide(5, 2, RoundingMode.UNNECESSARY);
+            fail("5/2 is inexact");
+        } catch (ArithmeticException expected) {
+        }
+    }
+
+    public void testTwoDecimalValuesConvertExactly() {
+        for (long kurus = -100_000; kurus <= 100_000; kurus++) {
+            assertEquals(kurus, Money.toKurus(kurus / 100.0));
+        }
+        assertEquals(1_999_999_999_99L, Money.toKurus(1999999999.99));
+        assertEquals(-5, Money.toKurus(-0.045));
+        assertEquals(Money.ofKurus(123), Money.of(new BigDecimal("1.225"), RoundingMode.HALF_EVEN).plus(Money.ofKurus(1)));
+    }
+
+    public void testLineTotalsRoundOnce() {
+        // 2.67 ₺/kg * 5.01 kg = 13.3767 ₺, rounded once
+        assertEquals(1_338, Money.lineTotalKurus(267, 5.01));
+        assertEquals(Money.of(13.38), Money.of(2.67).timesKg(5.01));
+        assertEquals(4_995, Money.lineTotalKurus(1_998, 2.5));
+        assertEquals(1, Money.lineTotalKurus(1, 0.5));
+    }
+
+    public void testVatAndTotalsAddUp() {
+        Money net = Money.of(0.1).plus(Money.of(0.2));
+        assertEquals(Money.of(0.3), net);
+        assertEquals(Money.of(0.06), net.vat());
+        assertEquals("0.36 ₺", net.plus(net.vat()).format());
+        assertEquals("-1234.05 ₺", Money.format(-123_405));
+        assertEquals(new BigDecimal("12.50"), Money.of(12.5).toBigDecimal());
+    }
+
+    public void testCouponDiscounts() {
+        Coupon percent = new Coupon(1, "P", Coupon.CouponKind.PERCENT, 12.5, 50, true, null);
+        Coupon amount = new Coupon(2, "A", Coupon.CouponKind.AMOUNT, 30, 0, true, null);
+        assertEquals(Money.ZERO, percent.calculateDiscount(Money.of(49.99)));
+        assertEquals(Money.of(12.35), percent.calculateDiscount(Money.of(98.76)));
+        assertEquals(Money.of(20), amount.calculateDiscount(Money.of(20)));
+        assertEquals(30.0, amount.calculateDiscount(120.0));
+    }
+
+    public void testSubtotalUsesHistoricalLineTotals() {
+        Product p = new Product(1, "Apple", Product.ProductType.FRUIT, 19.99, 100, 5);
+        List<CartItem> items = List.of(
+                new CartItem(p, 1.5),
+                new CartItem(p, 2, Money.of(10), Money.of(20)));
+        assertEquals(2_999 + 2_000, CartItem.subtotalKurus(items));
+        assertEquals(29.99, items.get(0).getLineTotal());
+    }
+}
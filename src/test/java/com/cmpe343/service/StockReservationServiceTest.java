@@ -0,0 +1,224 @@
+package com.cmpe343.service;
+
+import junit.framework.TestCase;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Unit tests for {@link StockReservationService} against an in-memory "database" whose
+ * guarded decrement behaves like {@code UPDATE products SET stock_kg = stock_kg - ? WHERE stock_kg >= ?}.
+ */
+public class StockReservationServiceTest extends TestCase {
+
+    private static final int CHECKOUTS = 500;
+    private static final int HOT_PRODUCT = 1;
+
+    private final Map<Integer, Long> dbStock = new ConcurrentHashMap<>();
+    private final AtomicLong now = new AtomicLong();
+
+    private Map<Integer, Long> load(Collection<Integer> ids) {
+        Map<Integer, Long> result = new HashMap<>();
+        for (Integer id : ids) {
+            Long grams = dbStock.get(id);
+            if (grams != null) {
+                result.put(id, grams);
+            }
+        }
+        return result;
+    }
+
+    /** The order transaction: all decrements or none, each guarded by stock >= quantity. */
+    private synchronized boolean commitToDb(Map<Integer, Long> grams) {
+        for (Map.Entry<Integer, Long> g : grams.entrySet()) {
+            if (dbStock.get(g.getKey()) < g.getValue()) {
+                return false;
+            }
+        }
+        grams.forEach((id, g) -> dbStock.merge(id, -g, Long::sum));
+        return true;
+    }
+
+    public void testConcurrentCheckoutsNeverOversell() throws Exception {
+        dbStock.put(HOT_PRODUCT, 50_000L);
+        for (int id = 2; id <= 6; id++) {
+            dbStock.put(id, 200_000L);
+        }
+        Map<Integer, Long> initial = new HashMap<>(dbStock);
+        StockReservationService service = new StockReservationService(this::load, 60, TimeUnit.SECONDS, System::nanoTime);
+
+        AtomicInteger confirmed = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        AtomicInteger guardFailures = new AtomicInteger();
+        Map<Integer, AtomicLong> sold = new ConcurrentHashMap<>();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Throwable> errors = new ArrayList<>();
+
+        try (ExecutorService pool = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < CHECKOUTS; i++) {
+                SplittableRandom random = new SplittableRandom(i);
+                pool.submit(() -> {
+                    try {
+                        // Every cart has the hot product plus up to two others, 0.5-3 kg each
+                        Map<Integer, Long> cart = new HashMap<>();
+                        cart.put(HOT_PRODUCT, 500L * random.nextInt(1, 7));
+                        for (int n = random.nextInt(3); n > 0; n--) {
+                            cart.put(random.nextInt(2, 7), 500L * random.nextInt(1, 7));
+                        }
+                        start.await();
+
+                        StockReservationService.Reservation r;
+                        try {
+                            r = service.reserve(cart, id -> "product " + id);
+                        } catch (IllegalStateException e) {
+                            rejected.incrementAndGet();
+                            return;
+                        }
+                        if (random.nextInt(5) == 0) {
+                            service.release(r); // abandoned checkout
+                        } else if (commitToDb(r.getGramsByProduct())) {
+                            service.confirm(r);
+                            confirmed.incrementAndGet();
+                            r.getGramsByProduct().forEach((id, g) -> sold.computeIfAbsent(id, k -> new AtomicLong()).addAndGet(g));
+                        } else {
+                            guardFailures.incrementAndGet();
+                            service.release(r);
+                        }
+                    } catch (Throwable t) {
+                        synchronized (errors) {
+                            errors.add(t);
+                        }
+                    }
+                });
+            }
+            start.countDown();
+        }
+
+        assertTrue("Unexpected errors: " + errors, errors.isEmpty());
+        assertEquals("The database guard had to stop a checkout the reservations let through", 0, guardFailures.get());
+        assertTrue(confirmed.get() > 0);
+        assertTrue("Demand exceeds the hot product's stock, so some checkouts must be rejected", rejected.get() > 0);
+        for (Map.Entry<Integer, Long> e : initial.entrySet()) {
+            long left = dbStock.get(e.getKey());
+            long soldGrams = sold.containsKey(e.getKey()) ? sold.get(e.getKey()).get() : 0;
+            assertTrue("Oversold product " + e.getKey(), left >= 0);
+            assertEquals(e.getValue() - soldGrams, left);
+            assertEquals(0, service.heldGrams(e.getKey()));
+        }
+    }
+
+    public void testFailedReservationHoldsNothing() {
+        dbStock.put(1, 5_000L);
+        dbStock.put(2, 1_000L);
+        StockReservationService service = new StockReservationService(this::load, 60, TimeUnit.SECONDS, now::get);
+
+        try {
+            service.reserve(Map.of(1, 2_000L, 2, 1_500L), id -> "product " + id);
+            fail("Expected insufficient stock");
+        } catch (IllegalStateException e) {
+            assertEquals("Insufficient stock: product 2", e.getMessage());
+        }
+        assertEquals(0, service.heldGrams(1));
+        assertNotNull(service.reserve(Map.of(1, 5_000L), id -> "product " + id));
+    }
+
+    public void testExpiredHoldsReturnStock() {
+        dbStock.put(1, 2_000L);
+        StockReservationService service = new StockReservationService(this::load, 60, TimeUnit.SECONDS, now::get);
+
+        service.reserve(Map.of(1, 2_000L), id -> "product " + id);
+        try {
+            service.reserve(Map.of(1, 500L), id -> "product " + id);
+            fail("Stock is fully held");
+        } catch (IllegalStateException expected) {
+        }
+
+        now.addAndGet(TimeUnit.SECONDS.toNanos(61));
+        assertEquals(0, service.heldGrams(1));
+        assertNotNull(service.reserve(Map.of(1, 500L), id -> "product " + id));
+    }
+
+    public void testReloadBetweenCommitAndConfirmDoesNotDoubleCount() {
+        dbStock.put(1, 2_000L);
+        StockReservationService service = new StockReservationService(this::load, 60, TimeUnit.SECONDS, now::get);
+
+        StockReservationService.Reservation first = service.reserve(Map.of(1, 1_000L), id -> "product " + id);
+        assertTrue(commitToDb(first.getGramsByProduct()));
+        // The database already shows 1,000 g while the first hold still counts
+        try {
+            service.reserve(Map.of(1, 1_000L), id -> "product " + id);
+            fail("An unconfirmed order is counted in both the reload and the holds");
+        } catch (IllegalStateException expected) {
+        }
+        service.confirm(first);
+        StockReservationService.Reservation second = service.reserve(Map.of(1, 1_000L), id -> "product " + id);
+        assertTrue(commitToDb(second.getGramsByProduct()));
+        service.confirm(second);
+        assertEquals(0L, (long) dbStock.get(1));
+        assertEquals(0, service.heldGrams(1));
+    }
+
+    public void testRestockIsSeenWhileHoldsAreLive() {
+        dbStock.put(1, 1_000L);
+        StockReservationService service = new StockReservationService(this::load, 60, TimeUnit.SECONDS, now::get);
+
+        service.reserve(Map.of(1, 1_000L), id -> "product " + id);
+        // The owner restocks while that checkout is still writing its order
+        dbStock.put(1, 5_000L);
+        service.invalidate(1);
+        assertNotNull(service.reserve(Map.of(1, 4_000L), id -> "product " + id));
+        assertEquals(5_000, service.heldGrams(1));
+    }
+
+    public void testLateConfirmOfExpiredHoldDoesNotDecrementTwice() {
+        dbStock.put(1, 2_000L);
+        AtomicReference<Runnable> duringLoad = new AtomicReference<>();
+        StockReservationService service = new StockReservationService(ids -> {
+            Runnable r = duringLoad.getAndSet(null);
+            if (r != null) {
+                r.run();
+            }
+            return load(ids);
+        }, 60, TimeUnit.SECONDS, now::get);
+
+        StockReservationService.Reservation slow = service.reserve(Map.of(1, 1_000L), id -> "product " + id);
+        assertTrue(commitToDb(slow.getGramsByProduct()));
+        // The hold expires before the slow checkout confirms, and a reload picks up its decrement
+        now.addAndGet(TimeUnit.SECONDS.toNanos(61));
+        StockReservationService.Reservation other = service.reserve(Map.of(1, 500L), id -> "product " + id);
+        service.confirm(slow);
+        assertTrue(commitToDb(other.getGramsByProduct()));
+
+        // A confirm racing with the next reload makes it fall back on the in-memory stock
+        duringLoad.set(() -> service.confirm(other));
+        assertNotNull(service.reserve(Map.of(1, 500L), id -> "product " + id));
+        assertEquals(500L, (long) dbStock.get(1));
+    }
+
+    public void testConfirmKeepsStockUntilNextReload() {
+        dbStock.put(1, 2_000L);
+        StockReservationService service = new StockReservationService(this::load, 60, TimeUnit.SECONDS, now::get);
+
+        StockReservationService.Reservation r = service.reserve(Map.of(1, 1_500L), id -> "product " + id);
+        assertTrue(commitToDb(r.getGramsByProduct()));
+        service.confirm(r);
+        assertEquals(0, service.heldGrams(1));
+        try {
+            service.reserve(Map.of(1, 1_000L), id -> "product " + id);
+            fail("Only 500 g are left");
+        } catch (IllegalStateException expected) {
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.cmpe343.util;
+
+import junit.framework.TestCase;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Unit tests for {@link LatencyHistogram}.
+ */
+public class LatencyHistogramTest extends TestCase {
+
+    public void testBucketsAreContiguous() {
+        assertEquals(0, LatencyHistogram.bucket(0));
+        assertEquals(63, LatencyHistogram.bucket(63));
+        assertEquals(64, LatencyHistogram.bucket(64));
+        assertEquals(64, LatencyHistogram.bucket(65));
+        assertEquals(95, LatencyHistogram.bucket(127));
+        assertEquals(96, LatencyHistogram.bucket(128));
+        int previous = LatencyHistogram.bucket(Long.MAX_VALUE / 3);
+        assertTrue(LatencyHistogram.bucket(Long.MAX_VALUE) >= previous);
+        for (long v = 1; v < 1_000_000; v = v * 3 / 2 + 1) {
+            assertTrue(LatencyHistogram.bucket(v) >= LatencyHistogram.bucket(v - 1));
+            assertTrue(LatencyHistogram.bucket(v) - LatencyHistogram.bucket(v - 1) <= 1);
+        }
+    }
+
+    public void testPercentilesWithinPrecision() {
+        LatencyHistogram h = new LatencyHistogram();
+        for (long ms = 1; ms <= 1_000; ms++) {
+            h.record(ms * 1_000_000);
+        }
+        assertEquals(1_000, h.count());
+        assertClose(500_000_000, h.percentileNanos(50));
+        assertClose(950_000_000, h.percentileNanos(95));
+        assertClose(990_000_000, h.percentileNanos(99));
+        assertEquals(1_000_000_000, h.percentileNanos(100));
+        assertEquals(1_000_000_000, h.maxNanos());
+        assertClose(500_500_000, (long) h.meanNanos());
+    }
+
+    public void testConcurrentRecordingAndMerge() throws Exception {
+        LatencyHistogram h = new LatencyHistogram();
+        try (ExecutorService pool = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int t = 0; t < 8; t++) {
+                SplittableRandom random = new SplittableRandom(t);
+                pool.submit(() -> {
+                    for (int i = 0; i < 10_000; i++) {
+                        h.record(random.nextLong(1_000, 5_000_000));
+                    }
+                });
+            }
+        }
+        assertEquals(80_000, h.count());
+
+        LatencyHistogram total = new LatencyHistogram();
+        total.add(h);
+        total.add(h);
+        assertEquals(160_000, total.count());
+        assertEquals(h.percentileNanos(99), total.percentileNanos(99));
+
+        total.reset();
+        assertEquals(0, total.count());
+        assertEquals(0, total.percentileNanos(50));
+    }
+
+    private static void assertClose(long expected, long actual) {
+        assertTrue("expected ~" + expected + " but was " + actual, Math.abs(actual - expected) <= expected * 0.035);
+    }
+}